@@ -18,7 +18,9 @@ import de.jplag.cli.logger.CollectedLoggerFactory;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.Preprocessing;
 import de.jplag.exceptions.ExitException;
+import de.jplag.options.CandidateFilterOptions;
 import de.jplag.options.JPlagOptions;
+import de.jplag.options.TokenCacheOptions;
 import de.jplag.reporting.reportobject.ReportObjectFactory;
 
 import net.sourceforge.argparse4j.ArgumentParsers;
@@ -62,9 +64,10 @@ public final class CLI {
             JPlagOptions options = cli.buildOptionsFromArguments(arguments);
             JPlag jplag = new JPlag(options);
             logger.debug("JPlag initialized");
-            JPlagResult result = jplag.run();
-            ReportObjectFactory reportObjectFactory = new ReportObjectFactory();
-            reportObjectFactory.createAndSaveReport(result, arguments.getString(RESULT_FOLDER.flagWithoutDash()));
+            try (JPlagResult result = jplag.run()) { // closed after the report copied the submission files
+                ReportObjectFactory reportObjectFactory = new ReportObjectFactory(Boolean.TRUE.equals(BINARY_COMPARISONS.getFrom(arguments)));
+                reportObjectFactory.createAndSaveReport(result, arguments.getString(RESULT_FOLDER.flagWithoutDash()));
+            }
         } catch (ExitException exception) {
             logger.error(exception.getMessage()); // do not pass exception here to keep log clean
             finalizeLogger();
@@ -132,7 +135,8 @@ public final class CLI {
         JPlagOptions options = new JPlagOptions(language, MIN_TOKEN_MATCH.getFrom(namespace), submissionDirectories, oldSubmissionDirectories, null,
                 SUBDIRECTORY.getFrom(namespace), Arrays.stream(fileSuffixes).toList(), EXCLUDE_FILE.getFrom(namespace),
                 JPlagOptions.DEFAULT_SIMILARITY_METRIC, SIMILARITY_THRESHOLD.getFrom(namespace), SHOWN_COMPARISONS.getFrom(namespace),
-                clusteringOptions, DEBUG.getFrom(namespace), BLACKLIST_FILE.getFrom(namespace));
+                clusteringOptions, DEBUG.getFrom(namespace), BLACKLIST_FILE.getFrom(namespace), getCandidateFilterOptions(namespace),
+                getTokenCacheOptions(namespace), getCorpusIndexDirectory(namespace));
 
         String baseCodePath = BASE_CODE.getFrom(namespace);
         File baseCodeDirectory = baseCodePath == null ? null : new File(baseCodePath);
@@ -195,6 +199,44 @@ public final class CLI {
         return clusteringOptions;
     }
 
+    private static CandidateFilterOptions getCandidateFilterOptions(Namespace namespace) {
+        CandidateFilterOptions candidateFilterOptions = new CandidateFilterOptions();
+        if (CANDIDATE_FILTER.isSet(namespace)) {
+            candidateFilterOptions = candidateFilterOptions.withEnabled(CANDIDATE_FILTER.getFrom(namespace));
+        }
+        if (CANDIDATE_FILTER_K_GRAM_LENGTH.isSet(namespace)) {
+            candidateFilterOptions = candidateFilterOptions.withKGramLength(CANDIDATE_FILTER_K_GRAM_LENGTH.getFrom(namespace));
+        }
+        if (CANDIDATE_FILTER_BANDS.isSet(namespace)) {
+            candidateFilterOptions = candidateFilterOptions.withNumberOfBands(CANDIDATE_FILTER_BANDS.getFrom(namespace));
+        }
+        if (CANDIDATE_FILTER_ROWS.isSet(namespace)) {
+            candidateFilterOptions = candidateFilterOptions.withRowsPerBand(CANDIDATE_FILTER_ROWS.getFrom(namespace));
+        }
+        if (CANDIDATE_FILTER_BUCKET_SIZE.isSet(namespace)) {
+            candidateFilterOptions = candidateFilterOptions.withMaximumBucketSize(CANDIDATE_FILTER_BUCKET_SIZE.getFrom(namespace));
+        }
+        return candidateFilterOptions;
+    }
+
+    private static TokenCacheOptions getTokenCacheOptions(Namespace namespace) {
+        TokenCacheOptions tokenCacheOptions = new TokenCacheOptions();
+        if (TOKEN_CACHE.isSet(namespace)) {
+            String tokenCacheDirectory = TOKEN_CACHE.getFrom(namespace);
+            tokenCacheOptions = tokenCacheOptions.withDirectory(new File(tokenCacheDirectory));
+        }
+        if (TOKEN_CACHE_SIZE.isSet(namespace)) {
+            long maximumSizeInMiB = TOKEN_CACHE_SIZE.getFrom(namespace);
+            tokenCacheOptions = tokenCacheOptions.withMaximumSize(maximumSizeInMiB * 1024 * 1024);
+        }
+        return tokenCacheOptions;
+    }
+
+    private static File getCorpusIndexDirectory(Namespace namespace) {
+        String corpusIndexDirectory = CORPUS_INDEX.getFrom(namespace);
+        return corpusIndexDirectory == null ? null : new File(corpusIndexDirectory);
+    }
+
     private String generateDescription() {
         var randomDescription = DESCRIPTIONS[RANDOM.nextInt(DESCRIPTIONS.length)];
         return String.format("JPlag - %s%n%n%s", randomDescription, CREDITS);
@@ -18,7 +18,9 @@ import de.jplag.NumberOfArgumentValues;
 import de.jplag.clustering.ClusteringAlgorithm;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.algorithm.InterClusterSimilarity;
+import de.jplag.options.CandidateFilterOptions;
 import de.jplag.options.SimilarityMetric;
+import de.jplag.options.TokenCacheOptions;
 
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.Argument;
@@ -80,7 +82,25 @@ public enum CommandLineArgument {
     CLUSTER_PREPROCESSING_NONE(new Builder("--cluster-pp-none", Boolean.class).action(Arguments.storeTrue()).hidden()),
     CLUSTER_PREPROCESSING_CDF(new Builder("--cluster-pp-cdf", Boolean.class).action(Arguments.storeTrue()).hidden()),
     CLUSTER_PREPROCESSING_PERCENTILE(new Builder("--cluster-pp-percentile", Double.class).metaVar("percentile").hidden()),
-    CLUSTER_PREPROCESSING_THRESHOLD(new Builder("--cluster-pp-threshold", Double.class).metaVar("threshold").hidden());
+    CLUSTER_PREPROCESSING_THRESHOLD(new Builder("--cluster-pp-threshold", Double.class).metaVar("threshold").hidden()),
+    CANDIDATE_FILTER(new Builder("--candidate-filter", Boolean.class).argumentGroup(ADVANCED_GROUP).action(Arguments.storeTrue())),
+    CANDIDATE_FILTER_K_GRAM_LENGTH(
+            new Builder("--candidate-filter-k-gram-length", Integer.class).metaVar("length")
+                    .defaultsTo(new CandidateFilterOptions().kGramLength()).hidden()),
+    CANDIDATE_FILTER_BANDS(
+            new Builder("--candidate-filter-bands", Integer.class).metaVar("bands").defaultsTo(new CandidateFilterOptions().numberOfBands())
+                    .hidden()),
+    CANDIDATE_FILTER_ROWS(
+            new Builder("--candidate-filter-rows", Integer.class).metaVar("rows").defaultsTo(new CandidateFilterOptions().rowsPerBand()).hidden()),
+    CANDIDATE_FILTER_BUCKET_SIZE(
+            new Builder("--candidate-filter-bucket-size", Integer.class).metaVar("size")
+                    .defaultsTo(new CandidateFilterOptions().maximumBucketSize()).hidden()),
+    TOKEN_CACHE(new Builder("--token-cache", String.class).metaVar("directory").argumentGroup(ADVANCED_GROUP)),
+    TOKEN_CACHE_SIZE(
+            new Builder("--token-cache-size", Long.class).metaVar("MiB").defaultsTo(new TokenCacheOptions().maximumSize() / (1024 * 1024))
+                    .argumentGroup(ADVANCED_GROUP)),
+    CORPUS_INDEX(new Builder("--corpus-index", String.class).metaVar("directory").argumentGroup(ADVANCED_GROUP)),
+    BINARY_COMPARISONS(new Builder("--binary-comparisons", Boolean.class).argumentGroup(ADVANCED_GROUP).action(Arguments.storeTrue()));
 
     /**
      * The identifier of the default {@link Language}.
@@ -0,0 +1,370 @@
+package de.jplag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Persistent index of the submissions of previous runs, see {@link JPlagOptions#corpusIndexDirectory()}. For each
+ * submission, the index stores its name, root, files, and tokens, such that later runs compare their new submissions
+ * against the indexed submissions without parsing them again. The files of indexed submissions are only referenced,
+ * thus they are only part of a report while they exist. An indexed submission is only reused while the contents of its
+ * files are unchanged. The stored submissions are discarded if the language or its version changes. Once the index
+ * holds more than its maximum number of submissions, the least recently stored or restored ones are evicted, and
+ * submissions can be removed explicitly via {@link #remove(File)}.
+ */
+public final class CorpusIndex {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusIndex.class);
+
+    private static final String MANIFEST_FILE = "index.properties";
+    private static final String SUBMISSIONS_DIRECTORY = "submissions";
+    private static final String ENTRY_SUFFIX = ".submission";
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Default maximum number of indexed submissions.
+     */
+    public static final int DEFAULT_MAXIMUM_SUBMISSIONS = 10000;
+
+    private final Path directory;
+    private final Path submissionsDirectory;
+    private final Language language;
+    private final int maximumSubmissions;
+    private final Set<File> restoredRoots = new HashSet<>();
+
+    /**
+     * Opens or creates a corpus index.
+     * @param directory is the directory of the index.
+     * @param language is the language of the indexed submissions.
+     * @throws IOException if the index cannot be created or read.
+     * @throws IllegalArgumentException if the version of the language is unknown, as indexed tokens would then survive
+     * changes of its parser.
+     */
+    public CorpusIndex(File directory, Language language) throws IOException {
+        this(directory, language, DEFAULT_MAXIMUM_SUBMISSIONS);
+    }
+
+    /**
+     * Opens or creates a corpus index with a maximum number of submissions.
+     * @param directory is the directory of the index.
+     * @param language is the language of the indexed submissions.
+     * @param maximumSubmissions is the number of submissions above which the least recently used ones are evicted.
+     * @throws IOException if the index cannot be created or read.
+     * @throws IllegalArgumentException if the version of the language is unknown or the maximum is not positive.
+     */
+    public CorpusIndex(File directory, Language language, int maximumSubmissions) throws IOException {
+        if (maximumSubmissions < 1) {
+            throw new IllegalArgumentException("The maximum number of indexed submissions must be positive");
+        }
+        if (Language.UNKNOWN_VERSION.equals(language.getVersion())) {
+            throw new IllegalArgumentException("Unknown version of language " + language.getIdentifier() + ", indexed tokens could become stale");
+        }
+        this.directory = directory.toPath();
+        this.submissionsDirectory = this.directory.resolve(SUBMISSIONS_DIRECTORY);
+        this.language = language;
+        this.maximumSubmissions = maximumSubmissions;
+        Files.createDirectories(submissionsDirectory);
+        checkManifest();
+    }
+
+    /**
+     * Loads all indexed submissions. Entries that cannot be read are skipped.
+     * @return the indexed submissions, which are not yet {@link #restore(IndexedSubmission, String) restored}.
+     */
+    public List<IndexedSubmission> loadSubmissions() {
+        return listEntries().parallelStream().map(this::load).flatMap(Optional::stream).toList();
+    }
+
+    /**
+     * Restores an indexed submission as an old submission whose tokens are already parsed.
+     * @param indexedSubmission is the indexed submission.
+     * @param name is the name of the submission in the current run, which may differ from the indexed name.
+     * @return the restored submission.
+     */
+    public Submission restore(IndexedSubmission indexedSubmission, String name) {
+        Submission submission = new Submission(name, indexedSubmission.root(), false, indexedSubmission.files(), language);
+        submission.setTokenList(indexedSubmission.tokens());
+        restoredRoots.add(indexedSubmission.root());
+        try {
+            Files.setLastModifiedTime(entryOf(indexedSubmission.root()), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException exception) {
+            logger.debug("Could not mark corpus index entry of {} as used: {}", indexedSubmission.name(), exception.getMessage());
+        }
+        return submission;
+    }
+
+    /**
+     * Adds the submissions of a run to the index: All given submissions that were not restored from the index are stored,
+     * replacing previous entries with the same root. Afterwards, the least recently used submissions are evicted if the
+     * index holds more than its maximum number of submissions.
+     * @param submissions are the valid submissions of the run. Submissions that cannot be stored are skipped.
+     */
+    public void update(Collection<Submission> submissions) {
+        int stored = 0;
+        for (Submission submission : submissions) {
+            if (!restoredRoots.contains(submission.getRoot()) && store(submission)) {
+                stored++;
+            }
+        }
+        logger.info("Added {} submissions to the corpus index", stored);
+        evict();
+    }
+
+    /**
+     * Removes a submission from the index.
+     * @param root is the root of the submission.
+     * @return whether the submission was indexed.
+     */
+    public boolean remove(File root) {
+        try {
+            return Files.deleteIfExists(entryOf(root));
+        } catch (IOException exception) {
+            logger.warn("Could not remove {} from the corpus index: {}", root, exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Evicts the least recently stored or restored submissions until the index holds at most its maximum number.
+     */
+    private void evict() {
+        List<Path> entries = listEntries();
+        if (entries.size() <= maximumSubmissions) {
+            return;
+        }
+        Map<Path, Long> lastUsed = new HashMap<>();
+        for (Path entry : entries) {
+            lastUsed.put(entry, lastModifiedOf(entry));
+        }
+        int evicted = 0;
+        for (Path entry : entries.stream().sorted(Comparator.comparingLong(lastUsed::get)).limit(entries.size() - maximumSubmissions).toList()) {
+            try {
+                Files.deleteIfExists(entry);
+                evicted++;
+            } catch (IOException exception) {
+                logger.warn("Could not evict corpus index entry {}: {}", entry, exception.getMessage());
+            }
+        }
+        logger.info("Evicted {} least recently used submissions from the corpus index", evicted);
+    }
+
+    /**
+     * Lists all entries. The listing is materialized, as entries may be deleted afterwards.
+     */
+    private List<Path> listEntries() {
+        try (Stream<Path> entries = Files.list(submissionsDirectory)) {
+            return entries.filter(entry -> entry.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList();
+        } catch (IOException exception) {
+            logger.warn("Could not list the corpus index: {}", exception.getMessage());
+            return List.of();
+        }
+    }
+
+    private Path entryOf(File root) {
+        return submissionsDirectory.resolve(keyOf(root) + ENTRY_SUFFIX);
+    }
+
+    private static long lastModifiedOf(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * Discards all indexed submissions if the manifest does not match the language, and writes the current manifest.
+     */
+    private void checkManifest() throws IOException {
+        Properties expectedManifest = new Properties();
+        expectedManifest.setProperty("format", Integer.toString(FORMAT_VERSION));
+        expectedManifest.setProperty("language", language.getIdentifier());
+        expectedManifest.setProperty("version", language.getVersion());
+
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        Properties manifest = new Properties();
+        if (Files.exists(manifestFile)) {
+            try (InputStream input = Files.newInputStream(manifestFile)) {
+                manifest.load(input);
+            }
+        }
+        if (manifest.equals(expectedManifest)) {
+            return;
+        }
+        if (!manifest.isEmpty()) {
+            logger.warn("Discarding the submissions of the corpus index, as it was created for {} {}", manifest.getProperty("language"),
+                    manifest.getProperty("version"));
+        }
+        try (Stream<Path> entries = Files.list(submissionsDirectory)) {
+            for (Path entry : entries.toList()) {
+                Files.delete(entry);
+            }
+        }
+        try (OutputStream output = Files.newOutputStream(manifestFile)) {
+            expectedManifest.store(output, "JPlag corpus index");
+        }
+    }
+
+    private Optional<IndexedSubmission> load(Path entry) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            String name = input.readUTF();
+            File root = new File(input.readUTF());
+            int numberOfFiles = input.readInt();
+            List<File> files = new ArrayList<>(numberOfFiles);
+            List<String> contentHashes = new ArrayList<>(numberOfFiles);
+            for (int i = 0; i < numberOfFiles; i++) {
+                files.add(new File(input.readUTF()));
+                contentHashes.add(input.readUTF());
+            }
+            File[] tokenFiles = new File[input.readInt()];
+            for (int i = 0; i < tokenFiles.length; i++) {
+                tokenFiles[i] = new File(input.readUTF());
+            }
+            TokenType[] types = TokenTypeTable.read(input, language.getClass().getClassLoader());
+            int numberOfTokens = input.readInt();
+            List<Token> tokens = new ArrayList<>(numberOfTokens);
+            for (int i = 0; i < numberOfTokens; i++) {
+                tokens.add(new Token(types[input.readInt()], tokenFiles[input.readInt()], input.readInt(), input.readInt(), input.readInt()));
+            }
+            return Optional.of(new IndexedSubmission(name, root, files, contentHashes, tokens));
+        } catch (IOException | ReflectiveOperationException | RuntimeException exception) {
+            logger.warn("Ignoring invalid corpus index entry {}: {}", entry, exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a submission, unless its tokens cannot be persisted.
+     * @return whether the submission was stored.
+     */
+    private boolean store(Submission submission) {
+        List<Token> tokens = submission.getTokenList();
+        if (tokens == null || !TokenTypeTable.isSupported(tokens)) {
+            return false;
+        }
+        Path temporaryEntry = null;
+        try {
+            temporaryEntry = Files.createTempFile(submissionsDirectory, null, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryEntry)))) {
+                writeSubmission(submission, tokens, output);
+            }
+            Files.move(temporaryEntry, entryOf(submission.getRoot()), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException exception) {
+            logger.warn("Could not add submission {} to the corpus index: {}", submission.getName(), exception.getMessage());
+            if (temporaryEntry != null) {
+                temporaryEntry.toFile().delete();
+            }
+            return false;
+        }
+    }
+
+    private static void writeSubmission(Submission submission, List<Token> tokens, DataOutputStream output) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(submission.getName());
+        output.writeUTF(submission.getRoot().getPath());
+        output.writeInt(submission.getFiles().size());
+        for (File file : submission.getFiles()) {
+            output.writeUTF(file.getPath());
+            output.writeUTF(hashOf(SourceLoader.readAllBytes(file)));
+        }
+
+        Map<File, Integer> fileIndices = new HashMap<>();
+        List<File> tokenFiles = new ArrayList<>();
+        for (Token token : tokens) {
+            fileIndices.computeIfAbsent(token.getFile(), file -> {
+                tokenFiles.add(file);
+                return tokenFiles.size() - 1;
+            });
+        }
+        output.writeInt(tokenFiles.size());
+        for (File file : tokenFiles) {
+            output.writeUTF(file.getPath());
+        }
+
+        Map<TokenType, Integer> typeIndices = TokenTypeTable.write(tokens, output);
+        output.writeInt(tokens.size());
+        for (Token token : tokens) {
+            output.writeInt(typeIndices.get(token.getType()));
+            output.writeInt(fileIndices.get(token.getFile()));
+            output.writeInt(token.getLine());
+            output.writeInt(token.getColumn());
+            output.writeInt(token.getLength());
+        }
+    }
+
+    private static String keyOf(File root) {
+        return hashOf(root.getPath().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hashOf(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // SHA-256 is supported by every Java platform
+        }
+    }
+
+    /**
+     * Submission stored in the index.
+     * @param name is the name of the submission when it was indexed.
+     * @param root is the root of the submission.
+     * @param files are the files of the submission.
+     * @param contentHashes are the SHA-256 hashes of the contents of the files when the submission was indexed.
+     * @param tokens are the tokens of the submission.
+     */
+    public record IndexedSubmission(String name, File root, List<File> files, List<String> contentHashes, List<Token> tokens) {
+
+        /**
+         * @return whether the given files are the indexed files and their contents did not change since the submission was
+         * indexed.
+         */
+        public boolean isUpToDate(Collection<File> currentFiles) {
+            if (currentFiles.size() != files.size() || !currentFiles.containsAll(files)) {
+                return false;
+            }
+            try {
+                for (int i = 0; i < files.size(); i++) {
+                    if (!hashOf(SourceLoader.readAllBytes(files.get(i))).equals(contentHashes.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException exception) {
+                return false; // the submission is parsed again and reports the unreadable file
+            }
+        }
+    }
+}
@@ -1,22 +1,23 @@
 package de.jplag;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
 
 /**
  * This class implements the Greedy String Tiling algorithm as introduced by Michael Wise. However, it is very specific
  * to the classes {@link Token}, and {@link Match}. Class implementation is thread-safe, i.e. submission can be compared
- * in parallel.
+ * in parallel. To do so without any locking, all submissions should be prepared via {@link #prepareSubmissions} before
+ * comparing them.
  * @see <a href=
  * "https://www.researchgate.net/publication/262763983_String_Similarity_via_Greedy_String_Tiling_and_Running_Karp-Rabin_Matching">
  * String Similarity via Greedy String Tiling and Running Karp−Rabin Matching </a>
@@ -24,22 +25,40 @@ import de.jplag.options.JPlagOptions;
 public class GreedyStringTiling {
 
     private final int minimumMatchLength;
-    private ConcurrentMap<TokenType, Integer> tokenTypeValues;
-    private final Map<Submission, Set<Token>> baseCodeMarkings = new IdentityHashMap<>();
+    private final SubsequenceHashFunction hashFunction;
+    private final LongAdder candidateVerifications = new LongAdder();
+    private final LongAdder verifiedCandidates = new LongAdder();
+    private final LongAdder terminatedComparisons = new LongAdder();
+    private final Map<Submission, BitSet> baseCodeMarkings = Collections.synchronizedMap(new IdentityHashMap<>());
 
-    private final Map<Submission, int[]> cachedTokenValueLists = new IdentityHashMap<>();
-    private final Map<Submission, SubsequenceHashLookupTable> cachedHashLookupTables = new IdentityHashMap<>();
+    /**
+     * Read-only view of the prepared submissions. Is replaced as a whole when submissions are prepared, thus reading it
+     * requires no locking.
+     */
+    private volatile Map<Submission, PreparedSubmission> preparedSubmissions = Map.of();
 
+    /**
+     * Creates the algorithm with 64-bit {@link RollingHashFunction#KARP_RABIN_64 Karp-Rabin} subsequence hashes.
+     * @param options are the options of the current run.
+     */
     public GreedyStringTiling(JPlagOptions options) {
+        this(options, RollingHashFunction.KARP_RABIN_64);
+    }
+
+    /**
+     * Creates the algorithm with a specific subsequence hash function.
+     * @param options are the options of the current run.
+     * @param hashFunction computes the subsequence hashes used to find candidates for matching subsequences.
+     */
+    public GreedyStringTiling(JPlagOptions options, SubsequenceHashFunction hashFunction) {
         this.minimumMatchLength = options.minimumTokenMatch();
-        this.tokenTypeValues = new ConcurrentHashMap<>();
-        this.tokenTypeValues.put(SharedTokenType.FILE_END, 0);
+        this.hashFunction = hashFunction;
     }
 
     /**
      * Compares the given submission with the base code submission. Marks the identified base code sections in the
      * submission such that further comparisons do not generate matches for these parts. Must be called before generating a
-     * comparison with a regular submission for the given submission.
+     * comparison with a regular submission for the given submission and before preparing the given submission.
      * @param submission is the submission to generate base-code markings for.
      * @param baseCodeSubmission is the base code submission.
      * @return the comparison of the submission with the base code submission.
@@ -47,24 +66,68 @@ public class GreedyStringTiling {
     public final JPlagComparison generateBaseCodeMarking(Submission submission, Submission baseCodeSubmission) {
         JPlagComparison comparison = compare(submission, baseCodeSubmission);
 
-        List<Token> submissionTokenList = submission.getTokenList();
-        Set<Token> baseCodeMarking = new HashSet<>();
+        BitSet baseCodeMarking = new BitSet(submission.getNumberOfTokens());
         for (Match match : comparison.matches()) {
             int startIndex = comparison.firstSubmission() == submission ? match.startOfFirst() : match.startOfSecond();
-            baseCodeMarking.addAll(submissionTokenList.subList(startIndex, startIndex + match.length()));
+            baseCodeMarking.set(startIndex, startIndex + match.length());
         }
         baseCodeMarkings.put(submission, baseCodeMarking);
 
-        // Remove the lookup table for the current submission to trigger a regeneration as hashes will change due to the new
+        // Prepare the current submission again if it was already prepared, as the hashes will change due to the new
         // baseCodeMarking.
         // This is a performance optimization to not suggest subsequences with baseCode for the matching.
         // Removing this optimization would not change the result as the baseCode matches are additionally checked by validating
         // that no match has a marked token (which baseCode-containing tokens are).
-        cachedHashLookupTables.remove(submission);
+        if (preparedSubmissions.containsKey(submission)) {
+            prepareSubmissions(List.of(submission));
+        }
 
         return comparison;
     }
 
+    /**
+     * Prepares the given submissions for comparison by computing their token values, initial markings, and subsequence
+     * hash lookup tables in parallel. Afterwards, comparisons of these submissions only read the prepared data. Base code
+     * markings must be generated beforehand, see {@link #generateBaseCodeMarking}.
+     * @param submissions are the submissions to prepare.
+     */
+    public final void prepareSubmissions(Collection<Submission> submissions) {
+        List<PreparedSubmission> prepared = submissions.parallelStream().map(this::prepareSubmission).toList();
+        synchronized (this) {
+            Map<Submission, PreparedSubmission> updatedSubmissions = new IdentityHashMap<>(preparedSubmissions);
+            int index = 0;
+            for (Submission submission : submissions) {
+                updatedSubmissions.put(submission, prepared.get(index++));
+            }
+            preparedSubmissions = Collections.unmodifiableMap(updatedSubmissions);
+        }
+    }
+
+    /**
+     * @return the number of candidate subsequence pairs that were verified so far, meaning pairs of unmarked subsequences
+     * with equal subsequence hashes.
+     */
+    public long getNumberOfCandidateVerifications() {
+        return candidateVerifications.sum();
+    }
+
+    /**
+     * @return the number of verified candidate subsequence pairs so far that turned out to be a match of the currently
+     * searched length. The ratio to {@link #getNumberOfCandidateVerifications()} indicates the precision of the subsequence
+     * hashes.
+     */
+    public long getNumberOfVerifiedCandidates() {
+        return verifiedCandidates.sum();
+    }
+
+    /**
+     * @return the number of comparisons so far that were terminated early, as they could not reach the similarity
+     * threshold.
+     */
+    public long getNumberOfTerminatedComparisons() {
+        return terminatedComparisons.sum();
+    }
+
     /**
      * Compares the two submissions and generates matches between them. To exclude base code from the result, call
      * {@link #generateBaseCodeMarking} with each submission beforehand.
@@ -73,63 +136,95 @@ public class GreedyStringTiling {
      * @return the comparison between the two submissions.
      */
     public final JPlagComparison compare(Submission firstSubmission, Submission secondSubmission) {
-        Submission smallerSubmission;
-        Submission largerSubmission;
-        if (firstSubmission.getTokenList().size() > secondSubmission.getTokenList().size()) {
-            smallerSubmission = secondSubmission;
-            largerSubmission = firstSubmission;
-        } else {
-            smallerSubmission = firstSubmission;
-            largerSubmission = secondSubmission;
+        if (firstSubmission.getNumberOfTokens() > secondSubmission.getNumberOfTokens()) {
+            return compareInternal(secondSubmission, firstSubmission, null, 0);
         }
-        return compareInternal(smallerSubmission, largerSubmission);
+        return compareInternal(firstSubmission, secondSubmission, null, 0);
     }
 
     /**
-     * Compares two submissions. FILE_END is used as pivot
+     * Compares the two submissions, but terminates the comparison as soon as its similarity can no longer reach the given
+     * threshold. If the comparison is not terminated, its result is the same as of {@link #compare(Submission, Submission)}
+     * and may still be below the threshold.
+     * @param firstSubmission is one of the two submissions.
+     * @param secondSubmission is the other of the two submissions.
+     * @param similarityMetric is the metric the threshold applies to.
+     * @param similarityThreshold is the threshold the similarity must be able to reach.
+     * @return the comparison between the two submissions, or nothing if the comparison was terminated.
+     */
+    public final Optional<JPlagComparison> compare(Submission firstSubmission, Submission secondSubmission, SimilarityMetric similarityMetric,
+            double similarityThreshold) {
+        if (firstSubmission.getNumberOfTokens() > secondSubmission.getNumberOfTokens()) {
+            return Optional.ofNullable(compareInternal(secondSubmission, firstSubmission, similarityMetric, similarityThreshold));
+        }
+        return Optional.ofNullable(compareInternal(firstSubmission, secondSubmission, similarityMetric, similarityThreshold));
+    }
+
+    /**
+     * Compares two submissions. FILE_END is used as pivot. After each tiling iteration, the similarity is bounded by
+     * assuming that all still matchable tokens will be matched. If this upper bound is below the threshold, the comparison
+     * is terminated.
      * @param leftSubmission is the submission with the smaller sequence.
      * @param rightSubmission is the submission with the larger sequence.
-     * @return the comparison results.
+     * @param similarityMetric is the metric the threshold applies to, or null to never terminate early.
+     * @param similarityThreshold is the threshold the similarity must be able to reach.
+     * @return the comparison results, or null if the comparison was terminated.
      */
-    private JPlagComparison compareInternal(Submission leftSubmission, Submission rightSubmission) {
-        List<Token> leftTokens = leftSubmission.getTokenList();
-        List<Token> rightTokens = rightSubmission.getTokenList();
+    private JPlagComparison compareInternal(Submission leftSubmission, Submission rightSubmission, SimilarityMetric similarityMetric,
+            double similarityThreshold) {
+        PreparedSubmission leftPrepared = preparedSubmissionFor(leftSubmission);
+        PreparedSubmission rightPrepared = preparedSubmissionFor(rightSubmission);
 
-        int[] leftValues = tokenValueListFromSubmission(leftSubmission);
-        int[] rightValues = tokenValueListFromSubmission(rightSubmission);
+        int[] leftValues = leftPrepared.tokenValues();
+        int[] rightValues = rightPrepared.tokenValues();
 
         // comparison uses <= because it is assumed that the last token is a pivot (FILE_END)
-        if (leftTokens.size() <= minimumMatchLength || rightTokens.size() <= minimumMatchLength) {
+        if (leftValues.length <= minimumMatchLength || rightValues.length <= minimumMatchLength) {
             return new JPlagComparison(leftSubmission, rightSubmission, List.of());
         }
 
-        Set<Integer> leftMarkedIndexes = initiallyMarkedTokenIndexes(leftSubmission);
-        Set<Integer> rightMarkedIndexes = initiallyMarkedTokenIndexes(rightSubmission);
+        BitSet leftMarkedIndexes = leftPrepared.copyOfInitiallyMarkedTokenIndexes();
+        BitSet rightMarkedIndexes = rightPrepared.copyOfInitiallyMarkedTokenIndexes();
 
-        SubsequenceHashLookupTable leftLookupTable = subsequenceHashLookupTableForSubmission(leftSubmission, leftMarkedIndexes);
-        SubsequenceHashLookupTable rightLookupTable = subsequenceHashLookupTableForSubmission(rightSubmission, rightMarkedIndexes);
+        SubsequenceHashLookupTable leftLookupTable = leftPrepared.lookupTable();
+        SubsequenceHashLookupTable rightLookupTable = rightPrepared.lookupTable();
 
+        SubsequenceHashLookupTable.StartIndexCursor rightStartIndexes = rightLookupTable.startIndexCursor();
+
+        boolean terminable = similarityMetric != null && similarityThreshold > 0;
+        long candidates = 0; // candidates with matching subsequence hashes
+        long verified = 0; // candidates that turned out to be matches
+        int matchedTokens = 0;
         int maximumMatchLength;
         List<Match> globalMatches = new ArrayList<>();
         do {
+            if (terminable && !canReachThreshold(leftSubmission, rightSubmission, matchedTokens, leftMarkedIndexes, rightMarkedIndexes,
+                    similarityMetric, similarityThreshold)) {
+                candidateVerifications.add(candidates);
+                verifiedCandidates.add(verified);
+                terminatedComparisons.increment();
+                return null;
+            }
             maximumMatchLength = minimumMatchLength;
             List<Match> iterationMatches = new ArrayList<>();
             for (int leftStartIndex = 0; leftStartIndex < leftValues.length - maximumMatchLength; leftStartIndex++) {
-                int leftSubsequenceHash = leftLookupTable.subsequenceHashForStartIndex(leftStartIndex);
-                if (leftMarkedIndexes.contains(leftStartIndex) || leftSubsequenceHash == SubsequenceHashLookupTable.NO_HASH) {
+                long leftSubsequenceHash = leftLookupTable.subsequenceHashForStartIndex(leftStartIndex);
+                if (leftMarkedIndexes.get(leftStartIndex) || leftSubsequenceHash == SubsequenceHashLookupTable.NO_HASH) {
                     continue;
                 }
-                List<Integer> possiblyMatchingRightStartIndexes = rightLookupTable
-                        .startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(leftSubsequenceHash);
-                for (Integer rightStartIndex : possiblyMatchingRightStartIndexes) {
+                rightStartIndexes.moveToSubsequenceHash(leftSubsequenceHash);
+                while (rightStartIndexes.hasNext()) {
+                    int rightStartIndex = rightStartIndexes.nextInt();
                     // comparison uses >= because it is assumed that the last token is a pivot (FILE_END)
-                    if (rightMarkedIndexes.contains(rightStartIndex) || maximumMatchLength >= rightValues.length - rightStartIndex) {
+                    if (rightMarkedIndexes.get(rightStartIndex) || maximumMatchLength >= rightValues.length - rightStartIndex) {
                         continue;
                     }
 
+                    candidates++;
                     int subsequenceMatchLength = maximalMatchingSubsequenceLengthNotMarked(leftValues, leftStartIndex, leftMarkedIndexes, rightValues,
                             rightStartIndex, rightMarkedIndexes, maximumMatchLength);
                     if (subsequenceMatchLength >= maximumMatchLength) {
+                        verified++;
                         if (subsequenceMatchLength > maximumMatchLength) {
                             iterationMatches.clear();
                             maximumMatchLength = subsequenceMatchLength;
@@ -141,21 +236,21 @@ public class GreedyStringTiling {
             }
             for (Match match : iterationMatches) {
                 addMatchIfNotOverlapping(globalMatches, match);
-                int leftStartIndex = match.startOfFirst();
-                int rightStartIndex = match.startOfSecond();
-                for (int offset = 0; offset < match.length(); offset++) {
-                    leftMarkedIndexes.add(leftStartIndex + offset);
-                    rightMarkedIndexes.add(rightStartIndex + offset);
-                }
+                matchedTokens += match.length();
+                leftMarkedIndexes.set(match.startOfFirst(), match.startOfFirst() + match.length());
+                rightMarkedIndexes.set(match.startOfSecond(), match.startOfSecond() + match.length());
             }
         } while (maximumMatchLength != minimumMatchLength);
+        candidateVerifications.add(candidates);
+        verifiedCandidates.add(verified);
         return new JPlagComparison(leftSubmission, rightSubmission, globalMatches);
     }
 
     /**
      * Computes the maximal matching subsequence between the two lists starting at their respective indexes. Values are
      * matching if they are equal and not marked. Comparison is performed backwards for the minimum sequence length based on
-     * the assumption that the further tokens are away, the more likely they differ.
+     * the assumption that the further tokens are away, the more likely they differ. Works solely on primitive values, thus
+     * no allocations happen in this innermost loop of the algorithm.
      * @param leftValues The list of left values.
      * @param leftStartIndex The start index in the left list.
      * @param leftMarkedIndexes The marked indexes of the left list.
@@ -166,24 +261,56 @@ public class GreedyStringTiling {
      * @return the maximal matching subsequence length, or 0 if there is no subsequence of at least the minimum sequence
      * length.
      */
-    private int maximalMatchingSubsequenceLengthNotMarked(int[] leftValues, int leftStartIndex, Set<Integer> leftMarkedIndexes, int[] rightValues,
-            int rightStartIndex, Set<Integer> rightMarkedIndexes, int minimumSequenceLength) {
+    static int maximalMatchingSubsequenceLengthNotMarked(int[] leftValues, int leftStartIndex, BitSet leftMarkedIndexes, int[] rightValues,
+            int rightStartIndex, BitSet rightMarkedIndexes, int minimumSequenceLength) {
         for (int offset = minimumSequenceLength - 1; offset >= 0; offset--) {
             int leftIndex = leftStartIndex + offset;
             int rightIndex = rightStartIndex + offset;
-            if (leftValues[leftIndex] != rightValues[rightIndex] || leftMarkedIndexes.contains(leftIndex)
-                    || rightMarkedIndexes.contains(rightIndex)) {
+            if (leftValues[leftIndex] != rightValues[rightIndex] || leftMarkedIndexes.get(leftIndex) || rightMarkedIndexes.get(rightIndex)) {
                 return 0;
             }
         }
         int offset = minimumSequenceLength;
-        while (leftValues[leftStartIndex + offset] == rightValues[rightStartIndex + offset] && !leftMarkedIndexes.contains(leftStartIndex + offset)
-                && !rightMarkedIndexes.contains(rightStartIndex + offset)) {
+        while (leftValues[leftStartIndex + offset] == rightValues[rightStartIndex + offset] && !leftMarkedIndexes.get(leftStartIndex + offset)
+                && !rightMarkedIndexes.get(rightStartIndex + offset)) {
             offset++;
         }
         return offset;
     }
 
+    /**
+     * Checks whether the similarity of a comparison can still reach the threshold. All similarity metrics grow with the
+     * number of matched tokens, so the similarity is bounded by assuming that every still matchable token on the side with
+     * fewer such tokens will be matched.
+     */
+    private boolean canReachThreshold(Submission leftSubmission, Submission rightSubmission, int matchedTokens, BitSet leftMarkedIndexes,
+            BitSet rightMarkedIndexes, SimilarityMetric similarityMetric, double similarityThreshold) {
+        int matchableTokens = Math.min(matchableTokens(leftMarkedIndexes, leftSubmission.getNumberOfTokens()),
+                matchableTokens(rightMarkedIndexes, rightSubmission.getNumberOfTokens()));
+        Match upperBound = new Match(0, 0, matchedTokens + matchableTokens);
+        return similarityMetric.isAboveThreshold(new JPlagComparison(leftSubmission, rightSubmission, List.of(upperBound)), similarityThreshold);
+    }
+
+    /**
+     * Counts the unmarked tokens that can still be part of a match, meaning the tokens of unmarked runs that are at least
+     * as long as the minimum match length.
+     */
+    private int matchableTokens(BitSet markedIndexes, int numberOfTokens) {
+        int matchableTokens = 0;
+        int runStart = markedIndexes.nextClearBit(0);
+        while (runStart < numberOfTokens) {
+            int runEnd = markedIndexes.nextSetBit(runStart);
+            if (runEnd < 0 || runEnd > numberOfTokens) {
+                runEnd = numberOfTokens;
+            }
+            if (runEnd - runStart >= minimumMatchLength) {
+                matchableTokens += runEnd - runStart;
+            }
+            runStart = markedIndexes.nextClearBit(runEnd);
+        }
+        return matchableTokens;
+    }
+
     private void addMatchIfNotOverlapping(List<Match> matches, Match match) {
         for (int i = matches.size() - 1; i >= 0; i--) { // starting at the end is better(?)
             if (matches.get(i).overlaps(match)) {
@@ -193,35 +320,45 @@ public class GreedyStringTiling {
         matches.add(match);
     }
 
-    private Set<Integer> initiallyMarkedTokenIndexes(Submission submission) {
-        Set<Token> baseCodeTokens = baseCodeMarkings.get(submission);
-        List<Token> tokens = submission.getTokenList();
-        return IntStream.range(0, tokens.size())
-                .filter(i -> tokens.get(i).getType().isExcludedFromMatching() || (baseCodeTokens != null && baseCodeTokens.contains(tokens.get(i))))
-                .boxed().collect(Collectors.toSet());
+    /**
+     * Returns the prepared data of a submission. Submissions that were not prepared, e.g. while generating the base code
+     * markings, are prepared on demand without storing the result.
+     */
+    private PreparedSubmission preparedSubmissionFor(Submission submission) {
+        PreparedSubmission prepared = preparedSubmissions.get(submission);
+        return prepared != null ? prepared : prepareSubmission(submission);
+    }
+
+    private PreparedSubmission prepareSubmission(Submission submission) {
+        return new PreparedSubmission(tokenValueListFromSubmission(submission), initiallyMarkedTokenIndexes(submission), minimumMatchLength,
+                hashFunction);
     }
 
-    private SubsequenceHashLookupTable subsequenceHashLookupTableForSubmission(Submission submission, Set<Integer> markedIndexes) {
-        return cachedHashLookupTables.computeIfAbsent(submission,
-                (key -> new SubsequenceHashLookupTable(minimumMatchLength, tokenValueListFromSubmission(key), markedIndexes)));
+    /**
+     * Creates the bitset of token indexes that are marked before the first tiling iteration, meaning tokens excluded from
+     * matching and tokens covered by the base code.
+     */
+    private BitSet initiallyMarkedTokenIndexes(Submission submission) {
+        CompactTokenList tokens = CompactTokenList.of(submission.getTokenList());
+        BitSet markedIndexes = new BitSet(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i).isExcludedFromMatching()) {
+                markedIndexes.set(i);
+            }
+        }
+        BitSet baseCodeMarking = baseCodeMarkings.get(submission);
+        if (baseCodeMarking != null) {
+            markedIndexes.or(baseCodeMarking);
+        }
+        return markedIndexes;
     }
 
     /**
-     * Converts the tokens of the submission to a list of values.
+     * Converts the tokens of the submission to a list of values. The values are the interned ordinals of the token types,
+     * see {@link TokenTypeRegistry}.
      * @param submission The submission from which to convert the tokens.
      */
     private int[] tokenValueListFromSubmission(Submission submission) {
-        return cachedTokenValueLists.computeIfAbsent(submission, (key -> {
-            List<Token> tokens = key.getTokenList();
-            int[] tokenValueList = new int[tokens.size()];
-            for (int i = 0; i < tokens.size(); i++) {
-                TokenType type = tokens.get(i).getType();
-                synchronized (tokenTypeValues) {
-                    tokenTypeValues.putIfAbsent(type, tokenTypeValues.size());
-                }
-                tokenValueList[i] = tokenTypeValues.get(type);
-            }
-            return tokenValueList;
-        }));
+        return CompactTokenList.of(submission.getTokenList()).getTypeOrdinals();
     }
 }
@@ -1,5 +1,6 @@
 package de.jplag;
 
+import java.io.IOException;
 import java.util.ResourceBundle;
 
 import org.slf4j.Logger;
@@ -46,14 +47,24 @@ public class JPlag {
 
     /**
      * Main procedure, executes the comparison of source code submissions.
-     * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold.
+     * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold. It
+     * must be closed once the submission files are no longer needed, see {@link JPlagResult#close()}.
      * @throws ExitException if the JPlag exits preemptively.
      */
     public JPlagResult run() throws ExitException {
         // Parse and validate submissions.
-        SubmissionSetBuilder builder = new SubmissionSetBuilder(language, options);
+        CorpusIndex corpusIndex = openCorpusIndex();
+        SubmissionSetBuilder builder = new SubmissionSetBuilder(language, options, corpusIndex);
         SubmissionSet submissionSet = builder.buildSubmissionSet();
+        try {
+            return compareSubmissions(submissionSet, corpusIndex);
+        } catch (ExitException | RuntimeException exception) {
+            submissionSet.close();
+            throw exception;
+        }
+    }
 
+    private JPlagResult compareSubmissions(SubmissionSet submissionSet, CorpusIndex corpusIndex) throws ExitException {
         int submissionCount = submissionSet.numberOfSubmissions();
         if (submissionCount < 2) {
             throw new SubmissionException("Not enough valid submissions! (found " + submissionCount + " valid submissions)");
@@ -64,8 +75,27 @@ public class JPlag {
         if (logger.isInfoEnabled())
             logger.info("Total time for comparing submissions: {}", TimeUtil.formatDuration(result.getDuration()));
 
-        result.setClusteringResult(ClusteringFactory.getClusterings(result.getAllComparisons(), options.clusteringOptions()));
+        result.setClusteringResult(result.getSimilarityMatrix().map(matrix -> ClusteringFactory.getClusterings(matrix, options.clusteringOptions()))
+                .orElseGet(() -> ClusteringFactory.getClusterings(result.getRetainedComparisons(), options.clusteringOptions())));
 
+        if (corpusIndex != null) {
+            corpusIndex.update(submissionSet.getSubmissions());
+        }
         return result;
     }
+
+    /**
+     * Opens the corpus index if one is configured. If it cannot be opened, the run proceeds without index.
+     */
+    private CorpusIndex openCorpusIndex() {
+        if (options.corpusIndexDirectory() == null) {
+            return null;
+        }
+        try {
+            return new CorpusIndex(options.corpusIndexDirectory(), language);
+        } catch (IOException | IllegalArgumentException exception) {
+            logger.warn("Could not open corpus index, running without index: {}", exception.getMessage());
+            return null;
+        }
+    }
 }
@@ -2,14 +2,24 @@ package de.jplag;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * This record represents the whole result of a comparison between two submissions.
- * @param firstSubmission is the first of the two submissions.
- * @param secondSubmission is the second of the two submissions.
- * @param matches is the unmodifiable list of all matches between the two submissions.
+ * This class represents the whole result of a comparison between two submissions. The number of matched tokens and
+ * the similarities are computed only once, as they are required many times when sorting and evaluating the results.
  */
-public record JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches) {
+public final class JPlagComparison {
+    private final Submission firstSubmission;
+    private final Submission secondSubmission;
+    private final List<Match> matches;
+    private final int numberOfMatchedTokens;
+
+    /**
+     * Computed lazily, as the similarities depend on the base code comparisons of the submissions, which may be set after
+     * this comparison was created.
+     */
+    private volatile Similarities similarities;
+
     /**
      * Initializes a new comparison.
      * @param firstSubmission is the first of the two submissions.
@@ -20,53 +30,86 @@ public record JPlagComparison(Submission firstSubmission, Submission secondSubmi
         this.firstSubmission = firstSubmission;
         this.secondSubmission = secondSubmission;
         this.matches = Collections.unmodifiableList(matches);
+        this.numberOfMatchedTokens = matches.stream().mapToInt(Match::length).sum();
+    }
+
+    /**
+     * @return the first of the two submissions.
+     */
+    public Submission firstSubmission() {
+        return firstSubmission;
+    }
+
+    /**
+     * @return the second of the two submissions.
+     */
+    public Submission secondSubmission() {
+        return secondSubmission;
+    }
+
+    /**
+     * @return the unmodifiable list of all matches between the two submissions.
+     */
+    public List<Match> matches() {
+        return matches;
     }
 
     /**
      * Get the total number of matched tokens for this comparison.
      */
     public int getNumberOfMatchedTokens() {
-        return matches.stream().mapToInt(Match::length).sum();
+        return numberOfMatchedTokens;
     }
 
     /**
      * @return Maximum similarity in interval [0, 1]. O means no similarity, 1 means maximum similarity.
      */
-    public final double maximalSimilarity() {
-        return Math.max(similarityOfFirst(), similarityOfSecond());
+    public double maximalSimilarity() {
+        Similarities similarities = similarities();
+        return Math.max(similarities.ofFirst(), similarities.ofSecond());
     }
 
     /**
      * @return Minimum similarity in interval [0, 1]. O means no similarity, 1 means maximum similarity.
      */
-    public final double minimalSimilarity() {
-        return Math.min(similarityOfFirst(), similarityOfSecond());
+    public double minimalSimilarity() {
+        Similarities similarities = similarities();
+        return Math.min(similarities.ofFirst(), similarities.ofSecond());
     }
 
     /**
      * @return Average similarity in interval [0, 1]. O means no similarity, 1 means maximum similarity.
      */
-    public final double similarity() {
-        boolean subtractBaseCode = firstSubmission.hasBaseCodeMatches() && secondSubmission.hasBaseCodeMatches();
-        int divisorA = firstSubmission.getSimilarityDivisor(subtractBaseCode);
-        int divisorB = secondSubmission.getSimilarityDivisor(subtractBaseCode);
-        return 2 * similarity(divisorA + divisorB);
+    public double similarity() {
+        return similarities().average();
     }
 
     /**
      * @return Similarity of the first submission in interval [0, 1]. O means no similarity, 1 means maximum similarity.
      */
-    public final double similarityOfFirst() {
-        int divisor = firstSubmission.getSimilarityDivisor(true);
-        return similarity(divisor);
+    public double similarityOfFirst() {
+        return similarities().ofFirst();
     }
 
     /**
      * @return Similarity of the second submission in interval [0, 1]. O means no similarity, 1 means maximum similarity.
      */
-    public final double similarityOfSecond() {
-        int divisor = secondSubmission.getSimilarityDivisor(true);
-        return similarity(divisor);
+    public double similarityOfSecond() {
+        return similarities().ofSecond();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof JPlagComparison other && firstSubmission.equals(other.firstSubmission)
+                && secondSubmission.equals(other.secondSubmission) && matches.equals(other.matches);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstSubmission, secondSubmission, matches);
     }
 
     @Override
@@ -74,7 +117,26 @@ public record JPlagComparison(Submission firstSubmission, Submission secondSubmi
         return firstSubmission.getName() + " <-> " + secondSubmission.getName();
     }
 
+    private Similarities similarities() {
+        Similarities computedSimilarities = similarities;
+        if (computedSimilarities == null) { // computing it twice concurrently is harmless, as the result is the same
+            boolean subtractBaseCode = firstSubmission.hasBaseCodeMatches() && secondSubmission.hasBaseCodeMatches();
+            int divisorA = firstSubmission.getSimilarityDivisor(subtractBaseCode);
+            int divisorB = secondSubmission.getSimilarityDivisor(subtractBaseCode);
+            computedSimilarities = new Similarities(2 * similarity(divisorA + divisorB), similarity(firstSubmission.getSimilarityDivisor(true)),
+                    similarity(secondSubmission.getSimilarityDivisor(true)));
+            similarities = computedSimilarities;
+        }
+        return computedSimilarities;
+    }
+
     private double similarity(int divisor) {
-        return (divisor == 0 ? 0.0 : (getNumberOfMatchedTokens() / (double) divisor));
+        return (divisor == 0 ? 0.0 : (numberOfMatchedTokens / (double) divisor));
+    }
+
+    /**
+     * The similarities of a comparison, from which all similarity metrics are derived.
+     */
+    private record Similarities(double average, double ofFirst, double ofSecond) {
     }
 }
@@ -1,16 +1,19 @@
 package de.jplag;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.ToDoubleFunction;
 
 import de.jplag.clustering.ClusteringResult;
+import de.jplag.clustering.SimilarityMatrix;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.SimilarityMetric;
 
 /**
- * Encapsulates the results of a comparison of a set of source code submissions.
+ * Encapsulates the results of a comparison of a set of source code submissions. If submissions were read from archives,
+ * the result must be closed once their files are no longer needed, e.g. after the report was written.
  */
-public class JPlagResult {
+public class JPlagResult implements AutoCloseable {
 
     private List<JPlagComparison> comparisons; // comparisons whose similarity was about the specified threshold
 
@@ -22,21 +25,50 @@ public class JPlagResult {
 
     private final int[] similarityDistribution; // 10-element array representing the similarity distribution of the detected matches.
 
+    private final int[] maxSimilarityDistribution;
+
+    private final int numberOfComparisons; // including comparisons that were not retained
+
+    private final SimilarityMatrix similarityMatrix; // similarities of all comparisons, if recorded
+
     private List<ClusteringResult<Submission>> clusteringResult;
-    private final int SIMILARITY_DISTRIBUTION_SIZE = 10;
+    static final int SIMILARITY_DISTRIBUTION_SIZE = 10;
 
     public JPlagResult(List<JPlagComparison> comparisons, SubmissionSet submissions, long durationInMillis, JPlagOptions options) {
         // sort by similarity (descending)
-        this.comparisons = comparisons.stream().sorted((first, second) -> Double.compare(second.similarity(), first.similarity())).toList();
+        this.comparisons = comparisons.stream().sorted(TopComparisonCollector.SIMILARITY_ORDER).toList();
         this.submissions = submissions;
         this.durationInMillis = durationInMillis;
         this.options = options;
         similarityDistribution = calculateSimilarityDistribution(comparisons);
+        maxSimilarityDistribution = calculateDistributionFor(comparisons, JPlagComparison::maximalSimilarity);
+        numberOfComparisons = comparisons.size();
+        similarityMatrix = null;
     }
 
     /**
-     * Drops elements from the comparison list to free memory. Note, that this affects the similarity distribution and is
-     * only meant to be used if you don't need the information about comparisons with lower match similarity anymore.
+     * Creates a result from the comparisons retained by a collector. The similarity distributions and the number of
+     * comparisons still cover all collected comparisons.
+     * @param collector has collected the comparisons.
+     * @param submissions is the submission set.
+     * @param durationInMillis is the duration of the comparison in milliseconds.
+     * @param options are the options of the run.
+     */
+    public JPlagResult(TopComparisonCollector collector, SubmissionSet submissions, long durationInMillis, JPlagOptions options) {
+        this.comparisons = collector.getTopComparisons();
+        this.submissions = submissions;
+        this.durationInMillis = durationInMillis;
+        this.options = options;
+        similarityDistribution = collector.getSimilarityDistribution();
+        maxSimilarityDistribution = collector.getMaxSimilarityDistribution();
+        numberOfComparisons = collector.getNumberOfComparisons();
+        similarityMatrix = collector.getSimilarityMatrix().orElse(null);
+    }
+
+    /**
+     * Drops elements from the comparison list to free memory. Note, that this is only meant to be used if you don't need
+     * the information about comparisons with lower match similarity anymore. The similarity distributions are not
+     * affected.
      * @param limit the number of comparisons to keep in the list
      */
     public void dropComparisons(int limit) {
@@ -48,12 +80,24 @@ public class JPlagResult {
     }
 
     /**
-     * @return a list of all comparisons sorted by similarity (descending)
+     * @return the retained comparisons sorted by similarity (descending). Only the maximum number of comparisons given by
+     * the options is retained, thus less similar comparisons are not included. Comparisons
+     * below the similarity threshold are never included. See {@link #getNumberOfComparisons()} for the number of all
+     * comparisons.
      */
-    public List<JPlagComparison> getAllComparisons() {
+    public List<JPlagComparison> getRetainedComparisons() {
         return comparisons;
     }
 
+    /**
+     * @return the retained comparisons, which are not necessarily all comparisons.
+     * @deprecated Use {@link #getRetainedComparisons()}, whose name states that less similar comparisons may be missing.
+     */
+    @Deprecated
+    public List<JPlagComparison> getAllComparisons() {
+        return getRetainedComparisons();
+    }
+
     /**
      * Returns the first n comparisons (sorted by similarity, descending), limited by the specified parameter.
      * @param numberOfComparisons specifies the number of requested comparisons. If set to -1, all comparisons will be
@@ -67,6 +111,14 @@ public class JPlagResult {
         return comparisons.subList(0, Math.min(numberOfComparisons, comparisons.size()));
     }
 
+    /**
+     * @return the number of comparisons whose similarity was above the specified threshold, including comparisons that
+     * were not retained or dropped.
+     */
+    public int getNumberOfComparisons() {
+        return numberOfComparisons;
+    }
+
     /**
      * @return the duration of the comparison in milliseconds.
      */
@@ -81,6 +133,14 @@ public class JPlagResult {
         return submissions;
     }
 
+    /**
+     * Closes the archives the submissions were read from, see {@link SubmissionSet#close()}.
+     */
+    @Override
+    public void close() {
+        submissions.close();
+    }
+
     /**
      * @return the total number of submissions that have been compared.
      */
@@ -114,7 +174,15 @@ public class JPlagResult {
      * the same distribution as {@link JPlagResult#getSimilarityDistribution()}
      */
     public int[] getMaxSimilarityDistribution() {
-        return calculateDistributionFor(comparisons, (JPlagComparison::maximalSimilarity));
+        return maxSimilarityDistribution;
+    }
+
+    /**
+     * @return the similarities of all comparisons above the threshold, including the ones that were not retained. Only
+     * recorded if clustering is enabled.
+     */
+    public Optional<SimilarityMatrix> getSimilarityMatrix() {
+        return Optional.ofNullable(similarityMatrix);
     }
 
     public List<ClusteringResult<Submission>> getClusteringResult() {
@@ -123,7 +191,7 @@ public class JPlagResult {
 
     @Override
     public String toString() {
-        return String.format("JPlagResult { comparisons: %d, duration: %d ms, language: %s, submissions: %d }", getAllComparisons().size(),
+        return String.format("JPlagResult { comparisons: %d, duration: %d ms, language: %s, submissions: %d }", getNumberOfComparisons(),
                 getDuration(), getOptions().language().getName(), submissions.numberOfSubmissions());
     }
 
@@ -134,15 +202,21 @@ public class JPlagResult {
         return calculateDistributionFor(comparisons, JPlagComparison::similarity);
     }
 
-    private int[] calculateDistributionFor(List<JPlagComparison> comparisons, ToDoubleFunction<JPlagComparison> similarityExtractor) {
+    private static int[] calculateDistributionFor(List<JPlagComparison> comparisons, ToDoubleFunction<JPlagComparison> similarityExtractor) {
         int[] similarityDistribution = new int[SIMILARITY_DISTRIBUTION_SIZE];
         for (JPlagComparison comparison : comparisons) {
             double similarity = similarityExtractor.applyAsDouble(comparison); // extract similarity: 0.0 <= similarity <= 1.0
-            int index = (int) (similarity * SIMILARITY_DISTRIBUTION_SIZE); // divide similarity by bucket size to find index of correct bucket.
-            index = Math.min(index, SIMILARITY_DISTRIBUTION_SIZE - 1);// index is out of bounds when similarity is 1.0. decrease by one to count
-                                                                      // towards the highest value bucket
-            similarityDistribution[index]++; // count comparison towards its determined bucket.
+            similarityDistribution[distributionIndexOf(similarity)]++; // count comparison towards its determined bucket.
         }
         return similarityDistribution;
     }
+
+    /**
+     * @return the index of the similarity distribution bucket of a similarity.
+     */
+    static int distributionIndexOf(double similarity) {
+        int index = (int) (similarity * SIMILARITY_DISTRIBUTION_SIZE); // divide similarity by bucket size to find index of correct bucket.
+        return Math.min(index, SIMILARITY_DISTRIBUTION_SIZE - 1); // index is out of bounds when similarity is 1.0. decrease by one to count
+                                                                  // towards the highest value bucket
+    }
 }
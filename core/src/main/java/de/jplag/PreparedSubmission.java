@@ -0,0 +1,48 @@
+package de.jplag;
+
+import java.util.BitSet;
+
+/**
+ * Immutable per-submission data required by the {@link GreedyStringTiling} algorithm. Prepared once for each submission
+ * before the pairwise comparisons start, such that the comparisons only read it and can run in parallel without any
+ * locking.
+ */
+final class PreparedSubmission {
+    private final int[] tokenValues;
+    private final BitSet initiallyMarkedTokenIndexes;
+    private final SubsequenceHashLookupTable lookupTable;
+
+    /**
+     * Creates the prepared data of a submission.
+     * @param tokenValues are the values of the tokens of the submission.
+     * @param initiallyMarkedTokenIndexes are the indexes of tokens that are excluded from matching, including base code.
+     * @param minimumMatchLength is the window size of the subsequence hashes.
+     * @param hashFunction is the function to compute the subsequence hashes with.
+     */
+    PreparedSubmission(int[] tokenValues, BitSet initiallyMarkedTokenIndexes, int minimumMatchLength, SubsequenceHashFunction hashFunction) {
+        this.tokenValues = tokenValues;
+        this.initiallyMarkedTokenIndexes = initiallyMarkedTokenIndexes;
+        this.lookupTable = new SubsequenceHashLookupTable(minimumMatchLength, tokenValues, initiallyMarkedTokenIndexes, hashFunction);
+    }
+
+    /**
+     * @return the values of the tokens. Must not be modified.
+     */
+    int[] tokenValues() {
+        return tokenValues;
+    }
+
+    /**
+     * @return the subsequence hash lookup table of the token values.
+     */
+    SubsequenceHashLookupTable lookupTable() {
+        return lookupTable;
+    }
+
+    /**
+     * @return a new copy of the initially marked token indexes, which the caller may modify during a comparison.
+     */
+    BitSet copyOfInitiallyMarkedTokenIndexes() {
+        return (BitSet) initiallyMarkedTokenIndexes.clone();
+    }
+}
@@ -0,0 +1,50 @@
+package de.jplag;
+
+/**
+ * Built-in {@link SubsequenceHashFunction subsequence hash functions}.
+ */
+public enum RollingHashFunction implements SubsequenceHashFunction {
+    /**
+     * The original hash function of JPlag. Computes the hashes with base two over the token values modulo 64. The value
+     * combination is chosen such that the maximum possible hash value does not exceed Int.max, thus subsequences are
+     * capped at 25 tokens. Token values that differ by a multiple of 64 always collide.
+     */
+    BINARY_MODULO_64(2, 25) {
+        @Override
+        public long hashOfValue(int value) {
+            return value % 64;
+        }
+    },
+
+    /**
+     * Karp-Rabin fingerprints with 64 bits and no limit regarding the subsequence length. Token values are mixed before
+     * hashing, such that all bits of the token values affect the hash.
+     */
+    KARP_RABIN_64(0x9E3779B97F4A7C15L, Integer.MAX_VALUE) {
+        @Override
+        public long hashOfValue(int value) {
+            long hash = value + 1L; // ensures no value hashes to zero
+            hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+            hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return hash ^ (hash >>> 33);
+        }
+    };
+
+    private final long base;
+    private final int maximumWindowSize;
+
+    RollingHashFunction(long base, int maximumWindowSize) {
+        this.base = base;
+        this.maximumWindowSize = maximumWindowSize;
+    }
+
+    @Override
+    public long base() {
+        return base;
+    }
+
+    @Override
+    public int maximumWindowSize() {
+        return maximumWindowSize;
+    }
+}
@@ -2,13 +2,14 @@ package de.jplag;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,7 +53,7 @@ public class Submission implements Comparable<Submission> {
     /**
      * Parse result, tokens from all files.
      */
-    private List<Token> tokenList;
+    private CompactTokenList tokenList;
 
     /**
      * Base code comparison
@@ -150,10 +151,10 @@ public class Submission implements Comparable<Submission> {
     }
 
     /**
-     * @return unmodifiable list of tokens generated by parsing the submission.
+     * @return unmodifiable list of tokens generated by parsing the submission, which is a {@link CompactTokenList}.
      */
     public List<Token> getTokenList() {
-        return tokenList == null ? null : Collections.unmodifiableList(tokenList);
+        return tokenList;
     }
 
     /**
@@ -186,11 +187,12 @@ public class Submission implements Comparable<Submission> {
     }
 
     /**
-     * Sets the tokens that have been parsed from the files this submission consists of.
+     * Sets the tokens that have been parsed from the files this submission consists of. The tokens are stored as a
+     * {@link CompactTokenList}.
      * @param tokenList is the list of these tokens.
      */
     public void setTokenList(List<Token> tokenList) {
-        this.tokenList = tokenList;
+        this.tokenList = tokenList == null ? null : CompactTokenList.of(tokenList);
     }
 
     /**
@@ -213,8 +215,8 @@ public class Submission implements Comparable<Submission> {
         File errorDirectory = createErrorDirectory(language.getIdentifier(), name);
         logger.info("Copying erroneous submission to {}", errorDirectory.getAbsolutePath());
         for (File file : files) {
-            try {
-                Files.copy(file.toPath(), new File(errorDirectory, file.getName()).toPath());
+            try (InputStream content = SourceLoader.openStream(file)) {
+                Files.copy(content, new File(errorDirectory, file.getName()).toPath());
             } catch (IOException exception) {
                 logger.error("Error copying file: " + exception.getMessage(), exception);
             }
@@ -235,18 +237,53 @@ public class Submission implements Comparable<Submission> {
 
     /**
      * Parse files of the submission.
+     * @param debugParser specifies whether submissions that cannot be parsed are copied to the error folder.
+     * @param tokenCache is the token cache that is consulted before parsing, or null if no cache is used.
      * @return Whether parsing was successful.
      */
-    /* package-private */ boolean parse(boolean debugParser) {
+    /* package-private */ boolean parse(boolean debugParser, TokenCache tokenCache) {
+        if (!hasFilesToParse()) {
+            return false;
+        }
+        Set<File> filesToParse = getFilesToParse();
+        ParsingResult result;
+        try {
+            result = ParsingResult.success(tokenCache == null ? language.parse(filesToParse) : tokenCache.parse(filesToParse));
+        } catch (ParsingException exception) {
+            result = ParsingResult.failure(exception);
+        }
+        return setParsingResult(result, debugParser);
+    }
+
+    /**
+     * Checks whether the submission has files to parse and invalidates it otherwise.
+     */
+    /* package-private */ boolean hasFilesToParse() {
         if (files == null || files.isEmpty()) {
             logger.error("ERROR: nothing to parse for submission \"{}\"", name);
             tokenList = null;
             hasErrors = true; // invalidate submission
             return false;
         }
+        return true;
+    }
+
+    /**
+     * @return the files that are passed to the language for parsing.
+     */
+    /* package-private */ Set<File> getFilesToParse() {
+        return new HashSet<>(files);
+    }
 
+    /**
+     * Sets the tokens of the submission from the result of parsing its files, e.g. as part of a batch.
+     * @param result is the parsing result of the files to parse.
+     * @param debugParser specifies whether submissions that cannot be parsed are copied to the error folder.
+     * @return Whether parsing was successful.
+     */
+    /* package-private */ boolean setParsingResult(ParsingResult result, boolean debugParser) {
         try {
-            tokenList = language.parse(new HashSet<>(files));
+            tokenList = CompactTokenList.of(result.getTokens());
         } catch (ParsingException e) {
             logger.warn("Failed to parse submission {} with error {}", this, e);
             tokenList = null;
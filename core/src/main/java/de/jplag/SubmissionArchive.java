@@ -0,0 +1,351 @@
+package de.jplag;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipFile;
+
+/**
+ * Archive whose top-level entries are submissions, e.g. the export of a learning management system. The archive is read
+ * without extracting it: Zip archives are read via random access, tar archives via the offsets of their entries, and
+ * compressed tar archives are decompressed into a temporary tar file once. Entries are addressed by virtual files below
+ * the archive file, e.g. {@code export.zip/alice/Main.java}, whose content is provided via the {@link SourceLoader}
+ * while the archive is open. Archives are opened per {@link SubmissionSet} via {@link SubmissionArchives}.
+ */
+public final class SubmissionArchive implements SourceProvider, Closeable {
+    private static final List<String> ZIP_SUFFIXES = List.of(".zip", ".jar");
+    private static final List<String> TAR_SUFFIXES = List.of(".tar");
+    private static final List<String> COMPRESSED_TAR_SUFFIXES = List.of(".tar.gz", ".tgz");
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final char SEPARATOR = '/';
+
+    private final File archiveFile;
+    private final NavigableMap<String, EntryContent> entries = new TreeMap<>(); // file entries by normalized path
+    private Closeable resource;
+
+    private SubmissionArchive(File archiveFile) {
+        this.archiveFile = archiveFile;
+    }
+
+    /**
+     * @return whether the file is a supported archive, judging by its name.
+     */
+    public static boolean isArchive(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return Stream.of(ZIP_SUFFIXES, TAR_SUFFIXES, COMPRESSED_TAR_SUFFIXES).flatMap(List::stream).anyMatch(name::endsWith);
+    }
+
+    /**
+     * Opens an archive and registers it at the {@link SourceLoader} until it is closed.
+     * @param file is the archive file.
+     * @return the open archive.
+     * @throws IOException if the archive cannot be read.
+     */
+    public static SubmissionArchive open(File file) throws IOException {
+        File archiveFile = file.getCanonicalFile();
+        SubmissionArchive archive = new SubmissionArchive(archiveFile);
+        String name = archiveFile.getName().toLowerCase(Locale.ROOT);
+        try {
+            if (ZIP_SUFFIXES.stream().anyMatch(name::endsWith)) {
+                archive.readZipEntries();
+            } else if (TAR_SUFFIXES.stream().anyMatch(name::endsWith)) {
+                archive.readTarEntries(archiveFile.toPath());
+            } else if (COMPRESSED_TAR_SUFFIXES.stream().anyMatch(name::endsWith)) {
+                archive.readCompressedTarEntries();
+            } else {
+                throw new IOException("Unsupported archive format: " + archiveFile.getName());
+            }
+        } catch (IOException | RuntimeException exception) {
+            archive.close();
+            throw exception;
+        }
+        SourceLoader.register(archive);
+        return archive;
+    }
+
+    /**
+     * @return the canonical archive file.
+     */
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    /**
+     * @return the sorted names of the top-level entries, which are files or directories.
+     */
+    public List<String> listRootEntries() {
+        SortedSet<String> names = new TreeSet<>();
+        for (String path : entries.keySet()) {
+            int separatorIndex = path.indexOf(SEPARATOR);
+            names.add(separatorIndex < 0 ? path : path.substring(0, separatorIndex));
+        }
+        return List.copyOf(names);
+    }
+
+    /**
+     * @return whether the entry with the given path is a file.
+     */
+    public boolean isFile(String path) {
+        return entries.containsKey(path);
+    }
+
+    /**
+     * @return whether the entry with the given path is a directory, i.e. contains other entries.
+     */
+    public boolean isDirectory(String path) {
+        return !entriesBelow(path).isEmpty();
+    }
+
+    /**
+     * Lists all files of an entry recursively.
+     * @param path is the path of the entry.
+     * @return the sorted paths of the files, which only contain the path itself if it is a file.
+     */
+    public List<String> listFiles(String path) {
+        if (isFile(path)) {
+            return List.of(path);
+        }
+        return List.copyOf(entriesBelow(path).keySet());
+    }
+
+    /**
+     * @return the virtual file of the entry with the given path.
+     */
+    public File toFile(String path) {
+        return new File(archiveFile, path.replace(SEPARATOR, File.separatorChar));
+    }
+
+    @Override
+    public boolean provides(File file) {
+        return pathOf(file).map(entries::containsKey).orElse(false);
+    }
+
+    @Override
+    public InputStream openStream(File file) throws IOException {
+        EntryContent content = pathOf(file).map(entries::get).orElse(null);
+        if (content == null) {
+            throw new NoSuchFileException(file.getPath());
+        }
+        return content.open();
+    }
+
+    /**
+     * Closes the archive and unregisters it, thus its files cannot be read anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        SourceLoader.unregister(this);
+        if (resource != null) {
+            resource.close();
+        }
+    }
+
+    private NavigableMap<String, EntryContent> entriesBelow(String path) {
+        return entries.subMap(path + SEPARATOR, true, path + (char) (SEPARATOR + 1), false);
+    }
+
+    private Optional<String> pathOf(File file) {
+        String archivePath = archiveFile.getPath();
+        String filePath = file.getPath();
+        if (filePath.length() <= archivePath.length() + 1 || !filePath.startsWith(archivePath)
+                || filePath.charAt(archivePath.length()) != File.separatorChar) {
+            return Optional.empty();
+        }
+        return Optional.of(filePath.substring(archivePath.length() + 1).replace(File.separatorChar, SEPARATOR));
+    }
+
+    private void readZipEntries() throws IOException {
+        ZipFile zipFile = new ZipFile(archiveFile, StandardCharsets.UTF_8);
+        resource = zipFile;
+        zipFile.stream().filter(entry -> !entry.isDirectory()).forEach(entry -> addEntry(entry.getName(), () -> zipFile.getInputStream(entry)));
+    }
+
+    /**
+     * Indexes the offsets of the entries of an uncompressed tar archive, which are read with positional reads later on.
+     */
+    private void readTarEntries(Path tarFile) throws IOException {
+        FileChannel channel = FileChannel.open(tarFile, StandardOpenOption.READ);
+        resource = channel;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(tarFile))) {
+            readTar(input, (path, offset, size) -> addEntry(path, () -> new ByteArrayInputStream(readAt(channel, offset, size))));
+        }
+    }
+
+    /**
+     * Decompresses a compressed tar archive into a temporary file, which is read like an uncompressed tar archive and
+     * deleted when the archive is closed. Thus, the decompressed content is not kept on the heap.
+     */
+    private void readCompressedTarEntries() throws IOException {
+        Path tarFile = Files.createTempFile("jplag-archive", ".tar");
+        try {
+            try (InputStream input = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archiveFile.toPath())))) {
+                Files.copy(input, tarFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            readTarEntries(tarFile);
+        } finally {
+            Closeable channel = resource;
+            resource = () -> {
+                try {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                } finally {
+                    Files.deleteIfExists(tarFile);
+                }
+            };
+        }
+    }
+
+    /**
+     * Reads the regular file entries of a tar archive in ustar, GNU, or pax format. The contents of the entries are skipped.
+     */
+    private static void readTar(InputStream input, TarEntryConsumer consumer) throws IOException {
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        long position = 0;
+        String extendedPath = null;
+        while (input.readNBytes(header, 0, TAR_BLOCK_SIZE) == TAR_BLOCK_SIZE && !isZeroBlock(header)) {
+            position += TAR_BLOCK_SIZE;
+            long size = parseTarNumber(header, 124, 12);
+            char type = (char) header[156];
+            boolean isRegularFile = type == '0' || type == '\0' || type == '7';
+            boolean isExtendedHeader = type == 'L' || type == 'x';
+
+            byte[] content = null;
+            if (isExtendedHeader) {
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Tar entry too large: " + size + " bytes");
+                }
+                content = input.readNBytes((int) size);
+            } else {
+                input.skipNBytes(size);
+            }
+            long padding = (TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE;
+            input.skipNBytes(padding);
+
+            if (type == 'L') {
+                extendedPath = terminatedString(content, 0, content.length);
+            } else if (type == 'x') {
+                extendedPath = paxPath(content);
+            } else {
+                if (isRegularFile) {
+                    String path = extendedPath != null ? extendedPath : headerPath(header);
+                    consumer.accept(path, position, size);
+                }
+                extendedPath = null;
+            }
+            position += size + padding;
+        }
+    }
+
+    private static String headerPath(byte[] header) {
+        String name = terminatedString(header, 0, 100);
+        boolean isUstar = terminatedString(header, 257, 6).startsWith("ustar");
+        String prefix = isUstar ? terminatedString(header, 345, 155) : "";
+        return prefix.isEmpty() ? name : prefix + SEPARATOR + name;
+    }
+
+    private static String paxPath(byte[] content) {
+        String records = new String(content, StandardCharsets.UTF_8);
+        for (String paxRecord : records.split("\n")) {
+            int keyStart = paxRecord.indexOf(' ') + 1;
+            if (paxRecord.startsWith("path=", keyStart)) {
+                return paxRecord.substring(keyStart + "path=".length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a numeric header field, which is octal or, for large values, base-256 encoded.
+     */
+    private static long parseTarNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7F;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (header[i] & 0xFF);
+            }
+            return value;
+        }
+        String octal = terminatedString(header, offset, length).trim();
+        try {
+            return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+        } catch (NumberFormatException exception) {
+            throw new IOException("Malformed tar header", exception);
+        }
+    }
+
+    private static String terminatedString(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte value : block) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readAt(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of tar archive");
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Adds a file entry under its normalized path. Entries with absolute or relative references are ignored.
+     */
+    private void addEntry(String name, EntryContent content) {
+        List<String> elements = new ArrayList<>();
+        for (String element : name.replace('\\', SEPARATOR).split(String.valueOf(SEPARATOR))) {
+            if (element.equals("..")) {
+                return;
+            } else if (!element.isEmpty() && !element.equals(".")) {
+                elements.add(element);
+            }
+        }
+        if (!elements.isEmpty()) {
+            entries.put(String.join(String.valueOf(SEPARATOR), elements), content);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryContent {
+        InputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface TarEntryConsumer {
+        void accept(String path, long offset, long size);
+    }
+}
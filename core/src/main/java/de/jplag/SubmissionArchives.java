@@ -0,0 +1,49 @@
+package de.jplag;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archives opened while building one {@link SubmissionSet}. They stay open until the submission set is closed, such
+ * that its files can still be read, e.g. by the report. Each archive is opened once per scope.
+ */
+final class SubmissionArchives implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionArchives.class);
+
+    private final Map<File, SubmissionArchive> archives = new HashMap<>();
+
+    /**
+     * Opens an archive in this scope, or returns it if it is already open.
+     * @param archiveFile is the canonical archive file.
+     * @return the open archive.
+     * @throws IOException if the archive cannot be read.
+     */
+    synchronized SubmissionArchive open(File archiveFile) throws IOException {
+        SubmissionArchive archive = archives.get(archiveFile);
+        if (archive == null) {
+            archive = SubmissionArchive.open(archiveFile);
+            archives.put(archiveFile, archive);
+        }
+        return archive;
+    }
+
+    /**
+     * Closes all archives of this scope, thus their files cannot be read anymore.
+     */
+    @Override
+    public synchronized void close() {
+        for (SubmissionArchive archive : archives.values()) {
+            try {
+                archive.close();
+            } catch (IOException exception) {
+                logger.warn("Could not close archive {}: {}", archive.getArchiveFile(), exception.getMessage());
+            }
+        }
+        archives.clear();
+    }
+}
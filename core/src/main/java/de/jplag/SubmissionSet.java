@@ -1,7 +1,16 @@
 package de.jplag;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -13,10 +22,12 @@ import de.jplag.exceptions.SubmissionException;
 import de.jplag.options.JPlagOptions;
 
 /**
- * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation.
+ * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation. Closing the set
+ * closes the archives its submissions were read from, thus their files cannot be read afterwards.
  */
-public class SubmissionSet {
+public class SubmissionSet implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionSet.class);
+    private static final int MAXIMUM_BATCH_SIZE = 32; // submissions per batch of languages that support batch parsing
 
     /**
      * Submissions to check for plagiarism.
@@ -31,6 +42,8 @@ public class SubmissionSet {
     private final Submission baseCodeSubmission;
 
     private final JPlagOptions options;
+    private final TokenCache tokenCache;
+    private final SubmissionArchives archives;
     private int errors = 0;
     private String currentSubmissionName;
 
@@ -39,14 +52,33 @@ public class SubmissionSet {
      * @param baseCode Base code submission if it exists or {@code null}.
      */
     public SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options) throws ExitException {
+        this(submissions, baseCode, options, new SubmissionArchives());
+    }
+
+    /**
+     * @param submissions Submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists or {@code null}.
+     * @param archives are the archives the submissions were read from, which are closed with this set.
+     */
+    SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options, SubmissionArchives archives) throws ExitException {
         this.allSubmissions = submissions;
         this.baseCodeSubmission = baseCode;
         this.options = options;
+        this.archives = archives;
+        this.tokenCache = createTokenCache(options);
         parseAllSubmissions();
         this.submissions = filterValidSubmissions();
         invalidSubmissions = filterInvalidSubmissions();
     }
 
+    /**
+     * Closes the archives the submissions were read from.
+     */
+    @Override
+    public void close() {
+        archives.close();
+    }
+
     /**
      * @return Whether a basecode is available for this collection.
      */
@@ -104,6 +136,10 @@ public class SubmissionSet {
             if (baseCodeSubmission != null) {
                 parseBaseCodeSubmission(baseCodeSubmission);
             }
+            if (tokenCache != null) {
+                logger.info("Token cache: {} hits, {} misses, {} MiB", tokenCache.getNumberOfHits(), tokenCache.getNumberOfMisses(),
+                        tokenCache.getSize() / (1024 * 1024));
+            }
         } catch (OutOfMemoryError exception) {
             throw new SubmissionException("Out of memory during parsing of submission \"" + currentSubmissionName + "\"", exception);
         }
@@ -115,7 +151,7 @@ public class SubmissionSet {
     private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException {
         long startTime = System.currentTimeMillis();
         logger.trace("----- Parsing basecode submission: " + baseCode.getName());
-        if (!baseCode.parse(options.debugParser())) {
+        if (!baseCode.parse(options.debugParser(), tokenCache)) {
             throw new BasecodeException("Could not successfully parse basecode submission!");
         } else if (baseCode.getNumberOfTokens() < options.minimumTokenMatch()) {
             throw new BasecodeException("Basecode submission contains fewer tokens than minimum match length allows!");
@@ -127,9 +163,9 @@ public class SubmissionSet {
     }
 
     /**
-     * Parse all given submissions.
+     * Parse all given submissions. If the language supports it, the submissions are parsed in parallel and in batches.
      */
-    private void parseSubmissions(List<Submission> submissions) {
+    private void parseSubmissions(List<Submission> submissions) throws SubmissionException {
         if (submissions.isEmpty()) {
             logger.warn("No submissions to parse!");
             return;
@@ -137,37 +173,182 @@ public class SubmissionSet {
 
         long startTime = System.currentTimeMillis();
 
-        int tooShort = 0;
-        for (Submission submission : submissions) {
-            boolean ok;
+        int numberOfThreads = 1;
+        if (options.language().supportsParallelParsing()) {
+            numberOfThreads = Math.min(submissions.size(), Runtime.getRuntime().availableProcessors());
+        }
+        List<List<Submission>> batches = partition(submissions, batchSizeOf(submissions.size(), numberOfThreads));
+        List<ParsingOutcome> outcomes;
+        if (numberOfThreads > 1) {
+            outcomes = parseBatchesInParallel(batches, numberOfThreads);
+        } else {
+            outcomes = new ArrayList<>(submissions.size());
+            for (List<Submission> batch : batches) {
+                currentSubmissionName = batch.get(0).getName();
+                outcomes.addAll(parseBatch(batch));
+            }
+        }
 
-            logger.trace("------ Parsing submission: " + submission.getName());
-            currentSubmissionName = submission.getName();
+        errors += Collections.frequency(outcomes, ParsingOutcome.PARSER_ERROR);
+        int tooShort = Collections.frequency(outcomes, ParsingOutcome.TOO_SHORT);
+        int validSubmissions = submissions.size() - errors - tooShort;
+        logger.trace(validSubmissions + " submissions parsed successfully!");
+        logger.trace(errors + " parser error" + (errors != 1 ? "s!" : "!"));
+        logger.trace(tooShort + " too short submission" + (tooShort != 1 ? "s!" : "!"));
+        printDetails(submissions, startTime, tooShort);
+    }
+
+    /**
+     * Determines the number of submissions per batch, such that all threads get batches if possible.
+     */
+    private int batchSizeOf(int numberOfSubmissions, int numberOfThreads) {
+        if (!options.language().supportsBatchParsing()) {
+            return 1;
+        }
+        int submissionsPerThread = (numberOfSubmissions + numberOfThreads - 1) / numberOfThreads;
+        return Math.max(1, Math.min(MAXIMUM_BATCH_SIZE, submissionsPerThread));
+    }
+
+    private static List<List<Submission>> partition(List<Submission> submissions, int batchSize) {
+        List<List<Submission>> batches = new ArrayList<>((submissions.size() + batchSize - 1) / batchSize);
+        for (int start = 0; start < submissions.size(); start += batchSize) {
+            batches.add(submissions.subList(start, Math.min(submissions.size(), start + batchSize)));
+        }
+        return batches;
+    }
+
+    /**
+     * Opens the token cache if it is enabled. If it cannot be opened, the submissions are parsed without cache.
+     */
+    private static TokenCache createTokenCache(JPlagOptions options) {
+        if (!options.tokenCacheOptions().enabled()) {
+            return null;
+        }
+        try {
+            return new TokenCache(options.tokenCacheOptions(), options.language());
+        } catch (IOException | IllegalArgumentException exception) {
+            logger.warn("Could not open token cache, parsing without cache: {}", exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parse the given batches of submissions with a bounded pool of worker threads.
+     * @return the parsing outcomes in the order of the submissions.
+     */
+    private List<ParsingOutcome> parseBatchesInParallel(List<List<Submission>> batches, int numberOfThreads) throws SubmissionException {
+        logger.trace("Parsing submissions with {} threads", numberOfThreads);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<List<ParsingOutcome>>> futures = new ArrayList<>(batches.size());
+            for (List<Submission> batch : batches) {
+                futures.add(executor.submit(() -> parseBatch(batch)));
+            }
+            List<ParsingOutcome> outcomes = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                currentSubmissionName = batches.get(i).get(0).getName();
+                outcomes.addAll(awaitOutcomes(futures.get(i)));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            if (!(ok = submission.parse(options.debugParser()))) {
-                errors++;
+    /**
+     * Waits for the outcomes of a parallel parsing task and rethrows unchecked exceptions and errors of the task, e.g. an
+     * {@link OutOfMemoryError}.
+     */
+    private static List<ParsingOutcome> awaitOutcomes(Future<List<ParsingOutcome>> future) throws SubmissionException {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SubmissionException("Parsing of submissions was interrupted", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            } else if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
 
-            if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.minimumTokenMatch()) {
-                logger.error("Submission {} contains fewer tokens than minimum match length allows!", currentSubmissionName);
-                submission.setTokenList(null);
-                tooShort++;
-                ok = false;
-                submission.markAsErroneous();
+    /**
+     * Parse a batch of submissions, whose files are passed to the language at once if the batch consists of several
+     * submissions. Can be called concurrently for different batches.
+     * @return the parsing outcomes in the order of the submissions.
+     */
+    private List<ParsingOutcome> parseBatch(List<Submission> batch) {
+        if (batch.size() == 1) {
+            return List.of(parseSubmission(batch.get(0)));
+        }
+
+        List<Set<File>> fileSets = new ArrayList<>(batch.size());
+        boolean[] isParsedInBatch = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            logger.trace("------ Parsing submission: " + submission.getName());
+            if (!isRestored(submission) && submission.hasFilesToParse()) {
+                fileSets.add(submission.getFilesToParse());
+                isParsedInBatch[i] = true;
             }
+        }
+        List<ParsingResult> results = List.of();
+        if (!fileSets.isEmpty()) {
+            results = tokenCache == null ? options.language().parseBatch(fileSets) : tokenCache.parseBatch(fileSets);
+        }
 
-            if (ok) {
-                logger.trace("OK");
-            } else {
-                logger.error("ERROR -> Submission {} removed", currentSubmissionName);
+        Iterator<ParsingResult> resultIterator = results.iterator();
+        List<ParsingOutcome> outcomes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            boolean isParsed = isRestored(submission);
+            if (isParsedInBatch[i]) {
+                isParsed = submission.setParsingResult(resultIterator.next(), options.debugParser());
             }
+            outcomes.add(evaluateParsedSubmission(submission, isParsed));
         }
+        return outcomes;
+    }
 
-        int validSubmissions = submissions.size() - errors - tooShort;
-        logger.trace(validSubmissions + " submissions parsed successfully!");
-        logger.trace(errors + " parser error" + (errors != 1 ? "s!" : "!"));
-        logger.trace(tooShort + " too short submission" + (tooShort != 1 ? "s!" : "!"));
-        printDetails(submissions, startTime, tooShort);
+    /**
+     * Parse a single submission and invalidate it if it is too short. Can be called concurrently for different
+     * submissions.
+     */
+    private ParsingOutcome parseSubmission(Submission submission) {
+        logger.trace("------ Parsing submission: " + submission.getName());
+        boolean isParsed = isRestored(submission) || submission.parse(options.debugParser(), tokenCache);
+        return evaluateParsedSubmission(submission, isParsed);
+    }
+
+    /**
+     * Determines the outcome of parsing a submission and invalidates it if it is too short.
+     * @param isParsed specifies whether the submission was parsed successfully.
+     */
+    private ParsingOutcome evaluateParsedSubmission(Submission submission, boolean isParsed) {
+        ParsingOutcome outcome = isParsed ? ParsingOutcome.VALID : ParsingOutcome.PARSER_ERROR;
+        if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.minimumTokenMatch()) {
+            logger.error("Submission {} contains fewer tokens than minimum match length allows!", submission.getName());
+            submission.setTokenList(null);
+            outcome = ParsingOutcome.TOO_SHORT;
+            submission.markAsErroneous();
+        }
+
+        if (outcome == ParsingOutcome.VALID) {
+            logger.trace("OK");
+        } else {
+            logger.error("ERROR -> Submission {} removed", submission.getName());
+        }
+        return outcome;
+    }
+
+    /**
+     * @return whether the submission was restored from the corpus index, thus is already parsed.
+     */
+    private static boolean isRestored(Submission submission) {
+        return submission.getTokenList() != null;
     }
 
     private void printDetails(List<Submission> submissions, long startTime, int tooShort) {
@@ -183,4 +364,12 @@ public class SubmissionSet {
         logger.trace("Time per parsed submission: " + timePerSubmission + " msec");
     }
 
+    /**
+     * Outcome of parsing a single submission.
+     */
+    private enum ParsingOutcome {
+        VALID,
+        PARSER_ERROR,
+        TOO_SHORT
+    }
 }
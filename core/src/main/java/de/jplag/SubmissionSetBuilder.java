@@ -2,17 +2,30 @@ package de.jplag;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +46,9 @@ public class SubmissionSetBuilder {
 
     private final Language language;
     private final JPlagOptions options;
-    private final Set<String> excludedFileNames; // Set of file names to be excluded in comparison.
+    private final SuffixMatcher exclusionMatcher; // Matches the file names to be excluded in comparison.
+    private final SuffixMatcher validSuffixMatcher; // Null if all suffixes are valid.
+    private final CorpusIndex corpusIndex;
 
     /**
      * Creates a builder for submission sets.
@@ -41,14 +56,28 @@ public class SubmissionSetBuilder {
      * @param options are the configured options.
      */
     public SubmissionSetBuilder(Language language, JPlagOptions options) {
+        this(language, options, null);
+    }
+
+    /**
+     * Creates a builder for submission sets that adds the submissions of a corpus index as old submissions.
+     * @param language is the language of the submissions.
+     * @param options are the configured options.
+     * @param corpusIndex is the corpus index or null if no index is used.
+     */
+    public SubmissionSetBuilder(Language language, JPlagOptions options, CorpusIndex corpusIndex) {
         this.language = language;
         this.options = options;
-        this.excludedFileNames = options.excludedFiles();
+        this.exclusionMatcher = new SuffixMatcher(options.excludedFiles());
+        List<String> validSuffixes = options.fileSuffixes();
+        // This is the case if either the language modules or the CLI did not set the valid suffixes array in options
+        this.validSuffixMatcher = validSuffixes == null || validSuffixes.isEmpty() ? null : new SuffixMatcher(validSuffixes);
+        this.corpusIndex = corpusIndex;
     }
 
     /**
      * Builds a submission set for all submissions of a specific directory.
-     * @return the newly built submission set.
+     * @return the newly built submission set, which keeps the archives among the root directories open until it is closed.
      * @throws ExitException if the directory cannot be read.
      */
     public SubmissionSet buildSubmissionSet() throws ExitException {
@@ -61,25 +90,89 @@ public class SubmissionSetBuilder {
         int numberOfRootDirectories = submissionDirectories.size() + oldSubmissionDirectories.size();
         boolean multipleRoots = (numberOfRootDirectories > 1);
 
+        // Archives stay open for the submission set, which closes them.
+        SubmissionArchives archives = new SubmissionArchives();
+        try {
+            return buildSubmissionSet(submissionDirectories, oldSubmissionDirectories, multipleRoots, archives);
+        } catch (ExitException | RuntimeException exception) {
+            archives.close();
+            throw exception;
+        }
+    }
+
+    private SubmissionSet buildSubmissionSet(Set<File> submissionDirectories, Set<File> oldSubmissionDirectories, boolean multipleRoots,
+            SubmissionArchives archives) throws ExitException {
         // Collect valid looking entries from the root directories.
+        long startTime = System.currentTimeMillis();
         Map<File, Submission> foundSubmissions = new HashMap<>();
-        for (File directory : submissionDirectories) {
-            processRootDirectoryEntries(directory, multipleRoots, foundSubmissions, true);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Optional<Submission>>> pendingSubmissions = new ArrayList<>();
+            for (File directory : submissionDirectories) {
+                pendingSubmissions.addAll(processRootDirectoryEntries(directory, multipleRoots, true, executor, archives));
+            }
+            for (File oldDirectory : oldSubmissionDirectories) {
+                pendingSubmissions.addAll(processRootDirectoryEntries(oldDirectory, multipleRoots, false, executor, archives));
+            }
+            for (Future<Optional<Submission>> pendingSubmission : pendingSubmissions) {
+                awaitSubmission(pendingSubmission).ifPresent(submission -> foundSubmissions.put(submission.getRoot(), submission));
+            }
+        } finally {
+            executor.shutdownNow();
         }
-        for (File oldDirectory : oldSubmissionDirectories) {
-            processRootDirectoryEntries(oldDirectory, multipleRoots, foundSubmissions, false);
+        if (logger.isInfoEnabled()) {
+            int numberOfFiles = foundSubmissions.values().stream().mapToInt(submission -> submission.getFiles().size()).sum();
+            logger.info("Discovered {} submissions with {} files in {}", foundSubmissions.size(), numberOfFiles,
+                    TimeUtil.formatDuration(System.currentTimeMillis() - startTime));
         }
 
         Optional<Submission> baseCodeSubmission = loadBaseCode();
         baseCodeSubmission.ifPresent(baseSubmission -> foundSubmissions.remove(baseSubmission.getRoot()));
 
+        if (corpusIndex != null) {
+            addIndexedSubmissions(foundSubmissions, baseCodeSubmission);
+        }
+
         // Merge everything in a submission set.
         List<Submission> submissions = new ArrayList<>(foundSubmissions.values());
-        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options);
+        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options, archives);
+    }
+
+    /**
+     * Adds the submissions of the corpus index as old submissions. Found old submissions are replaced by their indexed
+     * counterpart if their files are unchanged, whereas new submissions and the base code are never taken from the index.
+     * @param foundSubmissions Submissions found so far, is updated in-place.
+     */
+    private void addIndexedSubmissions(Map<File, Submission> foundSubmissions, Optional<Submission> baseCodeSubmission) {
+        Set<String> names = foundSubmissions.values().stream().map(Submission::getName).collect(Collectors.toCollection(HashSet::new));
+        int restored = 0;
+        for (CorpusIndex.IndexedSubmission indexedSubmission : corpusIndex.loadSubmissions()) {
+            File root = indexedSubmission.root();
+            Submission foundSubmission = foundSubmissions.get(root);
+            if (foundSubmission != null) {
+                if (!foundSubmission.isNew() && indexedSubmission.isUpToDate(foundSubmission.getFiles())) {
+                    foundSubmissions.put(root, corpusIndex.restore(indexedSubmission, foundSubmission.getName()));
+                    restored++;
+                }
+            } else if (baseCodeSubmission.map(baseCode -> !baseCode.getRoot().equals(root)).orElse(true)) {
+                String name = indexedSubmission.name();
+                if (names.contains(name) && root.getParentFile() != null) {
+                    name = root.getParentFile().getName() + File.separator + name;
+                }
+                if (names.add(name)) {
+                    foundSubmissions.put(root, corpusIndex.restore(indexedSubmission, name));
+                    restored++;
+                } else {
+                    logger.warn("Skipping indexed submission {}, as its name is already taken", indexedSubmission.name());
+                }
+            }
+        }
+        logger.info("Restored {} submissions from the corpus index", restored);
     }
 
     /**
-     * Verify that the given root directories exist and have no duplicate entries.
+     * Verify that the given root directories exist and have no duplicate entries. Root directories may also be archives,
+     * see {@link SubmissionArchive}.
      */
     private Set<File> verifyRootDirectories(Set<File> rootDirectoryNames, boolean areNewDirectories) throws ExitException {
         if (areNewDirectories && rootDirectoryNames.isEmpty()) {
@@ -91,8 +184,12 @@ public class SubmissionSetBuilder {
             if (!rootDirectory.exists()) {
                 throw new RootDirectoryException(String.format("Root directory \"%s\" does not exist!", rootDirectory));
             }
-            if (!rootDirectory.isDirectory()) {
-                throw new RootDirectoryException(String.format("Root directory \"%s\" is not a directory!", rootDirectory));
+            if (!rootDirectory.isDirectory() && !SubmissionArchive.isArchive(rootDirectory)) {
+                throw new RootDirectoryException(String.format("Root directory \"%s\" is neither a directory nor an archive!", rootDirectory));
+            }
+            if (!rootDirectory.isDirectory() && !language.supportsArchiveSources()) {
+                throw new RootDirectoryException(String.format("Root directory \"%s\" is an archive, which %s cannot read. Extract it first!",
+                        rootDirectory, language.getName()));
             }
 
             File canonicalRootDirectory = makeCanonical(rootDirectory,
@@ -135,12 +232,12 @@ public class SubmissionSetBuilder {
         if (!baseCodeSubmissionDirectory.exists()) {
             throw new BasecodeException("Basecode directory \"%s\" does not exist".formatted(baseCodeSubmissionDirectory));
         }
-        String errorMessage = isExcludedEntry(baseCodeSubmissionDirectory);
+        String errorMessage = isExcludedEntry(baseCodeSubmissionDirectory.getName(), baseCodeSubmissionDirectory.isFile());
         if (errorMessage != null) {
             throw new BasecodeException(errorMessage); // Stating an excluded path as basecode isn't very useful.
         }
 
-        Submission baseCodeSubmission = processSubmission(baseCodeSubmissionDirectory.getName(), baseCodeSubmissionDirectory, false);
+        Submission baseCodeSubmission = processSubmission(baseCodeSubmissionDirectory.getName(), baseCodeSubmissionDirectory, false, null);
         logger.info("Basecode directory \"{}\" will be used.", baseCodeSubmission.getName());
         return Optional.ofNullable(baseCodeSubmission);
     }
@@ -148,39 +245,37 @@ public class SubmissionSetBuilder {
     /**
      * Read entries in the given root directory.
      */
-    private String[] listSubmissionFiles(File rootDirectory) throws ExitException {
+    private List<String> listSubmissionFiles(File rootDirectory) throws ExitException {
         if (!rootDirectory.isDirectory()) {
             throw new AssertionError("Given root is not a directory.");
         }
 
-        String[] fileNames;
-
-        try {
-            fileNames = rootDirectory.list();
-        } catch (SecurityException exception) {
+        List<String> fileNames = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(rootDirectory.toPath())) {
+            for (Path entry : entries) {
+                fileNames.add(entry.getFileName().toString());
+            }
+        } catch (IOException | SecurityException exception) {
             throw new RootDirectoryException("Cannot list files of the root directory! " + exception.getMessage(), exception);
         }
 
-        if (fileNames == null) {
-            throw new RootDirectoryException("Cannot list files of the root directory!");
-        }
-
-        Arrays.sort(fileNames);
+        Collections.sort(fileNames);
         return fileNames;
     }
 
     /**
      * Check that the given submission entry is not invalid due to exclusion names or bad suffix.
-     * @param submissionEntry Entry to check.
+     * @param entryName Name of the entry to check.
+     * @param isFile states whether the entry is a file.
      * @return Error message if the entry should be ignored.
      */
-    private String isExcludedEntry(File submissionEntry) {
-        if (isFileExcluded(submissionEntry)) {
-            return "Exclude submission: " + submissionEntry.getName();
+    private String isExcludedEntry(String entryName, boolean isFile) {
+        if (isFileExcluded(entryName)) {
+            return "Exclude submission: " + entryName;
         }
 
-        if (submissionEntry.isFile() && !hasValidSuffix(submissionEntry)) {
-            return "Ignore submission with invalid suffix: " + submissionEntry.getName();
+        if (isFile && !hasValidSuffix(entryName)) {
+            return "Ignore submission with invalid suffix: " + entryName;
         }
         return null;
     }
@@ -189,10 +284,12 @@ public class SubmissionSetBuilder {
      * Process the given directory entry as a submission, the path MUST not be excluded.
      * @param submissionFile the file for the submission.
      * @param isNew states whether submissions found in the root directory must be checked for plagiarism.
+     * @param canonicalRootDirectory is the canonical directory containing the entry, or null if it is unknown.
      * @return The entry converted to a submission.
      * @throws ExitException when an error has been found with the entry.
      */
-    private Submission processSubmission(String submissionName, File submissionFile, boolean isNew) throws ExitException {
+    private Submission processSubmission(String submissionName, File submissionFile, boolean isNew, File canonicalRootDirectory)
+            throws ExitException {
 
         if (submissionFile.isDirectory() && options.subdirectoryName() != null) {
             // Use subdirectory instead
@@ -208,84 +305,208 @@ public class SubmissionSetBuilder {
             }
         }
 
-        submissionFile = makeCanonical(submissionFile, it -> new SubmissionException("Cannot create submission: " + submissionName, it));
+        if (canonicalRootDirectory == null || !isCanonical(canonicalRootDirectory, submissionFile)) {
+            submissionFile = makeCanonical(submissionFile, it -> new SubmissionException("Cannot create submission: " + submissionName, it));
+        }
         return new Submission(submissionName, submissionFile, isNew, parseFilesRecursively(submissionFile), language);
     }
 
     /**
-     * Process entries in the root directory to check whether they qualify as submissions.
-     * @param rootDirectory is the root directory being examined.
-     * @param foundSubmissions Submissions found so far, is updated in-place.
+     * Process entries in the root directory to check whether they qualify as submissions. The entries are processed in
+     * parallel, as traversing the submission files is dominated by file system latency.
+     * @param rootDirectory is the canonical root directory being examined.
      * @param isNew states whether submissions found in the root directory must be checked for plagiarism.
+     * @param archives is the scope in which the root directory is opened if it is an archive.
+     * @return the pending submissions in the order of the entries, which are empty for excluded entries.
      */
-    private void processRootDirectoryEntries(File rootDirectory, boolean multipleRoots, Map<File, Submission> foundSubmissions, boolean isNew)
-            throws ExitException {
+    private List<Future<Optional<Submission>>> processRootDirectoryEntries(File rootDirectory, boolean multipleRoots, boolean isNew,
+            ExecutorService executor, SubmissionArchives archives) throws ExitException {
+        if (rootDirectory.isFile()) {
+            return processArchiveEntries(rootDirectory, multipleRoots, isNew, executor, archives);
+        }
+        List<Future<Optional<Submission>>> pendingSubmissions = new ArrayList<>();
         for (String fileName : listSubmissionFiles(rootDirectory)) {
-            File submissionFile = new File(rootDirectory, fileName);
-
-            String errorMessage = isExcludedEntry(submissionFile);
-            if (errorMessage == null) {
+            pendingSubmissions.add(executor.submit(() -> {
+                File submissionFile = new File(rootDirectory, fileName);
+
+                String errorMessage = isExcludedEntry(fileName, submissionFile.isFile());
+                if (errorMessage != null) {
+                    logger.error(errorMessage);
+                    return Optional.empty();
+                }
                 String rootDirectoryPrefix = multipleRoots ? (rootDirectory.getName() + File.separator) : "";
                 String submissionName = rootDirectoryPrefix + fileName;
-                Submission submission = processSubmission(submissionName, submissionFile, isNew);
-                foundSubmissions.put(submission.getRoot(), submission);
-            } else {
-                logger.error(errorMessage);
+                return Optional.of(processSubmission(submissionName, submissionFile, isNew, rootDirectory));
+            }));
+        }
+        return pendingSubmissions;
+    }
+
+    /**
+     * Process the top-level entries of an archive to check whether they qualify as submissions. The submission files are
+     * read from the archive, see {@link SubmissionArchive}.
+     * @param archiveFile is the canonical archive file being examined.
+     * @param isNew states whether submissions found in the archive must be checked for plagiarism.
+     * @param archives is the scope in which the archive is opened.
+     * @return the pending submissions in the order of the entries, which are empty for excluded entries.
+     */
+    private List<Future<Optional<Submission>>> processArchiveEntries(File archiveFile, boolean multipleRoots, boolean isNew,
+            ExecutorService executor, SubmissionArchives archives) throws ExitException {
+        SubmissionArchive archive;
+        try {
+            archive = archives.open(archiveFile);
+        } catch (IOException exception) {
+            throw new RootDirectoryException("Cannot read archive " + archiveFile + ": " + exception.getMessage(), exception);
+        }
+        List<Future<Optional<Submission>>> pendingSubmissions = new ArrayList<>();
+        for (String entryName : archive.listRootEntries()) {
+            pendingSubmissions.add(executor.submit(() -> {
+                String errorMessage = isExcludedEntry(entryName, archive.isFile(entryName));
+                if (errorMessage != null) {
+                    logger.error(errorMessage);
+                    return Optional.empty();
+                }
+                String rootDirectoryPrefix = multipleRoots ? (archiveFile.getName() + File.separator) : "";
+                return Optional.of(processArchiveSubmission(rootDirectoryPrefix + entryName, archive, entryName, isNew));
+            }));
+        }
+        return pendingSubmissions;
+    }
+
+    /**
+     * Process the given archive entry as a submission, the entry MUST not be excluded.
+     * @param archive is the archive containing the entry.
+     * @param path is the path of the entry in the archive.
+     * @param isNew states whether the submission must be checked for plagiarism.
+     * @return The entry converted to a submission.
+     * @throws ExitException when an error has been found with the entry.
+     */
+    private Submission processArchiveSubmission(String submissionName, SubmissionArchive archive, String path, boolean isNew)
+            throws ExitException {
+        if (archive.isDirectory(path) && options.subdirectoryName() != null) {
+            // Use subdirectory instead
+            path = path + "/" + options.subdirectoryName();
+
+            if (!archive.isDirectory(path) && !archive.isFile(path)) {
+                throw new SubmissionException(
+                        String.format("Submission %s does not contain the given subdirectory '%s'", submissionName, options.subdirectoryName()));
+            }
+
+            if (!archive.isDirectory(path)) {
+                throw new SubmissionException(String.format("The given subdirectory '%s' is not a directory!", options.subdirectoryName()));
+            }
+        }
+
+        // Like in the file system, excluded directories are skipped, including the root of the submission.
+        int rootNameIndex = path.lastIndexOf('/') + 1;
+        List<File> files = new ArrayList<>();
+        for (String filePath : archive.listFiles(path)) {
+            String[] names = filePath.substring(rootNameIndex).split("/");
+            if (Arrays.stream(names).noneMatch(this::isFileExcluded) && hasValidSuffix(names[names.length - 1])) {
+                files.add(archive.toFile(filePath));
+            }
+        }
+        return new Submission(submissionName, archive.toFile(path), isNew, files, language);
+    }
+
+    /**
+     * Waits for a submission that is processed in parallel and rethrows the exceptions of its processing.
+     */
+    private static Optional<Submission> awaitSubmission(Future<Optional<Submission>> pendingSubmission) throws ExitException {
+        try {
+            return pendingSubmission.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SubmissionException("Processing of submissions was interrupted", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof ExitException exitException) {
+                throw exitException;
+            } else if (exception.getCause() instanceof Error error) {
+                throw error;
+            } else if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new IllegalStateException(exception.getCause());
         }
     }
 
     /**
      * Checks if a file has a valid suffix for the current language.
-     * @param file is the file to check.
+     * @param fileName is the name of the file to check.
      * @return true if the file suffix matches the language.
      */
-    private boolean hasValidSuffix(File file) {
-        List<String> validSuffixes = options.fileSuffixes();
-
-        // This is the case if either the language modules or the CLI did not set the valid suffixes array in options
-        if (validSuffixes == null || validSuffixes.isEmpty()) {
-            return true;
-        }
-        return validSuffixes.stream().anyMatch(suffix -> file.getName().endsWith(suffix));
+    private boolean hasValidSuffix(String fileName) {
+        return validSuffixMatcher == null || validSuffixMatcher.matches(fileName);
     }
 
     /**
      * Checks if a file is excluded or not.
      */
-    private boolean isFileExcluded(File file) {
-        return excludedFileNames.stream().anyMatch(excludedName -> file.getName().endsWith(excludedName));
+    private boolean isFileExcluded(String fileName) {
+        return exclusionMatcher.matches(fileName);
     }
 
     /**
      * Recursively scan the given directory for nested files. Excluded files and files with an invalid suffix are ignored.
+     * Symbolic links are followed, while directories that cannot be read are skipped.
      * <p>
      * If the given file is not a directory, the input will be returned as a singleton list.
      * @param file - File to start the scan from.
      * @return a list of nested files.
      */
     private Collection<File> parseFilesRecursively(File file) {
-        if (isFileExcluded(file)) {
-            return Collections.emptyList();
-        }
-
-        if (file.isFile() && hasValidSuffix(file)) {
-            return Collections.singletonList(file);
-        }
-
-        String[] nestedFileNames = file.list();
-
-        if (nestedFileNames == null) {
-            return Collections.emptyList();
+        Collection<File> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(file.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    return isFileExcluded(fileNameOf(directory)) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                    String fileName = fileNameOf(path);
+                    if (attributes.isRegularFile() && !isFileExcluded(fileName) && hasValidSuffix(fileName)) {
+                        files.add(path.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException exception) {
+                    logger.debug("Skipping unreadable file {}: {}", path, exception.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException exception) {
+            logger.error("Cannot read submission files of {}: {}", file, exception.getMessage());
         }
+        return files;
+    }
 
-        Collection<File> files = new ArrayList<>();
+    private static String fileNameOf(Path path) {
+        Path fileName = path.getFileName();
+        return fileName == null ? path.toString() : fileName.toString();
+    }
 
-        for (String fileName : nestedFileNames) {
-            files.addAll(parseFilesRecursively(new File(file, fileName)));
+    /**
+     * Checks whether a file within a canonical directory is canonical as well, which is the case if no path element below
+     * the directory is a symbolic link or a relative reference. This avoids resolving the canonical path of each
+     * submission, which is costly on network file systems.
+     */
+    private static boolean isCanonical(File canonicalDirectory, File file) {
+        Path current = canonicalDirectory.toPath();
+        for (Path element : current.relativize(file.toPath())) {
+            String name = element.toString();
+            if (name.equals(".") || name.equals("..")) {
+                return false;
+            }
+            current = current.resolve(element);
+            if (Files.isSymbolicLink(current)) {
+                return false;
+            }
         }
-
-        return files;
+        return true;
     }
 
     /**
@@ -0,0 +1,35 @@
+package de.jplag;
+
+/**
+ * Polynomial rolling hash function over fixed length subsequences of token values, as used by the
+ * {@link GreedyStringTiling} algorithm to find candidates for matching subsequences. The hash of the values
+ * <code>v_0, ..., v_(n-1)</code> is defined as <code>\sum from (i=0 to n-1) with hashOfValue(v_i) * base^(n-1-i)</code>
+ * and is computed modulo 2^64. This allows updating the hash in constant time when moving the subsequence window.
+ * <p>
+ * Equal subsequences always have equal hashes, thus the hash function only affects the number of false candidates that
+ * need to be verified, not the matching results.
+ * </p>
+ * @see RollingHashFunction
+ */
+public interface SubsequenceHashFunction {
+    /**
+     * @return the base of the polynomial.
+     */
+    long base();
+
+    /**
+     * Computes the hash of a single token value.
+     * @param value is the token value.
+     * @return the hash of the value, which is used as coefficient of the polynomial.
+     */
+    long hashOfValue(int value);
+
+    /**
+     * Returns the maximum subsequence length this hash function supports. Larger subsequence lengths are capped, which
+     * leads to more false candidates. Defaults to no limit.
+     * @return the maximum subsequence length.
+     */
+    default int maximumWindowSize() {
+        return Integer.MAX_VALUE;
+    }
+}
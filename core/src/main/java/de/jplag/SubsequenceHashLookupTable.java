@@ -1,51 +1,78 @@
 package de.jplag;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
 /**
  * A class to generate and store hashes over a fixed length subsequence of a given list of values. Hash generation is
  * optimized to work in O(n).
+ * <p>
+ * The start indexes are stored in a compressed sparse row layout: All start indexes are kept in a single flat array,
+ * grouped by their subsequence hash and sorted ascending within each group. An open addressing table maps each hash to
+ * its group. Thus, the table consists of a few primitive arrays and can be iterated via a {@link StartIndexCursor}
+ * without boxing.
  */
 class SubsequenceHashLookupTable {
     /**
-     * Value combination is chosen such that the maximum possible hash value does not exceed Int.max. Computation formula
-     * for maximum hash value is \sum from (i=0 to MAX_HASH_LENGTH - 1) with (HASH_MODULO - 1) * 2^i
+     * Indicator that the subsequence should not be considered for comparison matching. Actual hashes are truncated to 63
+     * bits, thus they never collide with this value.
      */
-    private static final int MAX_HASH_LENGTH = 25;
-    private static final int HASH_MODULO = 64;
+    public static final long NO_HASH = -1;
 
-    /** Indicator that the subsequence should not be considered for comparison matching */
-    public static final int NO_HASH = -1;
+    private static final long HASH_MASK = Long.MAX_VALUE;
+    private static final int EMPTY_SLOT = 0;
+    private static final int[] EMPTY = new int[0];
+    private static final long[] NO_HASHES = new long[0];
 
     private final int windowSize;
     private final int[] values;
-    private int[] subsequenceHashes;
-    private Map<Integer, List<Integer>> startIndexToSubsequenceHashesMap;
+    private final SubsequenceHashFunction hashFunction;
+    private long[] subsequenceHashes = NO_HASHES;
+
+    /** Open addressing table, each slot contains the group index plus one or {@link #EMPTY_SLOT}. */
+    private int[] slots = new int[1];
+    /** The subsequence hash of each group. */
+    private long[] groupHashes = NO_HASHES;
+    /** Offsets of the groups in {@link #startIndexes}, group i ranges from groupOffsets[i] to groupOffsets[i + 1]. */
+    private int[] groupOffsets = new int[1];
+    /** All start indexes grouped by their subsequence hash. */
+    private int[] startIndexes = EMPTY;
 
     /**
-     * Generates a new subsequence hash lookup table. Performance is optimized to compute hashes in O(n).
+     * Generates a new subsequence hash lookup table with {@link RollingHashFunction#KARP_RABIN_64 Karp-Rabin} hashes.
+     * Performance is optimized to compute hashes in O(n).
      * @param windowSize the size of the subsequences.
      * @param values the values to hash over.
      * @param markedIndexes the indexes of marked values. Subsequences containing a marked value obtain the {@link #NO_HASH}
      * value.
      */
-    SubsequenceHashLookupTable(int windowSize, int[] values, Set<Integer> markedIndexes) {
+    SubsequenceHashLookupTable(int windowSize, int[] values, BitSet markedIndexes) {
+        this(windowSize, values, markedIndexes, RollingHashFunction.KARP_RABIN_64);
+    }
+
+    /**
+     * Generates a new subsequence hash lookup table. Performance is optimized to compute hashes in O(n).
+     * @param windowSize the size of the subsequences, capped by the maximum window size of the hash function.
+     * @param values the values to hash over.
+     * @param markedIndexes the indexes of marked values. Subsequences containing a marked value obtain the {@link #NO_HASH}
+     * value.
+     * @param hashFunction the function to compute the subsequence hashes with.
+     */
+    SubsequenceHashLookupTable(int windowSize, int[] values, BitSet markedIndexes, SubsequenceHashFunction hashFunction) {
         windowSize = Math.max(1, windowSize);
-        windowSize = Math.min(MAX_HASH_LENGTH, windowSize);
+        windowSize = Math.min(hashFunction.maximumWindowSize(), windowSize);
         this.windowSize = windowSize;
         this.values = values;
+        this.hashFunction = hashFunction;
 
         if (values.length < windowSize) {
             return;
         }
 
-        subsequenceHashes = new int[values.length - windowSize];
-        startIndexToSubsequenceHashesMap = new HashMap<>(subsequenceHashes.length);
-        computeSubsequenceHashes(markedIndexes);
+        subsequenceHashes = new long[values.length - windowSize];
+        int numberOfHashes = computeSubsequenceHashes(markedIndexes);
+        buildStartIndexGroups(numberOfHashes);
     }
 
     /** Returns the size of the subsequences used for hashing */
@@ -63,64 +90,161 @@ class SubsequenceHashLookupTable {
      * @param startIndex the start index.
      * @return the hash of the requested subsequence.
      */
-    int subsequenceHashForStartIndex(int startIndex) {
+    long subsequenceHashForStartIndex(int startIndex) {
         return subsequenceHashes[startIndex];
     }
 
     /**
-     * Returns a list of all start indexes of possible subsequences for the given subsequence hash.
-     * @param subsequenceHash the hash value to obtain possibly matching subsequence start indexes for.
-     * @return a list with possible matching start indexes.
+     * Creates a new cursor over the start indexes of this table. A cursor can be reused for any number of hashes, see
+     * {@link StartIndexCursor#moveToSubsequenceHash(long)}.
+     * @return the new cursor, which initially has no elements.
      */
-    List<Integer> startIndexesOfPossiblyMatchingSubsequencesForSubsequenceHash(int subsequenceHash) {
-        if (startIndexToSubsequenceHashesMap.containsKey(subsequenceHash)) {
-            return startIndexToSubsequenceHashesMap.get(subsequenceHash);
-        }
-        return List.of();
+    StartIndexCursor startIndexCursor() {
+        return new StartIndexCursor();
     }
 
     /**
      * Creates hashes for all subsequences with windowSize. Code is optimized to perform in O(n) using a windowing approach.
-     * Hashes are computed by \sum from (i=0 to windowSize) with hash(values[offset+i]) * 2^(hashLength-1-i)
+     * Hashes are computed by \sum from (i=0 to windowSize) with hash(values[offset+i]) * base^(hashLength-1-i), see
+     * {@link SubsequenceHashFunction}.
      * @param markedIndexes contains the indexes of marked values. Subsequences containing a marked value will receive the
      * {@link #NO_HASH} value.
+     * @return the number of subsequences that received a hash value.
      */
-    private void computeSubsequenceHashes(Set<Integer> markedIndexes) {
-        int hash = 0;
+    private int computeSubsequenceHashes(BitSet markedIndexes) {
+        long base = hashFunction.base();
+        long factor = 1; // base^(windowSize-1), the weight of the oldest value in the window
+        for (int i = 1; i < windowSize; i++) {
+            factor *= base;
+        }
+
+        long hash = 0;
         int hashedLength = 0;
-        int factor = (windowSize != 1 ? (2 << (windowSize - 2)) : 1);
+        int numberOfHashes = 0;
 
         for (int windowEndIndex = 0; windowEndIndex < values.length; windowEndIndex++) {
             int windowStartIndex = windowEndIndex - windowSize;
             if (windowStartIndex >= 0) {
                 if (hashedLength >= windowSize) {
-                    subsequenceHashes[windowStartIndex] = hash;
-                    addToStartIndexesToHashesMap(windowStartIndex, hash);
+                    subsequenceHashes[windowStartIndex] = hash & HASH_MASK;
+                    numberOfHashes++;
                 } else {
                     subsequenceHashes[windowStartIndex] = NO_HASH;
                 }
-                hash -= factor * hashValueForValue(values[windowStartIndex]);
+                hash -= factor * hashFunction.hashOfValue(values[windowStartIndex]);
             }
-            hash = (2 * hash) + hashValueForValue(values[windowEndIndex]);
-            if (markedIndexes.contains(windowEndIndex)) {
+            hash = (base * hash) + hashFunction.hashOfValue(values[windowEndIndex]);
+            if (markedIndexes.get(windowEndIndex)) {
                 hashedLength = 0;
             } else {
                 hashedLength++;
             }
         }
+        return numberOfHashes;
     }
 
-    private int hashValueForValue(int value) {
-        return value % HASH_MODULO;
+    /**
+     * Groups the start indexes by their hashes. The first pass assigns each distinct hash a group and counts the group
+     * sizes, the second pass fills the groups in ascending start index order.
+     * @param numberOfHashes is the number of start indexes with a hash value.
+     */
+    private void buildStartIndexGroups(int numberOfHashes) {
+        slots = new int[Integer.highestOneBit(Math.max(1, numberOfHashes)) << 2]; // load factor of at most 0.5
+        int[] groupSizes = new int[numberOfHashes];
+        long[] hashesOfGroups = new long[numberOfHashes];
+        int numberOfGroups = 0;
+
+        for (int startIndex = 0; startIndex < subsequenceHashes.length; startIndex++) {
+            long hash = subsequenceHashes[startIndex];
+            if (hash == NO_HASH) {
+                continue;
+            }
+            int slot = findSlot(hash, hashesOfGroups);
+            if (slots[slot] == EMPTY_SLOT) {
+                hashesOfGroups[numberOfGroups] = hash;
+                slots[slot] = ++numberOfGroups;
+            }
+            groupSizes[slots[slot] - 1]++;
+        }
+
+        groupHashes = new long[numberOfGroups];
+        System.arraycopy(hashesOfGroups, 0, groupHashes, 0, numberOfGroups);
+        groupOffsets = new int[numberOfGroups + 1];
+        for (int group = 0; group < numberOfGroups; group++) {
+            groupOffsets[group + 1] = groupOffsets[group] + groupSizes[group];
+        }
+
+        startIndexes = new int[numberOfHashes];
+        int[] writePositions = groupSizes; // reused, as the sizes are no longer needed
+        System.arraycopy(groupOffsets, 0, writePositions, 0, numberOfGroups);
+        for (int startIndex = 0; startIndex < subsequenceHashes.length; startIndex++) {
+            long hash = subsequenceHashes[startIndex];
+            if (hash != NO_HASH) {
+                int group = slots[findSlot(hash, groupHashes)] - 1;
+                startIndexes[writePositions[group]++] = startIndex;
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a hash via linear probing.
+     * @return the slot containing the group of the hash, or the empty slot where the group of the hash belongs.
+     */
+    private int findSlot(long hash, long[] hashesOfGroups) {
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != EMPTY_SLOT && hashesOfGroups[slots[slot] - 1] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
     }
 
-    private void addToStartIndexesToHashesMap(int startIndex, int subsequenceHash) {
-        if (startIndexToSubsequenceHashesMap.containsKey(subsequenceHash)) {
-            startIndexToSubsequenceHashesMap.get(subsequenceHash).add(startIndex);
-        } else {
-            List<Integer> startIndexes = new ArrayList<>();
-            startIndexes.add(startIndex);
-            startIndexToSubsequenceHashesMap.put(subsequenceHash, startIndexes);
+    /**
+     * Spreads the bits of the subsequence hashes, which may only differ in their lower bits, over the whole slot range.
+     */
+    private static int mix(long hash) {
+        int mixed = (int) (hash ^ (hash >>> 32)) * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    /**
+     * Cursor over the start indexes of all possibly matching subsequences for a subsequence hash. Returns primitive values
+     * and can be reused, thus iterating over the start indexes does not allocate. The start indexes are returned in
+     * ascending order.
+     */
+    final class StartIndexCursor implements PrimitiveIterator.OfInt {
+        private int position;
+        private int end;
+
+        private StartIndexCursor() {
+        }
+
+        /**
+         * Moves the cursor to the start indexes of all possibly matching subsequences for the given subsequence hash.
+         * @param subsequenceHash the hash value to obtain possibly matching subsequence start indexes for.
+         */
+        void moveToSubsequenceHash(long subsequenceHash) {
+            int slot = slots[findSlot(subsequenceHash, groupHashes)];
+            if (subsequenceHash == NO_HASH || slot == EMPTY_SLOT) {
+                position = 0;
+                end = 0;
+            } else {
+                position = groupOffsets[slot - 1];
+                end = groupOffsets[slot];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            return startIndexes[position++];
         }
     }
 }
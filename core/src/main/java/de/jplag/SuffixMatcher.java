@@ -0,0 +1,52 @@
+package de.jplag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matches file names against a fixed set of suffixes. The suffixes are indexed by their last character, thus a name is
+ * only compared with the suffixes that end like the name instead of with all suffixes.
+ */
+final class SuffixMatcher {
+    private static final String[] NO_SUFFIXES = new String[0];
+
+    private final Map<Character, String[]> suffixesByLastCharacter = new HashMap<>();
+    private final boolean matchesAll;
+
+    /**
+     * @param suffixes are the suffixes to match. The empty suffix matches all names.
+     */
+    SuffixMatcher(Collection<String> suffixes) {
+        Map<Character, Collection<String>> groupedSuffixes = new HashMap<>();
+        boolean containsEmptySuffix = false;
+        for (String suffix : suffixes) {
+            if (suffix.isEmpty()) {
+                containsEmptySuffix = true;
+            } else {
+                groupedSuffixes.computeIfAbsent(suffix.charAt(suffix.length() - 1), key -> new ArrayList<>()).add(suffix);
+            }
+        }
+        groupedSuffixes.forEach((character, group) -> suffixesByLastCharacter.put(character, group.toArray(String[]::new)));
+        matchesAll = containsEmptySuffix;
+    }
+
+    /**
+     * @return whether the name ends with any of the suffixes.
+     */
+    boolean matches(String name) {
+        if (matchesAll) {
+            return true;
+        }
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (String suffix : suffixesByLastCharacter.getOrDefault(name.charAt(name.length() - 1), NO_SUFFIXES)) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,396 @@
+package de.jplag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.options.TokenCacheOptions;
+
+/**
+ * Persistent cache of the tokens of single files, see {@link TokenCacheOptions}. Each entry is keyed by the SHA-256 hash
+ * of the file content, the language identifier, and the language version. Only token lists whose token types are enum
+ * constants are cached. Once the cache exceeds its maximum size, the least recently used entries are evicted. Can be
+ * used concurrently.
+ */
+public final class TokenCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenCache.class);
+
+    private static final String ENTRY_SUFFIX = ".tokens";
+    private static final int FORMAT_VERSION = 1;
+    private static final double SIZE_AFTER_EVICTION = 0.9; // relative to the maximum size, avoids evicting on each store
+
+    /**
+     * Forms in which languages may reference a parsed file in its tokens. The form is stored with the tokens, such that
+     * cached tokens reference the same file as parsed tokens.
+     */
+    private static final List<UnaryOperator<File>> FILE_FORMS = List.of(file -> file, File::getAbsoluteFile,
+            file -> file.toPath().toAbsolutePath().normalize().toFile());
+
+    private final Path directory;
+    private final long maximumSize;
+    private final Language language;
+    private final AtomicLong size;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Opens or creates a token cache.
+     * @param options are the options of the cache, which must be enabled.
+     * @param language is the language whose tokens are cached.
+     * @throws IOException if the cache directory cannot be created or read.
+     * @throws IllegalArgumentException if the version of the language is unknown, as cached tokens would then survive
+     * changes of its parser.
+     */
+    public TokenCache(TokenCacheOptions options, Language language) throws IOException {
+        if (Language.UNKNOWN_VERSION.equals(language.getVersion())) {
+            throw new IllegalArgumentException("Unknown version of language " + language.getIdentifier() + ", cached tokens could become stale");
+        }
+        this.directory = options.directory().toPath();
+        this.maximumSize = options.maximumSize();
+        this.language = language;
+        Files.createDirectories(directory);
+        this.size = new AtomicLong(listEntries().mapToLong(TokenCache::sizeOf).sum());
+    }
+
+    /**
+     * Parses the given files, while the tokens of already cached files are taken from the cache. Tokens of newly parsed
+     * files are stored in the cache.
+     * @param files are the files to parse, which are passed to the language if they are not cached.
+     * @return the list of tokens of all files, in the order of the given files.
+     * @throws ParsingException if the language fails to parse the uncached files.
+     */
+    public List<Token> parse(Set<File> files) throws ParsingException {
+        return parseBatch(List.of(files)).get(0).getTokens();
+    }
+
+    /**
+     * Parses the files of several submissions like {@link #parse(Set)}, while the uncached files of all submissions are
+     * passed to the language as one batch.
+     * @param fileSets are the files of each submission.
+     * @return the result of each submission, in the order of the file sets.
+     */
+    public List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        List<CacheLookup> lookups = fileSets.stream().map(this::lookUp).toList();
+        List<Set<File>> filesToParse = lookups.stream().filter(CacheLookup::needsParsing).map(CacheLookup::filesToParse).toList();
+        Iterator<ParsingResult> parsingResults = (filesToParse.isEmpty() ? List.<ParsingResult>of() : language.parseBatch(filesToParse)).iterator();
+
+        List<ParsingResult> results = new ArrayList<>(fileSets.size());
+        for (CacheLookup lookup : lookups) {
+            try {
+                List<Token> parsedTokens = lookup.needsParsing() ? parsingResults.next().getTokens() : List.of();
+                results.add(ParsingResult.success(combine(lookup, parsedTokens)));
+            } catch (ParsingException exception) {
+                results.add(ParsingResult.failure(exception));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Looks up the cached tokens of the given files.
+     */
+    private CacheLookup lookUp(Set<File> files) {
+        Map<File, List<Token>> cachedTokens = new HashMap<>();
+        Map<File, String> keys = new HashMap<>();
+        Set<File> uncachedFiles = new LinkedHashSet<>();
+        for (File file : files) {
+            Optional<String> key = keyOf(file);
+            Optional<List<Token>> tokens = key.flatMap(it -> load(it, file));
+            if (tokens.isPresent()) {
+                hits.increment();
+                cachedTokens.put(file, tokens.get());
+            } else {
+                misses.increment();
+                uncachedFiles.add(file);
+                key.ifPresent(it -> keys.put(file, it));
+            }
+        }
+        return new CacheLookup(files, cachedTokens, keys, uncachedFiles);
+    }
+
+    /**
+     * Combines the cached tokens with the newly parsed tokens, which are stored in the cache.
+     * @param parsedTokens are the tokens of the files to parse of the lookup.
+     */
+    private List<Token> combine(CacheLookup lookup, List<Token> parsedTokens) throws ParsingException {
+        Set<File> files = lookup.files();
+        if (lookup.cachedTokens().isEmpty()) {
+            groupByFile(parsedTokens, files).ifPresent(tokensByFile -> storeAll(tokensByFile, lookup.keys()));
+            return parsedTokens;
+        }
+
+        Map<File, List<Token>> parsedTokensByFile = Map.of();
+        if (lookup.needsParsing()) {
+            Optional<Map<File, List<Token>>> tokensByFile = groupByFile(parsedTokens, lookup.uncachedFiles());
+            if (tokensByFile.isEmpty()) {
+                return language.parse(files); // the tokens cannot be assigned to the files, thus the cached tokens are not used
+            }
+            parsedTokensByFile = tokensByFile.get();
+            storeAll(parsedTokensByFile, lookup.keys());
+        }
+        List<Token> tokens = new ArrayList<>();
+        for (File file : files) {
+            tokens.addAll(lookup.cachedTokens().getOrDefault(file, parsedTokensByFile.getOrDefault(file, List.of())));
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the number of files whose tokens were taken from the cache.
+     */
+    public long getNumberOfHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of files that were not cached and thus had to be parsed.
+     */
+    public long getNumberOfMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the current size of the cache in bytes.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Computes the key of a file from its content and the language.
+     * @return the key or nothing if the file cannot be read.
+     */
+    private Optional<String> keyOf(File file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(SourceLoader.readAllBytes(file));
+            digest.update((byte) 0);
+            digest.update(language.getIdentifier().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(language.getVersion().getBytes(StandardCharsets.UTF_8));
+            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException exception) {
+            return Optional.empty(); // the language reports the file as unreadable
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // SHA-256 is supported by every Java platform
+        }
+    }
+
+    private Optional<List<Token>> load(String key, File file) {
+        Path entry = entryOf(key);
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            File tokenFile = FILE_FORMS.get(input.readInt()).apply(file);
+            TokenType[] types = TokenTypeTable.read(input, language.getClass().getClassLoader());
+            int numberOfTokens = input.readInt();
+            List<Token> tokens = new ArrayList<>(numberOfTokens);
+            for (int i = 0; i < numberOfTokens; i++) {
+                tokens.add(new Token(types[input.readInt()], tokenFile, input.readInt(), input.readInt(), input.readInt()));
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(tokens);
+        } catch (IOException | ReflectiveOperationException | RuntimeException exception) {
+            logger.warn("Ignoring invalid token cache entry {}: {}", entry, exception.getMessage());
+            delete(entry);
+            return Optional.empty();
+        }
+    }
+
+    private void storeAll(Map<File, List<Token>> tokensByFile, Map<File, String> keys) {
+        tokensByFile.forEach((file, tokens) -> {
+            String key = keys.get(file);
+            Optional<Integer> fileForm = fileFormOf(file, tokens);
+            if (key != null && fileForm.isPresent() && TokenTypeTable.isSupported(tokens)) {
+                store(key, fileForm.get(), tokens);
+            }
+        });
+        if (size.get() > maximumSize) {
+            evict();
+        }
+    }
+
+    private void store(String key, int fileForm, List<Token> tokens) {
+        Path entry = entryOf(key);
+        Path temporaryEntry = null;
+        try {
+            temporaryEntry = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryEntry)))) {
+                writeTokens(fileForm, tokens, output);
+            }
+            long entrySize = Files.size(temporaryEntry) - sizeOf(entry); // files with equal content replace the same entry
+            try {
+                Files.move(temporaryEntry, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporaryEntry, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            size.addAndGet(entrySize);
+        } catch (IOException exception) {
+            logger.warn("Could not store tokens in the token cache: {}", exception.getMessage());
+            if (temporaryEntry != null) {
+                delete(temporaryEntry);
+            }
+        }
+    }
+
+    private static void writeTokens(int fileForm, List<Token> tokens, DataOutputStream output) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(fileForm);
+        Map<TokenType, Integer> typeIndices = TokenTypeTable.write(tokens, output);
+        output.writeInt(tokens.size());
+        for (Token token : tokens) {
+            output.writeInt(typeIndices.get(token.getType()));
+            output.writeInt(token.getLine());
+            output.writeInt(token.getColumn());
+            output.writeInt(token.getLength());
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is sufficiently below its maximum size.
+     */
+    private synchronized void evict() {
+        List<CacheEntry> entries = listEntries().map(entry -> new CacheEntry(entry, lastModifiedOf(entry), sizeOf(entry)))
+                .sorted(Comparator.comparingLong(CacheEntry::lastModified)).toList();
+        long currentSize = entries.stream().mapToLong(CacheEntry::size).sum();
+        long targetSize = (long) (maximumSize * SIZE_AFTER_EVICTION);
+        int evicted = 0;
+        for (CacheEntry entry : entries) {
+            if (currentSize <= targetSize) {
+                break;
+            }
+            if (delete(entry.path())) {
+                currentSize -= entry.size();
+                evicted++;
+            }
+        }
+        size.set(currentSize);
+        logger.debug("Evicted {} token cache entries", evicted);
+    }
+
+    /**
+     * Lists all entries. The listing is materialized, as entries may be deleted concurrently.
+     */
+    private Stream<Path> listEntries() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX)).toList().stream();
+        } catch (IOException exception) {
+            logger.warn("Could not list the token cache: {}", exception.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    private Path entryOf(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Groups tokens by the given files, which the tokens may reference in any of the {@link #FILE_FORMS}.
+     * @return the tokens of each file or nothing if a token belongs to none of the given files.
+     */
+    private static Optional<Map<File, List<Token>>> groupByFile(List<Token> tokens, Set<File> files) {
+        Map<File, File> filesByForm = new HashMap<>();
+        for (UnaryOperator<File> form : FILE_FORMS) {
+            files.forEach(file -> filesByForm.putIfAbsent(form.apply(file), file));
+        }
+        Map<File, List<Token>> tokensByFile = new LinkedHashMap<>();
+        for (Token token : tokens) {
+            File file = filesByForm.get(token.getFile());
+            if (file == null) {
+                return Optional.empty();
+            }
+            tokensByFile.computeIfAbsent(file, key -> new ArrayList<>()).add(token);
+        }
+        return Optional.of(tokensByFile);
+    }
+
+    /**
+     * @return the index of the form in which all tokens reference the file, or nothing if there is no such form.
+     */
+    private static Optional<Integer> fileFormOf(File file, List<Token> tokens) {
+        for (int form = 0; form < FILE_FORMS.size(); form++) {
+            File tokenFile = FILE_FORMS.get(form).apply(file);
+            if (tokens.stream().allMatch(token -> tokenFile.equals(token.getFile()))) {
+                return Optional.of(form);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long sizeOf(Path entry) {
+        try {
+            return Files.size(entry);
+        } catch (IOException exception) {
+            return 0; // not existing or deleted concurrently
+        }
+    }
+
+    private static long lastModifiedOf(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    private static boolean delete(Path entry) {
+        try {
+            return Files.deleteIfExists(entry);
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Cached tokens and cache keys of the files of a submission.
+     * @param uncachedFiles are the files without cached tokens, in the order of the files.
+     */
+    private record CacheLookup(Set<File> files, Map<File, List<Token>> cachedTokens, Map<File, String> keys, Set<File> uncachedFiles) {
+        boolean needsParsing() {
+            return !uncachedFiles.isEmpty();
+        }
+
+        /**
+         * @return all files if none are cached, which are parsed as usual, otherwise the uncached files.
+         */
+        Set<File> filesToParse() {
+            return cachedTokens.isEmpty() ? files : uncachedFiles;
+        }
+    }
+
+    private record CacheEntry(Path path, long lastModified, long size) {
+    }
+}
@@ -0,0 +1,69 @@
+package de.jplag;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary table of the token types of a persisted token list, such that each persisted token only stores the index of
+ * its type in the table. The types are stored by the names of their enum class and constant, thus only token lists
+ * whose types are enum constants can be persisted.
+ */
+final class TokenTypeTable {
+
+    private TokenTypeTable() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * @return whether the types of all tokens can be stored in a table.
+     */
+    static boolean isSupported(List<Token> tokens) {
+        return tokens.stream().allMatch(token -> token.getType() instanceof Enum<?>);
+    }
+
+    /**
+     * Writes the table of the types of the given tokens, which must be {@link #isSupported(List) supported}.
+     * @return the index of each type in the written table.
+     */
+    static Map<TokenType, Integer> write(List<Token> tokens, DataOutput output) throws IOException {
+        Map<TokenType, Integer> typeIndices = new LinkedHashMap<>();
+        for (Token token : tokens) {
+            typeIndices.putIfAbsent(token.getType(), typeIndices.size());
+        }
+        output.writeInt(typeIndices.size());
+        for (TokenType type : typeIndices.keySet()) {
+            Enum<?> constant = (Enum<?>) type;
+            output.writeUTF(constant.getDeclaringClass().getName());
+            output.writeUTF(constant.name());
+        }
+        return typeIndices;
+    }
+
+    /**
+     * Reads a table of token types.
+     * @param classLoader is the class loader of the language, which loads the enum classes of the types.
+     * @return the types, indexed like in the written table.
+     * @throws ReflectiveOperationException if a type does not exist (anymore).
+     */
+    static TokenType[] read(DataInput input, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+        TokenType[] types = new TokenType[input.readInt()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = tokenTypeOf(input.readUTF(), input.readUTF(), classLoader);
+        }
+        return types;
+    }
+
+    private static TokenType tokenTypeOf(String className, String constantName, ClassLoader classLoader) throws ReflectiveOperationException {
+        Class<?> type = Class.forName(className, true, classLoader);
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(constantName)) {
+                return (TokenType) constant;
+            }
+        }
+        throw new NoSuchFieldException(className + "." + constantName);
+    }
+}
@@ -0,0 +1,145 @@
+package de.jplag;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.jplag.clustering.SimilarityMatrix;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Thread-safe collector that retains only the K most similar comparisons, while the similarity distributions are
+ * computed over all collected comparisons. Comparisons that cannot be among the top K are discarded right away, thus
+ * memory usage is proportional to K instead of the number of comparisons.
+ */
+public final class TopComparisonCollector {
+    /**
+     * Orders comparisons descending by their average similarity. Ties are ordered by the submission names, such that the
+     * retained comparisons do not depend on the order in which they were collected.
+     */
+    static final Comparator<JPlagComparison> SIMILARITY_ORDER = Comparator.comparingDouble(JPlagComparison::similarity).reversed()
+            .thenComparing(comparison -> comparison.firstSubmission().getName()).thenComparing(comparison -> comparison.secondSubmission().getName());
+
+    private final int capacity;
+    private final PriorityQueue<JPlagComparison> retainedComparisons; // least similar comparison first
+    private final List<JPlagComparison> allComparisons;
+    private final AtomicIntegerArray similarityDistribution = new AtomicIntegerArray(JPlagResult.SIMILARITY_DISTRIBUTION_SIZE);
+    private final AtomicIntegerArray maxSimilarityDistribution = new AtomicIntegerArray(JPlagResult.SIMILARITY_DISTRIBUTION_SIZE);
+    private final LongAdder numberOfComparisons = new LongAdder();
+    private final SimilarityMatrix similarityMatrix;
+
+    /**
+     * Similarity of the least similar retained comparison once the collector is full. Comparisons below are discarded
+     * without locking.
+     */
+    private volatile double minimumRetainedSimilarity = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a collector.
+     * @param capacity is the number of comparisons to retain. If set to {@link JPlagOptions#SHOW_ALL_COMPARISONS}, all
+     * comparisons are retained.
+     */
+    public TopComparisonCollector(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a collector that additionally records the similarity of every collected comparison in a matrix, e.g. for
+     * the clustering.
+     * @param capacity is the number of comparisons to retain. If set to {@link JPlagOptions#SHOW_ALL_COMPARISONS}, all
+     * comparisons are retained.
+     * @param similarityMatrix records the similarities of all collected comparisons, or null.
+     */
+    public TopComparisonCollector(int capacity, SimilarityMatrix similarityMatrix) {
+        this.capacity = capacity;
+        this.similarityMatrix = similarityMatrix;
+        if (capacity == JPlagOptions.SHOW_ALL_COMPARISONS) {
+            retainedComparisons = null;
+            allComparisons = new ArrayList<>();
+        } else {
+            retainedComparisons = new PriorityQueue<>(capacity + 1, SIMILARITY_ORDER.reversed());
+            allComparisons = null;
+        }
+    }
+
+    /**
+     * Collects a comparison. Can be called concurrently.
+     * @param comparison is the comparison to collect.
+     */
+    public void add(JPlagComparison comparison) {
+        double similarity = comparison.similarity();
+        similarityDistribution.incrementAndGet(JPlagResult.distributionIndexOf(similarity));
+        maxSimilarityDistribution.incrementAndGet(JPlagResult.distributionIndexOf(comparison.maximalSimilarity()));
+        numberOfComparisons.increment();
+        if (similarityMatrix != null) {
+            similarityMatrix.add(comparison);
+        }
+
+        if (allComparisons != null) {
+            synchronized (this) {
+                allComparisons.add(comparison);
+            }
+        } else if (similarity >= minimumRetainedSimilarity) {
+            synchronized (this) {
+                retainedComparisons.add(comparison);
+                if (retainedComparisons.size() > capacity) {
+                    retainedComparisons.poll();
+                }
+                if (retainedComparisons.size() == capacity) {
+                    minimumRetainedSimilarity = retainedComparisons.peek().similarity();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the retained comparisons sorted descending by similarity.
+     */
+    public synchronized List<JPlagComparison> getTopComparisons() {
+        List<JPlagComparison> comparisons = new ArrayList<>(allComparisons != null ? allComparisons : retainedComparisons);
+        comparisons.sort(SIMILARITY_ORDER);
+        return comparisons;
+    }
+
+    /**
+     * @return the matrix with the similarities of all collected comparisons, if the collector records them.
+     */
+    public Optional<SimilarityMatrix> getSimilarityMatrix() {
+        return Optional.ofNullable(similarityMatrix);
+    }
+
+    /**
+     * @return the distribution of the average similarity over all collected comparisons, see
+     * {@link JPlagResult#getSimilarityDistribution()}.
+     */
+    public int[] getSimilarityDistribution() {
+        return toArray(similarityDistribution);
+    }
+
+    /**
+     * @return the distribution of the maximum similarity over all collected comparisons, see
+     * {@link JPlagResult#getMaxSimilarityDistribution()}.
+     */
+    public int[] getMaxSimilarityDistribution() {
+        return toArray(maxSimilarityDistribution);
+    }
+
+    /**
+     * @return the number of all collected comparisons, including the discarded ones.
+     */
+    public int getNumberOfComparisons() {
+        return numberOfComparisons.intValue();
+    }
+
+    private static int[] toArray(AtomicIntegerArray distribution) {
+        int[] array = new int[distribution.length()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = distribution.get(i);
+        }
+        return array;
+    }
+}
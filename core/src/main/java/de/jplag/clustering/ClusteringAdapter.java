@@ -48,6 +48,27 @@ public class ClusteringAdapter {
         }
     }
 
+    /**
+     * Creates the clustering adapter from a similarity matrix. Only submissions that are part of a comparison in the matrix
+     * might also appear in {@link ClusteringResult}s obtained from this adapter.
+     * @param similarities are the similarities between the submissions
+     */
+    public ClusteringAdapter(SimilarityMatrix similarities) {
+        List<Submission> submissions = similarities.getComparedSubmissions();
+        mapping = new IntegerMapping<>(submissions.size());
+        submissions.forEach(mapping::map);
+        int size = submissions.size();
+
+        similarityMatrix = new Array2DRowRealMatrix(size, size);
+        for (int first = 0; first < size; first++) {
+            for (int second = 0; second < first; second++) {
+                double similarity = similarities.getSimilarity(submissions.get(first), submissions.get(second));
+                similarityMatrix.setEntry(first, second, similarity);
+                similarityMatrix.setEntry(second, first, similarity);
+            }
+        }
+    }
+
     /**
      * Use a generic clustering algorithm to cluster the submissions, that were included in this {@link ClusteringAdapter}'s
      * comparison.
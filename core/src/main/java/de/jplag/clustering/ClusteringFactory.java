@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,20 @@ public class ClusteringFactory {
     private static final Logger logger = LoggerFactory.getLogger(ClusteringFactory.class);
 
     public static List<ClusteringResult<Submission>> getClusterings(Collection<JPlagComparison> comparisons, ClusteringOptions options) {
+        return getClusterings(() -> new ClusteringAdapter(comparisons, options.similarityMetric()), options);
+    }
+
+    /**
+     * Runs the clustering on a similarity matrix that was filled while comparing, see {@link SimilarityMatrix}.
+     * @param similarities are the similarities between the submissions.
+     * @param options are the clustering options.
+     * @return the clustering results, which are empty if clustering is disabled.
+     */
+    public static List<ClusteringResult<Submission>> getClusterings(SimilarityMatrix similarities, ClusteringOptions options) {
+        return getClusterings(() -> new ClusteringAdapter(similarities), options);
+    }
+
+    private static List<ClusteringResult<Submission>> getClusterings(Supplier<ClusteringAdapter> adapterSupplier, ClusteringOptions options) {
         if (!options.enabled()) {
             logger.warn(CLUSTERING_DISABLED);
             return Collections.emptyList();
@@ -50,7 +65,7 @@ public class ClusteringFactory {
         }
 
         // init adapter
-        ClusteringAdapter adapter = new ClusteringAdapter(comparisons, options.similarityMetric());
+        ClusteringAdapter adapter = adapterSupplier.get();
 
         // run clustering
         ClusteringResult<Submission> result = adapter.doClustering(clusteringAlgorithm);
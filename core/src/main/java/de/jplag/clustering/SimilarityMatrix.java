@@ -0,0 +1,100 @@
+package de.jplag.clustering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+
+/**
+ * Compact matrix of the pairwise similarities between submissions, which is filled while the submissions are compared.
+ * The clustering runs on this matrix, thus the comparisons themselves do not need to be retained. Only one triangle of
+ * the symmetric matrix is stored, as floats. Comparisons of distinct pairs can be added concurrently.
+ */
+public final class SimilarityMatrix {
+    /**
+     * Maximum number of submissions whose triangle still fits into a single array.
+     */
+    public static final int MAXIMUM_SUBMISSIONS = 65535;
+
+    private final List<Submission> submissions;
+    private final Map<Submission, Integer> indices;
+    private final ToDoubleFunction<JPlagComparison> metric;
+    private final float[] similarities; // lower triangle without the diagonal, row by row
+    private final boolean[] compared; // whether a submission is part of any added comparison
+
+    /**
+     * Creates an empty matrix.
+     * @param submissions are the submissions whose comparisons can be added.
+     * @param metric assigns the similarity to each comparison.
+     * @throws IllegalArgumentException if there are more than {@link #MAXIMUM_SUBMISSIONS} submissions.
+     */
+    public SimilarityMatrix(List<Submission> submissions, ToDoubleFunction<JPlagComparison> metric) {
+        if (submissions.size() > MAXIMUM_SUBMISSIONS) {
+            throw new IllegalArgumentException("Too many submissions for a similarity matrix: " + submissions.size());
+        }
+        this.submissions = List.copyOf(submissions);
+        this.metric = metric;
+        indices = new HashMap<>(submissions.size() * 2);
+        for (int index = 0; index < submissions.size(); index++) {
+            indices.put(submissions.get(index), index);
+        }
+        int size = submissions.size();
+        similarities = new float[(int) ((long) size * (size - 1) / 2)];
+        compared = new boolean[size];
+    }
+
+    /**
+     * Adds the similarity of a comparison. Can be called concurrently for distinct pairs of submissions.
+     * @param comparison is the comparison of two submissions of this matrix.
+     */
+    public void add(JPlagComparison comparison) {
+        int first = indexOf(comparison.firstSubmission());
+        int second = indexOf(comparison.secondSubmission());
+        similarities[cellOf(first, second)] = (float) metric.applyAsDouble(comparison);
+        compared[first] = true;
+        compared[second] = true;
+    }
+
+    /**
+     * @return the similarity between two submissions, or zero if they were not compared.
+     */
+    public double getSimilarity(Submission first, Submission second) {
+        Integer firstIndex = indices.get(first);
+        Integer secondIndex = indices.get(second);
+        if (firstIndex == null || secondIndex == null || firstIndex.equals(secondIndex)) {
+            return 0;
+        }
+        return similarities[cellOf(firstIndex, secondIndex)];
+    }
+
+    /**
+     * @return the submissions that are part of at least one added comparison, in the order given on creation.
+     */
+    public List<Submission> getComparedSubmissions() {
+        List<Submission> comparedSubmissions = new ArrayList<>();
+        for (int index = 0; index < compared.length; index++) {
+            if (compared[index]) {
+                comparedSubmissions.add(submissions.get(index));
+            }
+        }
+        return comparedSubmissions;
+    }
+
+    private int indexOf(Submission submission) {
+        Integer index = indices.get(submission);
+        if (index == null) {
+            throw new IllegalArgumentException("Submission is not part of the similarity matrix: " + submission.getName());
+        }
+        return index;
+    }
+
+    private static int cellOf(int first, int second) {
+        int row = Math.max(first, second);
+        int column = Math.min(first, second);
+        return (int) ((long) row * (row - 1) / 2 + column);
+    }
+}
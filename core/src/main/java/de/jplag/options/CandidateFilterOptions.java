@@ -0,0 +1,68 @@
+package de.jplag.options;
+
+/**
+ * Parameters of the MinHash candidate filter, which skips submission pairs that are unlikely to be similar before
+ * comparing them. Each submission obtains a MinHash signature of <code>numberOfBands * rowsPerBand</code> values over
+ * the set of its token k-grams. Two submissions are compared if their signatures are equal in all rows of at least one
+ * band (locality-sensitive hashing). Pairs with a k-gram Jaccard similarity s are thus compared with a probability of
+ * <code>1 - (1 - s^rowsPerBand)^numberOfBands</code>: More bands increase the recall, more rows per band skip more
+ * pairs.
+ * @param enabled whether the candidate filter is used. If disabled, all submission pairs are compared.
+ * @param kGramLength the number of consecutive tokens that form a k-gram. Should not exceed the minimum token match, so
+ * that every match contains at least one shared k-gram.
+ * @param numberOfBands the number of bands of the signatures.
+ * @param rowsPerBand the number of signature values per band.
+ * @param maximumBucketSize the number of submissions with an equal band up to which all of them are paired. Larger
+ * buckets, e.g. due to shared template code, would yield a quadratic number of pairs, thus each of their submissions is
+ * only paired with the next <code>maximumBucketSize - 1</code> submissions of the bucket.
+ */
+public record CandidateFilterOptions(boolean enabled, int kGramLength, int numberOfBands, int rowsPerBand, int maximumBucketSize) {
+
+    public static final int DEFAULT_K_GRAM_LENGTH = 5;
+    public static final int DEFAULT_NUMBER_OF_BANDS = 32;
+    public static final int DEFAULT_ROWS_PER_BAND = 4;
+    public static final int DEFAULT_MAXIMUM_BUCKET_SIZE = 1000;
+
+    public CandidateFilterOptions(boolean enabled, int kGramLength, int numberOfBands, int rowsPerBand, int maximumBucketSize) {
+        if (kGramLength < 1 || numberOfBands < 1 || rowsPerBand < 1 || maximumBucketSize < 2) {
+            throw new IllegalArgumentException("Candidate filter parameters must be positive");
+        }
+        this.enabled = enabled;
+        this.kGramLength = kGramLength;
+        this.numberOfBands = numberOfBands;
+        this.rowsPerBand = rowsPerBand;
+        this.maximumBucketSize = maximumBucketSize;
+    }
+
+    public CandidateFilterOptions() {
+        this(false, DEFAULT_K_GRAM_LENGTH, DEFAULT_NUMBER_OF_BANDS, DEFAULT_ROWS_PER_BAND, DEFAULT_MAXIMUM_BUCKET_SIZE);
+    }
+
+    public CandidateFilterOptions withEnabled(boolean enabled) {
+        return new CandidateFilterOptions(enabled, kGramLength, numberOfBands, rowsPerBand, maximumBucketSize);
+    }
+
+    public CandidateFilterOptions withKGramLength(int kGramLength) {
+        return new CandidateFilterOptions(enabled, kGramLength, numberOfBands, rowsPerBand, maximumBucketSize);
+    }
+
+    public CandidateFilterOptions withNumberOfBands(int numberOfBands) {
+        return new CandidateFilterOptions(enabled, kGramLength, numberOfBands, rowsPerBand, maximumBucketSize);
+    }
+
+    public CandidateFilterOptions withRowsPerBand(int rowsPerBand) {
+        return new CandidateFilterOptions(enabled, kGramLength, numberOfBands, rowsPerBand, maximumBucketSize);
+    }
+
+    public CandidateFilterOptions withMaximumBucketSize(int maximumBucketSize) {
+        return new CandidateFilterOptions(enabled, kGramLength, numberOfBands, rowsPerBand, maximumBucketSize);
+    }
+
+    /**
+     * @return the k-gram Jaccard similarity at which pairs are compared with a probability of about one half, which is
+     * approximately <code>(1 / numberOfBands)^(1 / rowsPerBand)</code>.
+     */
+    public double approximateSimilarityThreshold() {
+        return Math.pow(1.0 / numberOfBands, 1.0 / rowsPerBand);
+    }
+}
@@ -39,11 +39,18 @@ import de.jplag.exceptions.BasecodeException;
  * set to {@link #SHOW_ALL_COMPARISONS} all comparisons will be shown.
  * @param clusteringOptions Clustering options
  * @param debugParser If true, submissions that cannot be parsed will be stored in a separate directory.
+ * @param blacklistFileName Name of the file that contains names of pairs of files that won't be compared.
+ * @param candidateFilterOptions Options of the MinHash candidate filter that skips unlikely similar submission pairs.
+ * @param tokenCacheOptions Options of the persistent token cache that skips parsing of already parsed files.
+ * @param corpusIndexDirectory Directory of the corpus index, which stores the tokens of previously checked submissions.
+ * These are compared with the new submissions as old submissions without parsing them again. If it is null, no index
+ * is used.
  */
 public record JPlagOptions(Language language, Integer minimumTokenMatch, Set<File> submissionDirectories, Set<File> oldSubmissionDirectories,
         File baseCodeSubmissionDirectory, String subdirectoryName, List<String> fileSuffixes, String exclusionFileName,
         SimilarityMetric similarityMetric, double similarityThreshold, int maximumNumberOfComparisons, ClusteringOptions clusteringOptions,
-        boolean debugParser, String blacklistFileName) {
+        boolean debugParser, String blacklistFileName, CandidateFilterOptions candidateFilterOptions, TokenCacheOptions tokenCacheOptions,
+        File corpusIndexDirectory) {
 
     public static final double DEFAULT_SIMILARITY_THRESHOLD = 0;
     public static final int DEFAULT_SHOWN_COMPARISONS = 100;
@@ -55,13 +62,15 @@ public record JPlagOptions(Language language, Integer minimumTokenMatch, Set<Fil
 
     public JPlagOptions(Language language, Set<File> submissionDirectories, Set<File> oldSubmissionDirectories) {
         this(language, null, submissionDirectories, oldSubmissionDirectories, null, null, null, null, DEFAULT_SIMILARITY_METRIC,
-                DEFAULT_SIMILARITY_THRESHOLD, DEFAULT_SHOWN_COMPARISONS, new ClusteringOptions(), false, null);
+                DEFAULT_SIMILARITY_THRESHOLD, DEFAULT_SHOWN_COMPARISONS, new ClusteringOptions(), false, null, new CandidateFilterOptions(),
+                new TokenCacheOptions(), null);
     }
 
     public JPlagOptions(Language language, Integer minimumTokenMatch, Set<File> submissionDirectories, Set<File> oldSubmissionDirectories,
             File baseCodeSubmissionDirectory, String subdirectoryName, List<String> fileSuffixes, String exclusionFileName,
             SimilarityMetric similarityMetric, double similarityThreshold, int maximumNumberOfComparisons, ClusteringOptions clusteringOptions,
-            boolean debugParser, String blacklistFileName) {
+            boolean debugParser, String blacklistFileName, CandidateFilterOptions candidateFilterOptions, TokenCacheOptions tokenCacheOptions,
+            File corpusIndexDirectory) {
         this.language = language;
         this.debugParser = debugParser;
         this.fileSuffixes = fileSuffixes == null || fileSuffixes.isEmpty() ? null : Collections.unmodifiableList(fileSuffixes);
@@ -76,90 +85,111 @@ public record JPlagOptions(Language language, Integer minimumTokenMatch, Set<Fil
         this.subdirectoryName = subdirectoryName;
         this.clusteringOptions = clusteringOptions;
         this.blacklistFileName = blacklistFileName;
+        this.candidateFilterOptions = candidateFilterOptions == null ? new CandidateFilterOptions() : candidateFilterOptions;
+        this.tokenCacheOptions = tokenCacheOptions == null ? new TokenCacheOptions() : tokenCacheOptions;
+        this.corpusIndexDirectory = corpusIndexDirectory;
     }
 
     public JPlagOptions withLanguageOption(Language language) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withDebugParser(boolean debugParser) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withFileSuffixes(List<String> fileSuffixes) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withSimilarityThreshold(double similarityThreshold) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withMaximumNumberOfComparisons(int maximumNumberOfComparisons) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withSimilarityMetric(SimilarityMetric similarityMetric) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withMinimumTokenMatch(Integer minimumTokenMatch) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withExclusionFileName(String exclusionFileName) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withSubmissionDirectories(Set<File> submissionDirectories) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withOldSubmissionDirectories(Set<File> oldSubmissionDirectories) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withBaseCodeSubmissionDirectory(File baseCodeSubmissionDirectory) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withSubdirectoryName(String subdirectoryName) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withClusteringOptions(ClusteringOptions clusteringOptions) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public JPlagOptions withBlacklistFileName(String blacklistFileName) {
         return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
                 subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                clusteringOptions, debugParser, blacklistFileName);
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
+    }
+
+    public JPlagOptions withCandidateFilterOptions(CandidateFilterOptions candidateFilterOptions) {
+        return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
+                subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
+    }
+
+    public JPlagOptions withTokenCacheOptions(TokenCacheOptions tokenCacheOptions) {
+        return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
+                subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
+    }
+
+    public JPlagOptions withCorpusIndexDirectory(File corpusIndexDirectory) {
+        return new JPlagOptions(language, minimumTokenMatch, submissionDirectories, oldSubmissionDirectories, baseCodeSubmissionDirectory,
+                subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
+                clusteringOptions, debugParser, blacklistFileName, candidateFilterOptions, tokenCacheOptions, corpusIndexDirectory);
     }
 
     public boolean hasBaseCode() {
@@ -278,7 +308,8 @@ public record JPlagOptions(Language language, Integer minimumTokenMatch, Set<Fil
             boolean debugParser, String blacklistFileName) throws BasecodeException {
         this(language, minimumTokenMatch, Set.of(submissionDirectory), oldSubmissionDirectories,
                 convertLegacyBaseCodeToFile(baseCodeSubmissionName, submissionDirectory), subdirectoryName, fileSuffixes, exclusionFileName,
-                similarityMetric, similarityThreshold, maximumNumberOfComparisons, clusteringOptions, debugParser, blacklistFileName);
+                similarityMetric, similarityThreshold, maximumNumberOfComparisons, clusteringOptions, debugParser, blacklistFileName,
+                new CandidateFilterOptions(), new TokenCacheOptions(), null);
     }
 
     /**
@@ -300,7 +331,8 @@ public record JPlagOptions(Language language, Integer minimumTokenMatch, Set<Fil
         try {
             return new JPlagOptions(language, minimumTokenMatch, submissionDirectory, oldSubmissionDirectories, baseCodeSubmissionName,
                     subdirectoryName, fileSuffixes, exclusionFileName, similarityMetric, similarityThreshold, maximumNumberOfComparisons,
-                    clusteringOptions, debugParser, blacklistFileName);
+                    clusteringOptions, debugParser, blacklistFileName).withCandidateFilterOptions(candidateFilterOptions)
+                    .withTokenCacheOptions(tokenCacheOptions).withCorpusIndexDirectory(corpusIndexDirectory);
         } catch (BasecodeException e) {
             throw new IllegalArgumentException(e.getMessage(), e.getCause());
         }
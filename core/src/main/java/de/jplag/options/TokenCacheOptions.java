@@ -0,0 +1,42 @@
+package de.jplag.options;
+
+import java.io.File;
+
+/**
+ * Options of the persistent token cache, which stores the parsed tokens of each file on disk. Files whose content was
+ * already parsed by the same language in the same version are not parsed again, e.g. the old submissions in re-runs.
+ * @param directory the directory of the cache. If it is null, the cache is disabled.
+ * @param maximumSize the maximum size of the cache in bytes. If it is exceeded, the least recently used entries are
+ * evicted.
+ */
+public record TokenCacheOptions(File directory, long maximumSize) {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024 * 1024;
+
+    public TokenCacheOptions(File directory, long maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum token cache size must be positive");
+        }
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+    }
+
+    public TokenCacheOptions() {
+        this(null, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public TokenCacheOptions withDirectory(File directory) {
+        return new TokenCacheOptions(directory, maximumSize);
+    }
+
+    public TokenCacheOptions withMaximumSize(long maximumSize) {
+        return new TokenCacheOptions(directory, maximumSize);
+    }
+
+    /**
+     * @return whether the token cache is used.
+     */
+    public boolean enabled() {
+        return directory != null;
+    }
+}
@@ -0,0 +1,31 @@
+package de.jplag.reporting.binary;
+
+/**
+ * Layout of the binary comparison store, a compact alternative to one JSON file per comparison. All numbers are
+ * big-endian. The store consists of two files:
+ * <ul>
+ * <li>{@value #COMPARISONS_FILE_NAME}: the magic number {@value #COMPARISONS_MAGIC} and the format version, a string
+ * table of submission ids and file paths, and the number of comparisons followed by one fixed-width record per comparison
+ * in the order of the report. A string table consists of the number of strings and of the byte length and UTF-8 bytes of
+ * each string. A comparison record consists of the string indices of both submission ids, the similarity as double, and
+ * the index of the first match and the number of matches of the comparison.</li>
+ * <li>{@value #MATCHES_FILE_NAME}: the magic number {@value #MATCHES_MAGIC} and the format version, and the number of
+ * matches followed by one fixed-width record per match. A match record consists of the string indices of both file
+ * paths, the start and end lines in both files, and the number of tokens.</li>
+ * </ul>
+ */
+public final class BinaryComparisonFormat {
+    public static final String COMPARISONS_FILE_NAME = "comparisons.bin";
+    public static final String MATCHES_FILE_NAME = "matches.bin";
+    public static final int COMPARISONS_MAGIC = 0x4A504C43; // JPLC
+    public static final int MATCHES_MAGIC = 0x4A504C4D; // JPLM
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int COMPARISON_RECORD_SIZE = 4 * Integer.BYTES + Double.BYTES;
+    static final int MATCH_RECORD_SIZE = 7 * Integer.BYTES;
+
+    private BinaryComparisonFormat() {
+        // private constructor to prevent instantiation
+    }
+}
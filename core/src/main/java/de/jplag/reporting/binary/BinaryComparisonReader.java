@@ -0,0 +1,239 @@
+package de.jplag.reporting.binary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+import de.jplag.reporting.reportobject.model.Match;
+
+/**
+ * Reads the binary comparison store described by {@link BinaryComparisonFormat}. Only the string table is decoded when
+ * the store is opened. Comparisons are read on demand via positional reads of their fixed-width records, thus even
+ * stores of many comparisons are opened quickly and are never held in memory. The reader must be closed to release the
+ * store files.
+ */
+public class BinaryComparisonReader implements Closeable {
+    private final FileChannel comparisons;
+    private final FileChannel matches;
+    private final List<Path> temporaryFiles;
+    private final String[] strings;
+    private final long comparisonsOffset;
+    private final int numberOfComparisons;
+    private final int numberOfMatches;
+
+    /**
+     * Opens a comparison store from its files.
+     * @param comparisonsFile The comparisons file
+     * @param matchesFile The matches file
+     * @throws IOException if the files cannot be read or are no comparison store of a supported version
+     */
+    public BinaryComparisonReader(Path comparisonsFile, Path matchesFile) throws IOException {
+        this(comparisonsFile, matchesFile, List.of());
+    }
+
+    private BinaryComparisonReader(Path comparisonsFile, Path matchesFile, List<Path> temporaryFiles) throws IOException {
+        this.temporaryFiles = temporaryFiles;
+        comparisons = FileChannel.open(comparisonsFile, StandardOpenOption.READ);
+        try {
+            matches = FileChannel.open(matchesFile, StandardOpenOption.READ);
+        } catch (IOException | RuntimeException exception) {
+            comparisons.close();
+            throw exception;
+        }
+        try {
+            // the input stream is not closed, as this would close the channel
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(comparisons)));
+            checkHeader(input.readInt(), input.readInt(), BinaryComparisonFormat.COMPARISONS_MAGIC);
+            strings = new String[checkedCount(input.readInt(), Integer.BYTES, comparisons.size())];
+            long offset = BinaryComparisonFormat.HEADER_SIZE + Integer.BYTES;
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[checkedCount(input.readInt(), 1, comparisons.size())];
+                input.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                offset += Integer.BYTES + bytes.length;
+            }
+            numberOfComparisons = checkedCount(input.readInt(), BinaryComparisonFormat.COMPARISON_RECORD_SIZE, comparisons.size() - offset);
+            comparisonsOffset = offset + Integer.BYTES;
+
+            ByteBuffer matchesHeader = read(matches, 0, BinaryComparisonFormat.HEADER_SIZE + Integer.BYTES);
+            checkHeader(matchesHeader.getInt(), matchesHeader.getInt(), BinaryComparisonFormat.MATCHES_MAGIC);
+            numberOfMatches = checkedCount(matchesHeader.getInt(), BinaryComparisonFormat.MATCH_RECORD_SIZE,
+                    matches.size() - matchesHeader.capacity());
+        } catch (UncheckedIOException exception) {
+            closeChannels();
+            throw exception.getCause();
+        } catch (IOException | RuntimeException exception) {
+            closeChannels();
+            throw exception;
+        }
+    }
+
+    /**
+     * Opens the comparison store of a report. Its files are extracted to temporary files, which are deleted when the
+     * reader is closed.
+     * @param reportFile The zip file of the report
+     * @return the reader of the comparison store
+     * @throws IOException if the report cannot be read or contains no comparison store
+     */
+    public static BinaryComparisonReader read(File reportFile) throws IOException {
+        List<Path> extractedFiles = new ArrayList<>();
+        try (ZipFile report = new ZipFile(reportFile)) {
+            Path comparisonsFile = extractEntry(report, BinaryComparisonFormat.COMPARISONS_FILE_NAME, extractedFiles);
+            Path matchesFile = extractEntry(report, BinaryComparisonFormat.MATCHES_FILE_NAME, extractedFiles);
+            return new BinaryComparisonReader(comparisonsFile, matchesFile, extractedFiles);
+        } catch (IOException | RuntimeException exception) {
+            for (Path file : extractedFiles) {
+                Files.deleteIfExists(file);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * @return the number of comparisons.
+     */
+    public int getNumberOfComparisons() {
+        return numberOfComparisons;
+    }
+
+    /**
+     * @return the id of the first submission of the comparison with the given index.
+     * @throws UncheckedIOException if the comparison cannot be read
+     */
+    public String getFirstSubmissionId(int index) {
+        return strings[readComparison(index).getInt(0)];
+    }
+
+    /**
+     * @return the id of the second submission of the comparison with the given index.
+     * @throws UncheckedIOException if the comparison cannot be read
+     */
+    public String getSecondSubmissionId(int index) {
+        return strings[readComparison(index).getInt(Integer.BYTES)];
+    }
+
+    /**
+     * @return the similarity of the comparison with the given index.
+     * @throws UncheckedIOException if the comparison cannot be read
+     */
+    public double getSimilarity(int index) {
+        return readComparison(index).getDouble(2 * Integer.BYTES);
+    }
+
+    /**
+     * Reads a comparison including its matches.
+     * @param index The index of the comparison, where comparisons are ordered like in the report
+     * @return the comparison
+     * @throws UncheckedIOException if the comparison cannot be read
+     */
+    public ComparisonReport getComparison(int index) {
+        ByteBuffer comparison = readComparison(index);
+        int firstMatch = comparison.getInt(2 * Integer.BYTES + Double.BYTES);
+        int matchCount = comparison.getInt(3 * Integer.BYTES + Double.BYTES);
+        if (firstMatch < 0 || matchCount < 0 || (long) firstMatch + matchCount > numberOfMatches) {
+            throw new UncheckedIOException(new IOException("Invalid matches of comparison " + index));
+        }
+        long matchesOffset = BinaryComparisonFormat.HEADER_SIZE + Integer.BYTES + (long) firstMatch * BinaryComparisonFormat.MATCH_RECORD_SIZE;
+        ByteBuffer records = read(matches, matchesOffset, Math.multiplyExact(matchCount, BinaryComparisonFormat.MATCH_RECORD_SIZE));
+        List<Match> comparisonMatches = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            comparisonMatches.add(new Match(strings[records.getInt()], strings[records.getInt()], records.getInt(), records.getInt(), records.getInt(),
+                    records.getInt(), records.getInt()));
+        }
+        return new ComparisonReport(strings[comparison.getInt(0)], strings[comparison.getInt(Integer.BYTES)],
+                comparison.getDouble(2 * Integer.BYTES), comparisonMatches);
+    }
+
+    /**
+     * Closes the store files and deletes them if they were extracted from a report.
+     * @throws IOException if the files cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        closeChannels();
+        for (Path file : temporaryFiles) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        try (comparisons; matches) {
+            // closes both channels even if closing one fails
+        }
+    }
+
+    private ByteBuffer readComparison(int index) {
+        if (index < 0 || index >= numberOfComparisons) {
+            throw new IndexOutOfBoundsException("Comparison index " + index + " out of bounds for " + numberOfComparisons + " comparisons");
+        }
+        long offset = comparisonsOffset + (long) index * BinaryComparisonFormat.COMPARISON_RECORD_SIZE;
+        return read(comparisons, offset, BinaryComparisonFormat.COMPARISON_RECORD_SIZE);
+    }
+
+    /**
+     * Reads a range of a file without changing the position of its channel, thus concurrent reads are possible.
+     */
+    private static ByteBuffer read(FileChannel channel, long offset, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Truncated comparison store");
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return buffer.flip();
+    }
+
+    private static void checkHeader(int magic, int version, int expectedMagic) throws IOException {
+        if (magic != expectedMagic) {
+            throw new IOException("Not a comparison store file");
+        }
+        if (version != BinaryComparisonFormat.VERSION) {
+            throw new IOException("Unsupported comparison store version " + version);
+        }
+    }
+
+    /**
+     * Checks that a count read from the store is not negative and that its elements fit into the remaining bytes.
+     */
+    private static int checkedCount(int count, int elementSize, long remainingBytes) throws IOException {
+        if (count < 0 || (long) count * elementSize > remainingBytes) {
+            throw new IOException("Truncated comparison store");
+        }
+        return count;
+    }
+
+    private static Path extractEntry(ZipFile report, String name, List<Path> extractedFiles) throws IOException {
+        ZipEntry entry = report.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Report contains no " + name);
+        }
+        Path file = Files.createTempFile("jplag-" + name, null);
+        extractedFiles.add(file);
+        try (InputStream input = report.getInputStream(entry)) {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+}
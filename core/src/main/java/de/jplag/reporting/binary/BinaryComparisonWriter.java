@@ -0,0 +1,157 @@
+package de.jplag.reporting.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.reporting.jsonfactory.FileWriter;
+import de.jplag.reporting.reportobject.mapper.ComparisonReportMapper;
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+import de.jplag.reporting.reportobject.model.Match;
+
+/**
+ * Writes the comparisons of a {@link JPlagResult} into the binary comparison store described by
+ * {@link BinaryComparisonFormat}, instead of one JSON file per comparison. Instantiated with a function that associates a
+ * submission to its id.
+ */
+public class BinaryComparisonWriter {
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileWriter fileWriter;
+    private final ComparisonReportMapper comparisonReportMapper;
+
+    public BinaryComparisonWriter(Function<Submission, String> submissionToIdFunction, FileWriter fileWriter) {
+        this.fileWriter = fileWriter;
+        this.comparisonReportMapper = new ComparisonReportMapper(submissionToIdFunction);
+    }
+
+    /**
+     * Writes the comparisons of a JPlagResult in the order of the result, thus sorted by descending similarity. The records
+     * are spooled to temporary files while the comparisons are mapped, thus only the string table is held in memory.
+     * @param jPlagResult The JPlagResult to write the comparisons of
+     * @param path The path to write the comparison store to
+     * @throws IOException if the comparison store cannot be written
+     */
+    public void writeComparisons(JPlagResult jPlagResult, String path) throws IOException {
+        Path comparisonRecords = Files.createTempFile("jplag-comparisons", ".bin");
+        Path matchRecords = null;
+        try {
+            matchRecords = Files.createTempFile("jplag-matches", ".bin");
+            writeComparisons(jPlagResult, path, comparisonRecords, matchRecords);
+        } finally {
+            Files.deleteIfExists(comparisonRecords);
+            if (matchRecords != null) {
+                Files.deleteIfExists(matchRecords);
+            }
+        }
+    }
+
+    private void writeComparisons(JPlagResult jPlagResult, String path, Path comparisonRecords, Path matchRecords) throws IOException {
+        List<JPlagComparison> comparisons = jPlagResult.getComparisons(jPlagResult.getOptions().maximumNumberOfComparisons());
+        StringTable strings = new StringTable();
+        int numberOfMatches = 0;
+        try (DataOutputStream comparisonOutput = openRecordFile(comparisonRecords); DataOutputStream matchOutput = openRecordFile(matchRecords)) {
+            for (int chunkStart = 0; chunkStart < comparisons.size(); chunkStart += CHUNK_SIZE) {
+                List<JPlagComparison> chunk = comparisons.subList(chunkStart, Math.min(comparisons.size(), chunkStart + CHUNK_SIZE));
+                for (ComparisonReport comparison : chunk.parallelStream().map(comparisonReportMapper::map).toList()) {
+                    if (comparison.matches().size() > Integer.MAX_VALUE - numberOfMatches) {
+                        throw new IOException("Too many matches for the comparison store");
+                    }
+                    comparisonOutput.writeInt(strings.indexOf(comparison.firstSubmissionId()));
+                    comparisonOutput.writeInt(strings.indexOf(comparison.secondSubmissionId()));
+                    comparisonOutput.writeDouble(comparison.similarity());
+                    comparisonOutput.writeInt(numberOfMatches);
+                    comparisonOutput.writeInt(comparison.matches().size());
+                    for (Match match : comparison.matches()) {
+                        writeMatch(matchOutput, match, strings);
+                    }
+                    numberOfMatches += comparison.matches().size();
+                }
+            }
+        }
+
+        ByteArrayOutputStream comparisonsHeader = new ByteArrayOutputStream(strings.size() + 3 * Integer.BYTES);
+        DataOutputStream comparisonsHeaderOutput = new DataOutputStream(comparisonsHeader);
+        comparisonsHeaderOutput.writeInt(BinaryComparisonFormat.COMPARISONS_MAGIC);
+        comparisonsHeaderOutput.writeInt(BinaryComparisonFormat.VERSION);
+        strings.write(comparisonsHeaderOutput);
+        comparisonsHeaderOutput.writeInt(comparisons.size());
+        saveFile(comparisonsHeader, comparisonRecords, path, BinaryComparisonFormat.COMPARISONS_FILE_NAME);
+
+        ByteArrayOutputStream matchesHeader = new ByteArrayOutputStream(3 * Integer.BYTES);
+        DataOutputStream matchesHeaderOutput = new DataOutputStream(matchesHeader);
+        matchesHeaderOutput.writeInt(BinaryComparisonFormat.MATCHES_MAGIC);
+        matchesHeaderOutput.writeInt(BinaryComparisonFormat.VERSION);
+        matchesHeaderOutput.writeInt(numberOfMatches);
+        saveFile(matchesHeader, matchRecords, path, BinaryComparisonFormat.MATCHES_FILE_NAME);
+    }
+
+    private void saveFile(ByteArrayOutputStream header, Path records, String path, String fileName) throws IOException {
+        try (InputStream content = new SequenceInputStream(new ByteArrayInputStream(header.toByteArray()), Files.newInputStream(records))) {
+            fileWriter.saveFile(content, path, fileName);
+        }
+    }
+
+    private static DataOutputStream openRecordFile(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+    }
+
+    private static void writeMatch(DataOutputStream output, Match match, StringTable strings) throws IOException {
+        output.writeInt(strings.indexOf(match.firstFileName()));
+        output.writeInt(strings.indexOf(match.secondFileName()));
+        output.writeInt(match.startInFirst());
+        output.writeInt(match.endInFirst());
+        output.writeInt(match.startInSecond());
+        output.writeInt(match.endInSecond());
+        output.writeInt(match.tokens());
+    }
+
+    /**
+     * Table of distinct strings, which are referenced by their index.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int size = Integer.BYTES;
+
+        int indexOf(String string) {
+            return indices.computeIfAbsent(string, key -> {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                strings.add(bytes);
+                size += Integer.BYTES + bytes.length;
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * @return the number of bytes of the written table.
+         */
+        int size() {
+            return size;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(strings.size());
+            for (byte[] string : strings) {
+                output.writeInt(string.length);
+                output.write(string);
+            }
+        }
+    }
+}
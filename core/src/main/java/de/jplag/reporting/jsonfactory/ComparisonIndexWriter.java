@@ -0,0 +1,85 @@
+package de.jplag.reporting.jsonfactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.options.SimilarityMetric;
+import de.jplag.reporting.reportobject.model.ComparisonIndex;
+import de.jplag.reporting.reportobject.model.ComparisonIndexEntry;
+
+/**
+ * Writes the paged comparison index of a {@link JPlagResult}, which allows the report viewer to list the comparisons
+ * without loading all of them. The index consists of a {@link ComparisonIndex} file and, for each metric, the pages
+ * {@code <metric>/<page>.json} with the sorted {@link ComparisonIndexEntry}s. For each submission, a lookup shard
+ * {@code lookup/<id>.json} maps the ids of the other submissions to the names of their comparison files, thus the
+ * viewer finds a comparison without reading the pages.
+ */
+public class ComparisonIndexWriter {
+    public static final String INDEX_FOLDER = "comparison-index";
+    public static final String INDEX_FILE_NAME = "index.json";
+    public static final int PAGE_SIZE = 1000;
+    public static final String LOOKUP_FOLDER = "lookup";
+
+    private static final String PAGE_FILE_SUFFIX = ".json";
+
+    private final FileWriter fileWriter;
+    private final Function<Submission, String> submissionToIdFunction;
+
+    public ComparisonIndexWriter(Function<Submission, String> submissionToIdFunction, FileWriter fileWriter) {
+        this.submissionToIdFunction = submissionToIdFunction;
+        this.fileWriter = fileWriter;
+    }
+
+    /**
+     * Writes the comparison index for the comparisons shown in the report.
+     * @param result is the result to index.
+     * @param comparisonFileNames is the nested map that associates each pair of submission ids to their comparison file
+     * name, as returned by the {@link ComparisonReportWriter}.
+     * @param path is the path to write the index folder to.
+     */
+    public void writeComparisonIndex(JPlagResult result, Map<String, Map<String, String>> comparisonFileNames, String path) {
+        List<JPlagComparison> comparisons = result.getComparisons(result.getOptions().maximumNumberOfComparisons());
+        int numberOfPages = Math.max(1, (comparisons.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        String indexPath = path.isEmpty() ? INDEX_FOLDER : path + "/" + INDEX_FOLDER;
+
+        writePages(comparisons, comparisonFileNames, indexPath, SimilarityMetric.AVG, JPlagComparison::similarity);
+        writePages(comparisons, comparisonFileNames, indexPath, SimilarityMetric.MAX, JPlagComparison::maximalSimilarity);
+        ComparisonIndex index = new ComparisonIndex(PAGE_SIZE, comparisons.size(), numberOfPages,
+                List.of(SimilarityMetric.AVG.name(), SimilarityMetric.MAX.name()));
+        fileWriter.saveAsJSON(index, indexPath, INDEX_FILE_NAME);
+        writeLookupShards(comparisonFileNames, indexPath);
+    }
+
+    private void writeLookupShards(Map<String, Map<String, String>> comparisonFileNames, String indexPath) {
+        String lookupPath = indexPath + "/" + LOOKUP_FOLDER;
+        comparisonFileNames.forEach((id, fileNames) -> fileWriter.saveAsJSON(new TreeMap<>(fileNames), lookupPath, id + PAGE_FILE_SUFFIX));
+    }
+
+    private void writePages(List<JPlagComparison> comparisons, Map<String, Map<String, String>> comparisonFileNames, String indexPath,
+            SimilarityMetric metric, ToDoubleFunction<JPlagComparison> similarityExtractor) {
+        List<ComparisonIndexEntry> entries = comparisons.stream().sorted(Comparator.comparingDouble(similarityExtractor).reversed())
+                .map(comparison -> toEntry(comparison, comparisonFileNames, similarityExtractor)).toList();
+        String metricPath = indexPath + "/" + metric.name();
+        int page = 0;
+        do {
+            List<ComparisonIndexEntry> pageEntries = entries.subList(page * PAGE_SIZE, Math.min(entries.size(), (page + 1) * PAGE_SIZE));
+            fileWriter.saveAsJSON(pageEntries, metricPath, page + PAGE_FILE_SUFFIX);
+            page++;
+        } while (page * PAGE_SIZE < entries.size());
+    }
+
+    private ComparisonIndexEntry toEntry(JPlagComparison comparison, Map<String, Map<String, String>> comparisonFileNames,
+            ToDoubleFunction<JPlagComparison> similarityExtractor) {
+        String firstSubmissionId = submissionToIdFunction.apply(comparison.firstSubmission());
+        String secondSubmissionId = submissionToIdFunction.apply(comparison.secondSubmission());
+        String fileName = comparisonFileNames.getOrDefault(firstSubmissionId, Map.of()).get(secondSubmissionId);
+        return new ComparisonIndexEntry(firstSubmissionId, secondSubmissionId, similarityExtractor.applyAsDouble(comparison), fileName);
+    }
+}
@@ -1,8 +1,5 @@
 package de.jplag.reporting.jsonfactory;
 
-import java.io.File;
-import java.nio.file.Path;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,9 +9,8 @@ import java.util.function.Function;
 import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
-import de.jplag.Token;
+import de.jplag.reporting.reportobject.mapper.ComparisonReportMapper;
 import de.jplag.reporting.reportobject.model.ComparisonReport;
-import de.jplag.reporting.reportobject.model.Match;
 
 /**
  * Writes {@link ComparisonReport}s of given {@link JPlagResult} to the disk under the specified path. Instantiated with
@@ -24,12 +20,14 @@ public class ComparisonReportWriter {
 
     private final FileWriter fileWriter;
     private final Function<Submission, String> submissionToIdFunction;
+    private final ComparisonReportMapper comparisonReportMapper;
     private final Map<String, Map<String, String>> submissionIdToComparisonFileName = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> fileNameCollisions = new ConcurrentHashMap<>();
 
     public ComparisonReportWriter(Function<Submission, String> submissionToIdFunction, FileWriter fileWriter) {
         this.submissionToIdFunction = submissionToIdFunction;
         this.fileWriter = fileWriter;
+        this.comparisonReportMapper = new ComparisonReportMapper(submissionToIdFunction);
     }
 
     /**
@@ -55,9 +53,7 @@ public class ComparisonReportWriter {
             String secondSubmissionId = submissionToIdFunction.apply(comparison.secondSubmission());
             String fileName = generateComparisonName(firstSubmissionId, secondSubmissionId);
             addToLookUp(firstSubmissionId, secondSubmissionId, fileName);
-            var comparisonReport = new ComparisonReport(firstSubmissionId, secondSubmissionId, comparison.similarity(),
-                    convertMatchesToReportMatches(comparison));
-            fileWriter.saveAsJSON(comparisonReport, path, fileName);
+            fileWriter.saveAsJSON(comparisonReportMapper.map(comparison), path, fileName);
         });
     }
 
@@ -88,31 +84,4 @@ public class ComparisonReportWriter {
         return concatenate(firstSubmissionId, secondSubmissionId, 0);
     }
 
-    private List<Match> convertMatchesToReportMatches(JPlagComparison comparison) {
-        return comparison.matches().stream().map(match -> convertMatchToReportMatch(comparison, match)).toList();
-    }
-
-    private Match convertMatchToReportMatch(JPlagComparison comparison, de.jplag.Match match) {
-        List<Token> tokensFirst = comparison.firstSubmission().getTokenList().subList(match.startOfFirst(), match.endOfFirst() + 1);
-        List<Token> tokensSecond = comparison.secondSubmission().getTokenList().subList(match.startOfSecond(), match.endOfSecond() + 1);
-
-        Comparator<? super Token> lineComparator = (first, second) -> first.getLine() - second.getLine();
-
-        Token startOfFirst = tokensFirst.stream().min(lineComparator).orElseThrow();
-        Token endOfFirst = tokensFirst.stream().max(lineComparator).orElseThrow();
-        Token startOfSecond = tokensSecond.stream().min(lineComparator).orElseThrow();
-        Token endOfSecond = tokensSecond.stream().max(lineComparator).orElseThrow();
-
-        return new Match(relativizedFilePath(startOfFirst.getFile(), comparison.firstSubmission()),
-                relativizedFilePath(startOfSecond.getFile(), comparison.secondSubmission()), startOfFirst.getLine(), endOfFirst.getLine(),
-                startOfSecond.getLine(), endOfSecond.getLine(), match.length());
-    }
-
-    private String relativizedFilePath(File file, Submission submission) {
-        if (file.toPath().equals(submission.getRoot().toPath())) {
-            return Path.of(submissionToIdFunction.apply(submission), submissionToIdFunction.apply(submission)).toString();
-        }
-        return Path.of(submissionToIdFunction.apply(submission), submission.getRoot().toPath().relativize(file.toPath()).toString()).toString();
-    }
-
 }
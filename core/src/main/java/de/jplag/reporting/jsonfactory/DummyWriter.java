@@ -1,5 +1,7 @@
 package de.jplag.reporting.jsonfactory;
 
+import java.io.InputStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,4 +12,9 @@ public class DummyWriter implements FileWriter {
     public void saveAsJSON(Object fileToSave, String folderPath, String fileName) {
         logger.info("DummyWriter writes object " + fileToSave + " to path " + folderPath + " with name " + fileName + " as JSON.");
     }
+
+    @Override
+    public void saveFile(InputStream content, String folderPath, String fileName) {
+        logger.info("DummyWriter writes file to path " + folderPath + " with name " + fileName + ".");
+    }
 }
@@ -1,5 +1,17 @@
 package de.jplag.reporting.jsonfactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 public interface FileWriter {
     void saveAsJSON(Object fileToSave, String folderPath, String fileName);
+
+    /**
+     * Saves the content of a file to the provided path under the provided name.
+     * @param content The content to save, which is read until its end but not closed
+     * @param folderPath The path to save the file to
+     * @param fileName The name to save the file under
+     * @throws IOException if the content cannot be read or saved
+     */
+    void saveFile(InputStream content, String folderPath, String fileName) throws IOException;
 }
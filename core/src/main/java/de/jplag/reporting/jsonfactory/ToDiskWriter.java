@@ -1,7 +1,10 @@
 package de.jplag.reporting.jsonfactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,4 +30,11 @@ public class ToDiskWriter implements FileWriter {
             logger.error("Failed to save json file " + fileName + ": " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public void saveFile(InputStream content, String folderPath, String fileName) throws IOException {
+        Path target = Path.of(folderPath, fileName);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+    }
 }
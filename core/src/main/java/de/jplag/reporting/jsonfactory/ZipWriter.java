@@ -0,0 +1,390 @@
+package de.jplag.reporting.jsonfactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes files directly into a zip archive instead of into a directory that is zipped afterwards. Folder paths are
+ * interpreted relative to the root of the archive. The entries are deflated concurrently by a pool of worker threads and
+ * appended to the archive in the order in which they were saved, thus writing large reports is not bound by a single
+ * deflater. Large files are deflated on the calling thread while they are read, thus they are never held in memory.
+ * Archives with more than 65535 entries or of more than 4 GiB are written in the ZIP64 format.
+ */
+public class ZipWriter implements FileWriter, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ZipWriter.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PENDING_ENTRIES_PER_THREAD = 4;
+    private static final int STREAMING_THRESHOLD = 1 << 22; // larger files are streamed instead of deflated in memory
+    private static final char SEPARATOR = '/';
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final short VERSION = 20;
+    private static final short ZIP64_VERSION = 45;
+    private static final short UTF8_FLAG = 0x0800;
+    private static final short DATA_DESCRIPTOR_FLAG = 0x0008;
+    private static final short STORED = 0;
+    private static final short DEFLATED = 8;
+    private static final long MAXIMUM_32_BIT_VALUE = 0xFFFFFFFFL;
+    private static final int MAXIMUM_16_BIT_VALUE = 0xFFFF;
+
+    private final OutputStream outputStream;
+    private final ExecutorService executor;
+    private final int maximumPendingEntries;
+    private final Queue<Future<CompressedEntry>> pendingEntries = new ArrayDeque<>();
+    private final List<CentralEntry> centralDirectory = new ArrayList<>();
+    private final Set<String> entryNames = new HashSet<>();
+    private final int modificationTime;
+    private final int modificationDate;
+    private long position;
+    private IOException failure;
+
+    /**
+     * Creates the archive file, which is overwritten if it exists. Entries are deflated by one thread per processor.
+     * @param zipFile The archive file to write
+     * @throws IOException if the archive file cannot be created
+     */
+    public ZipWriter(File zipFile) throws IOException {
+        this(zipFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the archive file, which is overwritten if it exists.
+     * @param zipFile The archive file to write
+     * @param numberOfThreads The number of threads that deflate the entries
+     * @throws IOException if the archive file cannot be created
+     */
+    public ZipWriter(File zipFile, int numberOfThreads) throws IOException {
+        outputStream = new BufferedOutputStream(Files.newOutputStream(zipFile.toPath()), BUFFER_SIZE);
+        executor = Executors.newFixedThreadPool(numberOfThreads);
+        maximumPendingEntries = numberOfThreads * PENDING_ENTRIES_PER_THREAD;
+        LocalDateTime now = LocalDateTime.now();
+        modificationTime = now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() >> 1;
+        modificationDate = Math.max(0, now.getYear() - 1980) << 9 | now.getMonthValue() << 5 | now.getDayOfMonth();
+    }
+
+    @Override
+    public void saveAsJSON(Object fileToSave, String folderPath, String fileName) {
+        try {
+            addEntry(entryName(folderPath, fileName), objectMapper.writeValueAsBytes(fileToSave));
+        } catch (IOException e) {
+            logger.error("Failed to save json file " + fileName + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void saveFile(InputStream content, String folderPath, String fileName) throws IOException {
+        byte[] head = content.readNBytes(STREAMING_THRESHOLD);
+        if (head.length < STREAMING_THRESHOLD) {
+            addEntry(entryName(folderPath, fileName), head);
+        } else {
+            streamEntry(entryName(folderPath, fileName), head, content);
+        }
+    }
+
+    /**
+     * Appends the remaining entries, finishes the archive, and closes the archive file.
+     * @throws IOException if any entry could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try (outputStream) {
+            while (!pendingEntries.isEmpty()) {
+                append(pendingEntries.poll());
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            writeCentralDirectory();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Deflates the entry on the worker pool. Finished entries at the head of the queue are appended, and if too many entries
+     * are pending, the calling thread waits for the oldest entry to bound the memory usage. After a failed write, entries
+     * are skipped.
+     */
+    private synchronized void addEntry(String name, byte[] content) throws IOException {
+        if (failure != null) {
+            return; // the failure is reported by the call that encountered it and by close()
+        }
+        if (!entryNames.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        pendingEntries.add(executor.submit(() -> compress(name, content)));
+        while (!pendingEntries.isEmpty() && (pendingEntries.peek().isDone() || pendingEntries.size() > maximumPendingEntries)) {
+            append(pendingEntries.poll());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Appends all pending entries and then deflates the content of a large entry while it is read. As its sizes and
+     * checksum are only known afterwards, they follow the data in a data descriptor.
+     */
+    private synchronized void streamEntry(String name, byte[] head, InputStream remainingContent) throws IOException {
+        if (failure != null) {
+            return; // the failure is reported by the call that encountered it and by close()
+        }
+        if (!entryNames.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        while (!pendingEntries.isEmpty()) {
+            append(pendingEntries.poll());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            writeStreamedEntry(name, head, remainingContent);
+        } catch (IOException e) {
+            failure = e; // the archive is corrupt once an entry is partially written
+            throw e;
+        }
+    }
+
+    private void writeStreamedEntry(String name, byte[] head, InputStream remainingContent) throws IOException {
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = newBuffer(LOCAL_HEADER_SIZE);
+        header.putInt(LOCAL_HEADER_SIGNATURE).putShort(VERSION).putShort((short) (UTF8_FLAG | DATA_DESCRIPTOR_FLAG)).putShort(DEFLATED);
+        header.putShort((short) modificationTime).putShort((short) modificationDate).putInt(0).putInt(0).putInt(0);
+        header.putShort((short) encodedName.length).putShort((short) 0);
+        outputStream.write(header.array());
+        outputStream.write(encodedName);
+
+        CRC32 checksum = new CRC32();
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = head.length;
+        long compressedSize = deflate(deflater, head, head.length, checksum, buffer);
+        byte[] input = new byte[BUFFER_SIZE];
+        for (int length; (length = remainingContent.read(input)) >= 0;) {
+            size += length;
+            compressedSize += deflate(deflater, input, length, checksum, buffer);
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            compressedSize += writeDeflated(deflater, buffer);
+        }
+
+        // like java.util.zip, sizes are only written with 8 bytes if they require it
+        int crc = (int) checksum.getValue();
+        boolean zip64 = size >= MAXIMUM_32_BIT_VALUE || compressedSize >= MAXIMUM_32_BIT_VALUE;
+        ByteBuffer descriptor = newBuffer(zip64 ? 24 : 16).putInt(DATA_DESCRIPTOR_SIGNATURE).putInt(crc);
+        if (zip64) {
+            descriptor.putLong(compressedSize).putLong(size);
+        } else {
+            descriptor.putInt((int) compressedSize).putInt((int) size);
+        }
+        outputStream.write(descriptor.array());
+        centralDirectory.add(new CentralEntry(encodedName, DATA_DESCRIPTOR_FLAG, DEFLATED, crc, compressedSize, size, position));
+        position += LOCAL_HEADER_SIZE + encodedName.length + compressedSize + descriptor.capacity();
+    }
+
+    /**
+     * Deflates a chunk of content and writes the deflated data that is available.
+     * @return the number of written bytes.
+     */
+    private long deflate(Deflater deflater, byte[] content, int length, CRC32 checksum, byte[] buffer) throws IOException {
+        checksum.update(content, 0, length);
+        deflater.setInput(content, 0, length);
+        long compressedSize = 0;
+        while (!deflater.needsInput()) {
+            compressedSize += writeDeflated(deflater, buffer);
+        }
+        return compressedSize;
+    }
+
+    private int writeDeflated(Deflater deflater, byte[] buffer) throws IOException {
+        int length = deflater.deflate(buffer);
+        outputStream.write(buffer, 0, length);
+        return length;
+    }
+
+    private static CompressedEntry compress(String name, byte[] content) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        ByteArrayOutputStream compressedContent = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (!deflater.finished() && compressedContent.size() < content.length) {
+            compressedContent.write(buffer, 0, deflater.deflate(buffer));
+        }
+        if (!deflater.finished() || compressedContent.size() >= content.length) { // e.g. for tiny or random content
+            return new CompressedEntry(name, STORED, (int) checksum.getValue(), content.length, content);
+        }
+        return new CompressedEntry(name, DEFLATED, (int) checksum.getValue(), content.length, compressedContent.toByteArray());
+    }
+
+    /**
+     * Appends the local header and the data of an entry. After the first failure, entries are skipped.
+     */
+    private void append(Future<CompressedEntry> pendingEntry) {
+        CompressedEntry entry = awaitEntry(pendingEntry);
+        if (failure != null) {
+            return;
+        }
+        try {
+            byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = newBuffer(LOCAL_HEADER_SIZE);
+            header.putInt(LOCAL_HEADER_SIGNATURE).putShort(VERSION).putShort(UTF8_FLAG).putShort(entry.method());
+            header.putShort((short) modificationTime).putShort((short) modificationDate).putInt(entry.checksum());
+            header.putInt(entry.data().length).putInt(entry.size()).putShort((short) name.length).putShort((short) 0);
+            outputStream.write(header.array());
+            outputStream.write(name);
+            outputStream.write(entry.data());
+            centralDirectory.add(new CentralEntry(name, (short) 0, entry.method(), entry.checksum(), entry.data().length, entry.size(), position));
+            position += LOCAL_HEADER_SIZE + name.length + entry.data().length;
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = position;
+        for (CentralEntry entry : centralDirectory) {
+            byte[] zip64Extra = zip64ExtraOf(entry);
+            ByteBuffer header = newBuffer(CENTRAL_HEADER_SIZE);
+            header.putInt(CENTRAL_HEADER_SIGNATURE).putShort(ZIP64_VERSION).putShort(zip64Extra.length > 0 ? ZIP64_VERSION : VERSION);
+            header.putShort((short) (UTF8_FLAG | entry.flags())).putShort(entry.method()).putShort((short) modificationTime);
+            header.putShort((short) modificationDate).putInt(entry.checksum());
+            header.putInt((int) Math.min(entry.compressedSize(), MAXIMUM_32_BIT_VALUE)).putInt((int) Math.min(entry.size(), MAXIMUM_32_BIT_VALUE));
+            header.putShort((short) entry.name().length).putShort((short) zip64Extra.length).putShort((short) 0).putShort((short) 0);
+            header.putShort((short) 0).putInt(0).putInt((int) Math.min(entry.offset(), MAXIMUM_32_BIT_VALUE));
+            outputStream.write(header.array());
+            outputStream.write(entry.name());
+            outputStream.write(zip64Extra);
+            position += CENTRAL_HEADER_SIZE + entry.name().length + zip64Extra.length;
+        }
+        long centralDirectorySize = position - centralDirectoryOffset;
+        long numberOfEntries = centralDirectory.size();
+
+        if (numberOfEntries >= MAXIMUM_16_BIT_VALUE || centralDirectoryOffset >= MAXIMUM_32_BIT_VALUE
+                || centralDirectorySize >= MAXIMUM_32_BIT_VALUE) {
+            ByteBuffer zip64End = newBuffer(ZIP64_END_SIZE + ZIP64_LOCATOR_SIZE);
+            zip64End.putInt(ZIP64_END_SIGNATURE).putLong(ZIP64_END_SIZE - 12L).putShort(ZIP64_VERSION).putShort(ZIP64_VERSION);
+            zip64End.putInt(0).putInt(0).putLong(numberOfEntries).putLong(numberOfEntries).putLong(centralDirectorySize);
+            zip64End.putLong(centralDirectoryOffset);
+            zip64End.putInt(ZIP64_LOCATOR_SIGNATURE).putInt(0).putLong(position).putInt(1);
+            outputStream.write(zip64End.array());
+        }
+        ByteBuffer end = newBuffer(END_SIZE);
+        short truncatedNumberOfEntries = (short) Math.min(numberOfEntries, MAXIMUM_16_BIT_VALUE);
+        end.putInt(END_SIGNATURE).putShort((short) 0).putShort((short) 0).putShort(truncatedNumberOfEntries).putShort(truncatedNumberOfEntries);
+        end.putInt((int) Math.min(centralDirectorySize, MAXIMUM_32_BIT_VALUE));
+        end.putInt((int) Math.min(centralDirectoryOffset, MAXIMUM_32_BIT_VALUE)).putShort((short) 0);
+        outputStream.write(end.array());
+    }
+
+    /**
+     * Creates the ZIP64 extra field of a central directory entry, which contains the sizes and the offset that do not fit
+     * into the header in this order.
+     * @return the extra field or an empty array if all values fit into the header.
+     */
+    private static byte[] zip64ExtraOf(CentralEntry entry) {
+        List<Long> values = new ArrayList<>();
+        for (long value : new long[] {entry.size(), entry.compressedSize(), entry.offset()}) {
+            if (value >= MAXIMUM_32_BIT_VALUE) {
+                values.add(value);
+            }
+        }
+        if (values.isEmpty()) {
+            return new byte[0];
+        }
+        ByteBuffer extra = newBuffer(2 * Short.BYTES + values.size() * Long.BYTES);
+        extra.putShort((short) ZIP64_EXTRA_ID).putShort((short) (values.size() * Long.BYTES));
+        values.forEach(extra::putLong);
+        return extra.array();
+    }
+
+    /**
+     * Waits for a deflated entry and rethrows unchecked exceptions and errors of the deflating task.
+     */
+    private static CompressedEntry awaitEntry(Future<CompressedEntry> pendingEntry) {
+        try {
+            return pendingEntry.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing of the report was interrupted", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            } else if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String entryName(String folderPath, String fileName) {
+        if (folderPath.isEmpty()) {
+            return fileName;
+        }
+        return folderPath.replace(File.separatorChar, SEPARATOR) + SEPARATOR + fileName;
+    }
+
+    /**
+     * Entry whose data is deflated or stored as is.
+     */
+    private record CompressedEntry(String name, short method, int checksum, int size, byte[] data) {
+    }
+
+    /**
+     * Entry of the central directory, which references the local header at the given offset.
+     */
+    private record CentralEntry(byte[] name, short flags, short method, int checksum, long compressedSize, long size, long offset) {
+    }
+}
@@ -1,20 +1,23 @@
 package de.jplag.reporting.reportobject;
 
-import static de.jplag.reporting.jsonfactory.DirectoryManager.createDirectory;
-import static de.jplag.reporting.jsonfactory.DirectoryManager.deleteDirectory;
-import static de.jplag.reporting.jsonfactory.DirectoryManager.zipDirectory;
 import static de.jplag.reporting.reportobject.mapper.SubmissionNameToIdMapper.buildSubmissionNameToIdMap;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -25,9 +28,14 @@ import de.jplag.JPlag;
 import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Language;
+import de.jplag.SourceLoader;
 import de.jplag.Submission;
+import de.jplag.reporting.binary.BinaryComparisonFormat;
+import de.jplag.reporting.binary.BinaryComparisonWriter;
+import de.jplag.reporting.jsonfactory.ComparisonIndexWriter;
 import de.jplag.reporting.jsonfactory.ComparisonReportWriter;
-import de.jplag.reporting.jsonfactory.ToDiskWriter;
+import de.jplag.reporting.jsonfactory.FileWriter;
+import de.jplag.reporting.jsonfactory.ZipWriter;
 import de.jplag.reporting.reportobject.mapper.ClusteringResultMapper;
 import de.jplag.reporting.reportobject.mapper.MetricMapper;
 import de.jplag.reporting.reportobject.model.Metric;
@@ -36,51 +44,68 @@ import de.jplag.reporting.reportobject.model.Version;
 
 /**
  * Factory class, responsible for converting a JPlagResult object to Overview and Comparison DTO classes and writing it
- * to the disk.
+ * to the disk as zip archive.
  */
 public class ReportObjectFactory {
     private static final Logger logger = LoggerFactory.getLogger(ReportObjectFactory.class);
 
-    private static final ToDiskWriter fileWriter = new ToDiskWriter();
+    private static final String ZIP_FILE_SUFFIX = ".zip";
+    private static final String REPORT_ROOT = "";
     public static final String OVERVIEW_FILE_NAME = "overview.json";
     public static final String SUBMISSIONS_FOLDER = "files";
+    public static final String BLOBS_FOLDER = "blobs";
+    public static final String MANIFEST_FILE_SUFFIX = ".json";
     public static final Version REPORT_VIEWER_VERSION = JPlag.JPLAG_VERSION;
 
+    private final boolean useBinaryComparisonStore;
     private Map<String, String> submissionNameToIdMap;
     private Function<Submission, String> submissionToIdFunction;
-    private Map<String, Map<String, String>> submissionNameToNameToComparisonFileName;
+    private boolean hasComparisonIndex;
 
     /**
-     * Creates all necessary report viewer files, writes them to the disk as zip.
+     * Creates a factory that writes one JSON file per comparison.
+     */
+    public ReportObjectFactory() {
+        this(false);
+    }
+
+    /**
+     * @param useBinaryComparisonStore specifies whether the comparisons are written into the compact binary comparison
+     * store described by {@link BinaryComparisonFormat} instead of one JSON file per comparison. The report viewer cannot
+     * open the comparisons of such reports.
+     */
+    public ReportObjectFactory(boolean useBinaryComparisonStore) {
+        this.useBinaryComparisonStore = useBinaryComparisonStore;
+    }
+
+    /**
+     * Creates all necessary report viewer files and writes them directly into a zip archive.
      * @param result The JPlagResult to be converted into a report.
-     * @param path The Path to save the report to
+     * @param path The Path to save the report to, which is extended by the zip file suffix
      */
     public void createAndSaveReport(JPlagResult result, String path) {
-
+        File zipFile = new File(path + ZIP_FILE_SUFFIX);
         try {
             logger.info("Start writing report files...");
-            createDirectory(path);
-            buildSubmissionToIdMap(result);
+            Files.createDirectories(zipFile.getAbsoluteFile().getParentFile().toPath());
+            try (ZipWriter fileWriter = new ZipWriter(zipFile)) {
+                buildSubmissionToIdMap(result);
 
-            copySubmissionFilesToReport(path, result);
+                copySubmissionFilesToReport(fileWriter, result);
 
-            writeComparisons(result, path);
-            writeOverview(result, path);
-
-            logger.info("Zipping report files...");
-            zipAndDelete(path);
+                writeComparisons(result, fileWriter);
+                writeOverview(result, fileWriter);
+            }
+            logger.info("Successfully zipped report files: {}", zipFile);
+            logger.info("Display the results with the report viewer at https://jplag.github.io/JPlag/");
+            if (useBinaryComparisonStore) {
+                logger.warn("The comparisons are stored in the binary comparison store, which the report viewer cannot open");
+            }
         } catch (IOException e) {
-            logger.error("Could not create directory " + path + " for report viewer generation", e);
-        }
-
-    }
-
-    private void zipAndDelete(String path) {
-        boolean zipWasSuccessful = zipDirectory(path);
-        if (zipWasSuccessful) {
-            deleteDirectory(path);
-        } else {
-            logger.error("Could not zip results. The results are still available uncompressed at " + path);
+            logger.error("Could not write report " + zipFile + " for report viewer generation", e);
+            if (zipFile.exists() && !zipFile.delete()) {
+                logger.error("Could not delete incomplete report " + zipFile);
+            }
         }
     }
 
@@ -89,61 +114,56 @@ public class ReportObjectFactory {
         submissionToIdFunction = (Submission submission) -> submissionNameToIdMap.get(submission.getName());
     }
 
-    private void copySubmissionFilesToReport(String path, JPlagResult result) {
-        logger.info("Start copying submission files to the output directory...");
+    /**
+     * Copies the files of the submissions into the report. Each distinct file content is stored once as a blob named by
+     * its hash, e.g. for files of a template that all submissions share. For each submission, a manifest maps the paths of
+     * its files to their blobs.
+     */
+    private void copySubmissionFilesToReport(FileWriter fileWriter, JPlagResult result) {
+        logger.info("Start copying submission files to the report...");
         List<JPlagComparison> comparisons = result.getComparisons(result.getOptions().maximumNumberOfComparisons());
         Set<Submission> submissions = getSubmissions(comparisons);
-        File submissionsPath = createSubmissionsDirectory(path);
-        if (submissionsPath == null) {
-            return;
-        }
         Language language = result.getOptions().language();
+        Set<String> writtenBlobs = new HashSet<>();
         for (Submission submission : submissions) {
-            File directory = createSubmissionDirectory(path, submissionsPath, submission);
-            File submissionRoot = submission.getRoot();
-            if (directory == null) {
-                continue;
-            }
+            Map<String, String> manifest = new TreeMap<>();
             for (File file : submission.getFiles()) {
-                File fullPath = createSubmissionDirectory(path, submissionsPath, submission, file, submissionRoot);
                 File fileToCopy = getFileToCopy(language, file);
                 try {
-                    if (fullPath != null) {
-                        Files.copy(fileToCopy.toPath(), fullPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    } else {
-                        throw new NullPointerException("Could not create file with full path");
+                    byte[] content = SourceLoader.readAllBytes(fileToCopy);
+                    String blobName = hashOf(content);
+                    if (writtenBlobs.add(blobName)) {
+                        fileWriter.saveFile(new ByteArrayInputStream(content), BLOBS_FOLDER, blobName);
                     }
+                    manifest.put(getFilePathInReport(submission, file), blobName);
                 } catch (IOException e) {
                     logger.error("Could not save submission file " + fileToCopy, e);
                 }
             }
+            fileWriter.saveAsJSON(manifest, SUBMISSIONS_FOLDER, submissionToIdFunction.apply(submission) + MANIFEST_FILE_SUFFIX);
         }
+        logger.info("Stored {} distinct submission files in the report", writtenBlobs.size());
     }
 
-    private File createSubmissionDirectory(String path, File submissionsPath, Submission submission, File file, File submissionRoot) {
-        try {
-            return createDirectory(submissionsPath.getPath(), submissionToIdFunction.apply(submission), file, submissionRoot);
-        } catch (IOException e) {
-            logger.error("Could not create directory " + path + " for report viewer generation", e);
-            return null;
-        }
-    }
-
-    private File createSubmissionDirectory(String path, File submissionsPath, Submission submission) {
-        try {
-            return createDirectory(submissionsPath.getPath(), submissionToIdFunction.apply(submission));
-        } catch (IOException e) {
-            logger.error("Could not create directory " + path + " for report viewer generation", e);
-            return null;
+    /**
+     * @return the path of a submission file in the report, which consists of the submission id and the path relative to
+     * the submission root, like the file paths of the matches. The file of a single file submission is named like the
+     * submission id.
+     */
+    private String getFilePathInReport(Submission submission, File file) {
+        String submissionId = submissionToIdFunction.apply(submission);
+        Path relativePath = submission.getRoot().toPath().relativize(file.toPath());
+        if (relativePath.toString().isEmpty()) {
+            relativePath = Path.of(submissionId);
         }
+        return Path.of(submissionId).resolve(relativePath).toString();
     }
 
-    private File createSubmissionsDirectory(String path) {
+    private static String hashOf(byte[] content) {
         try {
-            return createDirectory(path, SUBMISSIONS_FOLDER);
-        } catch (IOException e) {
-            logger.error("Could not create directory " + path + " for report viewer generation", e);
-            return null;
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // SHA-256 is supported by every Java platform
         }
     }
 
@@ -151,12 +171,19 @@ public class ReportObjectFactory {
         return language.useViewFiles() ? new File(file.getPath() + language.viewFileSuffix()) : file;
     }
 
-    private void writeComparisons(JPlagResult result, String path) {
-        ComparisonReportWriter comparisonReportWriter = new ComparisonReportWriter(submissionToIdFunction, fileWriter);
-        submissionNameToNameToComparisonFileName = comparisonReportWriter.writeComparisonReports(result, path);
+    private void writeComparisons(JPlagResult result, FileWriter fileWriter) throws IOException {
+        if (useBinaryComparisonStore) {
+            new BinaryComparisonWriter(submissionToIdFunction, fileWriter).writeComparisons(result, REPORT_ROOT);
+            hasComparisonIndex = false;
+        } else {
+            ComparisonReportWriter comparisonReportWriter = new ComparisonReportWriter(submissionToIdFunction, fileWriter);
+            Map<String, Map<String, String>> comparisonFileNames = comparisonReportWriter.writeComparisonReports(result, REPORT_ROOT);
+            new ComparisonIndexWriter(submissionToIdFunction, fileWriter).writeComparisonIndex(result, comparisonFileNames, REPORT_ROOT);
+            hasComparisonIndex = true;
+        }
     }
 
-    private void writeOverview(JPlagResult result, String path) {
+    private void writeOverview(JPlagResult result, FileWriter fileWriter) {
 
         List<File> folders = new ArrayList<>();
         folders.addAll(result.getOptions().submissionDirectories());
@@ -165,7 +192,7 @@ public class ReportObjectFactory {
         String baseCodePath = result.getOptions().hasBaseCode() ? result.getOptions().baseCodeSubmissionDirectory().getName() : "";
         ClusteringResultMapper clusteringResultMapper = new ClusteringResultMapper(submissionToIdFunction);
 
-        int totalComparisons = result.getAllComparisons().size();
+        int totalComparisons = result.getNumberOfComparisons();
         int numberOfMaximumComparisons = result.getOptions().maximumNumberOfComparisons();
         int shownComparisons = totalComparisons > numberOfMaximumComparisons ? numberOfMaximumComparisons : totalComparisons;
         int missingComparisons = totalComparisons > numberOfMaximumComparisons ? (totalComparisons - numberOfMaximumComparisons) : 0;
@@ -176,7 +203,7 @@ public class ReportObjectFactory {
                 result.getOptions().language().getName(), // language
                 result.getOptions().fileSuffixes(), // fileExtensions
                 submissionNameToIdMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey)), // submissionIds
-                submissionNameToNameToComparisonFileName, // result.getOptions().getMinimumTokenMatch(),
+                Map.of(), // submissionIdsToComparisonFileName, the comparisons are located via the index or the store
                 List.of(), // failedSubmissionNames
                 result.getOptions().excludedFiles(), // excludedFiles
                 result.getOptions().minimumTokenMatch(), // matchSensitivity
@@ -186,7 +213,7 @@ public class ReportObjectFactory {
                 clusteringResultMapper.map(result), // clusters
                 totalComparisons); // totalComparisons
 
-        fileWriter.saveAsJSON(overviewReport, path, OVERVIEW_FILE_NAME);
+        fileWriter.saveAsJSON(overviewReport, REPORT_ROOT, OVERVIEW_FILE_NAME);
 
     }
 
@@ -203,7 +230,7 @@ public class ReportObjectFactory {
      * @return A list contains Metric DTOs.
      */
     private List<Metric> getMetrics(JPlagResult result) {
-        MetricMapper metricMapper = new MetricMapper(submissionToIdFunction);
+        MetricMapper metricMapper = new MetricMapper(submissionToIdFunction, !hasComparisonIndex);
         return List.of(metricMapper.getAverageMetric(result), metricMapper.getMaxMetric(result));
     }
 
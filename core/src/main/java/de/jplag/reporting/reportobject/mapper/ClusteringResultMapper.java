@@ -1,18 +1,36 @@
 package de.jplag.reporting.reportobject.mapper;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.clustering.ClusteringResult;
+import de.jplag.clustering.SimilarityMatrix;
+import de.jplag.options.SimilarityMetric;
 import de.jplag.reporting.reportobject.model.Cluster;
+import de.jplag.reporting.reportobject.model.TopComparison;
 
 /**
  * Extracts and maps the clusters from the JPlagResult to the corresponding JSON DTO
  */
 public class ClusteringResultMapper {
+    /**
+     * Maximum number of member similarities per cluster, as a cluster with m members has m * (m - 1) / 2 pairs. Only the
+     * most similar pairs are kept.
+     */
+    static final int MAXIMUM_MEMBER_SIMILARITIES = 100;
+    private static final Comparator<TopComparison> SIMILARITY_ORDER = Comparator.comparingDouble(TopComparison::similarity);
+
     private final Function<Submission, String> submissionToIdFunction;
 
     public ClusteringResultMapper(Function<Submission, String> submissionToIdFunction) {
@@ -21,13 +39,78 @@ public class ClusteringResultMapper {
 
     public List<Cluster> map(JPlagResult result) {
         var clusteringResult = result.getClusteringResult();
-        return clusteringResult.stream().map(ClusteringResult::getClusters).flatMap(Collection::stream).map(this::convertCluster).toList();
+        List<de.jplag.clustering.Cluster<Submission>> clusters = clusteringResult.stream().map(ClusteringResult::getClusters)
+                .flatMap(Collection::stream).toList();
+        List<List<TopComparison>> memberSimilarities = getMemberSimilarities(result, clusters);
+        return IntStream.range(0, clusters.size()).mapToObj(index -> convertCluster(clusters.get(index), memberSimilarities.get(index))).toList();
     }
 
-    private Cluster convertCluster(de.jplag.clustering.Cluster<Submission> from) {
+    private Cluster convertCluster(de.jplag.clustering.Cluster<Submission> from, List<TopComparison> memberSimilarities) {
         var strength = from.getCommunityStrength();
         var avgSimilarity = from.getAverageSimilarity();
         var member = from.getMembers().stream().map(submissionToIdFunction).toList();
-        return new Cluster(avgSimilarity, strength, member);
+        return new Cluster(avgSimilarity, strength, member, memberSimilarities);
+    }
+
+    /**
+     * Collects the most similar pairs of members of each cluster, from the similarity matrix if it was recorded or else in
+     * a single pass over the retained comparisons.
+     */
+    private List<List<TopComparison>> getMemberSimilarities(JPlagResult result, List<de.jplag.clustering.Cluster<Submission>> clusters) {
+        Optional<SimilarityMatrix> similarityMatrix = result.getSimilarityMatrix();
+        if (similarityMatrix.isPresent()) {
+            return clusters.stream().map(cluster -> getMemberSimilarities(similarityMatrix.get(), List.copyOf(cluster.getMembers()))).toList();
+        }
+        Map<Submission, List<Integer>> clusterIndices = new HashMap<>();
+        List<PriorityQueue<TopComparison>> memberSimilarities = new ArrayList<>();
+        for (int index = 0; index < clusters.size(); index++) {
+            for (Submission member : clusters.get(index).getMembers()) {
+                clusterIndices.computeIfAbsent(member, key -> new ArrayList<>()).add(index);
+            }
+            memberSimilarities.add(new PriorityQueue<>(SIMILARITY_ORDER));
+        }
+        if (clusters.isEmpty()) {
+            return List.of();
+        }
+        SimilarityMetric metric = result.getOptions().clusteringOptions().similarityMetric();
+        for (JPlagComparison comparison : result.getRetainedComparisons()) {
+            List<Integer> secondIndices = clusterIndices.getOrDefault(comparison.secondSubmission(), List.of());
+            for (int index : clusterIndices.getOrDefault(comparison.firstSubmission(), List.of())) {
+                if (secondIndices.contains(index)) {
+                    addBounded(memberSimilarities.get(index), new TopComparison(submissionToIdFunction.apply(comparison.firstSubmission()),
+                            submissionToIdFunction.apply(comparison.secondSubmission()), metric.applyAsDouble(comparison)));
+                }
+            }
+        }
+        return memberSimilarities.stream().map(ClusteringResultMapper::sortedDescending).toList();
+    }
+
+    private List<TopComparison> getMemberSimilarities(SimilarityMatrix similarityMatrix, List<Submission> members) {
+        PriorityQueue<TopComparison> memberSimilarities = new PriorityQueue<>(SIMILARITY_ORDER);
+        for (int first = 0; first < members.size(); first++) {
+            for (int second = first + 1; second < members.size(); second++) {
+                double similarity = similarityMatrix.getSimilarity(members.get(first), members.get(second));
+                if (similarity > 0) {
+                    addBounded(memberSimilarities, new TopComparison(submissionToIdFunction.apply(members.get(first)),
+                            submissionToIdFunction.apply(members.get(second)), similarity));
+                }
+            }
+        }
+        return sortedDescending(memberSimilarities);
+    }
+
+    /**
+     * Adds a pair to the queue, which holds the least similar pair first, and drops the least similar pair once the queue
+     * exceeds {@link #MAXIMUM_MEMBER_SIMILARITIES}.
+     */
+    private static void addBounded(PriorityQueue<TopComparison> memberSimilarities, TopComparison memberSimilarity) {
+        memberSimilarities.add(memberSimilarity);
+        if (memberSimilarities.size() > MAXIMUM_MEMBER_SIMILARITIES) {
+            memberSimilarities.poll();
+        }
+    }
+
+    private static List<TopComparison> sortedDescending(PriorityQueue<TopComparison> memberSimilarities) {
+        return memberSimilarities.stream().sorted(SIMILARITY_ORDER.reversed()).toList();
     }
 }
@@ -0,0 +1,57 @@
+package de.jplag.reporting.reportobject.mapper;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import de.jplag.JPlagComparison;
+import de.jplag.Submission;
+import de.jplag.Token;
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+import de.jplag.reporting.reportobject.model.Match;
+
+/**
+ * Maps a {@link JPlagComparison} to the corresponding {@link ComparisonReport} DTO, whose matches reference the
+ * submission files by their path in the report.
+ */
+public class ComparisonReportMapper {
+    private final Function<Submission, String> submissionToIdFunction;
+
+    public ComparisonReportMapper(Function<Submission, String> submissionToIdFunction) {
+        this.submissionToIdFunction = submissionToIdFunction;
+    }
+
+    public ComparisonReport map(JPlagComparison comparison) {
+        return new ComparisonReport(submissionToIdFunction.apply(comparison.firstSubmission()),
+                submissionToIdFunction.apply(comparison.secondSubmission()), comparison.similarity(), convertMatchesToReportMatches(comparison));
+    }
+
+    private List<Match> convertMatchesToReportMatches(JPlagComparison comparison) {
+        return comparison.matches().stream().map(match -> convertMatchToReportMatch(comparison, match)).toList();
+    }
+
+    private Match convertMatchToReportMatch(JPlagComparison comparison, de.jplag.Match match) {
+        List<Token> tokensFirst = comparison.firstSubmission().getTokenList().subList(match.startOfFirst(), match.endOfFirst() + 1);
+        List<Token> tokensSecond = comparison.secondSubmission().getTokenList().subList(match.startOfSecond(), match.endOfSecond() + 1);
+
+        Comparator<? super Token> lineComparator = (first, second) -> first.getLine() - second.getLine();
+
+        Token startOfFirst = tokensFirst.stream().min(lineComparator).orElseThrow();
+        Token endOfFirst = tokensFirst.stream().max(lineComparator).orElseThrow();
+        Token startOfSecond = tokensSecond.stream().min(lineComparator).orElseThrow();
+        Token endOfSecond = tokensSecond.stream().max(lineComparator).orElseThrow();
+
+        return new Match(relativizedFilePath(startOfFirst.getFile(), comparison.firstSubmission()),
+                relativizedFilePath(startOfSecond.getFile(), comparison.secondSubmission()), startOfFirst.getLine(), endOfFirst.getLine(),
+                startOfSecond.getLine(), endOfSecond.getLine(), match.length());
+    }
+
+    private String relativizedFilePath(File file, Submission submission) {
+        if (file.toPath().equals(submission.getRoot().toPath())) {
+            return Path.of(submissionToIdFunction.apply(submission), submissionToIdFunction.apply(submission)).toString();
+        }
+        return Path.of(submissionToIdFunction.apply(submission), submission.getRoot().toPath().relativize(file.toPath()).toString()).toString();
+    }
+}
@@ -20,9 +20,19 @@ import de.jplag.reporting.reportobject.model.TopComparison;
  */
 public class MetricMapper {
     private final Function<Submission, String> submissionToIdFunction;
+    private final boolean listTopComparisons;
 
     public MetricMapper(Function<Submission, String> submissionToIdFunction) {
+        this(submissionToIdFunction, true);
+    }
+
+    /**
+     * @param listTopComparisons specifies whether the metrics list the top comparisons. Reports with a comparison index
+     * omit them, as the report viewer pages through the index instead.
+     */
+    public MetricMapper(Function<Submission, String> submissionToIdFunction, boolean listTopComparisons) {
         this.submissionToIdFunction = submissionToIdFunction;
+        this.listTopComparisons = listTopComparisons;
     }
 
     public Metric getAverageMetric(JPlagResult result) {
@@ -47,6 +57,9 @@ public class MetricMapper {
     }
 
     private List<TopComparison> getTopComparisons(List<JPlagComparison> comparisons, Function<JPlagComparison, Double> similarityExtractor) {
+        if (!listTopComparisons) {
+            return List.of();
+        }
         return comparisons.stream().sorted(Comparator.comparing(similarityExtractor).reversed())
                 .map(comparison -> new TopComparison(submissionToIdFunction.apply(comparison.firstSubmission()),
                         submissionToIdFunction.apply(comparison.secondSubmission()), similarityExtractor.apply(comparison)))
@@ -4,6 +4,10 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * Cluster of similar submissions. The member similarities are the similarities of all pairs of members according to the
+ * metric used for clustering, thus the report viewer does not depend on the top comparisons to show them.
+ */
 public record Cluster(@JsonProperty("average_similarity") double averageSimilarity, @JsonProperty("strength") double strength,
-        @JsonProperty("members") List<String> members) {
+        @JsonProperty("members") List<String> members, @JsonProperty("member_similarities") List<TopComparison> memberSimilarities) {
 }
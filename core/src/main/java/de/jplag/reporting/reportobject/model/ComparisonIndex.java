@@ -0,0 +1,13 @@
+package de.jplag.reporting.reportobject.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Describes the paged comparison index of a report. For each metric, the comparisons are sorted by their similarity in
+ * descending order and split into pages of a fixed size, which the report viewer loads one at a time.
+ */
+public record ComparisonIndex(@JsonProperty("page_size") int pageSize, @JsonProperty("number_of_comparisons") int numberOfComparisons,
+        @JsonProperty("number_of_pages") int numberOfPages, @JsonProperty("metrics") List<String> metrics) {
+}
@@ -0,0 +1,8 @@
+package de.jplag.reporting.reportobject.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ComparisonIndexEntry(@JsonProperty("first_submission") String firstSubmission,
+        @JsonProperty("second_submission") String secondSubmission, @JsonProperty("similarity") double similarity,
+        @JsonProperty("file_name") String fileName) {
+}
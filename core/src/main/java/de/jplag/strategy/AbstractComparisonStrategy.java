@@ -1,6 +1,9 @@
 package de.jplag.strategy;
 
 import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import de.jplag.options.SubmissionNamePair;
 import org.slf4j.Logger;
@@ -10,6 +13,11 @@ import de.jplag.GreedyStringTiling;
 import de.jplag.JPlagComparison;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
+import de.jplag.TimeUtil;
+import de.jplag.TopComparisonCollector;
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.clustering.SimilarityMatrix;
+import de.jplag.options.CandidateFilterOptions;
 import de.jplag.options.JPlagOptions;
 
 public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
@@ -35,6 +43,7 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
      */
     protected void compareSubmissionsToBaseCode(SubmissionSet submissionSet) {
         Submission baseCodeSubmission = submissionSet.getBaseCode();
+        greedyStringTiling.prepareSubmissions(List.of(baseCodeSubmission));
         for (Submission currentSubmission : submissionSet.getSubmissions()) {
             JPlagComparison baseCodeComparison = greedyStringTiling.generateBaseCodeMarking(currentSubmission, baseCodeSubmission);
             currentSubmission.setBaseCodeComparison(baseCodeComparison);
@@ -42,10 +51,48 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
     }
 
     /**
-     * Compares two submissions and optionally returns the results if similarity is high enough.
+     * Prepares all submissions for the comparison in parallel. Must be called after comparing the submissions to the base
+     * code and before comparing the submissions with each other.
+     * @param submissionSet Submissions to prepare.
+     */
+    protected void prepareSubmissions(SubmissionSet submissionSet) {
+        long timeBeforeStartInMillis = System.currentTimeMillis();
+        greedyStringTiling.prepareSubmissions(submissionSet.getSubmissions());
+        if (logger.isInfoEnabled()) {
+            long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+            logger.info("Time for preparing submissions: {}", TimeUtil.formatDuration(durationInMillis));
+        }
+    }
+
+    /**
+     * Logs how many candidate subsequence pairs with equal subsequence hashes were verified and how many of them turned out
+     * to be matches. A low ratio indicates many false candidates due to hash collisions. Also logs how many comparisons
+     * were terminated early due to the similarity threshold.
+     */
+    protected void logComparisonStatistics() {
+        long candidates = greedyStringTiling.getNumberOfCandidateVerifications();
+        long verified = greedyStringTiling.getNumberOfVerifiedCandidates();
+        if (logger.isInfoEnabled() && candidates > 0) {
+            logger.info("Verified {} of {} subsequence hash candidates as matches ({}%)", verified, candidates,
+                    String.format("%.2f", 100.0 * verified / candidates));
+        }
+        long terminated = greedyStringTiling.getNumberOfTerminatedComparisons();
+        if (terminated > 0) {
+            logger.info("Terminated {} comparisons early as they could not reach the similarity threshold", terminated);
+        }
+    }
+
+    /**
+     * Compares two submissions and optionally returns the results if similarity is high enough. Comparisons are terminated
+     * early once they can no longer reach the similarity threshold.
      */
     protected Optional<JPlagComparison> compareSubmissions(Submission first, Submission second) {
-        JPlagComparison comparison = greedyStringTiling.compare(first, second);
+        Optional<JPlagComparison> result = greedyStringTiling.compare(first, second, options.similarityMetric(), options.similarityThreshold());
+        if (result.isEmpty()) {
+            logger.info("Comparing {}-{}: terminated below threshold", first.getName(), second.getName());
+            return Optional.empty();
+        }
+        JPlagComparison comparison = result.get();
         logger.info("Comparing {}-{}: {}", first.getName(), second.getName(), comparison.similarity());
 
         if (options.similarityMetric().isAboveThreshold(comparison, options.similarityThreshold())) {
@@ -54,30 +101,79 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
         return Optional.empty();
     }
 
+    /**
+     * Creates the collector for the comparisons. Only the maximum number of comparisons shown in the report are retained.
+     * If clustering is enabled, the collector additionally records the similarities of all comparisons in a compact
+     * matrix that the clustering runs on.
+     * @param submissions are the submissions to compare.
+     * @return the new collector.
+     */
+    protected TopComparisonCollector createCollector(List<Submission> submissions) {
+        ClusteringOptions clusteringOptions = options.clusteringOptions();
+        if (!clusteringOptions.enabled()) {
+            return new TopComparisonCollector(options.maximumNumberOfComparisons());
+        }
+        if (submissions.size() > SimilarityMatrix.MAXIMUM_SUBMISSIONS) {
+            logger.warn("Too many submissions for the similarity matrix, clustering only uses the {} retained comparisons",
+                    options.maximumNumberOfComparisons());
+            return new TopComparisonCollector(options.maximumNumberOfComparisons());
+        }
+        SimilarityMatrix similarityMatrix = new SimilarityMatrix(submissions, clusteringOptions.similarityMetric());
+        return new TopComparisonCollector(options.maximumNumberOfComparisons(), similarityMatrix);
+    }
+
     private static boolean isTupleBlacklisted(SubmissionTuple tuple, Set<SubmissionNamePair> blacklist) {
         return blacklist.contains(new SubmissionNamePair(tuple.left().getName(), tuple.right().getName()));
     }
 
     /**
-     * @return a list of all submission tuples to be processed.
+     * Builds the lazy stream of submission tuples to be compared. Tuples are only created while the stream is consumed,
+     * thus the comparisons start right away and no list of all tuples is held in memory. The stream is parallel and
+     * splits efficiently. If the candidate filter is enabled, only candidate pairs of likely similar submissions are
+     * included.
+     * @return the stream of all submission tuples to be processed.
      */
-    protected static List<SubmissionTuple> buildComparisonTuples(List<Submission> submissions, JPlagOptions options) {
-        Set<SubmissionNamePair> blacklist = options.blacklistedFiles();
-        List<SubmissionTuple> tuples = new ArrayList<>();
+    protected Stream<SubmissionTuple> buildComparisonTuples(List<Submission> submissions) {
         List<Submission> validSubmissions = submissions.stream().filter(s -> s.getTokenList() != null).toList();
 
-        for (int i = 0; i < (validSubmissions.size() - 1); i++) {
-            Submission first = validSubmissions.get(i);
-            for (int j = (i + 1); j < validSubmissions.size(); j++) {
-                Submission second = validSubmissions.get(j);
-                if (first.isNew() || second.isNew())  {
-                    SubmissionTuple t = new SubmissionTuple(first, second);
-                    if (!isTupleBlacklisted(t, blacklist)) {
-                        tuples.add(t);
-                    }
-                }
-            }
+        Stream<SubmissionTuple> tuples;
+        CandidateFilterOptions candidateFilterOptions = options.candidateFilterOptions();
+        if (candidateFilterOptions.enabled()) {
+            long timeBeforeStartInMillis = System.currentTimeMillis();
+            long[] candidatePairs = new MinHashCandidateFilter(candidateFilterOptions).findCandidatePairs(validSubmissions);
+            logSkippedPairs(validSubmissions, candidatePairs, System.currentTimeMillis() - timeBeforeStartInMillis);
+            tuples = LongStream.of(candidatePairs).parallel()
+                    .mapToObj(candidatePair -> new SubmissionTuple(validSubmissions.get(MinHashCandidateFilter.firstIndexOf(candidatePair)),
+                            validSubmissions.get(MinHashCandidateFilter.secondIndexOf(candidatePair))))
+                    .filter(tuple -> tuple.left().isNew() || tuple.right().isNew());
+        } else {
+            // new submissions first, such that the tuples of two old submissions form the tail of the index space and are skipped
+            List<Submission> newSubmissions = validSubmissions.stream().filter(Submission::isNew).toList();
+            List<Submission> orderedSubmissions = newSubmissions.size() == validSubmissions.size() ? validSubmissions
+                    : Stream.concat(newSubmissions.stream(), validSubmissions.stream().filter(submission -> !submission.isNew())).toList();
+            tuples = StreamSupport.stream(new SubmissionTupleSpliterator(orderedSubmissions, newSubmissions.size()), true);
+        }
+
+        Set<SubmissionNamePair> blacklist = options.blacklistedFiles();
+        if (!blacklist.isEmpty()) {
+            tuples = tuples.filter(tuple -> !isTupleBlacklisted(tuple, blacklist));
         }
         return tuples;
     }
+
+    /**
+     * Logs how many of the pairs that involve at least one new submission were skipped by the candidate filter.
+     */
+    private void logSkippedPairs(List<Submission> validSubmissions, long[] candidatePairs, long durationInMillis) {
+        if (logger.isInfoEnabled()) {
+            long numberOfOldSubmissions = validSubmissions.stream().filter(submission -> !submission.isNew()).count();
+            long numberOfPairs = SubmissionTupleSpliterator.numberOfTuples(validSubmissions.size())
+                    - SubmissionTupleSpliterator.numberOfTuples(numberOfOldSubmissions);
+            long numberOfCandidates = LongStream.of(candidatePairs).filter(candidatePair -> validSubmissions
+                    .get(MinHashCandidateFilter.firstIndexOf(candidatePair)).isNew()
+                    || validSubmissions.get(MinHashCandidateFilter.secondIndexOf(candidatePair)).isNew()).count();
+            logger.info("Candidate filter skipped {} of {} submission pairs in {}", numberOfPairs - numberOfCandidates, numberOfPairs,
+                    TimeUtil.formatDuration(durationInMillis));
+        }
+    }
 }
@@ -0,0 +1,191 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.CompactTokenList;
+import de.jplag.RollingHashFunction;
+import de.jplag.Submission;
+import de.jplag.options.CandidateFilterOptions;
+
+/**
+ * Finds candidate pairs of submissions via MinHash signatures over token k-grams and locality-sensitive hashing (LSH)
+ * banding, see {@link CandidateFilterOptions}. Only the candidate pairs need to be compared, all other pairs are
+ * unlikely to be similar. Runs in linear time regarding the number of tokens plus the number of candidate pairs, which
+ * are deduplicated while they are found. Oversized buckets are capped, such that each submission has at most
+ * <code>2 * (maximumBucketSize - 1)</code> candidates per band.
+ */
+final class MinHashCandidateFilter {
+    private static final Logger logger = LoggerFactory.getLogger(MinHashCandidateFilter.class);
+    private static final long SEED = 0x6A09E667F3BCC909L; // fixed, such that the candidates are reproducible
+
+    private final CandidateFilterOptions options;
+    private final long[] multipliers;
+    private final long[] increments;
+
+    MinHashCandidateFilter(CandidateFilterOptions options) {
+        this.options = options;
+        int signatureLength = options.numberOfBands() * options.rowsPerBand();
+        SplittableRandom random = new SplittableRandom(SEED);
+        multipliers = random.longs(signatureLength).map(multiplier -> multiplier | 1).toArray();
+        increments = random.longs(signatureLength).toArray();
+    }
+
+    /**
+     * Finds the candidate pairs among the given submissions.
+     * @param submissions are the submissions, which must have been parsed successfully.
+     * @return the distinct candidate pairs in ascending order. Each pair is encoded as the index of the first submission
+     * in the upper 32 bits and the greater index of the second submission in the lower 32 bits, see
+     * {@link #firstIndexOf(long)} and {@link #secondIndexOf(long)}.
+     */
+    long[] findCandidatePairs(List<Submission> submissions) {
+        long[][] signatures = IntStream.range(0, submissions.size()).parallel().mapToObj(index -> signatureOf(submissions.get(index)))
+                .toArray(long[][]::new);
+
+        LongHashSet candidatePairs = new LongHashSet();
+        int cappedBuckets = 0;
+        for (int band = 0; band < options.numberOfBands(); band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int index = 0; index < signatures.length; index++) {
+                buckets.computeIfAbsent(bandHash(signatures[index], band), key -> new ArrayList<>()).add(index);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                if (bucket.size() > options.maximumBucketSize()) {
+                    cappedBuckets++;
+                }
+                for (int i = 0; i < bucket.size() - 1; i++) {
+                    int end = Math.min(bucket.size(), i + options.maximumBucketSize()); // only the next members in oversized buckets
+                    for (int j = i + 1; j < end; j++) {
+                        candidatePairs.add(((long) bucket.get(i) << 32) | bucket.get(j));
+                    }
+                }
+            }
+        }
+        if (cappedBuckets > 0) {
+            logger.warn("Candidate filter capped {} buckets with more than {} submissions", cappedBuckets, options.maximumBucketSize());
+        }
+        long[] pairs = candidatePairs.toArray();
+        Arrays.sort(pairs);
+        return pairs;
+    }
+
+    /**
+     * @return the index of the first submission of an encoded candidate pair.
+     */
+    static int firstIndexOf(long candidatePair) {
+        return (int) (candidatePair >>> 32);
+    }
+
+    /**
+     * @return the index of the second submission of an encoded candidate pair.
+     */
+    static int secondIndexOf(long candidatePair) {
+        return (int) candidatePair;
+    }
+
+    /**
+     * Computes the MinHash signature of a submission. Each signature value is the minimum of one hash function over the
+     * rolling hashes of all k-grams of the token types.
+     */
+    long[] signatureOf(Submission submission) {
+        long[] signature = new long[multipliers.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        int[] values = CompactTokenList.of(submission.getTokenList()).getTypeOrdinals();
+        int kGramLength = options.kGramLength();
+        RollingHashFunction hashFunction = RollingHashFunction.KARP_RABIN_64;
+        long factor = 1; // base^(kGramLength-1), the weight of the oldest token in the k-gram
+        for (int i = 1; i < kGramLength; i++) {
+            factor *= hashFunction.base();
+        }
+
+        long kGramHash = 0;
+        for (int index = 0; index < values.length; index++) {
+            if (index >= kGramLength) {
+                kGramHash -= factor * hashFunction.hashOfValue(values[index - kGramLength]);
+            }
+            kGramHash = hashFunction.base() * kGramHash + hashFunction.hashOfValue(values[index]);
+            if (index >= kGramLength - 1) {
+                for (int row = 0; row < signature.length; row++) {
+                    long value = kGramHash * multipliers[row] + increments[row];
+                    value = (value ^ (value >>> 31)) & Long.MAX_VALUE;
+                    if (value < signature[row]) {
+                        signature[row] = value;
+                    }
+                }
+            }
+        }
+        return signature;
+    }
+
+    private long bandHash(long[] signature, int band) {
+        long hash = band;
+        int start = band * options.rowsPerBand();
+        for (int row = start; row < start + options.rowsPerBand(); row++) {
+            hash = 31 * hash + signature[row];
+        }
+        return hash;
+    }
+
+    /**
+     * Set of positive longs with open addressing, which deduplicates the candidate pairs while they are found without
+     * boxing them.
+     */
+    private static final class LongHashSet {
+        private static final long EMPTY = 0; // not a valid pair, as the second index is always greater than the first
+
+        private long[] slots = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (2 * (size + 1) > slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            int slot = (int) mix(value) & mask;
+            while (slots[slot] != EMPTY) {
+                if (slots[slot] == value) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = value;
+            size++;
+        }
+
+        long[] toArray() {
+            long[] values = new long[size];
+            int index = 0;
+            for (long value : slots) {
+                if (value != EMPTY) {
+                    values[index++] = value;
+                }
+            }
+            return values;
+        }
+
+        private void grow() {
+            long[] oldSlots = slots;
+            slots = new long[oldSlots.length * 2];
+            size = 0;
+            for (long value : oldSlots) {
+                if (value != EMPTY) {
+                    add(value);
+                }
+            }
+        }
+
+        private static long mix(long value) {
+            long hash = value * 0x9E3779B97F4A7C15L;
+            return hash ^ (hash >>> 32);
+        }
+    }
+}
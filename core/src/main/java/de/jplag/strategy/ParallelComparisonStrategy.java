@@ -1,12 +1,11 @@
 package de.jplag.strategy;
 
-import java.util.List;
 import java.util.Optional;
 
 import de.jplag.GreedyStringTiling;
-import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.SubmissionSet;
+import de.jplag.TopComparisonCollector;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -26,12 +25,14 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
         if (withBaseCode) {
             compareSubmissionsToBaseCode(submissionSet);
         }
+        prepareSubmissions(submissionSet);
 
-        List<SubmissionTuple> tuples = buildComparisonTuples(submissionSet.getSubmissions(), options);
-        List<JPlagComparison> comparisons = tuples.stream().parallel().map(tuple -> compareSubmissions(tuple.left(), tuple.right()))
-                .flatMap(Optional::stream).toList();
+        TopComparisonCollector collector = createCollector(submissionSet.getSubmissions());
+        buildComparisonTuples(submissionSet.getSubmissions()).map(tuple -> compareSubmissions(tuple.left(), tuple.right()))
+                .flatMap(Optional::stream).forEach(collector::add);
+        logComparisonStatistics();
 
         long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisons, submissionSet, durationInMillis, options);
+        return new JPlagResult(collector, submissionSet, durationInMillis, options);
     }
 }
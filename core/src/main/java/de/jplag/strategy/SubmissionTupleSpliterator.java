@@ -0,0 +1,118 @@
+package de.jplag.strategy;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import de.jplag.Submission;
+
+/**
+ * Lazy spliterator over tuples of distinct submissions. The tuples are enumerated in the triangular index space of the
+ * submission list, i.e. (0, 1), (0, 2), ..., (0, n - 1), (1, 2), and so on. Only the current position is stored, thus
+ * traversing all tuples requires constant memory and splitting is possible in constant time by halving the index
+ * range.
+ */
+final class SubmissionTupleSpliterator implements Spliterator<SubmissionTuple> {
+    private static final long MINIMUM_SPLIT_SIZE = 256;
+
+    private final List<Submission> submissions;
+    private final long end;
+    private long index;
+    private int first;
+    private int second;
+
+    /**
+     * Creates a spliterator over all tuples of the given submissions.
+     * @param submissions are the submissions, which should allow fast random access.
+     */
+    SubmissionTupleSpliterator(List<Submission> submissions) {
+        this(submissions, submissions.size());
+    }
+
+    /**
+     * Creates a spliterator over all tuples that contain at least one of the leading submissions, e.g. over all tuples
+     * with a new submission if the new submissions precede the old ones.
+     * @param submissions are the submissions, which should allow fast random access.
+     * @param numberOfLeadingSubmissions is the number of leading submissions.
+     */
+    SubmissionTupleSpliterator(List<Submission> submissions, int numberOfLeadingSubmissions) {
+        this(submissions, 0, rowOffset(Math.min(numberOfLeadingSubmissions, submissions.size()), submissions.size()));
+    }
+
+    private SubmissionTupleSpliterator(List<Submission> submissions, long index, long end) {
+        this.submissions = submissions;
+        this.end = end;
+        moveTo(index);
+    }
+
+    /**
+     * @return the number of tuples of distinct submissions for the given number of submissions.
+     */
+    static long numberOfTuples(long numberOfSubmissions) {
+        return numberOfSubmissions * (numberOfSubmissions - 1) / 2;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SubmissionTuple> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(new SubmissionTuple(submissions.get(first), submissions.get(second)));
+        index++;
+        second++;
+        if (second == submissions.size()) {
+            first++;
+            second = first + 1;
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<SubmissionTuple> trySplit() {
+        long remaining = end - index;
+        if (remaining < 2 * MINIMUM_SPLIT_SIZE) {
+            return null;
+        }
+        long middle = index + remaining / 2;
+        SubmissionTupleSpliterator prefix = new SubmissionTupleSpliterator(submissions, index, middle);
+        moveTo(middle);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * Moves to the tuple with the given index in the triangular index space. The first submission index is estimated by
+     * solving the quadratic row offset equation and then corrected for rounding errors.
+     */
+    private void moveTo(long tupleIndex) {
+        index = tupleIndex;
+        long numberOfSubmissions = submissions.size();
+        double twiceSizeMinusOne = 2.0 * numberOfSubmissions - 1;
+        long row = (long) ((twiceSizeMinusOne - Math.sqrt(Math.max(0, twiceSizeMinusOne * twiceSizeMinusOne - 8.0 * tupleIndex))) / 2);
+        row = Math.max(0, row);
+        while (row > 0 && rowOffset(row, numberOfSubmissions) > tupleIndex) {
+            row--;
+        }
+        while (row + 1 < numberOfSubmissions && rowOffset(row + 1, numberOfSubmissions) <= tupleIndex) {
+            row++;
+        }
+        first = (int) row;
+        second = (int) (tupleIndex - rowOffset(row, numberOfSubmissions) + row + 1);
+    }
+
+    /**
+     * @return the index of the first tuple of a row, meaning the first tuple whose first submission has the row index.
+     */
+    private static long rowOffset(long row, long numberOfSubmissions) {
+        return row * numberOfSubmissions - row * (row + 1) / 2;
+    }
+}
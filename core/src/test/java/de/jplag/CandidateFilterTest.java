@@ -0,0 +1,67 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.CandidateFilterOptions;
+
+/**
+ * Tests the MinHash candidate filter, which skips submission pairs that are unlikely to be similar.
+ */
+class CandidateFilterTest extends TestBase {
+
+    @Test
+    @DisplayName("test that the candidate filter keeps similar pairs and skips dissimilar ones")
+    void testCandidateFilterKeepsSimilarPairs() throws ExitException {
+        JPlagResult fullResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult filteredResult = runJPlag("PartialPlagiarism", it -> it.withCandidateFilterOptions(new CandidateFilterOptions().withEnabled(true)));
+
+        Set<String> fullComparisons = describe(fullResult);
+        Set<String> filteredComparisons = describe(filteredResult);
+        assertTrue(fullComparisons.containsAll(filteredComparisons));
+        assertTrue(filteredComparisons.size() < fullComparisons.size());
+
+        for (JPlagComparison comparison : fullResult.getAllComparisons()) {
+            if (comparison.similarity() > 0.8) {
+                assertTrue(filteredComparisons.contains(describe(comparison)), "similar pair was skipped: " + comparison);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("test that a disabled candidate filter compares all pairs")
+    void testDisabledCandidateFilter() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.withCandidateFilterOptions(new CandidateFilterOptions().withEnabled(false)));
+        int numberOfSubmissions = result.getNumberOfSubmissions();
+        assertEquals(numberOfSubmissions * (numberOfSubmissions - 1) / 2, result.getAllComparisons().size());
+    }
+
+    @Test
+    @DisplayName("test that capped buckets yield a bounded subset of the candidate pairs without duplicates")
+    void testCappedBuckets() throws ExitException {
+        CandidateFilterOptions filterOptions = new CandidateFilterOptions().withEnabled(true);
+        JPlagResult filteredResult = runJPlag("PartialPlagiarism", it -> it.withCandidateFilterOptions(filterOptions));
+        JPlagResult cappedResult = runJPlag("PartialPlagiarism", it -> it.withCandidateFilterOptions(filterOptions.withMaximumBucketSize(2)));
+
+        Set<String> cappedComparisons = describe(cappedResult);
+        assertEquals(cappedResult.getAllComparisons().size(), cappedComparisons.size());
+        assertTrue(describe(filteredResult).containsAll(cappedComparisons));
+        int maximumCandidates = filterOptions.numberOfBands() * (cappedResult.getNumberOfSubmissions() - 1);
+        assertTrue(cappedComparisons.size() <= maximumCandidates);
+    }
+
+    private static Set<String> describe(JPlagResult result) {
+        return result.getAllComparisons().stream().map(CandidateFilterTest::describe).collect(Collectors.toSet());
+    }
+
+    private static String describe(JPlagComparison comparison) {
+        return comparison + " " + comparison.matches();
+    }
+}
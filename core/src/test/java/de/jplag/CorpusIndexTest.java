@@ -0,0 +1,163 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.java.Language;
+
+/**
+ * Tests the incremental re-check with a {@link CorpusIndex}.
+ */
+class CorpusIndexTest extends TestBase {
+    private static final String OLD_SAMPLE_NAME = "SimpleDuplicate";
+    private static final String NEW_SAMPLE_NAME = "PartialPlagiarism";
+
+    private File indexDirectory;
+
+    @BeforeEach
+    void createIndexDirectory() throws IOException {
+        indexDirectory = Files.createTempDirectory("jplag-corpus-index").toFile();
+    }
+
+    @AfterEach
+    void deleteIndexDirectory() {
+        deleteDirectory(indexDirectory);
+    }
+
+    @Test
+    @DisplayName("test that indexed submissions are compared like old submissions")
+    void testIndexedSubmissionsAsOldSubmissions() throws ExitException, IOException {
+        runJPlag(OLD_SAMPLE_NAME, it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+        JPlagResult expectedResult = runJPlag(List.of(getBasePath(NEW_SAMPLE_NAME)), List.of(getBasePath(OLD_SAMPLE_NAME)), it -> it);
+
+        JPlagResult result = runJPlag(NEW_SAMPLE_NAME,
+                it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+
+        assertEquals(20, result.getAllComparisons().size());
+        assertEquals(sortedSimilaritiesOf(expectedResult), sortedSimilaritiesOf(result));
+        assertEquals(7, new CorpusIndex(indexDirectory, new VersionedJavaLanguage()).loadSubmissions().size());
+    }
+
+    @Test
+    @DisplayName("test that unchanged old submissions are restored from the index with their current name")
+    void testRestoredOldSubmissions() throws ExitException {
+        List<String> newPaths = List.of(getBasePath(NEW_SAMPLE_NAME));
+        List<String> oldPaths = List.of(getBasePath(OLD_SAMPLE_NAME));
+        JPlagResult expectedResult = runJPlag(newPaths, oldPaths, it -> it);
+
+        for (int run = 0; run < 2; run++) {
+            JPlagResult result = runJPlag(newPaths, oldPaths,
+                    it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+            assertEquals(similaritiesOf(expectedResult), similaritiesOf(result));
+        }
+    }
+
+    @Test
+    @DisplayName("test that submissions whose file contents changed are not up to date, even if their modification times did not change")
+    void testChangedContentIsNotUpToDate() throws ExitException, IOException {
+        Path samples = Files.createTempDirectory("jplag-corpus-samples");
+        try {
+            copyDirectory(Path.of(getBasePath(OLD_SAMPLE_NAME)), samples);
+            runJPlag(List.of(samples.toString()), it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+
+            CorpusIndex.IndexedSubmission indexedSubmission = new CorpusIndex(indexDirectory, new VersionedJavaLanguage()).loadSubmissions().get(0);
+            assertTrue(indexedSubmission.isUpToDate(indexedSubmission.files()));
+
+            Path file = indexedSubmission.files().get(0).toPath();
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            Files.writeString(file, "// changed\n" + Files.readString(file));
+            Files.setLastModifiedTime(file, lastModified);
+            assertFalse(indexedSubmission.isUpToDate(indexedSubmission.files()));
+        } finally {
+            deleteDirectory(samples.toFile());
+        }
+    }
+
+    @Test
+    @DisplayName("test that the least recently used submissions are evicted and submissions can be removed over several rounds")
+    void testEvictionOverSeveralRounds() throws ExitException, IOException {
+        runJPlag(OLD_SAMPLE_NAME, it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+        Set<File> oldRoots = rootsOf(new CorpusIndex(indexDirectory, new VersionedJavaLanguage()).loadSubmissions());
+        sleepForDistinctModificationTimes();
+        runJPlag(NEW_SAMPLE_NAME, it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+        CorpusIndex index = new CorpusIndex(indexDirectory, new VersionedJavaLanguage(), 5);
+        Set<File> allRoots = rootsOf(index.loadSubmissions());
+        assertEquals(7, allRoots.size());
+
+        index.update(List.of()); // evicts the two submissions of the first round
+        Set<File> retainedRoots = rootsOf(index.loadSubmissions());
+        assertEquals(5, retainedRoots.size());
+        assertTrue(Collections.disjoint(oldRoots, retainedRoots));
+
+        File removedRoot = retainedRoots.iterator().next();
+        assertTrue(index.remove(removedRoot));
+        assertFalse(index.remove(removedRoot));
+        assertFalse(rootsOf(index.loadSubmissions()).contains(removedRoot));
+
+        sleepForDistinctModificationTimes();
+        runJPlag(OLD_SAMPLE_NAME, it -> it.withLanguageOption(new VersionedJavaLanguage()).withCorpusIndexDirectory(indexDirectory));
+        index = new CorpusIndex(indexDirectory, new VersionedJavaLanguage(), 5);
+        index.update(List.of()); // the submissions of the last round are the most recently used ones
+        assertTrue(rootsOf(index.loadSubmissions()).containsAll(oldRoots));
+    }
+
+    @Test
+    @DisplayName("test that the index refuses languages with unknown version")
+    void testUnknownLanguageVersion() {
+        Language language = new Language();
+        assertEquals(de.jplag.Language.UNKNOWN_VERSION, language.getVersion()); // no manifest when running from the class folders
+        assertThrows(IllegalArgumentException.class, () -> new CorpusIndex(indexDirectory, language));
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy);
+                }
+            }
+        }
+    }
+
+    private static Set<File> rootsOf(List<CorpusIndex.IndexedSubmission> indexedSubmissions) {
+        return indexedSubmissions.stream().map(CorpusIndex.IndexedSubmission::root).collect(Collectors.toSet());
+    }
+
+    private static void sleepForDistinctModificationTimes() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Double> sortedSimilaritiesOf(JPlagResult result) {
+        return result.getAllComparisons().stream().map(JPlagComparison::similarity).sorted().toList();
+    }
+
+    private static List<String> similaritiesOf(JPlagResult result) {
+        return result.getAllComparisons().stream().map(comparison -> comparison + "=" + comparison.similarity()).toList();
+    }
+}
@@ -0,0 +1,163 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.options.JPlagOptions;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Tests the primitive building blocks of the {@link GreedyStringTiling} algorithm and the matches of whole comparisons.
+ */
+class GreedyStringTilingTest {
+
+    private static final int ITERATIONS = 100_000;
+    private static final int MEASUREMENT_ROUNDS = 10;
+
+    private static final int[] LEFT_VALUES = {1, 2, 3, 4, 5, 6, 7, 8, 0};
+    private static final int[] RIGHT_VALUES = {9, 1, 2, 3, 4, 5, 6, 7, 8, 0};
+
+    private static final int MINIMUM_MATCH_LENGTH = 3;
+
+    @Test
+    @DisplayName("test matching subsequence length without markings")
+    void testMatchingSubsequenceLength() {
+        BitSet leftMarked = new BitSet();
+        BitSet rightMarked = new BitSet();
+        leftMarked.set(LEFT_VALUES.length - 1); // pivot
+        rightMarked.set(RIGHT_VALUES.length - 1); // pivot
+        assertEquals(8, GreedyStringTiling.maximalMatchingSubsequenceLengthNotMarked(LEFT_VALUES, 0, leftMarked, RIGHT_VALUES, 1, rightMarked, 3));
+        assertEquals(0, GreedyStringTiling.maximalMatchingSubsequenceLengthNotMarked(LEFT_VALUES, 0, leftMarked, RIGHT_VALUES, 0, rightMarked, 3));
+    }
+
+    @Test
+    @DisplayName("test that marked tokens end a matching subsequence")
+    void testMatchingSubsequenceLengthWithMarkings() {
+        BitSet leftMarked = new BitSet();
+        BitSet rightMarked = new BitSet();
+        leftMarked.set(LEFT_VALUES.length - 1);
+        rightMarked.set(RIGHT_VALUES.length - 1);
+        rightMarked.set(6); // value 6 in the right list
+        assertEquals(5, GreedyStringTiling.maximalMatchingSubsequenceLengthNotMarked(LEFT_VALUES, 0, leftMarked, RIGHT_VALUES, 1, rightMarked, 3));
+        leftMarked.set(1); // value 2 in the left list
+        assertEquals(0, GreedyStringTiling.maximalMatchingSubsequenceLengthNotMarked(LEFT_VALUES, 0, leftMarked, RIGHT_VALUES, 1, rightMarked, 3));
+    }
+
+    @Test
+    @DisplayName("test that the innermost matching loop does not allocate")
+    void testMatchingSubsequenceLengthDoesNotAllocate() {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+        BitSet leftMarked = new BitSet();
+        BitSet rightMarked = new BitSet();
+        leftMarked.set(LEFT_VALUES.length - 1);
+        rightMarked.set(RIGHT_VALUES.length - 1);
+
+        // Class loading and JIT compilation may allocate during the first rounds, thus the round with the fewest bytes counts.
+        long minimalAllocatedBytes = Long.MAX_VALUE;
+        for (int round = 0; round < MEASUREMENT_ROUNDS; round++) {
+            long allocatedBytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+            long matchedLength = runMatchingLoop(leftMarked, rightMarked);
+            long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBytesBefore;
+            assertEquals(8L * ITERATIONS, matchedLength);
+            minimalAllocatedBytes = Math.min(minimalAllocatedBytes, allocatedBytes);
+        }
+        assertEquals(0, minimalAllocatedBytes);
+    }
+
+    @Test
+    @DisplayName("test that tokens matched in earlier tiling iterations are not matched again")
+    void testMatchesWithOverlappingRegions() {
+        Submission first = createSubmission("first", "ABCDEFGHPQRS");
+        Submission second = createSubmission("second", "ABCDEFZDEFGHYPQRS");
+        GreedyStringTiling algorithm = createAlgorithm();
+
+        // DEFGH of the second submission would match, but DEF is already covered by the longer first match.
+        List<Match> expectedMatches = List.of(new Match(0, 0, 6), new Match(8, 13, 4));
+        assertMatches(expectedMatches, first, algorithm.compare(first, second));
+        assertMatches(expectedMatches, first, algorithm.compare(second, first));
+
+        algorithm.prepareSubmissions(List.of(first, second));
+        assertMatches(expectedMatches, first, algorithm.compare(first, second));
+    }
+
+    @Test
+    @DisplayName("test that base code marked tokens are not matched")
+    void testMatchesWithBaseCodeMarkedRegions() {
+        Submission first = createSubmission("first", "ABCDEFGHPQRS");
+        Submission second = createSubmission("second", "ABCDEFGHYPQRS");
+        Submission baseCode = createSubmission("base", "DEFGH");
+        GreedyStringTiling algorithm = createAlgorithm();
+
+        assertMatches(List.of(new Match(0, 0, 8), new Match(8, 9, 4)), first, algorithm.compare(first, second));
+
+        assertMatches(List.of(new Match(0, 3, 5)), baseCode, algorithm.generateBaseCodeMarking(first, baseCode));
+        assertMatches(List.of(new Match(0, 3, 5)), baseCode, algorithm.generateBaseCodeMarking(second, baseCode));
+
+        // The longest remaining match is found in the first iteration, the shortened prefix in the second one.
+        List<Match> expectedMatches = List.of(new Match(8, 9, 4), new Match(0, 0, 3));
+        assertMatches(expectedMatches, first, algorithm.compare(first, second));
+
+        algorithm.prepareSubmissions(List.of(first, second));
+        assertMatches(expectedMatches, first, algorithm.compare(second, first));
+    }
+
+    private static GreedyStringTiling createAlgorithm() {
+        JPlagOptions options = new JPlagOptions(new de.jplag.java.Language(), Set.of(), Set.of()).withMinimumTokenMatch(MINIMUM_MATCH_LENGTH);
+        return new GreedyStringTiling(options);
+    }
+
+    /**
+     * Creates a submission with one token per letter, each letter being its own token type.
+     */
+    private static Submission createSubmission(String name, String letters) {
+        File file = new File(name + ".java");
+        List<Token> tokens = new ArrayList<>();
+        for (int index = 0; index < letters.length(); index++) {
+            tokens.add(new Token(new LetterTokenType(letters.charAt(index)), file, 1, index + 1, 1));
+        }
+        tokens.add(Token.fileEnd(file));
+        Submission submission = new Submission(name, file, true, List.of(file), new de.jplag.java.Language());
+        submission.setTokenList(tokens);
+        return submission;
+    }
+
+    /**
+     * Asserts the matches of a comparison, with the start indexes of the given submission as first start indexes.
+     */
+    private static void assertMatches(List<Match> expectedMatches, Submission first, JPlagComparison comparison) {
+        List<Match> matches = comparison.matches();
+        if (comparison.firstSubmission() != first) {
+            matches = matches.stream().map(match -> new Match(match.startOfSecond(), match.startOfFirst(), match.length())).toList();
+        }
+        assertEquals(expectedMatches, matches);
+    }
+
+    private static long runMatchingLoop(BitSet leftMarked, BitSet rightMarked) {
+        long matchedLength = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            matchedLength += GreedyStringTiling.maximalMatchingSubsequenceLengthNotMarked(LEFT_VALUES, 0, leftMarked, RIGHT_VALUES, 1, rightMarked,
+                    3);
+        }
+        return matchedLength;
+    }
+
+    private record LetterTokenType(char letter) implements TokenType {
+        @Override
+        public String getDescription() {
+            return String.valueOf(letter);
+        }
+    }
+}
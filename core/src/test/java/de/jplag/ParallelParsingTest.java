@@ -0,0 +1,87 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Tests that submissions parsed in parallel yield the same submission set as sequentially parsed ones.
+ */
+class ParallelParsingTest extends TestBase {
+
+    @Test
+    @DisplayName("test that parallel and sequential parsing yield the same valid submissions")
+    void testParallelParsing() throws ExitException {
+        assertTrue(new de.jplag.java.Language().supportsParallelParsing());
+        assertFalse(new SequentialLanguage().supportsParallelParsing());
+
+        assertSameSubmissions(runJPlagWithDefaultOptions("PartialPlagiarism"),
+                runJPlag("PartialPlagiarism", it -> it.withLanguageOption(new SequentialLanguage())));
+    }
+
+    @Test
+    @DisplayName("test that parallel and sequential parsing invalidate the same too short submissions")
+    void testParallelParsingOfTooShortSubmissions() throws ExitException {
+        JPlagResult parallelResult = runJPlag("PartialPlagiarism", it -> it.withMinimumTokenMatch(150));
+        JPlagResult sequentialResult = runJPlag("PartialPlagiarism",
+                it -> it.withLanguageOption(new SequentialLanguage()).withMinimumTokenMatch(150));
+
+        assertFalse(parallelResult.getSubmissions().getInvalidSubmissions().isEmpty());
+        assertSameSubmissions(parallelResult, sequentialResult);
+    }
+
+    private static void assertSameSubmissions(JPlagResult expected, JPlagResult actual) {
+        assertEquals(namesAndTokenCounts(expected.getSubmissions().getSubmissions()), namesAndTokenCounts(actual.getSubmissions().getSubmissions()));
+        assertEquals(namesOf(expected.getSubmissions().getInvalidSubmissions()), namesOf(actual.getSubmissions().getInvalidSubmissions()));
+        assertEquals(expected.getNumberOfComparisons(), actual.getNumberOfComparisons());
+    }
+
+    private static List<String> namesAndTokenCounts(List<Submission> submissions) {
+        return submissions.stream().map(it -> it.getName() + ":" + it.getNumberOfTokens()).sorted().toList();
+    }
+
+    private static List<String> namesOf(List<Submission> submissions) {
+        return submissions.stream().map(Submission::getName).sorted().toList();
+    }
+
+    /**
+     * Java language that does not allow parallel parsing.
+     */
+    private static class SequentialLanguage implements Language {
+        private final Language language = new de.jplag.java.Language();
+
+        @Override
+        public String[] suffixes() {
+            return language.suffixes();
+        }
+
+        @Override
+        public String getName() {
+            return language.getName();
+        }
+
+        @Override
+        public String getIdentifier() {
+            return language.getIdentifier();
+        }
+
+        @Override
+        public int minimumTokenMatch() {
+            return language.minimumTokenMatch();
+        }
+
+        @Override
+        public List<Token> parse(Set<File> files) throws ParsingException {
+            return language.parse(files);
+        }
+    }
+}
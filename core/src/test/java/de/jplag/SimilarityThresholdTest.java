@@ -0,0 +1,78 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Tests that comparisons which are terminated early due to the similarity threshold do not change the result.
+ */
+class SimilarityThresholdTest extends TestBase {
+
+    private static final double SIMILARITY_THRESHOLD = 0.5;
+
+    @ParameterizedTest
+    @EnumSource(SimilarityMetric.class)
+    @DisplayName("test that early termination yields the comparisons above the threshold")
+    void testEarlyTerminationMatchesFilteredResult(SimilarityMetric metric) throws ExitException {
+        JPlagResult fullResult = runJPlag("PartialPlagiarism",
+                it -> it.withSimilarityMetric(metric).withClusteringOptions(new ClusteringOptions().withEnabled(false)));
+        JPlagResult thresholdResult = runJPlag("PartialPlagiarism", it -> it.withSimilarityMetric(metric)
+                .withSimilarityThreshold(SIMILARITY_THRESHOLD).withClusteringOptions(new ClusteringOptions().withEnabled(false)));
+
+        List<JPlagComparison> expectedComparisons = fullResult.getAllComparisons().stream()
+                .filter(comparison -> metric.isAboveThreshold(comparison, SIMILARITY_THRESHOLD)).toList();
+        assertEquals(describe(expectedComparisons), describe(thresholdResult.getAllComparisons()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SimilarityMetric.class)
+    @DisplayName("test that only comparisons below the threshold are terminated")
+    void testOnlyComparisonsBelowThresholdAreTerminated(SimilarityMetric metric) throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        GreedyStringTiling greedyStringTiling = new GreedyStringTiling(result.getOptions());
+        compareAllPairs(greedyStringTiling, result.getSubmissions().getSubmissions(), metric);
+    }
+
+    @Test
+    @DisplayName("test that comparisons are terminated for the average similarity")
+    void testComparisonsAreTerminated() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        GreedyStringTiling greedyStringTiling = new GreedyStringTiling(result.getOptions());
+        compareAllPairs(greedyStringTiling, result.getSubmissions().getSubmissions(), SimilarityMetric.AVG);
+        assertTrue(greedyStringTiling.getNumberOfTerminatedComparisons() > 0);
+    }
+
+    private static void compareAllPairs(GreedyStringTiling greedyStringTiling, List<Submission> submissions, SimilarityMetric metric) {
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                JPlagComparison comparison = greedyStringTiling.compare(submissions.get(i), submissions.get(j));
+                Optional<JPlagComparison> thresholdComparison = greedyStringTiling.compare(submissions.get(i), submissions.get(j), metric,
+                        SIMILARITY_THRESHOLD);
+                if (thresholdComparison.isPresent()) {
+                    assertEquals(comparison.matches(), thresholdComparison.get().matches());
+                } else {
+                    assertFalse(metric.isAboveThreshold(comparison, SIMILARITY_THRESHOLD));
+                }
+            }
+        }
+    }
+
+    private static Set<String> describe(List<JPlagComparison> comparisons) {
+        return comparisons.stream().map(comparison -> comparison + " " + comparison.matches()).collect(Collectors.toSet());
+    }
+}
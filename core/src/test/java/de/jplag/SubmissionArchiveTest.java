@@ -0,0 +1,159 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.RootDirectoryException;
+
+/**
+ * Tests submissions that are read from a {@link SubmissionArchive}.
+ */
+class SubmissionArchiveTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    private File archiveDirectory;
+
+    @BeforeEach
+    void createArchiveDirectory() throws IOException {
+        archiveDirectory = Files.createTempDirectory("jplag-archives").toFile();
+    }
+
+    @AfterEach
+    void deleteArchiveDirectory() {
+        deleteDirectory(archiveDirectory);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"zip", "tar", "tar.gz"})
+    @DisplayName("test that submissions in an archive yield the same result as in a directory")
+    void testArchivedSubmissions(String format) throws ExitException, IOException {
+        File archive = new File(archiveDirectory, SAMPLE_NAME + "." + format);
+        writeArchive(Path.of(getBasePath(SAMPLE_NAME)), archive, format);
+
+        JPlagResult expectedResult = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        List<File> files;
+        try (JPlagResult result = runJPlag(List.of(archive.getPath()), it -> it)) {
+            assertEquals(similaritiesOf(expectedResult), similaritiesOf(result));
+            files = result.getSubmissions().getSubmissions().stream().flatMap(submission -> submission.getFiles().stream()).toList();
+            for (Submission submission : result.getSubmissions().getSubmissions()) {
+                assertTrue(submission.getRoot().getPath().startsWith(archive.getCanonicalPath()));
+            }
+            for (File file : files) {
+                assertTrue(SourceLoader.isProvided(file));
+                File originalFile = new File(getBasePath(SAMPLE_NAME), file.getPath().substring(archive.getCanonicalPath().length()));
+                assertArrayEquals(Files.readAllBytes(originalFile.toPath()), SourceLoader.readAllBytes(file));
+            }
+        }
+        assertFalse(files.isEmpty());
+        assertTrue(files.stream().noneMatch(SourceLoader::isProvided)); // the archive is closed with the result
+    }
+
+    @Test
+    @DisplayName("test that archives are rejected up front for languages that cannot read from them")
+    void testArchiveWithUnsupportedLanguage() throws IOException {
+        File archive = new File(archiveDirectory, SAMPLE_NAME + ".zip");
+        writeArchive(Path.of(getBasePath(SAMPLE_NAME)), archive, "zip");
+        de.jplag.Language language = new de.jplag.java.Language() {
+            @Override
+            public boolean supportsArchiveSources() {
+                return false;
+            }
+        };
+        assertThrows(RootDirectoryException.class, () -> runJPlag(List.of(archive.getPath()), it -> it.withLanguageOption(language)));
+    }
+
+    private static void writeArchive(Path directory, File archive, String format) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).sorted().toList();
+        }
+        try (OutputStream output = Files.newOutputStream(archive.toPath())) {
+            if (format.equals("zip")) {
+                writeZip(directory, files, output);
+            } else if (format.equals("tar")) {
+                writeTar(directory, files, output);
+            } else {
+                try (OutputStream compressedOutput = new GZIPOutputStream(output)) {
+                    writeTar(directory, files, compressedOutput);
+                }
+            }
+        }
+    }
+
+    private static void writeZip(Path directory, List<Path> files, OutputStream output) throws IOException {
+        try (ZipOutputStream zipOutput = new ZipOutputStream(output)) {
+            for (Path file : files) {
+                zipOutput.putNextEntry(new ZipEntry(entryNameOf(directory, file)));
+                try (InputStream input = Files.newInputStream(file)) {
+                    input.transferTo(zipOutput);
+                }
+                zipOutput.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Writes a minimal ustar archive, which suffices for the short paths of the sample files.
+     */
+    private static void writeTar(Path directory, List<Path> files, OutputStream output) throws IOException {
+        for (Path file : files) {
+            byte[] content = Files.readAllBytes(file);
+            byte[] header = new byte[512];
+            putField(header, 0, 100, entryNameOf(directory, file));
+            putField(header, 100, 8, "0000644");
+            putField(header, 124, 12, String.format("%011o", content.length));
+            header[156] = '0';
+            putField(header, 257, 6, "ustar");
+            putField(header, 148, 8, "        ");
+            int checksum = 0;
+            for (byte value : header) {
+                checksum += value & 0xFF;
+            }
+            putField(header, 148, 8, String.format("%06o", checksum));
+            output.write(header);
+            output.write(content);
+            output.write(new byte[(512 - content.length % 512) % 512]);
+        }
+        output.write(new byte[1024]);
+    }
+
+    private static void putField(byte[] header, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+    }
+
+    private static String entryNameOf(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Set<String> similaritiesOf(JPlagResult result) {
+        return result.getAllComparisons().stream().map(comparison -> Stream.of(comparison.firstSubmission(), comparison.secondSubmission())
+                .map(Submission::getName).sorted().collect(Collectors.joining(" <-> ")) + "=" + comparison.similarity()).collect(Collectors.toSet());
+    }
+}
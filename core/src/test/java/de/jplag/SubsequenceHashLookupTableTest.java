@@ -0,0 +1,165 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the {@link SubsequenceHashLookupTable}, especially that its primitive index yields the same start indexes as a
+ * naive map from hashes to lists of start indexes.
+ */
+class SubsequenceHashLookupTableTest {
+
+    private static final int NUMBER_OF_VALUES = 5000;
+    private static final int NUMBER_OF_TOKEN_TYPES = 150;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 9, 12, 25, 40})
+    @DisplayName("test that the table yields the same hashes and start indexes as a naive map")
+    void testCursorMatchesReferenceMap(int windowSize) {
+        Random random = new Random(windowSize);
+        int[] values = random.ints(NUMBER_OF_VALUES, 0, NUMBER_OF_TOKEN_TYPES).toArray();
+        assertTableMatchesReference(windowSize, values, randomMarkedIndexes(random), RollingHashFunction.KARP_RABIN_64);
+    }
+
+    @ParameterizedTest
+    @EnumSource(RollingHashFunction.class)
+    @DisplayName("test that all hash functions yield the same hashes and start indexes as a naive map")
+    void testCursorMatchesReferenceMapForHashFunctions(RollingHashFunction hashFunction) {
+        Random random = new Random(hashFunction.ordinal());
+        int[] values = random.ints(NUMBER_OF_VALUES, 0, NUMBER_OF_TOKEN_TYPES).toArray();
+        assertTableMatchesReference(12, values, new BitSet(), hashFunction);
+        assertTableMatchesReference(12, values, randomMarkedIndexes(random), hashFunction);
+    }
+
+    @Test
+    @DisplayName("test that Karp-Rabin hashes are not capped for windows beyond 25 tokens")
+    void testKarpRabinWindowIsNotCapped() {
+        Random random = new Random(42);
+        int[] values = random.ints(NUMBER_OF_VALUES, 0, 3).toArray(); // few values to provoke collisions
+        int windowSize = 40;
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(windowSize, values, new BitSet(), RollingHashFunction.KARP_RABIN_64);
+        assertEquals(windowSize, table.getWindowSize());
+
+        SubsequenceHashLookupTable.StartIndexCursor cursor = table.startIndexCursor();
+        for (int startIndex = 0; startIndex < values.length - windowSize; startIndex++) {
+            int[] window = Arrays.copyOfRange(values, startIndex, startIndex + windowSize);
+            cursor.moveToSubsequenceHash(table.subsequenceHashForStartIndex(startIndex));
+            while (cursor.hasNext()) {
+                int candidate = cursor.nextInt();
+                assertArrayEquals(window, Arrays.copyOfRange(values, candidate, candidate + windowSize), "false candidate " + candidate);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("test that the legacy hash function collides for values that are 64 apart but Karp-Rabin does not")
+    void testValuesSixtyFourApart() {
+        int[] values = {1, 2, 3, 65, 66, 67, 0};
+        BitSet markedIndexes = new BitSet();
+        markedIndexes.set(values.length - 1);
+
+        SubsequenceHashLookupTable legacyTable = new SubsequenceHashLookupTable(3, values, markedIndexes, RollingHashFunction.BINARY_MODULO_64);
+        assertEquals(legacyTable.subsequenceHashForStartIndex(0), legacyTable.subsequenceHashForStartIndex(3));
+
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(3, values, markedIndexes, RollingHashFunction.KARP_RABIN_64);
+        assertNotEquals(table.subsequenceHashForStartIndex(0), table.subsequenceHashForStartIndex(3));
+    }
+
+    @Test
+    @DisplayName("test cursor for hashes without start indexes")
+    void testCursorForUnknownHash() {
+        int[] values = {1, 2, 3, 4, 5, 6, 0};
+        BitSet markedIndexes = new BitSet();
+        markedIndexes.set(values.length - 1);
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(3, values, markedIndexes);
+        SubsequenceHashLookupTable.StartIndexCursor cursor = table.startIndexCursor();
+
+        cursor.moveToSubsequenceHash(SubsequenceHashLookupTable.NO_HASH);
+        assertFalse(cursor.hasNext());
+        cursor.moveToSubsequenceHash(Long.MAX_VALUE);
+        assertFalse(cursor.hasNext());
+        assertThrows(NoSuchElementException.class, cursor::nextInt);
+    }
+
+    @Test
+    @DisplayName("test table for fewer values than the window size")
+    void testTooFewValues() {
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(12, new int[] {1, 2, 0}, new BitSet());
+        SubsequenceHashLookupTable.StartIndexCursor cursor = table.startIndexCursor();
+        cursor.moveToSubsequenceHash(0);
+        assertFalse(cursor.hasNext());
+    }
+
+    private static BitSet randomMarkedIndexes(Random random) {
+        BitSet markedIndexes = new BitSet(NUMBER_OF_VALUES);
+        random.ints(NUMBER_OF_VALUES / 50, 0, NUMBER_OF_VALUES).forEach(markedIndexes::set);
+        return markedIndexes;
+    }
+
+    /**
+     * Asserts that the table assigns each start index the same hash as the naive reference and that the cursor yields the
+     * start indexes of each hash in ascending order. Subsequences with marked values must not be found via any hash.
+     */
+    private static void assertTableMatchesReference(int windowSize, int[] values, BitSet markedIndexes, SubsequenceHashFunction hashFunction) {
+        SubsequenceHashLookupTable table = new SubsequenceHashLookupTable(windowSize, values, markedIndexes, hashFunction);
+        int effectiveWindowSize = Math.min(windowSize, hashFunction.maximumWindowSize());
+        assertEquals(effectiveWindowSize, table.getWindowSize());
+
+        Map<Long, List<Integer>> referenceMap = buildReferenceMap(values, markedIndexes, effectiveWindowSize, hashFunction);
+        SubsequenceHashLookupTable.StartIndexCursor cursor = table.startIndexCursor();
+        for (Map.Entry<Long, List<Integer>> entry : referenceMap.entrySet()) {
+            long hash = entry.getKey();
+            for (int startIndex : entry.getValue()) {
+                assertEquals(hash, table.subsequenceHashForStartIndex(startIndex), "hash of start index " + startIndex);
+            }
+            cursor.moveToSubsequenceHash(hash);
+            List<Integer> startIndexes = new ArrayList<>();
+            cursor.forEachRemaining((int startIndex) -> startIndexes.add(startIndex));
+            if (hash == SubsequenceHashLookupTable.NO_HASH) {
+                assertEquals(List.of(), startIndexes);
+            } else {
+                assertEquals(entry.getValue(), startIndexes);
+            }
+        }
+    }
+
+    /**
+     * Builds the map from hashes to ascending start indexes by hashing each subsequence on its own. Subsequences containing
+     * a marked value are mapped to {@link SubsequenceHashLookupTable#NO_HASH}. As in the table, the last subsequence is
+     * not hashed, since the last value is assumed to be a pivot.
+     */
+    private static Map<Long, List<Integer>> buildReferenceMap(int[] values, BitSet markedIndexes, int windowSize,
+            SubsequenceHashFunction hashFunction) {
+        Map<Long, List<Integer>> referenceMap = new HashMap<>();
+        for (int startIndex = 0; startIndex < values.length - windowSize; startIndex++) {
+            long hash = SubsequenceHashLookupTable.NO_HASH;
+            if (markedIndexes.nextSetBit(startIndex) < 0 || markedIndexes.nextSetBit(startIndex) >= startIndex + windowSize) {
+                hash = 0;
+                for (int offset = 0; offset < windowSize; offset++) {
+                    hash = hash * hashFunction.base() + hashFunction.hashOfValue(values[startIndex + offset]);
+                }
+                hash &= Long.MAX_VALUE; // hashes are truncated to 63 bits to never collide with NO_HASH
+            }
+            referenceMap.computeIfAbsent(hash, key -> new ArrayList<>()).add(startIndex);
+        }
+        return referenceMap;
+    }
+}
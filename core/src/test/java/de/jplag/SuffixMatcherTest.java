@@ -0,0 +1,35 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuffixMatcherTest {
+
+    @Test
+    void testMatchesSuffixes() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of(".java", ".jav", "Test.java", "a"));
+        assertTrue(matcher.matches("Main.java"));
+        assertTrue(matcher.matches("Main.jav"));
+        assertTrue(matcher.matches("java"));
+        assertTrue(matcher.matches(".java"));
+        assertFalse(matcher.matches("Main.py"));
+        assertFalse(matcher.matches("Main.javax"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void testEmptySuffixMatchesAll() {
+        SuffixMatcher matcher = new SuffixMatcher(List.of(".java", ""));
+        assertTrue(matcher.matches("Main.py"));
+        assertTrue(matcher.matches(""));
+    }
+
+    @Test
+    void testNoSuffixesMatchNothing() {
+        assertFalse(new SuffixMatcher(List.of()).matches("Main.java"));
+    }
+}
@@ -0,0 +1,117 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.TokenCacheOptions;
+
+/**
+ * Tests the persistent {@link TokenCache}.
+ */
+class TokenCacheTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    private File cacheDirectory;
+
+    @BeforeEach
+    void createCacheDirectory() throws IOException {
+        cacheDirectory = Files.createTempDirectory("jplag-token-cache").toFile();
+    }
+
+    @AfterEach
+    void deleteCacheDirectory() {
+        deleteDirectory(cacheDirectory);
+    }
+
+    @Test
+    @DisplayName("test that runs with a cold and a warm token cache yield the same result as without cache")
+    void testCachedRuns() throws ExitException {
+        JPlagResult expectedResult = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        TokenCacheOptions options = new TokenCacheOptions().withDirectory(cacheDirectory);
+        for (int run = 0; run < 2; run++) {
+            JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withLanguageOption(new VersionedJavaLanguage()).withTokenCacheOptions(options));
+            assertEquals(similaritiesOf(expectedResult), similaritiesOf(result));
+        }
+    }
+
+    @Test
+    @DisplayName("test that tokens of a language with unknown version are not cached")
+    void testUnknownLanguageVersion() throws ExitException, IOException {
+        Language language = new de.jplag.java.Language();
+        assertEquals(Language.UNKNOWN_VERSION, language.getVersion()); // no manifest when running from the class folders
+        TokenCacheOptions options = new TokenCacheOptions().withDirectory(cacheDirectory);
+        assertThrows(IllegalArgumentException.class, () -> new TokenCache(options, language));
+
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withTokenCacheOptions(options));
+        assertEquals(similaritiesOf(runJPlagWithDefaultOptions(SAMPLE_NAME)), similaritiesOf(result));
+        try (Stream<Path> entries = Files.list(cacheDirectory.toPath())) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    @Test
+    @DisplayName("test that cached tokens equal the parsed tokens")
+    void testCachedTokens() throws IOException, ParsingException {
+        Language language = new VersionedJavaLanguage();
+        Set<File> files = sampleFiles();
+        TokenCache tokenCache = new TokenCache(new TokenCacheOptions().withDirectory(cacheDirectory), language);
+
+        List<Token> parsedTokens = tokenCache.parse(files);
+        assertEquals(0, tokenCache.getNumberOfHits());
+        assertEquals(files.size(), tokenCache.getNumberOfMisses());
+
+        TokenCache reopenedTokenCache = new TokenCache(new TokenCacheOptions().withDirectory(cacheDirectory), language);
+        assertEquals(tokenCache.getSize(), reopenedTokenCache.getSize());
+        List<Token> cachedTokens = reopenedTokenCache.parse(files);
+        assertEquals(files.size(), reopenedTokenCache.getNumberOfHits());
+        assertEquals(0, reopenedTokenCache.getNumberOfMisses());
+        assertEquals(describe(language.parse(files)), describe(parsedTokens));
+        assertEquals(describe(parsedTokens), describe(cachedTokens));
+    }
+
+    @Test
+    @DisplayName("test that the token cache evicts entries if it exceeds its maximum size")
+    void testEviction() throws IOException, ParsingException {
+        Set<File> files = sampleFiles();
+        TokenCacheOptions options = new TokenCacheOptions().withDirectory(cacheDirectory).withMaximumSize(1024);
+        TokenCache tokenCache = new TokenCache(options, new VersionedJavaLanguage());
+        tokenCache.parse(files);
+
+        assertTrue(tokenCache.getSize() <= options.maximumSize());
+        try (Stream<Path> entries = Files.list(cacheDirectory.toPath())) {
+            assertEquals(tokenCache.getSize(), entries.mapToLong(entry -> entry.toFile().length()).sum());
+        }
+    }
+
+    private Set<File> sampleFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of(getBasePath(SAMPLE_NAME)))) {
+            return files.filter(file -> file.toString().endsWith(".java")).map(Path::toFile).collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream().map(token -> token.getType() + "@" + token.getFile() + ":" + token.getLine() + ":" + token.getColumn() + ":"
+                + token.getLength()).toList();
+    }
+
+    private static List<String> similaritiesOf(JPlagResult result) {
+        return result.getAllComparisons().stream().map(comparison -> comparison + "=" + comparison.similarity()).toList();
+    }
+}
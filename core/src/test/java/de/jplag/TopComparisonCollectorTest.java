@@ -0,0 +1,93 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.clustering.SimilarityMatrix;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Tests that the {@link TopComparisonCollector} retains the most similar comparisons while the distributions still
+ * cover all comparisons.
+ */
+class TopComparisonCollectorTest extends TestBase {
+
+    private static final int CAPACITY = 3;
+
+    @Test
+    @DisplayName("test that concurrently collected comparisons are bounded to the most similar ones")
+    void testConcurrentCollection() throws ExitException {
+        JPlagResult fullResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        List<JPlagComparison> comparisons = new ArrayList<>(fullResult.getAllComparisons());
+
+        for (int round = 0; round < 20; round++) {
+            Collections.shuffle(comparisons, new Random(round));
+            TopComparisonCollector collector = new TopComparisonCollector(CAPACITY);
+            comparisons.parallelStream().forEach(collector::add);
+
+            assertEquals(fullResult.getComparisons(CAPACITY), collector.getTopComparisons());
+            assertEquals(comparisons.size(), collector.getNumberOfComparisons());
+            assertArrayEquals(fullResult.getSimilarityDistribution(), collector.getSimilarityDistribution());
+            assertArrayEquals(fullResult.getMaxSimilarityDistribution(), collector.getMaxSimilarityDistribution());
+        }
+    }
+
+    @Test
+    @DisplayName("test that an unbounded collector retains all comparisons")
+    void testUnboundedCollection() throws ExitException {
+        JPlagResult fullResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        TopComparisonCollector collector = new TopComparisonCollector(JPlagOptions.SHOW_ALL_COMPARISONS);
+        fullResult.getAllComparisons().parallelStream().forEach(collector::add);
+        assertEquals(fullResult.getAllComparisons(), collector.getTopComparisons());
+    }
+
+    @Test
+    @DisplayName("test that a run without clustering only retains the shown comparisons")
+    void testBoundedResult() throws ExitException {
+        JPlagResult fullResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult boundedResult = runJPlag("PartialPlagiarism",
+                it -> it.withMaximumNumberOfComparisons(CAPACITY).withClusteringOptions(new ClusteringOptions().withEnabled(false)));
+
+        assertEquals(CAPACITY, boundedResult.getAllComparisons().size());
+        assertEquals(fullResult.getNumberOfComparisons(), boundedResult.getNumberOfComparisons());
+        assertArrayEquals(fullResult.getSimilarityDistribution(), boundedResult.getSimilarityDistribution());
+        assertArrayEquals(fullResult.getMaxSimilarityDistribution(), boundedResult.getMaxSimilarityDistribution());
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(fullResult.getAllComparisons().get(i).toString(), boundedResult.getAllComparisons().get(i).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("test that a run with clustering only retains the shown comparisons but clusters on all similarities")
+    void testBoundedResultWithClustering() throws ExitException {
+        JPlagResult fullResult = runJPlag("PartialPlagiarism", it -> it.withMaximumNumberOfComparisons(JPlagOptions.SHOW_ALL_COMPARISONS));
+        JPlagResult boundedResult = runJPlag("PartialPlagiarism", it -> it.withMaximumNumberOfComparisons(CAPACITY));
+
+        assertEquals(CAPACITY, boundedResult.getAllComparisons().size());
+        SimilarityMatrix similarityMatrix = boundedResult.getSimilarityMatrix().orElseThrow();
+        SimilarityMetric metric = boundedResult.getOptions().clusteringOptions().similarityMetric();
+        for (JPlagComparison comparison : fullResult.getAllComparisons()) {
+            assertEquals(metric.applyAsDouble(comparison), similarityMatrix.getSimilarity(comparison.firstSubmission(), comparison.secondSubmission()),
+                    1e-6);
+        }
+        assertEquals(memberNames(fullResult), memberNames(boundedResult));
+    }
+
+    private static Set<Set<String>> memberNames(JPlagResult result) {
+        return result.getClusteringResult().stream().flatMap(clustering -> clustering.getClusters().stream())
+                .map(cluster -> cluster.getMembers().stream().map(Submission::getName).collect(Collectors.toSet())).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,13 @@
+package de.jplag;
+
+import de.jplag.java.Language;
+
+/**
+ * Java language with a fixed version, as the version of the module is unknown when running from the class folders.
+ */
+public class VersionedJavaLanguage extends Language {
+    @Override
+    public String getVersion() {
+        return "test";
+    }
+}
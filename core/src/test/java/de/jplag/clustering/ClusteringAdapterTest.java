@@ -49,4 +49,33 @@ public class ClusteringAdapterTest {
         assertEquals(expectedResult, clusteringResult.getClusters().stream().map(Cluster::getMembers).collect(Collectors.toList()));
     }
 
+    @Test
+    public void testClusteringOfSimilarityMatrix() {
+        List<Submission> submissions = IntStream.range(0, 4).mapToObj(x -> mock(Submission.class)).toList();
+        SimilarityMatrix similarities = new SimilarityMatrix(submissions, JPlagComparison::similarity);
+        for (int i = 1; i < submissions.size(); i++) { // the first submission is never compared
+            for (int j = i + 1; j < submissions.size(); j++) {
+                JPlagComparison comparison = mock(JPlagComparison.class);
+                when(comparison.firstSubmission()).thenReturn(submissions.get(j));
+                when(comparison.secondSubmission()).thenReturn(submissions.get(i));
+                when(comparison.similarity()).thenReturn(0.1 * (i + j));
+                similarities.add(comparison);
+            }
+        }
+        assertEquals(0.3, similarities.getSimilarity(submissions.get(1), submissions.get(2)), 1e-6);
+        assertEquals(0.3, similarities.getSimilarity(submissions.get(2), submissions.get(1)), 1e-6);
+        assertEquals(0.0, similarities.getSimilarity(submissions.get(0), submissions.get(1)));
+
+        // Mock algorithm that returns everything in a single cluster
+        GenericClusteringAlgorithm algorithm = mock(GenericClusteringAlgorithm.class);
+        when(algorithm.cluster(any(RealMatrix.class))).then((InvocationOnMock invocation) -> {
+            RealMatrix arg = invocation.getArgument(0);
+            return List.of(IntStream.range(0, arg.getRowDimension()).boxed().collect(Collectors.toList()));
+        });
+
+        ClusteringResult<Submission> clusteringResult = new ClusteringAdapter(similarities).doClustering(algorithm);
+
+        Collection<Collection<Submission>> expectedResult = List.of(submissions.subList(1, submissions.size()));
+        assertEquals(expectedResult, clusteringResult.getClusters().stream().map(Cluster::getMembers).collect(Collectors.toList()));
+    }
 }
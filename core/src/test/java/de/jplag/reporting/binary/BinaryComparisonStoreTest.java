@@ -0,0 +1,87 @@
+package de.jplag.reporting.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.reporting.reportobject.ReportObjectFactory;
+import de.jplag.reporting.reportobject.mapper.ComparisonReportMapper;
+
+/**
+ * Tests that reports with a binary comparison store contain the same comparisons as the result.
+ */
+class BinaryComparisonStoreTest extends TestBase {
+    private File reportDirectory;
+
+    @BeforeEach
+    void createReportDirectory() throws IOException {
+        reportDirectory = Files.createTempDirectory("jplag-report").toFile();
+    }
+
+    @AfterEach
+    void deleteReportDirectory() {
+        deleteDirectory(reportDirectory);
+    }
+
+    @Test
+    @DisplayName("test that the comparison store yields the comparisons of the result in order")
+    void testComparisonsAreReadBack() throws ExitException, IOException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        File report = new File(reportDirectory, "report");
+        new ReportObjectFactory(true).createAndSaveReport(result, report.getPath());
+        File reportFile = new File(report.getPath() + ".zip");
+
+        try (BinaryComparisonReader reader = BinaryComparisonReader.read(reportFile)) {
+            List<JPlagComparison> comparisons = result.getAllComparisons();
+            assertEquals(comparisons.size(), reader.getNumberOfComparisons());
+            ComparisonReportMapper mapper = new ComparisonReportMapper(Submission::getName);
+            for (int i = 0; i < comparisons.size(); i++) {
+                assertEquals(mapper.map(comparisons.get(i)), reader.getComparison(i));
+                assertEquals(comparisons.get(i).similarity(), reader.getSimilarity(i));
+            }
+        }
+        try (ZipFile zipFile = new ZipFile(reportFile)) {
+            assertEquals(List.of(ReportObjectFactory.OVERVIEW_FILE_NAME),
+                    zipFile.stream().map(ZipEntry::getName).filter(name -> name.endsWith(".json") && !name.contains("/"))
+                    .toList());
+        }
+    }
+
+    @Test
+    @DisplayName("test that invalid comparison stores are rejected")
+    void testInvalidStore() throws IOException {
+        Path matches = writeStore("matches", ByteBuffer.allocate(12).putInt(BinaryComparisonFormat.MATCHES_MAGIC)
+                .putInt(BinaryComparisonFormat.VERSION).putInt(0));
+        Path truncatedComparisons = writeStore("truncated", ByteBuffer.allocate(16).putInt(BinaryComparisonFormat.COMPARISONS_MAGIC)
+                .putInt(BinaryComparisonFormat.VERSION).putInt(0).putInt(1));
+        assertThrows(IOException.class, () -> new BinaryComparisonReader(truncatedComparisons, matches));
+        Path negativeLength = writeStore("negative", ByteBuffer.allocate(16).putInt(BinaryComparisonFormat.COMPARISONS_MAGIC)
+                .putInt(BinaryComparisonFormat.VERSION).putInt(1).putInt(-1));
+        assertThrows(IOException.class, () -> new BinaryComparisonReader(negativeLength, matches));
+        Path otherVersion = writeStore("version", ByteBuffer.allocate(8).putInt(BinaryComparisonFormat.COMPARISONS_MAGIC).putInt(2));
+        assertThrows(IOException.class, () -> new BinaryComparisonReader(otherVersion, matches));
+        assertThrows(IOException.class, () -> new BinaryComparisonReader(matches, matches));
+    }
+
+    private Path writeStore(String name, ByteBuffer content) throws IOException {
+        return Files.write(reportDirectory.toPath().resolve(name + ".bin"), content.array());
+    }
+}
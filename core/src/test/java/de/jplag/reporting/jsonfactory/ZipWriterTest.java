@@ -0,0 +1,126 @@
+package de.jplag.reporting.jsonfactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests that the archives of the {@link ZipWriter} can be read as zip files.
+ */
+class ZipWriterTest {
+    private File zipFile;
+
+    @BeforeEach
+    void createZipFile() throws IOException {
+        zipFile = Files.createTempFile("jplag-report", ".zip").toFile();
+    }
+
+    @AfterEach
+    void deleteZipFile() {
+        zipFile.delete();
+    }
+
+    @Test
+    @DisplayName("test that deflated and stored entries are read back unchanged")
+    void testEntriesAreReadBack() throws IOException {
+        byte[] text = "public class Main {}\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] randomBytes = new byte[10_000];
+        new Random(42).nextBytes(randomBytes);
+        Map<String, List<Integer>> json = Map.of("values", List.of(1, 2, 3));
+
+        try (ZipWriter zipWriter = new ZipWriter(zipFile, 2)) {
+            zipWriter.saveAsJSON(json, "", "overview.json");
+            zipWriter.saveFile(new ByteArrayInputStream(text), "files" + File.separator + "A", "Main.java");
+            zipWriter.saveFile(new ByteArrayInputStream(randomBytes), "files", "random.bin");
+            zipWriter.saveFile(new ByteArrayInputStream(new byte[0]), "files", "empty.txt");
+        }
+
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            assertEquals(List.of("overview.json", "files/A/Main.java", "files/random.bin", "files/empty.txt"),
+                    archive.stream().map(ZipEntry::getName).toList());
+            assertArrayEquals(new ObjectMapper().writeValueAsBytes(json), readEntry(archive, "overview.json"));
+            assertArrayEquals(text, readEntry(archive, "files/A/Main.java"));
+            assertEquals(ZipEntry.DEFLATED, archive.getEntry("files/A/Main.java").getMethod());
+            assertArrayEquals(randomBytes, readEntry(archive, "files/random.bin"));
+            assertEquals(ZipEntry.STORED, archive.getEntry("files/random.bin").getMethod());
+            assertArrayEquals(new byte[0], readEntry(archive, "files/empty.txt"));
+        }
+    }
+
+    @Test
+    @DisplayName("test that archives with more entries than the zip format supports are written as ZIP64")
+    void testManyEntries() throws IOException {
+        int numberOfEntries = 70_000;
+        try (ZipWriter zipWriter = new ZipWriter(zipFile)) {
+            for (int i = 0; i < numberOfEntries; i++) {
+                zipWriter.saveAsJSON(List.of(i), "", i + ".json");
+            }
+        }
+
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            assertEquals(numberOfEntries, archive.size());
+            assertArrayEquals("[69999]".getBytes(StandardCharsets.UTF_8), readEntry(archive, "69999.json"));
+        }
+    }
+
+    @Test
+    @DisplayName("test that large entries are streamed into the archive in order")
+    void testLargeEntryIsStreamed() throws IOException {
+        byte[] largeContent = "public class Main {}\n".repeat(300_000).getBytes(StandardCharsets.UTF_8);
+        try (ZipWriter zipWriter = new ZipWriter(zipFile, 2)) {
+            zipWriter.saveAsJSON(List.of(1), "", "first.json");
+            zipWriter.saveFile(new ByteArrayInputStream(largeContent), "", "large.bin");
+            zipWriter.saveAsJSON(List.of(2), "", "last.json");
+        }
+
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            assertEquals(List.of("first.json", "large.bin", "last.json"), archive.stream().map(ZipEntry::getName).toList());
+            assertArrayEquals(largeContent, readEntry(archive, "large.bin"));
+            assertEquals(largeContent.length, archive.getEntry("large.bin").getSize());
+            assertArrayEquals("[2]".getBytes(StandardCharsets.UTF_8), readEntry(archive, "last.json"));
+        }
+        try (ZipInputStream input = new ZipInputStream(Files.newInputStream(zipFile.toPath()))) {
+            assertEquals("first.json", input.getNextEntry().getName());
+            assertEquals("large.bin", input.getNextEntry().getName());
+            assertArrayEquals(largeContent, input.readAllBytes());
+            assertEquals("last.json", input.getNextEntry().getName());
+            assertArrayEquals("[2]".getBytes(StandardCharsets.UTF_8), input.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("test that duplicate entries are rejected")
+    void testDuplicateEntry() throws IOException {
+        try (ZipWriter zipWriter = new ZipWriter(zipFile, 1)) {
+            zipWriter.saveFile(new ByteArrayInputStream(new byte[1]), "", "Main.java");
+            assertThrows(ZipException.class, () -> zipWriter.saveFile(new ByteArrayInputStream(new byte[1]), "", "Main.java"));
+        }
+    }
+
+    private static byte[] readEntry(ZipFile archive, String name) throws IOException {
+        try (InputStream input = archive.getInputStream(archive.getEntry(name))) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -1,19 +1,35 @@
 package de.jplag.reporting.reportobject;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.jplag.JPlagResult;
+import de.jplag.Submission;
 import de.jplag.TestBase;
 import de.jplag.exceptions.ExitException;
+import de.jplag.reporting.jsonfactory.ComparisonIndexWriter;
 import de.jplag.reporting.reportobject.model.Version;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 class ReportObjectFactoryTest extends TestBase {
     private static final String FILE_SUFFIX = ".zip";
     private static final String BASECODE = "basecode";
@@ -39,4 +55,88 @@ class ReportObjectFactoryTest extends TestBase {
         expectedFile.delete();
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReportIsWrittenDirectlyAsZip() throws ExitException, IOException {
+        JPlagResult result = runJPlag(BASECODE, it -> it.withBaseCodeSubmissionDirectory(new File(BASE_PATH, BASECODE_BASE)));
+        Path path = Path.of(BASE_PATH, OUTPUT, SUBMISSIONS);
+        new ReportObjectFactory().createAndSaveReport(result, path.toString());
+        File zipFile = new File(path + FILE_SUFFIX);
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            Set<String> entryNames = archive.stream().map(ZipEntry::getName).collect(Collectors.toSet());
+            assertTrue(entryNames.contains(ReportObjectFactory.OVERVIEW_FILE_NAME));
+            long comparisonFiles = entryNames.stream().filter(name -> !name.contains("/") && !name.equals(ReportObjectFactory.OVERVIEW_FILE_NAME))
+                    .count();
+            assertEquals(result.getAllComparisons().size(), comparisonFiles);
+            Set<String> distinctContents = new HashSet<>();
+            for (Submission submission : result.getSubmissions().getSubmissions()) {
+                JsonNode manifest = readJson(archive,
+                        ReportObjectFactory.SUBMISSIONS_FOLDER + "/" + submission.getName() + ReportObjectFactory.MANIFEST_FILE_SUFFIX);
+                assertEquals(submission.getFiles().size(), manifest.size());
+                for (File file : submission.getFiles()) {
+                    String relativePath = submission.getRoot().toPath().relativize(file.toPath()).toString();
+                    JsonNode blobName = manifest.get(Path.of(submission.getName(), relativePath).toString());
+                    assertNotNull(blobName, relativePath);
+                    String content = Files.readString(file.toPath());
+                    assertEquals(content, readEntry(archive, ReportObjectFactory.BLOBS_FOLDER + "/" + blobName.asText()));
+                    distinctContents.add(content);
+                }
+            }
+            long blobs = entryNames.stream().filter(name -> name.startsWith(ReportObjectFactory.BLOBS_FOLDER + "/")).count();
+            assertEquals(distinctContents.size(), blobs);
+        } finally {
+            zipFile.delete();
+        }
+        assertFalse(path.toFile().exists());
+    }
+
+    @Test
+    void testComparisonIndexIsSortedBySimilarity() throws ExitException, IOException {
+        JPlagResult result = runJPlag(BASECODE, it -> it.withBaseCodeSubmissionDirectory(new File(BASE_PATH, BASECODE_BASE)));
+        Path path = Path.of(BASE_PATH, OUTPUT, SUBMISSIONS);
+        new ReportObjectFactory().createAndSaveReport(result, path.toString());
+        File zipFile = new File(path + FILE_SUFFIX);
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            String indexFolder = ComparisonIndexWriter.INDEX_FOLDER + "/";
+            JsonNode overview = readJson(archive, ReportObjectFactory.OVERVIEW_FILE_NAME);
+            assertEquals(0, overview.get("submission_ids_to_comparison_file_name").size());
+            for (JsonNode metric : overview.get("metrics")) {
+                assertEquals(0, metric.get("topComparisons").size());
+            }
+            JsonNode index = readJson(archive, indexFolder + ComparisonIndexWriter.INDEX_FILE_NAME);
+            assertEquals(result.getAllComparisons().size(), index.get("number_of_comparisons").asInt());
+            assertEquals(1, index.get("number_of_pages").asInt());
+
+            for (JsonNode metric : index.get("metrics")) {
+                JsonNode page = readJson(archive, indexFolder + metric.asText() + "/0.json");
+                assertEquals(result.getAllComparisons().size(), page.size());
+                for (int i = 0; i < page.size(); i++) {
+                    JsonNode entry = page.get(i);
+                    String fileName = entry.get("file_name").asText();
+                    assertNotNull(archive.getEntry(fileName));
+                    String lookupFolder = indexFolder + ComparisonIndexWriter.LOOKUP_FOLDER + "/";
+                    String firstId = entry.get("first_submission").asText();
+                    String secondId = entry.get("second_submission").asText();
+                    assertEquals(fileName, readJson(archive, lookupFolder + firstId + ".json").get(secondId).asText());
+                    assertEquals(fileName, readJson(archive, lookupFolder + secondId + ".json").get(firstId).asText());
+                    if (i > 0) {
+                        assertTrue(page.get(i - 1).get("similarity").asDouble() >= entry.get("similarity").asDouble());
+                    }
+                }
+            }
+        } finally {
+            zipFile.delete();
+        }
+    }
+
+    private static JsonNode readJson(ZipFile archive, String entryName) throws IOException {
+        return new ObjectMapper().readTree(readEntry(archive, entryName));
+    }
+
+    private static String readEntry(ZipFile archive, String entryName) throws IOException {
+        ZipEntry entry = archive.getEntry(entryName);
+        assertNotNull(entry, entryName);
+        try (InputStream input = archive.getInputStream(entry)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
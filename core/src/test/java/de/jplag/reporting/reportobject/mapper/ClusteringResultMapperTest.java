@@ -1,18 +1,25 @@
 package de.jplag.reporting.reportobject.mapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
+import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.clustering.Cluster;
+import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.ClusteringResult;
+import de.jplag.options.JPlagOptions;
+import de.jplag.reporting.reportobject.model.TopComparison;
 
 public class ClusteringResultMapperTest {
     private final ClusteringResultMapper clusteringResultMapper = new ClusteringResultMapper(Submission::getName);
@@ -24,22 +31,67 @@ public class ClusteringResultMapperTest {
         Cluster<Submission> cluster1 = createClusterWith(0.2, 0.4, "1", "2");
         Cluster<Submission> cluster2 = createClusterWith(0.3, 0.6, "3", "4", "5");
         when(resultMock.getClusteringResult()).thenReturn(List.of(new ClusteringResult<>(List.of(cluster1, cluster2), 0.3)));
+        JPlagOptions optionsMock = mock(JPlagOptions.class);
+        when(optionsMock.clusteringOptions()).thenReturn(new ClusteringOptions());
+        when(resultMock.getOptions()).thenReturn(optionsMock);
+        List<Submission> members = cluster2.getMembers().stream().toList();
+        JPlagComparison withinCluster = comparisonOf(members.get(0), members.get(2), 0.7);
+        JPlagComparison betweenClusters = comparisonOf(cluster1.getMembers().iterator().next(), members.get(1), 0.1);
+        when(resultMock.getRetainedComparisons()).thenReturn(List.of(withinCluster, betweenClusters));
 
         // when
         var result = clusteringResultMapper.map(resultMock);
 
         // then
-        assertEquals(List.of(new de.jplag.reporting.reportobject.model.Cluster(0.4, 0.2, List.of("1", "2")),
-                new de.jplag.reporting.reportobject.model.Cluster(0.6, 0.3, List.of("3", "4", "5"))
+        assertEquals(List.of(new de.jplag.reporting.reportobject.model.Cluster(0.4, 0.2, List.of("1", "2"), List.of()),
+                new de.jplag.reporting.reportobject.model.Cluster(0.6, 0.3, List.of("3", "4", "5"), List.of(new TopComparison("3", "5", 0.7)))
 
         ), result);
     }
 
+    @Test
+    public void test_memberSimilaritiesAreCapped() {
+        // given
+        JPlagResult resultMock = mock(JPlagResult.class);
+        String[] ids = IntStream.range(0, 20).mapToObj(Integer::toString).toArray(String[]::new);
+        Cluster<Submission> cluster = createClusterWith(0.5, 0.5, ids);
+        when(resultMock.getClusteringResult()).thenReturn(List.of(new ClusteringResult<>(List.of(cluster), 0.5)));
+        JPlagOptions optionsMock = mock(JPlagOptions.class);
+        when(optionsMock.clusteringOptions()).thenReturn(new ClusteringOptions());
+        when(resultMock.getOptions()).thenReturn(optionsMock);
+        List<Submission> members = cluster.getMembers().stream().toList();
+        List<JPlagComparison> comparisons = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            for (int j = i + 1; j < members.size(); j++) {
+                comparisons.add(comparisonOf(members.get(i), members.get(j), (i * members.size() + j) / 1000.0));
+            }
+        }
+        when(resultMock.getRetainedComparisons()).thenReturn(comparisons);
+
+        // when
+        List<TopComparison> memberSimilarities = clusteringResultMapper.map(resultMock).get(0).memberSimilarities();
+
+        // then
+        assertEquals(ClusteringResultMapper.MAXIMUM_MEMBER_SIMILARITIES, memberSimilarities.size());
+        assertEquals(new TopComparison("18", "19", 0.379), memberSimilarities.get(0));
+        for (int i = 1; i < memberSimilarities.size(); i++) {
+            assertTrue(memberSimilarities.get(i - 1).similarity() > memberSimilarities.get(i).similarity());
+        }
+    }
+
     private Cluster<Submission> createClusterWith(Double communityStrength, Double averageSimilarity, String... ids) {
         var submissions = Arrays.stream(ids).map(this::submissionWithId).toList();
         return new Cluster<>(submissions, communityStrength, averageSimilarity);
     }
 
+    private JPlagComparison comparisonOf(Submission first, Submission second, double similarity) {
+        JPlagComparison comparison = mock(JPlagComparison.class);
+        when(comparison.firstSubmission()).thenReturn(first);
+        when(comparison.secondSubmission()).thenReturn(second);
+        when(comparison.similarity()).thenReturn(similarity);
+        return comparison;
+    }
+
     private Submission submissionWithId(String id) {
         Submission submission = mock(Submission.class);
         when(submission.getName()).thenReturn(id);
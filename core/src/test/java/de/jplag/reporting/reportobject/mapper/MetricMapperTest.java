@@ -57,6 +57,19 @@ public class MetricMapperTest {
                 result.description());
     }
 
+    @Test
+    public void test_topComparisonsAreOmitted() {
+        // given
+        JPlagResult jPlagResult = createJPlagResult(MockMetric.AVG, distribution(EXPECTED_DISTRIBUTION),
+                comparison(submission("1"), submission("2"), .7));
+        // when
+        var result = new MetricMapper(Submission::getName, false).getAverageMetric(jPlagResult);
+
+        // then
+        Assertions.assertIterableEquals(EXPECTED_DISTRIBUTION, result.distribution());
+        Assertions.assertEquals(List.of(), result.topComparisons());
+    }
+
     private int[] distribution(List<Integer> expectedDistribution) {
         var reversedDistribution = new ArrayList<>(expectedDistribution);
         Collections.reverse(reversedDistribution);
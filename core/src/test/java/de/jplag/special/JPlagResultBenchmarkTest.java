@@ -0,0 +1,63 @@
+package de.jplag.special;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Match;
+import de.jplag.Submission;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Benchmark of the construction of a {@link JPlagResult} from a large number of comparisons, which sorts the comparisons
+ * and computes the similarity distributions.
+ */
+@Disabled("Not an actual test. Used to measure the construction time of large results")
+class JPlagResultBenchmarkTest extends TestBase {
+    private static final Logger logger = LoggerFactory.getLogger(JPlagResultBenchmarkTest.class);
+
+    private static final int NUMBER_OF_COMPARISONS = 1_000_000;
+    private static final int MATCHES_PER_COMPARISON = 8;
+    private static final int RUNS = 5;
+
+    @Test
+    void benchmarkResultConstruction() throws ExitException {
+        JPlagResult sampleResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        List<Submission> submissions = sampleResult.getSubmissions().getSubmissions();
+        List<JPlagComparison> comparisons = createComparisons(submissions);
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            JPlagResult result = new JPlagResult(comparisons, sampleResult.getSubmissions(), 0, sampleResult.getOptions());
+            long duration = System.nanoTime() - start;
+            assertEquals(NUMBER_OF_COMPARISONS, result.getNumberOfComparisons());
+            logger.info("Run {}: constructed result of {} comparisons in {} ms", run, NUMBER_OF_COMPARISONS, duration / 1_000_000);
+        }
+    }
+
+    private static List<JPlagComparison> createComparisons(List<Submission> submissions) {
+        Random random = new Random(42);
+        List<JPlagComparison> comparisons = new ArrayList<>(NUMBER_OF_COMPARISONS);
+        for (int i = 0; i < NUMBER_OF_COMPARISONS; i++) {
+            Submission first = submissions.get(random.nextInt(submissions.size()));
+            Submission second = submissions.get(random.nextInt(submissions.size()));
+            int maximumLength = Math.max(1, Math.min(first.getNumberOfTokens(), second.getNumberOfTokens()) / MATCHES_PER_COMPARISON);
+            List<Match> matches = new ArrayList<>(MATCHES_PER_COMPARISON);
+            for (int j = 0; j < MATCHES_PER_COMPARISON; j++) {
+                matches.add(new Match(j * maximumLength, j * maximumLength, random.nextInt(maximumLength) + 1));
+            }
+            comparisons.add(new JPlagComparison(first, second, matches));
+        }
+        return comparisons;
+    }
+}
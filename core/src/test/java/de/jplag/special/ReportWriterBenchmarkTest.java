@@ -0,0 +1,198 @@
+package de.jplag.special;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Match;
+import de.jplag.Submission;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.reporting.binary.BinaryComparisonReader;
+import de.jplag.reporting.binary.BinaryComparisonWriter;
+import de.jplag.reporting.jsonfactory.ComparisonReportWriter;
+import de.jplag.reporting.jsonfactory.ToDiskWriter;
+import de.jplag.reporting.jsonfactory.ZipWriter;
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of writing the comparison files of a report directly into a zip archive compared to writing them into a
+ * directory that is zipped and deleted afterwards, of the scaling of the zip archive writer with the number of deflating
+ * threads, and of the size and loading time of the binary comparison store compared to JSON comparison files.
+ */
+@Disabled("Not an actual test. Used to measure the time and disk traffic of writing reports")
+class ReportWriterBenchmarkTest extends TestBase {
+    private static final Logger logger = LoggerFactory.getLogger(ReportWriterBenchmarkTest.class);
+
+    private static final int NUMBER_OF_COMPARISONS = 10_000;
+    private static final int NUMBER_OF_LARGE_REPORT_COMPARISONS = 500_000;
+    private static final int MATCHES_PER_COMPARISON = 8;
+    private static final int RUNS = 5;
+
+    private File outputDirectory;
+
+    @BeforeEach
+    void createOutputDirectory() throws IOException {
+        outputDirectory = Files.createTempDirectory("jplag-report-benchmark").toFile();
+    }
+
+    @AfterEach
+    void deleteOutputDirectory() {
+        deleteDirectory(outputDirectory);
+    }
+
+    @Test
+    void benchmarkReportWriting() throws ExitException, IOException {
+        JPlagResult result = createResult(NUMBER_OF_COMPARISONS);
+
+        for (int run = 0; run < RUNS; run++) {
+            String directory = new File(outputDirectory, "directory" + run).getPath();
+            long start = System.nanoTime();
+            Files.createDirectories(Path.of(directory));
+            new ComparisonReportWriter(Submission::getName, new ToDiskWriter()).writeComparisonReports(result, directory);
+            long directorySize = sizeOf(Path.of(directory));
+            zipDirectory(Path.of(directory));
+            deleteDirectory(new File(directory));
+            long zipThenDeleteDuration = System.nanoTime() - start;
+            long zippedSize = Files.size(Path.of(directory + ".zip"));
+
+            File zipFile = new File(outputDirectory, "direct" + run + ".zip");
+            start = System.nanoTime();
+            try (ZipWriter zipWriter = new ZipWriter(zipFile)) {
+                new ComparisonReportWriter(Submission::getName, zipWriter).writeComparisonReports(result, "");
+            }
+            long directDuration = System.nanoTime() - start;
+
+            logger.info("Run {}: write-zip-delete wrote {} bytes and read {} bytes in {} ms, direct zip wrote {} bytes in {} ms", run,
+                    directorySize + zippedSize, directorySize, zipThenDeleteDuration / 1_000_000, Files.size(zipFile.toPath()),
+                    directDuration / 1_000_000);
+        }
+    }
+
+    @Test
+    void benchmarkParallelDeflating() throws ExitException, IOException {
+        JPlagResult result = createResult(NUMBER_OF_LARGE_REPORT_COMPARISONS);
+        int maximumNumberOfThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < 2 * maximumNumberOfThreads; threads *= 2) {
+            int numberOfThreads = Math.min(threads, maximumNumberOfThreads);
+            File zipFile = new File(outputDirectory, "threads" + numberOfThreads + ".zip");
+            long start = System.nanoTime();
+            try (ZipWriter zipWriter = new ZipWriter(zipFile, numberOfThreads)) {
+                new ComparisonReportWriter(Submission::getName, zipWriter).writeComparisonReports(result, "");
+            }
+            long duration = System.nanoTime() - start;
+            logger.info("Wrote {} comparisons with {} deflating threads in {} ms", NUMBER_OF_LARGE_REPORT_COMPARISONS, numberOfThreads,
+                    duration / 1_000_000);
+        }
+    }
+
+    @Test
+    void benchmarkBinaryComparisonStore() throws ExitException, IOException {
+        JPlagResult result = createResult(NUMBER_OF_LARGE_REPORT_COMPARISONS);
+        File jsonFile = new File(outputDirectory, "json.zip");
+        try (ZipWriter zipWriter = new ZipWriter(jsonFile)) {
+            new ComparisonReportWriter(Submission::getName, zipWriter).writeComparisonReports(result, "");
+        }
+        File binaryFile = new File(outputDirectory, "binary.zip");
+        try (ZipWriter zipWriter = new ZipWriter(binaryFile)) {
+            new BinaryComparisonWriter(Submission::getName, zipWriter).writeComparisons(result, "");
+        }
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            ObjectMapper objectMapper = new ObjectMapper();
+            double similaritySum = 0;
+            try (ZipFile zipFile = new ZipFile(jsonFile)) {
+                for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                    try (InputStream input = zipFile.getInputStream(entry)) {
+                        similaritySum += objectMapper.readValue(input, ComparisonReport.class).similarity();
+                    }
+                }
+            }
+            long jsonDuration = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int numberOfBinaryComparisons;
+            try (BinaryComparisonReader reader = BinaryComparisonReader.read(binaryFile)) {
+                numberOfBinaryComparisons = reader.getNumberOfComparisons();
+                for (int i = 0; i < numberOfBinaryComparisons; i++) {
+                    similaritySum -= reader.getComparison(i).similarity();
+                }
+            }
+            long binaryDuration = System.nanoTime() - start;
+
+            assertEquals(0, similaritySum, 1e-6);
+            logger.info("Run {}: loaded {} JSON comparisons ({} bytes) in {} ms and {} binary comparisons ({} bytes) in {} ms", run,
+                    NUMBER_OF_LARGE_REPORT_COMPARISONS, jsonFile.length(), jsonDuration / 1_000_000, numberOfBinaryComparisons,
+                    binaryFile.length(), binaryDuration / 1_000_000);
+        }
+    }
+
+    private JPlagResult createResult(int numberOfComparisons) throws ExitException {
+        JPlagResult sampleResult = runJPlagWithDefaultOptions("PartialPlagiarism");
+        List<Submission> submissions = sampleResult.getSubmissions().getSubmissions();
+        return new JPlagResult(createComparisons(submissions, numberOfComparisons), sampleResult.getSubmissions(), 0,
+                sampleResult.getOptions().withMaximumNumberOfComparisons(numberOfComparisons));
+    }
+
+    private static long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * Zips a directory into a sibling zip file, as reports were written before they were written directly into the zip
+     * archive.
+     */
+    private static void zipDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory); OutputStream output = Files.newOutputStream(Path.of(directory + ".zip"));
+                ZipOutputStream zipOutput = new ZipOutputStream(output)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                zipOutput.putNextEntry(new ZipEntry(directory.relativize(file).toString()));
+                Files.copy(file, zipOutput);
+                zipOutput.closeEntry();
+            }
+        }
+    }
+
+    private static List<JPlagComparison> createComparisons(List<Submission> submissions, int numberOfComparisons) {
+        Random random = new Random(42);
+        List<JPlagComparison> comparisons = new ArrayList<>(numberOfComparisons);
+        for (int i = 0; i < numberOfComparisons; i++) {
+            Submission first = submissions.get(random.nextInt(submissions.size()));
+            Submission second = submissions.get(random.nextInt(submissions.size()));
+            int maximumLength = Math.max(1, Math.min(first.getNumberOfTokens(), second.getNumberOfTokens()) / MATCHES_PER_COMPARISON);
+            List<Match> matches = new ArrayList<>(MATCHES_PER_COMPARISON);
+            for (int j = 0; j < MATCHES_PER_COMPARISON; j++) {
+                matches.add(new Match(j * maximumLength, j * maximumLength, random.nextInt(maximumLength) + 1));
+            }
+            comparisons.add(new JPlagComparison(first, second, matches));
+        }
+        return comparisons;
+    }
+}
@@ -0,0 +1,84 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.jplag.Submission;
+
+/**
+ * Tests that the {@link SubmissionTupleSpliterator} yields the same tuples as nested loops over the submissions.
+ */
+class SubmissionTupleSpliteratorTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 10, 57, 200})
+    @DisplayName("test that sequential traversal yields all tuples in order")
+    void testSequentialTraversal(int numberOfSubmissions) {
+        List<Submission> submissions = createSubmissions(numberOfSubmissions);
+        List<String> tuples = StreamSupport.stream(new SubmissionTupleSpliterator(submissions), false).map(this::describe).toList();
+        assertEquals(expectedTuples(submissions, numberOfSubmissions), tuples);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {57, 200, 1000})
+    @DisplayName("test that parallel traversal yields all tuples in order")
+    void testParallelTraversal(int numberOfSubmissions) {
+        List<Submission> submissions = createSubmissions(numberOfSubmissions);
+        List<String> tuples = StreamSupport.stream(new SubmissionTupleSpliterator(submissions), true).map(this::describe).toList();
+        assertEquals(expectedTuples(submissions, numberOfSubmissions), tuples);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 100, 199, 200})
+    @DisplayName("test that only tuples with a leading submission are traversed")
+    void testLeadingSubmissions(int numberOfLeadingSubmissions) {
+        List<Submission> submissions = createSubmissions(200);
+        List<String> tuples = StreamSupport.stream(new SubmissionTupleSpliterator(submissions, numberOfLeadingSubmissions), true)
+                .map(this::describe).toList();
+        assertEquals(expectedTuples(submissions, numberOfLeadingSubmissions), tuples);
+    }
+
+    @Test
+    @DisplayName("test that splitting preserves the size and covers the index space")
+    void testSplitSizes() {
+        Spliterator<SubmissionTuple> suffix = new SubmissionTupleSpliterator(createSubmissions(100));
+        long size = suffix.estimateSize();
+        assertEquals(100 * 99 / 2, size);
+        Spliterator<SubmissionTuple> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(size, prefix.estimateSize() + suffix.estimateSize());
+        assertNull(new SubmissionTupleSpliterator(createSubmissions(3)).trySplit());
+    }
+
+    private String describe(SubmissionTuple tuple) {
+        return tuple.left().getName() + "-" + tuple.right().getName();
+    }
+
+    private List<String> expectedTuples(List<Submission> submissions, int numberOfLeadingSubmissions) {
+        List<String> tuples = new ArrayList<>();
+        for (int i = 0; i < Math.min(numberOfLeadingSubmissions, submissions.size() - 1); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                tuples.add(describe(new SubmissionTuple(submissions.get(i), submissions.get(j))));
+            }
+        }
+        return tuples;
+    }
+
+    private static List<Submission> createSubmissions(int numberOfSubmissions) {
+        return IntStream.range(0, numberOfSubmissions)
+                .mapToObj(index -> new Submission("S" + index, new File("S" + index), true, List.of(), new de.jplag.java.Language())).toList();
+    }
+}
@@ -103,7 +103,8 @@ class EndToEndSuiteTest {
         JPlagOptions jplagOptions = new JPlagOptions(language, Set.of(submissionDirectory), Set.of())
                 .withMinimumTokenMatch(result.options().minimumTokenMatch());
         JPlagResult jplagResult = new JPlag(jplagOptions).run();
-        var comparisons = jplagResult.getAllComparisons().stream().collect(Collectors.toMap(it -> TestSuiteHelper.getTestIdentifier(it), it -> it));
+        var comparisons = jplagResult.getAllComparisons().stream()
+                .collect(Collectors.toMap(it -> TestSuiteHelper.getTestIdentifier(it), it -> it));
         assertEquals(result.identifierToResultMap().size(), comparisons.size(), "different number of results and expected results");
 
         DeltaSummaryStatistics statistics = new DeltaSummaryStatistics();
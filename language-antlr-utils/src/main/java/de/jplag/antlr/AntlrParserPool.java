@@ -0,0 +1,118 @@
+package de.jplag.antlr;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import de.jplag.SourceLoader;
+
+/**
+ * Per-thread pool of the parsers of an ANTLR grammar, such that each thread constructs its parser once instead of once
+ * per file. The DFA and prediction context caches of generated recognizers are static, thus all parsers of a grammar
+ * share them and they stay warm across files and submissions. Lexers are still created per file, as lexer grammars may
+ * keep custom state that {@link Lexer#reset()} does not clear.
+ * <p>
+ * Optionally, a file is parsed with the faster SLL prediction first and only parsed again with full LL prediction if
+ * SLL prediction fails. If SLL prediction succeeds, its parse tree is the one of LL prediction, thus only syntax errors
+ * cost a second attempt. Syntax errors are reported by the second attempt only.
+ * @param <L> is the type of the lexer.
+ * @param <P> is the type of the parser.
+ */
+public class AntlrParserPool<L extends Lexer, P extends Parser> {
+    private final Function<CharStream, L> lexerFactory;
+    private final Function<TokenStream, P> parserFactory;
+    private final boolean trySllPredictionFirst;
+    private final ThreadLocal<P> parsers = new ThreadLocal<>();
+
+    /**
+     * Creates a parser pool.
+     * @param lexerFactory creates a lexer for an input, usually the constructor of the generated lexer.
+     * @param parserFactory creates a parser for a token stream, usually the constructor of the generated parser.
+     * @param trySllPredictionFirst specifies whether files are parsed with SLL prediction before LL prediction.
+     */
+    public AntlrParserPool(Function<CharStream, L> lexerFactory, Function<TokenStream, P> parserFactory, boolean trySllPredictionFirst) {
+        this.lexerFactory = lexerFactory;
+        this.parserFactory = parserFactory;
+        this.trySllPredictionFirst = trySllPredictionFirst;
+    }
+
+    /**
+     * Parses a file with the parser of the current thread.
+     * @param file is the file to parse, which is read via the {@link SourceLoader}.
+     * @param entryRule invokes the entry rule of the grammar on the parser.
+     * @return the parse tree of the entry rule.
+     * @throws IOException if the file cannot be read.
+     */
+    public <T extends ParserRuleContext> T parse(File file, Function<P, T> entryRule) throws IOException {
+        return parse(tokensOf(file), entryRule);
+    }
+
+    /**
+     * Parses a file with the parser of the current thread.
+     * @param file is the file to parse, which is read via the {@link SourceLoader}.
+     * @param tokenFilter processes the token stream before parsing, e.g. to move tokens to hidden channels. The stream is
+     * rewound afterwards.
+     * @param entryRule invokes the entry rule of the grammar on the parser.
+     * @return the parse tree of the entry rule.
+     * @throws IOException if the file cannot be read.
+     */
+    public <T extends ParserRuleContext> T parse(File file, Consumer<CommonTokenStream> tokenFilter, Function<P, T> entryRule) throws IOException {
+        CommonTokenStream tokens = tokensOf(file);
+        tokenFilter.accept(tokens);
+        tokens.seek(0);
+        return parse(tokens, entryRule);
+    }
+
+    private CommonTokenStream tokensOf(File file) throws IOException {
+        CharStream input = CharStreams.fromString(SourceLoader.readString(file, CodingErrorAction.REPLACE), file.getPath());
+        return new CommonTokenStream(lexerFactory.apply(input));
+    }
+
+    private <T extends ParserRuleContext> T parse(CommonTokenStream tokens, Function<P, T> entryRule) {
+        P parser = parserFor(tokens);
+        if (trySllPredictionFirst) {
+            List<? extends ANTLRErrorListener> errorListeners = List.copyOf(parser.getErrorListeners());
+            ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+            parser.removeErrorListeners();
+            parser.setErrorHandler(new BailErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            try {
+                return entryRule.apply(parser);
+            } catch (ParseCancellationException exception) {
+                parser.reset(); // SLL prediction failed, the file is parsed again below
+            } finally {
+                errorListeners.forEach(parser::addErrorListener);
+                parser.setErrorHandler(errorHandler);
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            }
+        }
+        return entryRule.apply(parser);
+    }
+
+    private P parserFor(CommonTokenStream tokens) {
+        P parser = parsers.get();
+        if (parser == null) {
+            parser = parserFactory.apply(tokens);
+            parsers.set(parser);
+        } else {
+            parser.setTokenStream(tokens); // also resets the parser
+        }
+        return parser;
+    }
+}
@@ -0,0 +1,272 @@
+package de.jplag.antlr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNType;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link AntlrParserPool} with a minimal recognizer: Each character is a token, {@code a} is always valid,
+ * {@code b} is only valid with LL prediction, and all other characters are syntax errors.
+ */
+class AntlrParserPoolTest {
+    private File directory;
+    private final List<TestParser> createdParsers = new ArrayList<>();
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jplag-antlr").toFile();
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        for (File file : directory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Test
+    @DisplayName("test that files are parsed again with LL prediction if SLL prediction fails")
+    void testFallbackToLlPrediction() throws IOException {
+        AntlrParserPool<TestLexer, TestParser> pool = createPool(true);
+
+        ParserRuleContext tree = pool.parse(writeFile("sll.txt", "aaa"), TestParser::file);
+        assertEquals("aaa", tree.getText());
+        assertEquals(List.of(PredictionMode.SLL), createdParsers.get(0).predictionModes);
+
+        createdParsers.get(0).predictionModes.clear();
+        tree = pool.parse(writeFile("ll.txt", "abab"), TestParser::file);
+        assertEquals("abab", tree.getText());
+        assertEquals(List.of(PredictionMode.SLL, PredictionMode.LL), createdParsers.get(0).predictionModes);
+        assertEquals(0, createdParsers.get(0).errors.size());
+    }
+
+    @Test
+    @DisplayName("test that files are only parsed with LL prediction if SLL prediction is disabled")
+    void testWithoutSllPrediction() throws IOException {
+        AntlrParserPool<TestLexer, TestParser> pool = createPool(false);
+
+        ParserRuleContext tree = pool.parse(writeFile("ll.txt", "abab"), TestParser::file);
+        assertEquals("abab", tree.getText());
+        assertEquals(List.of(PredictionMode.LL), createdParsers.get(0).predictionModes);
+    }
+
+    @Test
+    @DisplayName("test that syntax errors are only reported by the LL attempt and the error handling is restored")
+    void testErrorListenersAreRestored() throws IOException {
+        AntlrParserPool<TestLexer, TestParser> pool = createPool(true);
+
+        pool.parse(writeFile("error.txt", "a?b"), TestParser::file);
+        TestParser parser = createdParsers.get(0);
+        assertEquals(List.of(PredictionMode.SLL, PredictionMode.LL), parser.predictionModes);
+        assertEquals(List.of("unexpected ?"), parser.errors);
+
+        assertEquals(1, parser.getErrorListeners().size());
+        assertTrue(parser.getErrorListeners().get(0) instanceof ErrorCollector);
+        assertFalse(parser.getErrorHandler() instanceof BailErrorStrategy);
+        assertEquals(PredictionMode.LL, parser.getInterpreter().getPredictionMode());
+
+        parser.errors.clear();
+        pool.parse(writeFile("second-error.txt", "?"), TestParser::file);
+        assertEquals(List.of("unexpected ?"), parser.errors);
+    }
+
+    @Test
+    @DisplayName("test that each thread reuses its parser for the token streams of all files")
+    void testParserIsReusedPerThread() throws IOException, InterruptedException, ExecutionException {
+        AntlrParserPool<TestLexer, TestParser> pool = createPool(true);
+        File firstFile = writeFile("first.txt", "aab");
+        File secondFile = writeFile("second.txt", "ba");
+
+        ParserRuleContext firstTree = pool.parse(firstFile, TestParser::file);
+        ParserRuleContext secondTree = pool.parse(secondFile, TestParser::file);
+        assertEquals(1, createdParsers.size());
+        assertEquals("aab", firstTree.getText());
+        assertEquals("ba", secondTree.getText());
+        assertEquals(secondFile.getPath(), secondTree.getStart().getInputStream().getSourceName());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ParserRuleContext otherTree = executor.submit(() -> pool.parse(secondFile, TestParser::file)).get();
+            assertEquals("ba", otherTree.getText());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, createdParsers.size());
+        assertNotSame(createdParsers.get(0), createdParsers.get(1));
+    }
+
+    private AntlrParserPool<TestLexer, TestParser> createPool(boolean trySllPredictionFirst) {
+        return new AntlrParserPool<>(TestLexer::new, tokens -> {
+            TestParser parser = new TestParser(tokens);
+            synchronized (createdParsers) {
+                createdParsers.add(parser);
+            }
+            return parser;
+        }, trySllPredictionFirst);
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        return Files.writeString(Path.of(directory.getPath(), name), content).toFile();
+    }
+
+    /**
+     * Lexer that emits each character as a token whose type is the character.
+     */
+    private static class TestLexer extends Lexer {
+        private static final ATN atn = new ATN(ATNType.LEXER, 0);
+
+        TestLexer(CharStream input) {
+            super(input);
+            _interp = new LexerATNSimulator(this, atn, new DFA[0], new PredictionContextCache());
+        }
+
+        @Override
+        public Token nextToken() {
+            int character = _input.LA(1);
+            if (character == IntStream.EOF) {
+                CommonToken token = new CommonToken(_tokenFactorySourcePair, Token.EOF, Token.DEFAULT_CHANNEL, _input.index(), _input.index() - 1);
+                token.setText("<EOF>");
+                return token;
+            }
+            CommonToken token = new CommonToken(_tokenFactorySourcePair, character, Token.DEFAULT_CHANNEL, _input.index(), _input.index());
+            token.setText(Character.toString(character));
+            _input.consume();
+            return token;
+        }
+
+        @Override
+        public String[] getRuleNames() {
+            return new String[0];
+        }
+
+        @Override
+        public String getGrammarFileName() {
+            return "Test.g4";
+        }
+
+        @Override
+        public ATN getATN() {
+            return atn;
+        }
+
+        @Override
+        @Deprecated
+        public String[] getTokenNames() {
+            return new String[0];
+        }
+    }
+
+    /**
+     * Parser with the single rule {@code file : ('a' | 'b')* EOF}, whose {@code b} cannot be predicted with SLL
+     * prediction. Like generated parsers, it bails out on syntax errors if the {@link BailErrorStrategy} is set.
+     */
+    private static class TestParser extends Parser {
+        private static final ATN atn = new ATN(ATNType.PARSER, 0);
+
+        final List<PredictionMode> predictionModes = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        TestParser(TokenStream input) {
+            super(input);
+            _interp = new ParserATNSimulator(this, atn, new DFA[0], new PredictionContextCache());
+            removeErrorListeners();
+            addErrorListener(new ErrorCollector(errors));
+        }
+
+        ParserRuleContext file() {
+            predictionModes.add(getInterpreter().getPredictionMode());
+            ParserRuleContext context = new ParserRuleContext(_ctx, getState());
+            enterRule(context, 0, 0);
+            try {
+                while (_input.LA(1) != Token.EOF) {
+                    boolean isValid = _input.LA(1) == 'a' || (_input.LA(1) == 'b' && getInterpreter().getPredictionMode() != PredictionMode.SLL);
+                    if (!isValid) {
+                        reportMismatch();
+                    }
+                    consume();
+                }
+            } finally {
+                exitRule();
+            }
+            return context;
+        }
+
+        private void reportMismatch() {
+            if (getErrorHandler() instanceof BailErrorStrategy) {
+                getErrorHandler().recoverInline(this); // throws a ParseCancellationException
+            }
+            notifyErrorListeners("unexpected " + getCurrentToken().getText());
+        }
+
+        @Override
+        public String[] getRuleNames() {
+            return new String[] {"file"};
+        }
+
+        @Override
+        public String getGrammarFileName() {
+            return "Test.g4";
+        }
+
+        @Override
+        public ATN getATN() {
+            return atn;
+        }
+
+        @Override
+        @Deprecated
+        public String[] getTokenNames() {
+            return new String[0];
+        }
+    }
+
+    private static class ErrorCollector extends BaseErrorListener {
+        private final List<String> errors;
+
+        ErrorCollector(List<String> errors) {
+            this.errors = errors;
+        }
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int position, String message,
+                RecognitionException exception) {
+            errors.add(message);
+        }
+    }
+}
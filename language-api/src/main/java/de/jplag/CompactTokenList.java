@@ -0,0 +1,124 @@
+package de.jplag;
+
+import java.io.File;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list of tokens that stores the tokens column-wise in primitive arrays instead of one object per token:
+ * The token types as their ordinals (see {@link TokenTypeRegistry}), the lines, columns, and lengths, and the files as
+ * indices into a table of the distinct files. {@link #get(int)} returns a new {@link Token} view on the stored values,
+ * while the accessors with an index avoid creating the view.
+ */
+public final class CompactTokenList extends AbstractList<Token> implements RandomAccess {
+    private final int[] typeOrdinals;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] lengths;
+    private final int[] fileIndices;
+    private final File[] files;
+    private final TokenType[] types; // the interned token types, which keeps their ordinals assigned
+
+    private CompactTokenList(List<Token> tokens) {
+        int size = tokens.size();
+        typeOrdinals = new int[size];
+        lines = new int[size];
+        columns = new int[size];
+        lengths = new int[size];
+        fileIndices = new int[size];
+        Map<File, Integer> fileTable = new HashMap<>();
+        Map<TokenType, Integer> typeTable = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get(i);
+            Integer typeOrdinal = typeTable.get(token.getType());
+            if (typeOrdinal == null) {
+                TokenType type = TokenTypeRegistry.intern(token.getType());
+                typeOrdinal = TokenTypeRegistry.ordinalOf(type);
+                typeTable.put(type, typeOrdinal);
+            }
+            typeOrdinals[i] = typeOrdinal;
+            lines[i] = token.getLine();
+            columns[i] = token.getColumn();
+            lengths[i] = token.getLength();
+            fileIndices[i] = fileTable.computeIfAbsent(token.getFile(), file -> fileTable.size());
+        }
+        files = new File[fileTable.size()];
+        fileTable.forEach((file, index) -> files[index] = file);
+        types = typeTable.keySet().toArray(TokenType[]::new);
+    }
+
+    /**
+     * Creates a compact copy of a token list.
+     * @param tokens are the tokens to copy.
+     * @return the compact token list, which is the given list if it is already compact.
+     */
+    public static CompactTokenList of(List<Token> tokens) {
+        if (tokens instanceof CompactTokenList compactTokens) {
+            return compactTokens;
+        }
+        return new CompactTokenList(tokens);
+    }
+
+    @Override
+    public Token get(int index) {
+        return new Token(getType(index), getFile(index), lines[index], columns[index], lengths[index], false);
+    }
+
+    @Override
+    public int size() {
+        return typeOrdinals.length;
+    }
+
+    /**
+     * @return the type ordinal of the token at the given index, see {@link TokenTypeRegistry#ordinalOf(TokenType)}.
+     */
+    public int getTypeOrdinal(int index) {
+        return typeOrdinals[index];
+    }
+
+    /**
+     * @return a copy of the type ordinals of all tokens.
+     */
+    public int[] getTypeOrdinals() {
+        return Arrays.copyOf(typeOrdinals, typeOrdinals.length);
+    }
+
+    /**
+     * @return the type of the token at the given index.
+     */
+    public TokenType getType(int index) {
+        return TokenTypeRegistry.typeOf(typeOrdinals[index]);
+    }
+
+    /**
+     * @return the file of the token at the given index.
+     */
+    public File getFile(int index) {
+        return files[fileIndices[index]];
+    }
+
+    /**
+     * @return the line of the token at the given index.
+     */
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    /**
+     * @return the column of the token at the given index.
+     */
+    public int getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @return the length of the token at the given index.
+     */
+    public int getLength(int index) {
+        return lengths[index];
+    }
+}
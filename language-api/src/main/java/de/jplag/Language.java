@@ -1,6 +1,7 @@
 package de.jplag;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -24,6 +25,22 @@ public interface Language {
      */
     String getIdentifier();
 
+    /**
+     * Version returned by {@link #getVersion()} if the version of a language module is unknown.
+     */
+    String UNKNOWN_VERSION = "unknown";
+
+    /**
+     * Version of the language module, which identifies the parser that produced a token list, e.g. for caching tokens.
+     * Defaults to the implementation version of the module, which is part of the manifest of the packaged module. If the
+     * manifest does not state it, e.g. when running from an IDE or from a shaded jar, {@link #UNKNOWN_VERSION} is
+     * returned, for which no tokens are cached.
+     */
+    default String getVersion() {
+        String version = getClass().getPackage().getImplementationVersion();
+        return version == null ? UNKNOWN_VERSION : version;
+    }
+
     /**
      * Minimum number of tokens required for a match.
      */
@@ -37,6 +54,25 @@ public interface Language {
      */
     List<Token> parse(Set<File> files) throws ParsingException;
 
+    /**
+     * Parses the files of several submissions at once, which allows languages to share a fixed cost per call of
+     * {@link #parse(Set)} between submissions. The result of a submission must not depend on the other submissions of the
+     * batch. By default, each submission is parsed on its own.
+     * @param fileSets are the files of each submission.
+     * @return the result of each submission, in the order of the file sets.
+     */
+    default List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        List<ParsingResult> results = new ArrayList<>(fileSets.size());
+        for (Set<File> files : fileSets) {
+            try {
+                results.add(ParsingResult.success(parse(files)));
+            } catch (ParsingException exception) {
+                results.add(ParsingResult.failure(exception));
+            }
+        }
+        return results;
+    }
+
     /**
      * Determines whether a fixed-width font should be used to display that language.
      */
@@ -58,4 +94,29 @@ public interface Language {
     default String viewFileSuffix() {
         return "";
     }
+
+    /**
+     * Indicates whether {@link #parse(Set)} can be called concurrently, e.g. because a new parser is created for each
+     * call. If so, the submissions are parsed in parallel.
+     */
+    default boolean supportsParallelParsing() {
+        return false;
+    }
+
+    /**
+     * Indicates whether {@link #parseBatch(List)} is considerably faster than parsing each submission on its own. If so,
+     * the submissions are parsed in batches.
+     */
+    default boolean supportsBatchParsing() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the language reads the submission files only via the {@link SourceLoader}, thus submissions can
+     * also be read from archives. Languages that access the files via the file system, e.g. to write view files next to
+     * them, must return false, for which archives are rejected as root directories.
+     */
+    default boolean supportsArchiveSources() {
+        return true;
+    }
 }
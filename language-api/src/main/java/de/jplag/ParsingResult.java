@@ -0,0 +1,49 @@
+package de.jplag;
+
+import java.util.List;
+
+/**
+ * Result of parsing the files of a single submission in a batch, which consists either of the parsed tokens or of the
+ * exception that occurred while parsing.
+ */
+public final class ParsingResult {
+    private final List<Token> tokens;
+    private final ParsingException exception;
+
+    private ParsingResult(List<Token> tokens, ParsingException exception) {
+        this.tokens = tokens;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the result of a successful parse with the given tokens.
+     */
+    public static ParsingResult success(List<Token> tokens) {
+        return new ParsingResult(tokens, null);
+    }
+
+    /**
+     * @return the result of a failed parse with the given exception.
+     */
+    public static ParsingResult failure(ParsingException exception) {
+        return new ParsingResult(null, exception);
+    }
+
+    /**
+     * @return whether the files were parsed successfully.
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+     * @return the parsed tokens.
+     * @throws ParsingException if the files could not be parsed.
+     */
+    public List<Token> getTokens() throws ParsingException {
+        if (exception != null) {
+            throw exception;
+        }
+        return tokens;
+    }
+}
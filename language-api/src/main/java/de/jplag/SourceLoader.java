@@ -0,0 +1,184 @@
+package de.jplag;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shared access to the content of source files, which language modules should use instead of reading files directly.
+ * Files of a registered {@link SourceProvider} are read from the provider, all other files from the file system. Large
+ * files are memory-mapped, and the content is read into byte buffers that are reused per thread before it is decoded.
+ */
+public final class SourceLoader {
+    private static final int MAPPING_THRESHOLD = 64 * 1024; // smaller files are read, as mapping them costs more than copying
+    private static final int MAXIMUM_RETAINED_CAPACITY = 4 * 1024 * 1024; // larger buffers are not kept for reuse
+
+    private static final List<SourceProvider> providers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ReadBuffer> readBuffers = ThreadLocal.withInitial(ReadBuffer::new);
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private SourceLoader() {
+        // private constructor to prevent instantiation
+    }
+
+    /**
+     * Registers a provider, whose files are read from it from now on.
+     */
+    public static void register(SourceProvider provider) {
+        providers.add(provider);
+    }
+
+    /**
+     * Unregisters a provider, whose files cannot be read anymore.
+     */
+    public static void unregister(SourceProvider provider) {
+        providers.remove(provider);
+    }
+
+    /**
+     * @return whether the file is provided by a registered provider instead of the file system.
+     */
+    public static boolean isProvided(File file) {
+        return providerOf(file).isPresent();
+    }
+
+    /**
+     * Opens the content of a file.
+     * @return the stream of the content, which the caller closes.
+     * @throws IOException if the file cannot be read.
+     */
+    public static InputStream openStream(File file) throws IOException {
+        Optional<SourceProvider> provider = providerOf(file);
+        return provider.isPresent() ? provider.get().openStream(file) : Files.newInputStream(file.toPath());
+    }
+
+    /**
+     * @return the content of a file as bytes.
+     * @throws IOException if the file cannot be read.
+     */
+    public static byte[] readAllBytes(File file) throws IOException {
+        if (!isProvided(file)) {
+            return Files.readAllBytes(file.toPath());
+        }
+        try (InputStream input = openStream(file)) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * @return the content of a file decoded as UTF-8.
+     * @throws IOException if the file cannot be read or is not valid UTF-8.
+     */
+    public static String readString(File file) throws IOException {
+        return readString(file, CodingErrorAction.REPORT);
+    }
+
+    /**
+     * Reads the content of a file decoded as UTF-8.
+     * @param errorAction is the action for malformed input, e.g. {@link CodingErrorAction#REPLACE} to decode like
+     * ANTLR's {@code CharStreams.fromStream}.
+     * @return the decoded content.
+     * @throws IOException if the file cannot be read or is malformed and the action is {@link CodingErrorAction#REPORT}.
+     */
+    public static String readString(File file, CodingErrorAction errorAction) throws IOException {
+        if (isProvided(file)) {
+            byte[] content = readAllBytes(file);
+            return decode(content, content.length, errorAction);
+        }
+        ByteBuffer content = readBuffers.get().read(file);
+        return decode(content.array(), content.limit(), errorAction);
+    }
+
+    /**
+     * @return the lines of a file decoded as UTF-8.
+     * @throws IOException if the file cannot be read or is not valid UTF-8.
+     */
+    public static List<String> readAllLines(File file) throws IOException {
+        return readString(file).lines().toList();
+    }
+
+    /**
+     * Decodes UTF-8 via the string constructor, which is considerably faster than a decoder. As the constructor replaces
+     * malformed input, strict decoding is only needed to tell replaced input from actual replacement characters.
+     */
+    private static String decode(byte[] content, int length, CodingErrorAction errorAction) throws CharacterCodingException {
+        if (errorAction == CodingErrorAction.IGNORE) {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+            return decoder.decode(ByteBuffer.wrap(content, 0, length)).toString();
+        }
+        String decoded = new String(content, 0, length, StandardCharsets.UTF_8);
+        if (errorAction == CodingErrorAction.REPORT && decoded.indexOf(REPLACEMENT_CHARACTER) >= 0) {
+            StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content, 0, length));
+        }
+        return decoded;
+    }
+
+    private static Optional<SourceProvider> providerOf(File file) {
+        if (providers.isEmpty()) {
+            return Optional.empty();
+        }
+        return providers.stream().filter(provider -> provider.provides(file)).findFirst();
+    }
+
+    /**
+     * Byte buffer of one thread, which is grown on demand and reused across files.
+     */
+    private static final class ReadBuffer {
+        private byte[] content = new byte[MAPPING_THRESHOLD];
+
+        /**
+         * Reads a file into the buffer. Large files are mapped and copied from the mapping, which saves the intermediate
+         * copy of channel reads.
+         * @return the buffer, whose array contains the content up to the limit.
+         */
+        ByteBuffer read(File file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE - 1) {
+                    throw new IOException("File too large to read: " + file);
+                }
+                if (size >= MAPPING_THRESHOLD) {
+                    MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, 0, size);
+                    byte[] array = allocate((int) size);
+                    mapping.get(array, 0, (int) size);
+                    return ByteBuffer.wrap(array, 0, (int) size);
+                }
+                // the size is only a hint for small files, as they may change while reading
+                ByteBuffer buffer = ByteBuffer.wrap(allocate((int) size + 1));
+                while (channel.read(buffer) >= 0) {
+                    if (!buffer.hasRemaining()) {
+                        buffer = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.capacity() * 2)).position(buffer.position());
+                        retain(buffer.array());
+                    }
+                }
+                return buffer.flip();
+            }
+        }
+
+        private byte[] allocate(int length) {
+            byte[] array = content.length >= length ? content : new byte[length];
+            retain(array);
+            return array;
+        }
+
+        private void retain(byte[] array) {
+            if (array.length <= MAXIMUM_RETAINED_CAPACITY) {
+                content = array;
+            }
+        }
+    }
+}
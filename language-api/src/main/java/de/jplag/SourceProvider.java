@@ -0,0 +1,26 @@
+package de.jplag;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Provides the content of source files that are not stored in the file system, e.g. the entries of an archive. The
+ * provided files are addressed by virtual paths, and their content is read via the {@link SourceLoader} once the
+ * provider is registered there.
+ */
+public interface SourceProvider {
+
+    /**
+     * @return whether this provider provides the content of the given file.
+     */
+    boolean provides(File file);
+
+    /**
+     * Opens the content of a provided file. Can be called concurrently.
+     * @param file is the provided file.
+     * @return the stream of the content, which the caller closes.
+     * @throws IOException if the content cannot be read.
+     */
+    InputStream openStream(File file) throws IOException;
+}
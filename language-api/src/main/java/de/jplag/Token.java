@@ -11,15 +11,15 @@ import org.slf4j.LoggerFactory;
  * The language parsers decide what is a token and what is not.
  */
 public class Token {
-    private Logger logger = LoggerFactory.getLogger(this.getClass());
+    private static final Logger logger = LoggerFactory.getLogger(Token.class);
     /** Indicates that the requested field has no value. */
     public static final int NO_VALUE = -1;
 
-    private int line;
-    private int column;
-    private int length;
-    private File file;
-    private TokenType type;
+    private final int line;
+    private final int column;
+    private final int length;
+    private final File file;
+    private final TokenType type;
 
     /**
      * Creates a token of type {@link SharedTokenType#FILE_END FILE_END} without information about line, column, and length.
@@ -38,10 +38,17 @@ public class Token {
      * @param length is the length of the token in the source code.
      */
     public Token(TokenType type, File file, int line, int column, int length) {
-        if (line == 0) {
+        this(type, file, line, column, length, true);
+    }
+
+    /**
+     * Creates a token, optionally without warning about invalid indices, e.g. for views on already validated tokens.
+     */
+    Token(TokenType type, File file, int line, int column, int length, boolean warnAboutInvalidIndices) {
+        if (warnAboutInvalidIndices && line == 0) {
             logger.warn("Creating a token with line index 0 while index is 1-based");
         }
-        if (column == 0) {
+        if (warnAboutInvalidIndices && column == 0) {
             logger.warn("Creating a token with column index 0 while index is 1-based");
         }
         this.type = type;
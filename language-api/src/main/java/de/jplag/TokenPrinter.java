@@ -2,7 +2,6 @@ package de.jplag;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -158,7 +157,7 @@ public final class TokenPrinter {
      */
     private static List<String> linesFromFile(File file) {
         try {
-            return Files.readAllLines(file.toPath());
+            return SourceLoader.readAllLines(file);
         } catch (NoSuchFileException exception) {
             logger.error("File does not exist, thus no tokens are printed: " + file.getAbsolutePath());
         } catch (IOException exception) {
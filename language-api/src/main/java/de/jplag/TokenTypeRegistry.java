@@ -0,0 +1,200 @@
+package de.jplag;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global registry that interns token types to compact, non-negative ordinals. Equal token types obtain the same ordinal,
+ * different token types always obtain different ordinals. {@link SharedTokenType#FILE_END} has the ordinal 0.
+ * <p>
+ * Looking up the ordinal of a known token type is lock-free: Token types declared as <code>enum</code> (as recommended
+ * in {@link TokenType}) are resolved via an array index, all other token types via a concurrent map. Only the first
+ * registration of a token type may block briefly.
+ * </p>
+ * <p>
+ * Token types that are not enums, e.g. the words of natural language text, are only weakly referenced by the registry.
+ * Once the instance returned by {@link #intern(TokenType)} is no longer reachable, the token type is removed and its
+ * ordinal is reused, thus the registry does not grow with every distinct token type ever seen. Code that keeps ordinals
+ * must therefore keep the interned token types reachable, as {@link CompactTokenList} does.
+ * </p>
+ */
+public final class TokenTypeRegistry {
+    private static final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    /**
+     * Ordinals of all constants of an enum token type, indexed by their enum ordinal. All constants of an enum are
+     * registered at once when the first one is looked up.
+     */
+    private static final ClassValue<int[]> enumOrdinals = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> type) {
+            int numberOfConstants = type.getEnumConstants().length;
+            int firstOrdinal = nextOrdinal.getAndAdd(numberOfConstants);
+            int[] ordinals = new int[numberOfConstants];
+            for (int i = 0; i < numberOfConstants; i++) {
+                ordinals[i] = firstOrdinal + i;
+                register(ordinals[i], type.getEnumConstants()[i]);
+            }
+            return ordinals;
+        }
+    };
+
+    /**
+     * Weakly referenced token types that are not enums, each mapped to itself. Collected token types are removed when the
+     * next token type is registered.
+     */
+    private static final ConcurrentMap<RegisteredType, RegisteredType> otherTypes = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<TokenType> collectedTypes = new ReferenceQueue<>();
+    private static final Deque<Integer> freeOrdinals = new ArrayDeque<>(); // guarded by the class lock
+
+    /**
+     * Token types indexed by their ordinal, either enum constants or {@link RegisteredType}s. Replaced by a larger copy
+     * when full. A token type is registered before its ordinal is returned, thus every returned ordinal can be resolved.
+     */
+    private static volatile Object[] typesByOrdinal = new Object[64];
+
+    static {
+        ordinalOf(SharedTokenType.FILE_END);
+    }
+
+    private TokenTypeRegistry() {
+    }
+
+    /**
+     * Returns the interned ordinal of a token type, registers the token type if it is not yet known. The ordinal of a token
+     * type that is not an enum only stays assigned while its interned instance is reachable, see
+     * {@link #intern(TokenType)}.
+     * @param type is the token type.
+     * @return the ordinal of the token type.
+     */
+    public static int ordinalOf(TokenType type) {
+        if (type instanceof Enum<?> enumType) {
+            return enumOrdinals.get(enumType.getDeclaringClass())[enumType.ordinal()];
+        }
+        return registrationOf(type).ordinal;
+    }
+
+    /**
+     * Returns the registered instance of a token type, registers the token type if it is not yet known. As long as the
+     * returned instance is reachable, all token types equal to it keep their ordinal.
+     * @param type is the token type.
+     * @return the registered token type that is equal to the given one.
+     */
+    public static TokenType intern(TokenType type) {
+        if (type instanceof Enum<?>) {
+            return type;
+        }
+        TokenType internedType;
+        do {
+            internedType = registrationOf(type).get();
+        } while (internedType == null); // collected between the lookup and the dereference
+        return internedType;
+    }
+
+    /**
+     * Returns the token type of an ordinal.
+     * @param ordinal is an ordinal returned by {@link #ordinalOf(TokenType)}.
+     * @return the token type with the ordinal.
+     * @throws IllegalArgumentException if no token type has the ordinal.
+     */
+    public static TokenType typeOf(int ordinal) {
+        TokenType type = resolve(typesByOrdinal, ordinal);
+        if (type != null) {
+            return type;
+        }
+        synchronized (TokenTypeRegistry.class) { // the array element may not yet be visible without locking
+            type = resolve(typesByOrdinal, ordinal);
+            if (type == null) {
+                throw new IllegalArgumentException("No token type with ordinal " + ordinal);
+            }
+            return type;
+        }
+    }
+
+    private static TokenType resolve(Object[] types, int ordinal) {
+        if (ordinal < 0 || ordinal >= types.length) {
+            return null;
+        }
+        Object type = types[ordinal];
+        return type instanceof RegisteredType registeredType ? registeredType.get() : (TokenType) type;
+    }
+
+    private static RegisteredType registrationOf(TokenType type) {
+        RegisteredType probe = new RegisteredType(type, -1, null);
+        RegisteredType registration = otherTypes.get(probe);
+        if (registration != null && !registration.refersTo(null)) {
+            return registration;
+        }
+        synchronized (TokenTypeRegistry.class) {
+            removeCollectedTypes();
+            registration = otherTypes.get(probe);
+            if (registration != null && !registration.refersTo(null)) {
+                return registration;
+            }
+            Integer freeOrdinal = freeOrdinals.poll();
+            int ordinal = freeOrdinal != null ? freeOrdinal : nextOrdinal.getAndIncrement();
+            registration = new RegisteredType(type, ordinal, collectedTypes);
+            register(ordinal, registration);
+            otherTypes.put(registration, registration);
+            return registration;
+        }
+    }
+
+    private static void removeCollectedTypes() {
+        Reference<? extends TokenType> reference;
+        while ((reference = collectedTypes.poll()) != null) {
+            RegisteredType registration = (RegisteredType) reference;
+            otherTypes.remove(registration, registration);
+            typesByOrdinal[registration.ordinal] = null;
+            freeOrdinals.push(registration.ordinal);
+        }
+    }
+
+    private static synchronized void register(int ordinal, Object type) {
+        Object[] types = typesByOrdinal;
+        if (ordinal >= types.length) {
+            types = Arrays.copyOf(types, Math.max(2 * types.length, ordinal + 1));
+        }
+        types[ordinal] = type;
+        typesByOrdinal = types;
+    }
+
+    /**
+     * Weak reference to a registered token type, which equals the references to equal token types as long as the token
+     * type is not collected. A collected registration only equals itself.
+     */
+    private static final class RegisteredType extends WeakReference<TokenType> {
+        private final int ordinal;
+        private final int hashCode;
+
+        RegisteredType(TokenType type, int ordinal, ReferenceQueue<TokenType> queue) {
+            super(type, queue);
+            this.ordinal = ordinal;
+            this.hashCode = type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof RegisteredType otherType) || hashCode != otherType.hashCode) {
+                return false;
+            }
+            TokenType type = get();
+            return type != null && type.equals(otherType.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CompactTokenListTest {
+    private static final File FIRST_FILE = new File("First.java");
+    private static final File SECOND_FILE = new File("Second.java");
+
+    private final List<Token> tokens = List.of(new Token(TestTokenType.WORD, FIRST_FILE, 1, 2, 3), new Token(TestTokenType.NUMBER, FIRST_FILE, 4, 5, 6),
+            Token.fileEnd(FIRST_FILE), new Token(TestTokenType.WORD, SECOND_FILE, 7, 8, 9), Token.fileEnd(SECOND_FILE));
+
+    @Test
+    void testTokenViewsEqualOriginalTokens() {
+        CompactTokenList compactTokens = CompactTokenList.of(tokens);
+        assertEquals(tokens.size(), compactTokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Token expected = tokens.get(i);
+            Token actual = compactTokens.get(i);
+            assertSame(expected.getType(), actual.getType());
+            assertEquals(expected.getFile(), actual.getFile());
+            assertEquals(expected.getLine(), actual.getLine());
+            assertEquals(expected.getColumn(), actual.getColumn());
+            assertEquals(expected.getLength(), actual.getLength());
+            assertEquals(expected.getLine(), compactTokens.getLine(i));
+            assertSame(expected.getType(), compactTokens.getType(i));
+        }
+    }
+
+    @Test
+    void testTypeOrdinals() {
+        CompactTokenList compactTokens = CompactTokenList.of(tokens);
+        int[] expectedOrdinals = tokens.stream().mapToInt(token -> TokenTypeRegistry.ordinalOf(token.getType())).toArray();
+        assertArrayEquals(expectedOrdinals, compactTokens.getTypeOrdinals());
+        compactTokens.getTypeOrdinals()[0] = -1;
+        assertEquals(expectedOrdinals[0], compactTokens.getTypeOrdinal(0));
+    }
+
+    @Test
+    void testCompactListIsNotCopiedAndUnmodifiable() {
+        CompactTokenList compactTokens = CompactTokenList.of(tokens);
+        assertSame(compactTokens, CompactTokenList.of(compactTokens));
+        assertThrows(UnsupportedOperationException.class, () -> compactTokens.add(Token.fileEnd(FIRST_FILE)));
+        assertEquals(2, compactTokens.subList(3, 5).size());
+    }
+
+    @Test
+    void testListKeepsRecordTokenTypesRegistered() throws InterruptedException {
+        CompactTokenList compactTokens = CompactTokenList.of(List.of(new Token(new TestRecordTokenType("kept"), FIRST_FILE, 1, 1, 1)));
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(new TestRecordTokenType("kept"), compactTokens.getType(0));
+        assertEquals(compactTokens.getTypeOrdinal(0), TokenTypeRegistry.ordinalOf(new TestRecordTokenType("kept")));
+    }
+
+    private record TestRecordTokenType(String description) implements TokenType {
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private enum TestTokenType implements TokenType {
+        WORD,
+        NUMBER;
+
+        public String getDescription() {
+            return name();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Microbenchmark of the I/O cost per MB of source when reading files via the {@link SourceLoader} compared to reading
+ * them via a stream, as the language modules did before.
+ */
+@Disabled("Not an actual test. Used to measure the cost of reading source files")
+class SourceLoaderBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(SourceLoaderBenchmarkTest.class);
+
+    private static final String LINE = "    public static int compute(int value) { return value * 31 + 17; } // comment\n";
+    private static final int[] FILE_SIZES = {4 * 1024, 64 * 1024, 1024 * 1024};
+    private static final int TOTAL_SIZE = 64 * 1024 * 1024;
+    private static final int RUNS = 5;
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jplag-source-benchmark");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void benchmarkReading() throws IOException {
+        for (int fileSize : FILE_SIZES) {
+            List<File> files = createFiles(fileSize);
+            for (int run = 0; run < RUNS; run++) {
+                long streamTime = measure(files, file -> {
+                    try (InputStream input = Files.newInputStream(file.toPath())) {
+                        return new String(input.readAllBytes(), StandardCharsets.UTF_8).length();
+                    }
+                });
+                long loaderTime = measure(files, file -> SourceLoader.readString(file).length());
+                double megabytes = (double) fileSize * files.size() / (1024 * 1024);
+                logger.info("Run {} with {} KiB files: stream {} ms/MB, source loader {} ms/MB", run, fileSize / 1024,
+                        String.format("%.2f", streamTime / 1e6 / megabytes), String.format("%.2f", loaderTime / 1e6 / megabytes));
+            }
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+    }
+
+    private List<File> createFiles(int fileSize) throws IOException {
+        byte[] content = LINE.repeat(fileSize / LINE.length()).getBytes(StandardCharsets.UTF_8);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < TOTAL_SIZE / fileSize; i++) {
+            files.add(Files.write(directory.resolve("Source" + fileSize + "_" + i + ".java"), content).toFile());
+        }
+        return files;
+    }
+
+    private static long measure(List<File> files, Reader reader) throws IOException {
+        long characters = 0;
+        long start = System.nanoTime();
+        for (File file : files) {
+            characters += reader.read(file);
+        }
+        long duration = System.nanoTime() - start;
+        assertEquals(0, characters % LINE.length());
+        return duration;
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        int read(File file) throws IOException;
+    }
+}
@@ -0,0 +1,88 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SourceLoaderTest {
+    private static final String LINE = "int answer = 42; // \u00e4\u00f6\u00fc \u20ac \ud83d\ude00";
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jplag-sources");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testReadsSmallAndMappedFiles() throws IOException {
+        for (int lines : new int[] {0, 1, 10, 10_000}) {
+            String content = (LINE + "\r\n").repeat(lines);
+            File file = write("Source" + lines + ".java", content.getBytes(StandardCharsets.UTF_8));
+            assertEquals(content, SourceLoader.readString(file));
+            assertEquals(Files.readAllLines(file.toPath()), SourceLoader.readAllLines(file));
+        }
+    }
+
+    @Test
+    void testMalformedInput() throws IOException {
+        File file = write("Malformed.java", new byte[] {'a', (byte) 0xFF, 'b'});
+        assertThrows(CharacterCodingException.class, () -> SourceLoader.readString(file));
+        assertEquals("a\ufffdb", SourceLoader.readString(file, CodingErrorAction.REPLACE));
+    }
+
+    @Test
+    void testReadsProvidedFiles() throws IOException {
+        File file = new File(directory.toFile(), "Provided.java");
+        SourceProvider provider = new SourceProvider() {
+            @Override
+            public boolean provides(File providedFile) {
+                return providedFile.equals(file);
+            }
+
+            @Override
+            public InputStream openStream(File providedFile) {
+                return new ByteArrayInputStream(LINE.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        SourceLoader.register(provider);
+        try {
+            assertTrue(SourceLoader.isProvided(file));
+            assertEquals(LINE, SourceLoader.readString(file));
+            assertEquals(List.of(LINE), SourceLoader.readAllLines(file));
+        } finally {
+            SourceLoader.unregister(provider);
+        }
+        assertThrows(IOException.class, () -> SourceLoader.readString(file));
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content).toFile();
+    }
+}
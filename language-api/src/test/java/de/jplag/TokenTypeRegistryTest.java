@@ -0,0 +1,103 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class TokenTypeRegistryTest {
+
+    @Test
+    void testFileEndHasOrdinalZero() {
+        assertEquals(0, TokenTypeRegistry.ordinalOf(SharedTokenType.FILE_END));
+    }
+
+    @Test
+    void testEnumTokenTypesHaveDistinctStableOrdinals() {
+        int first = TokenTypeRegistry.ordinalOf(TestTokenType.FIRST);
+        int second = TokenTypeRegistry.ordinalOf(TestTokenType.SECOND);
+        assertNotEquals(first, second);
+        assertNotEquals(0, first);
+        assertEquals(first, TokenTypeRegistry.ordinalOf(TestTokenType.FIRST));
+        assertEquals(second, TokenTypeRegistry.ordinalOf(TestTokenType.SECOND));
+    }
+
+    @Test
+    void testEqualRecordTokenTypesShareOrdinal() {
+        int ordinal = TokenTypeRegistry.ordinalOf(new TestRecordTokenType("word"));
+        assertEquals(ordinal, TokenTypeRegistry.ordinalOf(new TestRecordTokenType("word")));
+        assertNotEquals(ordinal, TokenTypeRegistry.ordinalOf(new TestRecordTokenType("other word")));
+    }
+
+    @Test
+    void testConcurrentRegistrationIsConsistent() {
+        List<TestRecordTokenType> types = IntStream.range(0, 1000).mapToObj(i -> new TestRecordTokenType("concurrent" + i)).toList();
+        List<Integer> ordinals = types.parallelStream().map(TokenTypeRegistry::ordinalOf).toList();
+        Set<Integer> distinctOrdinals = ordinals.stream().collect(Collectors.toSet());
+        assertEquals(types.size(), distinctOrdinals.size());
+        assertEquals(ordinals, types.parallelStream().map(TokenTypeRegistry::ordinalOf).toList());
+    }
+
+    @Test
+    void testTypeOfResolvesOrdinals() {
+        assertEquals(SharedTokenType.FILE_END, TokenTypeRegistry.typeOf(0));
+        assertEquals(TestTokenType.SECOND, TokenTypeRegistry.typeOf(TokenTypeRegistry.ordinalOf(TestTokenType.SECOND)));
+        TestRecordTokenType recordType = new TestRecordTokenType("resolved");
+        assertEquals(recordType, TokenTypeRegistry.typeOf(TokenTypeRegistry.ordinalOf(recordType)));
+        assertThrows(IllegalArgumentException.class, () -> TokenTypeRegistry.typeOf(-1));
+        assertThrows(IllegalArgumentException.class, () -> TokenTypeRegistry.typeOf(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testInternReturnsRegisteredInstance() {
+        TestRecordTokenType registeredType = new TestRecordTokenType("interned");
+        assertSame(registeredType, TokenTypeRegistry.intern(registeredType));
+        assertSame(registeredType, TokenTypeRegistry.intern(new TestRecordTokenType("interned")));
+        assertSame(TestTokenType.FIRST, TokenTypeRegistry.intern(TestTokenType.FIRST));
+    }
+
+    @Test
+    void testUnreachableRecordTokenTypesAreReleased() throws InterruptedException {
+        TestRecordTokenType type = new TestRecordTokenType("released");
+        int ordinal = TokenTypeRegistry.ordinalOf(type);
+        WeakReference<TestRecordTokenType> reference = new WeakReference<>(type);
+        type = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertThrows(IllegalArgumentException.class, () -> TokenTypeRegistry.typeOf(ordinal));
+    }
+
+    private enum TestTokenType implements TokenType {
+        FIRST("FIRST"),
+        SECOND("SECOND");
+
+        private final String description;
+
+        public String getDescription() {
+            return description;
+        }
+
+        TestTokenType(String description) {
+            this.description = description;
+        }
+    }
+
+    private record TestRecordTokenType(String description) implements TokenType {
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -2,19 +2,17 @@ package de.jplag.cpp2;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.cpp2.grammar.CPP14Lexer;
 import de.jplag.cpp2.grammar.CPP14Parser;
 
@@ -22,10 +20,31 @@ import de.jplag.cpp2.grammar.CPP14Parser;
  * The adapter between {@link AbstractParser} and the ANTLR based parser of this language module.
  */
 public class CPPParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<CPP14Lexer, CPP14Parser> sllFirstParserPool = new AntlrParserPool<>(CPP14Lexer::new, CPP14Parser::new, true);
+    private static final AntlrParserPool<CPP14Lexer, CPP14Parser> llParserPool = new AntlrParserPool<>(CPP14Lexer::new, CPP14Parser::new, false);
+
+    private final AntlrParserPool<CPP14Lexer, CPP14Parser> parserPool;
+
     private File currentFile;
 
     private List<Token> tokens;
 
+    /**
+     * Creates an adapter that parses with SLL prediction first.
+     */
+    public CPPParserAdapter() {
+        this(true);
+    }
+
+    /**
+     * Creates an adapter that only parses with LL prediction if SLL prediction is disabled, which is the reference to
+     * check that SLL prediction yields the same tokens.
+     * @param trySllPredictionFirst specifies whether files are parsed with SLL prediction before LL prediction.
+     */
+    CPPParserAdapter(boolean trySllPredictionFirst) {
+        parserPool = trySllPredictionFirst ? sllFirstParserPool : llParserPool;
+    }
+
     /**
      * {@return a list of tokens from a set of source files}
      * @param files the source files
@@ -37,11 +56,7 @@ public class CPPParserAdapter extends AbstractParser {
             this.currentFile = file;
             logger.trace("Parsing file {}", currentFile);
             try {
-                CPP14Lexer lexer = new CPP14Lexer(CharStreams.fromStream(Files.newInputStream(file.toPath())));
-                // create a buffer of tokens pulled from the lexer
-                CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-                CPP14Parser parser = new CPP14Parser(tokenStream);
-                CPP14Parser.TranslationUnitContext translationUnit = parser.translationUnit();
+                CPP14Parser.TranslationUnitContext translationUnit = parserPool.parse(file, CPP14Parser::translationUnit);
 
                 ParseTreeWalker.DEFAULT.walk(new CPPTokenListener(this), translationUnit);
             } catch (IOException e) {
@@ -0,0 +1,74 @@
+#include <iostream>
+#include <map>
+#include <memory>
+#include <string>
+#include <vector>
+
+namespace shapes {
+
+template <typename T>
+class Shape {
+  public:
+    virtual ~Shape() = default;
+    virtual T area() const = 0;
+};
+
+template <typename T>
+class Rectangle : public Shape<T> {
+  public:
+    Rectangle(T width, T height) : width(width), height(height) {}
+    T area() const override { return width * height; }
+
+  private:
+    T width;
+    T height;
+};
+
+}  // namespace shapes
+
+struct Counter {
+    int value = 0;
+    Counter& operator++() {
+        ++value;
+        return *this;
+    }
+};
+
+enum class Color { RED, GREEN, BLUE };
+
+static int fibonacci(int n) {
+    if (n < 2) {
+        return n;
+    }
+    return fibonacci(n - 1) + fibonacci(n - 2);
+}
+
+int main(int argc, char* argv[]) {
+    std::vector<std::unique_ptr<shapes::Shape<double>>> all;
+    all.push_back(std::make_unique<shapes::Rectangle<double>>(2.0, 3.0));
+    std::map<std::string, int> counts;
+    Counter counter;
+    for (const auto& shape : all) {
+        counts["rectangle"] += static_cast<int>(shape->area());
+        ++counter;
+    }
+    auto square = [](int x) { return x * x; };
+    int total = 0;
+    for (int i = 0; i < argc; i++) {
+        total += square(i) > 10 ? fibonacci(i) : i;
+    }
+    Color color = Color::GREEN;
+    switch (color) {
+        case Color::RED:
+            std::cout << "red" << std::endl;
+            break;
+        default:
+            std::cout << total << " " << counter.value << std::endl;
+    }
+    try {
+        throw std::runtime_error("done");
+    } catch (const std::exception& exception) {
+        std::cerr << exception.what() << std::endl;
+    }
+    return 0;
+}
@@ -1,14 +1,11 @@
 package de.jplag.csharp;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -17,6 +14,7 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.csharp.grammar.CSharpLexer;
 import de.jplag.csharp.grammar.CSharpParser;
 
@@ -26,6 +24,8 @@ import de.jplag.csharp.grammar.CSharpParser;
  * @author Timur Saglam
  */
 public class CSharpParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<CSharpLexer, CSharpParser> parserPool = new AntlrParserPool<>(CSharpLexer::new, CSharpParser::new, false);
+
     private List<Token> tokens;
     private File currentFile;
 
@@ -51,16 +51,11 @@ public class CSharpParserAdapter extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            // create a lexer, a parser and a buffer between them.
-            CSharpLexer lexer = new CSharpLexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-            CSharpParser parser = new CSharpParser(tokens);
-
             // Create a tree walker and the entry context defined by the parser grammar
-            ParserRuleContext entryContext = parser.compilation_unit();
+            ParserRuleContext entryContext = parserPool.parse(file, CSharpParser::compilation_unit);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             // Walk over the parse tree:
@@ -20,12 +20,6 @@ public class Language implements de.jplag.Language {
     private static final String[] FILE_ENDINGS = new String[] {".cs", ".CS"};
     private static final int DEFAULT_MIN_TOKEN_MATCH = 8;
 
-    private final CSharpParserAdapter parser;
-
-    public Language() {
-        parser = new CSharpParserAdapter();
-    }
-
     @Override
     public String[] suffixes() {
         return FILE_ENDINGS;
@@ -48,6 +42,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return parser.parse(files);
+        return new CSharpParserAdapter().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
@@ -68,4 +68,9 @@ public class Language implements de.jplag.Language {
     public String viewFileSuffix() {
         return VIEW_FILE_SUFFIX;
     }
+
+    @Override
+    public boolean supportsArchiveSources() {
+        return false; // EMF loads the models via file URIs and writes the view files next to them
+    }
 }
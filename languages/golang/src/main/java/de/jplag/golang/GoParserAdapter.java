@@ -1,14 +1,11 @@
 package de.jplag.golang;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -17,10 +14,13 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.golang.grammar.GoLexer;
 import de.jplag.golang.grammar.GoParser;
 
 public class GoParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<GoLexer, GoParser> parserPool = new AntlrParserPool<>(GoLexer::new, GoParser::new, false);
+
     private File currentFile;
     private List<Token> tokens;
 
@@ -34,14 +34,10 @@ public class GoParserAdapter extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            GoLexer lexer = new GoLexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            GoParser parser = new GoParser(tokenStream);
-
-            ParserRuleContext entryContext = parser.sourceFile();
+            ParserRuleContext entryContext = parserPool.parse(file, GoParser::sourceFile);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             JPlagGoListener listener = new JPlagGoListener(this);
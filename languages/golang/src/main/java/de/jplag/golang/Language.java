@@ -16,11 +16,6 @@ public class Language implements de.jplag.Language {
     private static final String IDENTIFIER = "go";
     private static final int DEFAULT_MIN_TOKEN_MATCH = 8;
     private static final String[] FILE_EXTENSIONS = {".go"};
-    private final GoParserAdapter parserAdapter;
-
-    public Language() {
-        this.parserAdapter = new GoParserAdapter();
-    }
 
     @Override
     public String[] suffixes() {
@@ -44,6 +39,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return parserAdapter.parse(files);
+        return new GoParserAdapter().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
@@ -2,23 +2,28 @@ package de.jplag.java;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
 import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 
 import org.slf4j.Logger;
 
 import de.jplag.ParsingException;
+import de.jplag.SourceLoader;
 import de.jplag.Token;
 
 import com.sun.source.tree.CompilationUnitTree;
@@ -30,34 +35,88 @@ import com.sun.source.util.Trees;
 public class JavacAdapter {
 
     private static final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    // We need to disable annotation processing, see
+    // https://stackoverflow.com/questions/72737445/system-java-compiler-behaves-different-depending-on-dependencies-defined-in-mave
+    private static final List<String> OPTIONS = List.of("-proc:none", "--enable-preview", "--release", "17");
+    // In a batch, the errors of all submissions count towards the error limit, thus it is lifted to report each erroneous submission
+    private static final List<String> BATCH_OPTIONS = List.of("-proc:none", "--enable-preview", "--release", "17", "-Xmaxerrs",
+            Integer.toString(Integer.MAX_VALUE));
 
     public void parseFiles(Set<File> files, final Parser parser) throws ParsingException {
-        var listener = new DiagnosticCollector<>();
+        List<ParsingException> parsingExceptions = parseBatch(List.of(files), List.of(parser)).get(0);
+        if (!parsingExceptions.isEmpty()) {
+            throw ParsingException.wrappingExceptions(parsingExceptions);
+        }
+    }
 
-        List<ParsingException> parsingExceptions = new ArrayList<>();
+    /**
+     * Parses the files of several submissions with a single compilation task, which saves setting up a task per
+     * submission. The tokens and errors of each file are attributed to the submission of the file.
+     * @param fileSets are the files of each submission.
+     * @param parsers receive the tokens of each submission.
+     * @return the parsing exceptions of each submission, which are empty if the submission was parsed successfully.
+     */
+    public List<List<ParsingException>> parseBatch(List<Set<File>> fileSets, List<Parser> parsers) {
+        Logger logger = parsers.get(0).logger;
+        var listener = new DiagnosticCollector<>();
+        List<List<ParsingException>> parsingExceptions = new ArrayList<>(fileSets.size());
+        for (int i = 0; i < fileSets.size(); i++) {
+            parsingExceptions.add(new ArrayList<>());
+        }
         try (final StandardJavaFileManager fileManager = javac.getStandardFileManager(listener, null, StandardCharsets.UTF_8)) {
-            var javaFiles = fileManager.getJavaFileObjectsFromFiles(files);
+            List<JavaFileObject> javaFiles = new ArrayList<>();
+            Map<URI, Integer> submissionIndices = new HashMap<>();
+            for (int i = 0; i < fileSets.size(); i++) {
+                for (JavaFileObject javaFile : getJavaFileObjects(fileSets.get(i), fileManager)) {
+                    if (submissionIndices.putIfAbsent(javaFile.toUri(), i) != null) {
+                        return parseSeparately(fileSets, parsers); // files shared by submissions cannot be attributed to one of them
+                    }
+                    javaFiles.add(javaFile);
+                }
+            }
 
-            // We need to disable annotation processing, see
-            // https://stackoverflow.com/questions/72737445/system-java-compiler-behaves-different-depending-on-dependencies-defined-in-mave
-            final CompilationTask task = javac.getTask(null, fileManager, listener, List.of("-proc:none", "--enable-preview", "--release", "17"), null, javaFiles);
+            final CompilationTask task = javac.getTask(null, fileManager, listener, fileSets.size() > 1 ? BATCH_OPTIONS : OPTIONS, null, javaFiles);
             final Trees trees = Trees.instance(task);
             final SourcePositions positions = trees.getSourcePositions();
-            for (final CompilationUnitTree ast : executeCompilationTask(task, parser.logger)) {
+            for (final CompilationUnitTree ast : executeCompilationTask(task, logger)) {
+                int index = submissionIndices.get(ast.getSourceFile().toUri());
+                Parser parser = parsers.get(index);
                 File file = new File(ast.getSourceFile().toUri());
                 final LineMap map = ast.getLineMap();
                 var scanner = new TokenGeneratingTreeScanner(file, parser, map, positions, ast);
                 ast.accept(scanner, null);
-                parsingExceptions.addAll(scanner.getParsingExceptions());
+                parsingExceptions.get(index).addAll(scanner.getParsingExceptions());
                 parser.add(Token.fileEnd(file));
             }
+            processErrors(logger, listener, submissionIndices, parsingExceptions);
         } catch (IOException exception) {
-            throw new ParsingException(null, exception.getMessage(), exception);
+            parsingExceptions.forEach(exceptions -> exceptions.add(new ParsingException(null, exception.getMessage(), exception)));
         }
-        parsingExceptions.addAll(processErrors(parser.logger, listener));
-        if (!parsingExceptions.isEmpty()) {
-            throw ParsingException.wrappingExceptions(parsingExceptions);
+        return parsingExceptions;
+    }
+
+    private List<List<ParsingException>> parseSeparately(List<Set<File>> fileSets, List<Parser> parsers) {
+        List<List<ParsingException>> parsingExceptions = new ArrayList<>(fileSets.size());
+        for (int i = 0; i < fileSets.size(); i++) {
+            parsingExceptions.add(parseBatch(List.of(fileSets.get(i)), List.of(parsers.get(i))).get(0));
         }
+        return parsingExceptions;
+    }
+
+    /**
+     * Creates the file objects for the given files in their order. Files that are not stored in the file system are read
+     * via the {@link SourceLoader}.
+     */
+    private List<JavaFileObject> getJavaFileObjects(Set<File> files, StandardJavaFileManager fileManager) {
+        List<JavaFileObject> javaFiles = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (SourceLoader.isProvided(file)) {
+                javaFiles.add(new ProvidedJavaFileObject(file));
+            } else {
+                fileManager.getJavaFileObjects(file).forEach(javaFiles::add);
+            }
+        }
+        return javaFiles;
     }
 
     private Iterable<? extends CompilationUnitTree> executeCompilationTask(final CompilationTask task, Logger logger) {
@@ -70,16 +129,45 @@ public class JavacAdapter {
         return abstractSyntaxTrees;
     }
 
-    private List<ParsingException> processErrors(Logger logger, DiagnosticCollector<Object> listener) {
-        return listener.getDiagnostics().stream().filter(it -> it.getKind() == javax.tools.Diagnostic.Kind.ERROR).map(diagnosticItem -> {
+    /**
+     * Adds the errors to the parsing exceptions of the submissions of their files. Errors without a known file are added to
+     * all submissions.
+     */
+    private void processErrors(Logger logger, DiagnosticCollector<Object> listener, Map<URI, Integer> submissionIndices,
+            List<List<ParsingException>> parsingExceptions) {
+        listener.getDiagnostics().stream().filter(it -> it.getKind() == javax.tools.Diagnostic.Kind.ERROR).forEach(diagnosticItem -> {
             File file = null;
+            Integer index = null;
             if (diagnosticItem.getSource() instanceof JavaFileObject) {
                 JavaFileObject fileObject = (JavaFileObject) diagnosticItem.getSource();
                 file = new File(fileObject.toUri());
+                index = submissionIndices.get(fileObject.toUri());
             }
             logger.error("{}", diagnosticItem);
-            return new ParsingException(file, diagnosticItem.getMessage(Locale.getDefault()));
-        }).toList();
+            ParsingException exception = new ParsingException(file, diagnosticItem.getMessage(Locale.getDefault()));
+            if (index != null) {
+                parsingExceptions.get(index).add(exception);
+            } else {
+                parsingExceptions.forEach(exceptions -> exceptions.add(exception));
+            }
+        });
+    }
+
+    /**
+     * Source file object whose content is read via the {@link SourceLoader}, e.g. from an archive.
+     */
+    private static class ProvidedJavaFileObject extends SimpleJavaFileObject {
+        private final File file;
+
+        ProvidedJavaFileObject(File file) {
+            super(file.getAbsoluteFile().toURI(), Kind.SOURCE);
+            this.file = file;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+            return SourceLoader.readString(file);
+        }
     }
 
 }
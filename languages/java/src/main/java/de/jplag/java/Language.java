@@ -7,6 +7,7 @@ import java.util.Set;
 import org.kohsuke.MetaInfServices;
 
 import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
 import de.jplag.Token;
 
 /**
@@ -16,12 +17,6 @@ import de.jplag.Token;
 public class Language implements de.jplag.Language {
     private static final String IDENTIFIER = "java";
 
-    private final Parser parser;
-
-    public Language() {
-        parser = new Parser();
-    }
-
     @Override
     public String[] suffixes() {
         return new String[] {".java", ".JAVA"};
@@ -44,6 +39,21 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return this.parser.parse(files);
+        return new Parser().parse(files);
+    }
+
+    @Override
+    public List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        return Parser.parseBatch(fileSets);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsBatchParsing() {
+        return true;
     }
 }
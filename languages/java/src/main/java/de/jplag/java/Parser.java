@@ -7,6 +7,7 @@ import java.util.Set;
 
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
 import de.jplag.Token;
 import de.jplag.TokenType;
 
@@ -26,6 +27,30 @@ public class Parser extends AbstractParser {
         return tokens;
     }
 
+    /**
+     * Parses the files of several submissions with a single compilation task.
+     * @param fileSets are the files of each submission.
+     * @return the result of each submission, in the order of the file sets.
+     */
+    public static List<ParsingResult> parseBatch(List<Set<File>> fileSets) {
+        List<Parser> parsers = new ArrayList<>(fileSets.size());
+        for (int i = 0; i < fileSets.size(); i++) {
+            Parser parser = new Parser();
+            parser.tokens = new ArrayList<>();
+            parsers.add(parser);
+        }
+        List<List<ParsingException>> parsingExceptions = new JavacAdapter().parseBatch(fileSets, parsers);
+        List<ParsingResult> results = new ArrayList<>(fileSets.size());
+        for (int i = 0; i < fileSets.size(); i++) {
+            if (parsingExceptions.get(i).isEmpty()) {
+                results.add(ParsingResult.success(parsers.get(i).tokens));
+            } else {
+                results.add(ParsingResult.failure(ParsingException.wrappingExceptions(parsingExceptions.get(i))));
+            }
+        }
+        return results;
+    }
+
     public void add(TokenType type, File file, long line, long column, long length) {
         add(new Token(type, file, (int) line, (int) column, (int) length));
     }
@@ -0,0 +1,96 @@
+package de.jplag.java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
+
+/**
+ * Benchmark of parsing submissions in batches with a single compilation task per batch compared to parsing each
+ * submission with its own compilation task.
+ */
+@Disabled("Not an actual test. Used to measure the parsing time of many submissions")
+class JavaBatchParsingBenchmarkTest extends AbstractJavaLanguageTest {
+    private static final Logger logger = LoggerFactory.getLogger(JavaBatchParsingBenchmarkTest.class);
+
+    private static final int NUMBER_OF_SUBMISSIONS = 500;
+    private static final int BATCH_SIZE = 32;
+    private static final int RUNS = 5;
+
+    private final Language language = new Language();
+    private Path submissionDirectory;
+
+    @BeforeEach
+    void createSubmissions() throws IOException {
+        submissionDirectory = Files.createTempDirectory("jplag-javac-benchmark");
+    }
+
+    @AfterEach
+    void deleteSubmissions() throws IOException {
+        try (Stream<Path> paths = Files.walk(submissionDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void benchmarkBatchParsing() throws IOException, ParsingException {
+        List<Set<File>> fileSets = copySubmissions();
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            int separateTokens = 0;
+            for (Set<File> files : fileSets) {
+                separateTokens += language.parse(files).size();
+            }
+            long separateDuration = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int batchTokens = 0;
+            for (int i = 0; i < fileSets.size(); i += BATCH_SIZE) {
+                for (ParsingResult result : language.parseBatch(fileSets.subList(i, Math.min(fileSets.size(), i + BATCH_SIZE)))) {
+                    batchTokens += result.getTokens().size();
+                }
+            }
+            long batchDuration = System.nanoTime() - start;
+
+            assertEquals(separateTokens, batchTokens);
+            logger.info("Run {}: parsed {} submissions separately in {} ms and in batches of {} in {} ms", run, fileSets.size(),
+                    separateDuration / 1_000_000, BATCH_SIZE, batchDuration / 1_000_000);
+        }
+    }
+
+    /**
+     * Copies the test files into distinct submission directories, as files shared by submissions are not parsed in batches.
+     */
+    private List<Set<File>> copySubmissions() throws IOException {
+        File[] sourceFiles = baseDirectory.listFiles((directory, name) -> name.endsWith(".java"));
+        List<Set<File>> fileSets = new ArrayList<>(NUMBER_OF_SUBMISSIONS);
+        for (int i = 0; i < NUMBER_OF_SUBMISSIONS; i++) {
+            Path submission = Files.createDirectory(submissionDirectory.resolve("submission" + i));
+            List<File> files = new ArrayList<>(sourceFiles.length);
+            for (File sourceFile : sourceFiles) {
+                files.add(Files.copy(sourceFile.toPath(), submission.resolve(sourceFile.getName())).toFile());
+            }
+            fileSets.add(Set.copyOf(files));
+        }
+        return fileSets;
+    }
+}
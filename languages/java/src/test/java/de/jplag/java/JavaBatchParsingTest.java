@@ -0,0 +1,71 @@
+package de.jplag.java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.ParsingException;
+import de.jplag.ParsingResult;
+import de.jplag.Token;
+
+/**
+ * Tests parsing the files of several submissions in one batch.
+ */
+class JavaBatchParsingTest extends AbstractJavaLanguageTest {
+    private final Language language = new Language();
+
+    @Test
+    @DisplayName("Test that a batch yields the tokens of parsing each submission on its own.")
+    void testBatchEqualsSeparateParsing() throws ParsingException {
+        List<Set<File>> fileSets = List.of(Set.of(file("Try.java"), file("TryWithResource.java")), Set.of(file("Compact.java")),
+                Set.of(file("Verbose.java"), file("IfWithBraces.java"), file("IfWithoutBraces.java")));
+
+        List<ParsingResult> results = language.parseBatch(fileSets);
+
+        assertEquals(fileSets.size(), results.size());
+        for (int i = 0; i < fileSets.size(); i++) {
+            assertEquals(describe(language.parse(fileSets.get(i))), describe(results.get(i).getTokens()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test that syntax errors only invalidate the submission of the erroneous file.")
+    void testErrorsAreAttributedToSubmission() throws IOException, ParsingException {
+        Path directory = Files.createTempDirectory("jplag-batch");
+        File erroneousFile = Files.writeString(directory.resolve("Erroneous.java"), "class Erroneous { void method( }").toFile();
+        try {
+            List<ParsingResult> results = language.parseBatch(List.of(Set.of(file("Try.java")), Set.of(erroneousFile), Set.of(file("Compact.java"))));
+
+            assertTrue(results.get(0).isSuccessful());
+            assertFalse(results.get(1).isSuccessful());
+            assertTrue(results.get(2).isSuccessful());
+            assertEquals(describe(language.parse(Set.of(file("Compact.java")))), describe(results.get(2).getTokens()));
+        } finally {
+            Files.delete(erroneousFile.toPath());
+            Files.delete(directory);
+        }
+    }
+
+    private File file(String fileName) {
+        return new File(baseDirectory, fileName);
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        List<String> descriptions = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            descriptions.add(token.getType() + "@" + token.getFile() + ":" + token.getLine() + ":" + token.getColumn() + ":" + token.getLength());
+        }
+        return descriptions;
+    }
+}
@@ -1,14 +1,11 @@
 package de.jplag.kotlin;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -16,10 +13,16 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.kotlin.grammar.KotlinLexer;
 import de.jplag.kotlin.grammar.KotlinParser;
 
 public class KotlinParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<KotlinLexer, KotlinParser> sllFirstParserPool = new AntlrParserPool<>(KotlinLexer::new, KotlinParser::new, true);
+    private static final AntlrParserPool<KotlinLexer, KotlinParser> llParserPool = new AntlrParserPool<>(KotlinLexer::new, KotlinParser::new, false);
+
+    private final AntlrParserPool<KotlinLexer, KotlinParser> parserPool;
+
     private File currentFile;
     private List<Token> tokens;
 
@@ -27,7 +30,16 @@ public class KotlinParserAdapter extends AbstractParser {
      * Creates the KotlinParserAdapter
      */
     public KotlinParserAdapter() {
-        super();
+        this(true);
+    }
+
+    /**
+     * Creates an adapter that only parses with LL prediction if SLL prediction is disabled, which is the reference to
+     * check that SLL prediction yields the same tokens.
+     * @param trySllPredictionFirst specifies whether files are parsed with SLL prediction before LL prediction.
+     */
+    KotlinParserAdapter(boolean trySllPredictionFirst) {
+        parserPool = trySllPredictionFirst ? sllFirstParserPool : llParserPool;
     }
 
     /**
@@ -45,14 +57,10 @@ public class KotlinParserAdapter extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            KotlinLexer lexer = new KotlinLexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            KotlinParser parser = new KotlinParser(tokenStream);
-
-            ParserRuleContext entryContext = parser.kotlinFile();
+            ParserRuleContext entryContext = parserPool.parse(file, KotlinParser::kotlinFile);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             JPlagKotlinListener listener = new JPlagKotlinListener(this);
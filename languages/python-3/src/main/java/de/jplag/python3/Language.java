@@ -14,12 +14,6 @@ public class Language implements de.jplag.Language {
 
     private static final String IDENTIFIER = "python3";
 
-    private final Parser parser;
-
-    public Language() {
-        parser = new Parser();
-    }
-
     @Override
     public String[] suffixes() {
         return new String[] {".py"};
@@ -42,6 +36,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return this.parser.parse(files);
+        return new Parser().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
@@ -1,14 +1,11 @@
 package de.jplag.python3;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
@@ -16,11 +13,14 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.python3.grammar.Python3Lexer;
 import de.jplag.python3.grammar.Python3Parser;
 import de.jplag.python3.grammar.Python3Parser.File_inputContext;
 
 public class Parser extends AbstractParser {
+    private static final AntlrParserPool<Python3Lexer, Python3Parser> parserPool = new AntlrParserPool<>(Python3Lexer::new, Python3Parser::new,
+            false);
 
     private List<Token> tokens;
     private File currentFile;
@@ -43,18 +43,10 @@ public class Parser extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream fileInputStream = new FileInputStream((file))) {
+        try {
             currentFile = file;
 
-            // create a lexer that feeds off of input CharStream
-            Python3Lexer lexer = new Python3Lexer(CharStreams.fromStream(fileInputStream));
-
-            // create a buffer of tokens pulled from the lexer
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-            // create a parser that feeds off the tokens buffer
-            Python3Parser parser = new Python3Parser(tokens);
-            File_inputContext in = parser.file_input();
+            File_inputContext in = parserPool.parse(file, Python3Parser::file_input);
 
             ParseTreeWalker ptw = new ParseTreeWalker();
             for (int i = 0; i < in.getChildCount(); i++) {
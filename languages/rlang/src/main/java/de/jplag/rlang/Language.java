@@ -19,11 +19,6 @@ public class Language implements de.jplag.Language {
     private static final String IDENTIFIER = "rlang";
     private static final int DEFAULT_MIN_TOKEN_MATCH = 8;
     private static final String[] FILE_EXTENSION = {".R", ".r"};
-    private final RParserAdapter parserAdapter;
-
-    public Language() {
-        this.parserAdapter = new RParserAdapter();
-    }
 
     @Override
     public String[] suffixes() {
@@ -47,6 +42,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return parserAdapter.parse(files);
+        return new RParserAdapter().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
@@ -1,14 +1,11 @@
 package de.jplag.rlang;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -17,6 +14,7 @@ import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenType;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.rlang.grammar.RFilter;
 import de.jplag.rlang.grammar.RLexer;
 import de.jplag.rlang.grammar.RParser;
@@ -26,6 +24,10 @@ import de.jplag.rlang.grammar.RParser;
  * selected tokens on to the main program.
  */
 public class RParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<RLexer, RParser> sllFirstParserPool = new AntlrParserPool<>(RLexer::new, RParser::new, true);
+    private static final AntlrParserPool<RLexer, RParser> llParserPool = new AntlrParserPool<>(RLexer::new, RParser::new, false);
+
+    private final AntlrParserPool<RLexer, RParser> parserPool;
 
     private File currentFile;
     private List<Token> tokens;
@@ -34,7 +36,16 @@ public class RParserAdapter extends AbstractParser {
      * Creates the RParserAdapter
      */
     public RParserAdapter() {
-        super();
+        this(true);
+    }
+
+    /**
+     * Creates an adapter that only parses with LL prediction if SLL prediction is disabled, which is the reference to
+     * check that SLL prediction yields the same tokens.
+     * @param trySllPredictionFirst specifies whether files are parsed with SLL prediction before LL prediction.
+     */
+    RParserAdapter(boolean trySllPredictionFirst) {
+        parserPool = trySllPredictionFirst ? sllFirstParserPool : llParserPool;
     }
 
     /**
@@ -52,21 +63,11 @@ public class RParserAdapter extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            // create a lexer, a parser and a buffer between them.
-            RLexer lexer = new RLexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-            RFilter filter = new RFilter(tokens);
-            filter.stream();
-            tokens.seek(0);
-
-            RParser parser = new RParser(tokens);
-
             // Create a tree walker and the entry context defined by the parser grammar
-            ParserRuleContext entryContext = parser.prog();
+            ParserRuleContext entryContext = parserPool.parse(file, tokenStream -> new RFilter(tokenStream).stream(), RParser::prog);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             // Walk over the parse tree:
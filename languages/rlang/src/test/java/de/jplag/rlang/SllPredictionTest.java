@@ -0,0 +1,35 @@
+package de.jplag.rlang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.jplag.ParsingException;
+import de.jplag.Token;
+
+/**
+ * Checks that parsing with SLL prediction first yields the same tokens as parsing with LL prediction only, which
+ * justifies enabling SLL prediction for this grammar.
+ */
+class SllPredictionTest {
+    private final File testFileLocation = Path.of("src", "test", "resources", "de", "jplag", "rlang").toFile();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Complete.R", "Game.R"})
+    void testSllPredictionYieldsLlTokens(String fileName) throws ParsingException {
+        Set<File> files = Set.of(new File(testFileLocation, fileName));
+        List<String> llTokens = describe(new RParserAdapter(false).parse(files));
+        List<String> sllTokens = describe(new RParserAdapter(true).parse(files));
+        assertEquals(llTokens, sllTokens);
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream().map(token -> token.getType() + "@" + token.getLine() + ":" + token.getColumn() + "+" + token.getLength()).toList();
+    }
+}
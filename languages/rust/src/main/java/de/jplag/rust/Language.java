@@ -20,12 +20,6 @@ public class Language implements de.jplag.Language {
     private static final String IDENTIFIER = "rust";
     private static final int MINIMUM_TOKEN_MATCH = 8;
 
-    private final RustParserAdapter parserAdapter;
-
-    public Language() {
-        this.parserAdapter = new RustParserAdapter();
-    }
-
     @Override
     public String[] suffixes() {
         return FILE_EXTENSIONS;
@@ -48,6 +42,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return parserAdapter.parse(files);
+        return new RustParserAdapter().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
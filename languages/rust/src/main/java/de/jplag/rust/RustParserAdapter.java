@@ -1,14 +1,11 @@
 package de.jplag.rust;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -16,10 +13,12 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.rust.grammar.RustLexer;
 import de.jplag.rust.grammar.RustParser;
 
 public class RustParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<RustLexer, RustParser> parserPool = new AntlrParserPool<>(RustLexer::new, RustParser::new, false);
 
     private File currentFile;
     private List<Token> tokens;
@@ -39,17 +38,11 @@ public class RustParserAdapter extends AbstractParser {
     }
 
     private void parseFile(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            // create a lexer, a parser and a buffer between them.
-            RustLexer lexer = new RustLexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-
-            RustParser parser = new RustParser(tokenStream);
-
             // Create a tree walker and the entry context defined by the parser grammar
-            ParserRuleContext entryContext = parser.crate();
+            ParserRuleContext entryContext = parserPool.parse(file, RustParser::crate);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             // Walk over the parse tree:
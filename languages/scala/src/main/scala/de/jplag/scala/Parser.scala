@@ -1,9 +1,10 @@
 package de.jplag.scala
 
 import de.jplag.scala.ScalaTokenType._
-import de.jplag.{AbstractParser, ParsingException, Token}
+import de.jplag.{AbstractParser, ParsingException, SourceLoader, Token}
 
 import java.io.File
+import java.nio.charset.CodingErrorAction
 import scala.collection.mutable.ListBuffer
 import scala.meta._
 
@@ -343,8 +344,7 @@ class Parser extends AbstractParser {
         currentFile = file
 
         try {
-            val bytes = java.nio.file.Files.readAllBytes(file.toPath)
-            val text = new String(bytes, "UTF-8")
+            val text = SourceLoader.readString(file, CodingErrorAction.REPLACE)
             val input = Input.VirtualFile(file.getPath, text)
             val ast = input.parse[Source].get
             traverser(ast)
@@ -20,11 +20,6 @@ public class Language implements de.jplag.Language {
     private static final String NAME = "Swift Parser";
     private static final int DEFAULT_MIN_TOKEN_MATCH = 8;
     private static final String[] FILE_EXTENSIONS = {".swift"};
-    private final SwiftParserAdapter parserAdapter;
-
-    public Language() {
-        this.parserAdapter = new SwiftParserAdapter();
-    }
 
     @Override
     public String[] suffixes() {
@@ -48,6 +43,11 @@ public class Language implements de.jplag.Language {
 
     @Override
     public List<Token> parse(Set<File> files) throws ParsingException {
-        return parserAdapter.parse(files);
+        return new SwiftParserAdapter().parse(files);
+    }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
     }
 }
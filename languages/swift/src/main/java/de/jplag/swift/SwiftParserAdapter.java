@@ -1,14 +1,11 @@
 package de.jplag.swift;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
@@ -16,10 +13,12 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.antlr.AntlrParserPool;
 import de.jplag.swift.grammar.Swift5Lexer;
 import de.jplag.swift.grammar.Swift5Parser;
 
 public class SwiftParserAdapter extends AbstractParser {
+    private static final AntlrParserPool<Swift5Lexer, Swift5Parser> parserPool = new AntlrParserPool<>(Swift5Lexer::new, Swift5Parser::new, false);
 
     public static final int NOT_SET = -1;
     private File currentFile;
@@ -47,14 +46,10 @@ public class SwiftParserAdapter extends AbstractParser {
     }
 
     private void parse(File file) throws ParsingException {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
+        try {
             currentFile = file;
 
-            Swift5Lexer lexer = new Swift5Lexer(CharStreams.fromStream(inputStream));
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
-            Swift5Parser parser = new Swift5Parser(tokenStream);
-
-            ParserRuleContext entryContext = parser.top_level();
+            ParserRuleContext entryContext = parserPool.parse(file, Swift5Parser::top_level);
             ParseTreeWalker treeWalker = new ParseTreeWalker();
 
             JPlagSwiftListener listener = new JPlagSwiftListener(this);
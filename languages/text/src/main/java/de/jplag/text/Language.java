@@ -21,7 +21,15 @@ public class Language implements de.jplag.Language {
     private final ParserAdapter parserAdapter;
 
     public Language() {
-        parserAdapter = new ParserAdapter();
+        this(false);
+    }
+
+    /**
+     * @param useCoreNlpPipeline specifies whether files are annotated by a CoreNLP pipeline instead of being tokenized by
+     * the faster streaming tokenizer, which yields the same tokens.
+     */
+    public Language(boolean useCoreNlpPipeline) {
+        parserAdapter = new ParserAdapter(useCoreNlpPipeline);
     }
 
     @Override
@@ -48,4 +56,9 @@ public class Language implements de.jplag.Language {
     public List<Token> parse(Set<File> files) throws ParsingException {
         return parserAdapter.parse(files);
     }
+
+    @Override
+    public boolean supportsParallelParsing() {
+        return true;
+    }
 }
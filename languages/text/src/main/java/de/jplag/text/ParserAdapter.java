@@ -1,8 +1,11 @@
 package de.jplag.text;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -10,77 +13,88 @@ import java.util.Set;
 
 import de.jplag.AbstractParser;
 import de.jplag.ParsingException;
+import de.jplag.SourceLoader;
 import de.jplag.Token;
 
 import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.pipeline.CoreDocument;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.process.AbstractTokenizer;
+import edu.stanford.nlp.process.CoreLabelTokenFactory;
+import edu.stanford.nlp.process.PTBTokenizer;
 
+/**
+ * Parser adapter for natural language text. By default, files are tokenized by a streaming PTB tokenizer that reads the
+ * file and reports line breaks as tokens, thus neither the file content nor an annotated document is held in memory.
+ * Alternatively, files are annotated by a CoreNLP pipeline that is shared across all parsers. Both modes reject files
+ * that are not valid UTF-8.
+ */
 public class ParserAdapter extends AbstractParser {
 
     private static final char LF = '\n';
     private static final char CR = '\r';
     private static final String ANNOTATORS_KEY = "annotators";
     private static final String ANNOTATORS_VALUE = "tokenize";
-    private final StanfordCoreNLP pipeline;
+    private static final String TOKENIZER_OPTIONS = "invertible=true,tokenizeNLs=true";
+
+    private final boolean useCoreNlpPipeline;
 
-    private List<Token> tokens;
-    private File currentFile;
-    private int currentLine;
     /**
-     * The position of the current line break in the content string
+     * Creates a parser adapter that uses the streaming tokenizer.
      */
-    private int currentLineBreakIndex;
-
     public ParserAdapter() {
-        Properties properties = new Properties();
-        properties.put(ANNOTATORS_KEY, ANNOTATORS_VALUE);
-        this.pipeline = new StanfordCoreNLP(properties);
+        this(false);
+    }
+
+    /**
+     * @param useCoreNlpPipeline specifies whether files are annotated by the shared CoreNLP pipeline instead of being
+     * tokenized by the streaming tokenizer.
+     */
+    public ParserAdapter(boolean useCoreNlpPipeline) {
+        this.useCoreNlpPipeline = useCoreNlpPipeline;
     }
 
     public List<Token> parse(Set<File> files) throws ParsingException {
-        tokens = new ArrayList<>();
+        List<Token> tokens = new ArrayList<>();
         for (File file : files) {
             logger.trace("Parsing file {}", file);
-            parseFile(file);
+            TokenCollector collector = new TokenCollector(file, tokens);
+            if (useCoreNlpPipeline) {
+                annotateFile(file, collector);
+            } else {
+                tokenizeFile(file, collector);
+            }
             tokens.add(Token.fileEnd(file));
         }
         return tokens;
     }
 
-    private void parseFile(File file) throws ParsingException {
-        this.currentFile = file;
-        this.currentLine = 1; // lines start at 1
-        this.currentLineBreakIndex = 0;
+    private void tokenizeFile(File file, TokenCollector collector) throws ParsingException {
+        // the decoder reports malformed input like SourceLoader.readString instead of replacing it
+        try (Reader reader = new BufferedReader(new InputStreamReader(SourceLoader.openStream(file), StandardCharsets.UTF_8.newDecoder()))) {
+            PTBTokenizer<CoreLabel> tokenizer = new PTBTokenizer<>(reader, new CoreLabelTokenFactory(), TOKENIZER_OPTIONS);
+            while (tokenizer.hasNext()) {
+                CoreLabel token = tokenizer.next();
+                if (AbstractTokenizer.NEWLINE_TOKEN.equals(token.word())) {
+                    collector.lineBreakAt(token.endPosition() - 1); // the index of the LF for CRLF
+                } else if (isWord(token)) {
+                    collector.add(token);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ParsingException(file, e.getMessage(), e);
+        }
+    }
+
+    private void annotateFile(File file, TokenCollector collector) throws ParsingException {
         String content = readFile(file);
         int lastTokenEnd = 0;
-        CoreDocument coreDocument = pipeline.processToCoreDocument(content);
+        CoreDocument coreDocument = SharedPipeline.INSTANCE.processToCoreDocument(content);
         for (CoreLabel token : coreDocument.tokens()) {
-            advanceLineBreaks(content, lastTokenEnd, token.beginPosition());
+            collector.advanceLineBreaks(content, lastTokenEnd, token.beginPosition());
             lastTokenEnd = token.endPosition();
             if (isWord(token)) {
-                addToken(token);
-            }
-        }
-    }
-
-    /**
-     * Scan for line breaks and increase {@link #currentLine} and {@link #currentLineBreakIndex} accordingly.
-     * @param content the file content
-     * @param lastTokenEnd the end position of the last token
-     * @param nextTokenBegin the begin position of the next token
-     */
-    private void advanceLineBreaks(String content, int lastTokenEnd, int nextTokenBegin) {
-        for (int i = lastTokenEnd; i < nextTokenBegin; i++) {
-            if (content.charAt(i) == LF) {
-                currentLine++;
-                currentLineBreakIndex = i;
-            } else if (content.charAt(i) == CR) {
-                if (i + 1 < content.length() && content.charAt(i + 1) == LF) { // CRLF
-                    i++; // skip following LF
-                }
-                currentLine++;
-                currentLineBreakIndex = i;
+                collector.add(token);
             }
         }
     }
@@ -91,18 +105,74 @@ public class ParserAdapter extends AbstractParser {
         return text.chars().anyMatch(it -> Character.isAlphabetic(it) || Character.isDigit(it));
     }
 
-    private void addToken(CoreLabel label) {
-        String text = label.originalText();
-        int column = label.beginPosition() - currentLineBreakIndex;
-        int length = label.endPosition() - label.beginPosition();
-        tokens.add(new Token(new TextTokenType(text), currentFile, currentLine, column, length));
-    }
-
     private String readFile(File file) throws ParsingException {
         try {
-            return Files.readString(file.toPath());
+            return SourceLoader.readString(file);
         } catch (IOException e) {
             throw new ParsingException(file, e.getMessage(), e);
         }
     }
+
+    /**
+     * Collects the tokens of a single file and tracks the current line, thus parsers can be used concurrently.
+     */
+    private static final class TokenCollector {
+        private final File file;
+        private final List<Token> tokens;
+        private int currentLine = 1; // lines start at 1
+        /**
+         * The position of the current line break in the file content
+         */
+        private int currentLineBreakIndex;
+
+        TokenCollector(File file, List<Token> tokens) {
+            this.file = file;
+            this.tokens = tokens;
+        }
+
+        /**
+         * Scan for line breaks and increase {@link #currentLine} and {@link #currentLineBreakIndex} accordingly.
+         * @param content the file content
+         * @param lastTokenEnd the end position of the last token
+         * @param nextTokenBegin the begin position of the next token
+         */
+        void advanceLineBreaks(String content, int lastTokenEnd, int nextTokenBegin) {
+            for (int i = lastTokenEnd; i < nextTokenBegin; i++) {
+                if (content.charAt(i) == LF) {
+                    lineBreakAt(i);
+                } else if (content.charAt(i) == CR) {
+                    if (i + 1 < content.length() && content.charAt(i + 1) == LF) { // CRLF
+                        i++; // skip following LF
+                    }
+                    lineBreakAt(i);
+                }
+            }
+        }
+
+        void lineBreakAt(int index) {
+            currentLine++;
+            currentLineBreakIndex = index;
+        }
+
+        void add(CoreLabel label) {
+            String text = label.originalText();
+            int column = label.beginPosition() - currentLineBreakIndex;
+            int length = label.endPosition() - label.beginPosition();
+            tokens.add(new Token(new TextTokenType(text), file, currentLine, column, length));
+        }
+    }
+
+    /**
+     * Holder of the pipeline, which is created on first use. The pipeline is expensive to create but can annotate documents
+     * concurrently.
+     */
+    private static final class SharedPipeline {
+        private static final StanfordCoreNLP INSTANCE = createPipeline();
+
+        private static StanfordCoreNLP createPipeline() {
+            Properties properties = new Properties();
+            properties.put(ANNOTATORS_KEY, ANNOTATORS_VALUE);
+            return new StanfordCoreNLP(properties);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package de.jplag.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.jplag.ParsingException;
+import de.jplag.Token;
+
+/**
+ * Tests that the streaming tokenizer and the CoreNLP pipeline report the same token positions for all line endings.
+ */
+class ParserAdapterTest {
+    private static final String TEXT = String.join("\n", "The quick brown fox", "jumps over the lazy dog.", "", "  It was, indeed, quick!",
+            "Numbers like 42 count as words.", "");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r\n", "\r"})
+    void testStreamingAndPipelinePositionsAreEqual(String lineSeparator, @TempDir Path directory) throws IOException, ParsingException {
+        File lfFile = write(directory, "lf.txt", TEXT);
+        File file = write(directory, "text.txt", TEXT.replace("\n", lineSeparator));
+
+        List<String> expectedPositions = positionsOf(new ParserAdapter(false).parse(Set.of(lfFile)));
+        assertEquals(expectedPositions, positionsOf(new ParserAdapter(false).parse(Set.of(file))));
+        assertEquals(expectedPositions, positionsOf(new ParserAdapter(true).parse(Set.of(file))));
+    }
+
+    private static File write(Path directory, String fileName, String content) throws IOException {
+        return Files.writeString(directory.resolve(fileName), content).toFile();
+    }
+
+    private static List<String> positionsOf(List<Token> tokens) {
+        return tokens.stream().map(token -> token.getType().getDescription() + "@" + token.getLine() + ":" + token.getColumn() + "+" + token.getLength())
+                .toList();
+    }
+}
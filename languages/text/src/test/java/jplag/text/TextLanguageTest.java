@@ -1,6 +1,7 @@
 package jplag.text;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
@@ -52,6 +53,21 @@ class TextLanguageTest {
         assertEquals(158, new HashSet<>(tokenTypes).size());
     }
 
+    @Test
+    void testPipelineYieldsSameTokensForJavaDoc() throws ParsingException {
+        Set<File> files = Set.of(new File(BASE_PATH.toFile(), TEST_SUBJECT));
+        assertEquals(describe(new Language(true).parse(files)), describe(language.parse(files)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"first line\nsecond, line\r\nthird line\rfourth-line", "  \"quoted\" words\n\n\n(don't) end.", "\r\n\r\n"})
+    void testPipelineYieldsSameTokens(String input, @TempDir Path tempDir) throws IOException, ParsingException {
+        Path filePath = tempDir.resolve("input.txt");
+        Files.writeString(filePath, input);
+        Set<File> files = Set.of(filePath.toFile());
+        assertEquals(describe(new Language(true).parse(files)), describe(language.parse(files)));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"\n", "\r", "\r\n",})
     void testLineBreakInputs(String input, @TempDir Path tempDir) throws IOException, ParsingException {
@@ -70,4 +86,21 @@ class TextLanguageTest {
         assertEquals(2, result.get(0).getLine());
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testMalformedInputIsRejected(boolean useCoreNlpPipeline, @TempDir Path tempDir) throws IOException {
+        Path filePath = tempDir.resolve("input.txt");
+        Files.write(filePath, new byte[] {'w', 'o', 'r', 'd', ' ', (byte) 0xC3, '(', '\n'});
+        Set<File> files = Set.of(filePath.toFile());
+        assertThrows(ParsingException.class, () -> new Language(useCoreNlpPipeline).parse(files));
+    }
+
+    @Test
+    void testParallelParsingIsSupported() {
+        assertTrue(language.supportsParallelParsing());
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream().map(token -> token.getType() + "@" + token.getLine() + ":" + token.getColumn() + "+" + token.getLength()).toList();
+    }
 }
@@ -1,5 +1,11 @@
+import { ComparisonListElement } from "./ComparisonListElement";
+
 export type Cluster = {
     averageSimilarity: number,
     strength: number,
-    members: Array<string>
+    members: Array<string>,
+    /**
+     * Most similar pairs of members according to the clustering metric, at most 100. Missing in reports of older versions.
+     */
+    memberSimilarities?: Array<ComparisonListElement>
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+/**
+ * Paged index of the comparisons of a report. For each metric, the comparisons are sorted by their similarity and split
+ * into pages of a fixed size, which are loaded one at a time.
+ */
+export type ComparisonIndex = {
+    pageSize: number,
+    numberOfComparisons: number,
+    numberOfPages: number,
+    metrics: Array<string>
+}
@@ -6,5 +6,9 @@ export type ComparisonListElement = {
     id: number,
     firstSubmissionId: string,
     secondSubmissionId: string,
-    similarity: number
+    similarity: number,
+    /**
+     * Name of the comparison file, only known for comparisons listed in a comparison index.
+     */
+    fileName?: string
 }
\ No newline at end of file
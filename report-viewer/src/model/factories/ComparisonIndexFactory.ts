@@ -0,0 +1,34 @@
+import { ComparisonIndex } from "../ComparisonIndex";
+import { ComparisonListElement } from "../ComparisonListElement";
+
+export class ComparisonIndexFactory {
+  static getComparisonIndex(json: Record<string, unknown>): ComparisonIndex {
+    return {
+      pageSize: json.page_size as number,
+      numberOfComparisons: json.number_of_comparisons as number,
+      numberOfPages: json.number_of_pages as number,
+      metrics: json.metrics as Array<string>,
+    };
+  }
+
+  /**
+   * Converts a page of the comparison index. The ids of the comparisons are their ranks among all comparisons, and each
+   * comparison keeps the name of its comparison file.
+   * @param json The entries of the page.
+   * @param page The number of the page, starting at 0.
+   * @param index The comparison index the page belongs to.
+   */
+  static getPage(
+    json: Array<Record<string, unknown>>,
+    page: number,
+    index: ComparisonIndex
+  ): Array<ComparisonListElement> {
+    return json.map((jsonComparison, position) => ({
+      id: page * index.pageSize + position + 1,
+      firstSubmissionId: jsonComparison.first_submission as string,
+      secondSubmissionId: jsonComparison.second_submission as string,
+      similarity: jsonComparison.similarity as number,
+      fileName: jsonComparison.file_name as string,
+    }));
+  }
+}
@@ -63,6 +63,14 @@ export class OverviewFactory {
           averageSimilarity: cluster.average_similarity as number,
           strength: cluster.strength as number,
           members: cluster.members as Array<string>,
+          memberSimilarities: (cluster.member_similarities as Array<Record<string, unknown>> | undefined)?.map(
+            (jsonComparison, index) => ({
+              id: index + 1,
+              firstSubmissionId: jsonComparison.first_submission as string,
+              secondSubmissionId: jsonComparison.second_submission as string,
+              similarity: jsonComparison.similarity as number,
+            })
+          ),
         };
         clusters.push(newCluster);
       });
@@ -1,5 +1,7 @@
 import "./public-path"
 import {createRouter, createWebHistory, RouteRecordRaw} from "vue-router";
+import store from "@/store/store";
+import {extractComparison} from "@/utils/ReportArchive";
 
 /**
  * Router containing the navigation destinations.
@@ -20,6 +22,12 @@ const routes: Array<RouteRecordRaw> = [
     name: "ComparisonView",
     component: () => import('@/views/ComparisonView.vue'),
     props: true,
+    // Extracts the comparison and its submission files from the report zip before the view is created.
+    beforeEnter: async (to) => {
+      if (store.state.zip) {
+        await extractComparison(to.params.firstId as string, to.params.secondId as string);
+      }
+    },
   },
   {
     path: "/error",
@@ -137,6 +137,24 @@ const store = createStore<State>({
     ) {
       state.submissionIdsToComparisonFileName = map;
     },
+    /**
+     * Adds the file name of a comparison to the lookup, e.g. once it was read from the comparison index.
+     */
+    saveComparisonFileName(
+      state: State,
+      comparison: { firstId: string; secondId: string; fileName: string }
+    ) {
+      const lookup = state.submissionIdsToComparisonFileName;
+      for (const [id, otherId] of [
+        [comparison.firstId, comparison.secondId],
+        [comparison.secondId, comparison.firstId],
+      ]) {
+        if (!lookup.has(id)) {
+          lookup.set(id, new Map());
+        }
+        lookup.get(id)?.set(otherId, comparison.fileName);
+      }
+    },
     removeAnonymous(state, id) {
       for (let i = 0; i < id.length; i++) {
         state.anonymous.delete(id[i]);
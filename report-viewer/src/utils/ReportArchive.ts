@@ -0,0 +1,243 @@
+import jszip from "jszip";
+import path from "path";
+import slash from "slash";
+import store from "@/store/store";
+import { ComparisonIndex } from "@/model/ComparisonIndex";
+import { ComparisonListElement } from "@/model/ComparisonListElement";
+import { ComparisonIndexFactory } from "@/model/factories/ComparisonIndexFactory";
+
+const OVERVIEW_FILE_NAME = "overview.json";
+const COMPARISON_INDEX_FOLDER = "comparison-index/";
+const COMPARISON_INDEX_FILE_NAME = COMPARISON_INDEX_FOLDER + "index.json";
+const COMPARISON_LOOKUP_FOLDER = COMPARISON_INDEX_FOLDER + "lookup/";
+const SUBMISSIONS_FOLDER = "files/";
+const BLOBS_FOLDER = "blobs/";
+const MANIFEST_FILE_SUFFIX = ".json";
+
+/**
+ * Zip archive of the loaded report. Its entries are only extracted into the store when they are needed, as extracting
+ * all comparisons of a large report exhausts the memory of the browser tab.
+ */
+let archive: jszip | undefined = undefined;
+/**
+ * Original names of the report entries by their unix file names.
+ */
+let entryNames = new Map<string, string>();
+/**
+ * Original names of the submission file entries by submission.
+ */
+let submissionEntryNames = new Map<string, Array<string>>();
+/**
+ * Folder of the report in the archive, which is empty if the report is at the root of the archive.
+ */
+let reportRoot = "";
+
+const extractRootName = (filePath: path.ParsedPath) => {
+  const folders = filePath.dir.split("/");
+  return folders[0];
+};
+const extractSubmissionFileName = (filePath: path.ParsedPath) => {
+  const folders = filePath.dir.split("/");
+  const rootName = folders[0];
+  let submissionFolderIndex = -1;
+  if(rootName === "files") {
+    submissionFolderIndex = folders.findIndex(
+        (folder) => folder === "files"
+    );
+  }else {
+    submissionFolderIndex = folders.findIndex(
+        (folder) => folder === "submissions"
+    );
+  }
+  return folders[submissionFolderIndex + 1];
+};
+const extractFileNameWithFullPath = (filePath: path.ParsedPath, originalFileName: string) => {
+  let fullPath = "";
+  const rootName = extractRootName(filePath);
+  const filesOrSubmissionsIndex_filePath = filePath.dir.indexOf(rootName ==="files" ? "files" : "submissions");
+  const filesOrSubmissionsIndex_originalFileName = originalFileName.indexOf(rootName === "files" ? "files" : "submissions");
+  const unixSubfolderPathAfterSubmissions = filePath.dir.substring(filesOrSubmissionsIndex_filePath + (rootName === "files" ? "files".length : "submissions".length) + 1);
+  const originalPathWithoutSubmissions = originalFileName.substring(filesOrSubmissionsIndex_originalFileName + (rootName === "files" ? "files".length : "submissions".length));
+  if(originalPathWithoutSubmissions.charAt(0)==='\\'){
+       fullPath = (unixSubfolderPathAfterSubmissions + path.sep + filePath.base).replaceAll('/','\\');
+    }else {
+       fullPath = (unixSubfolderPathAfterSubmissions + path.sep + filePath.base);
+    }
+  return fullPath;
+};
+
+/**
+ * Reads an entry of the report without saving it in the store.
+ * @param fileName Name of the entry relative to the report folder.
+ */
+const readEntry = async (fileName: string): Promise<string | undefined> => {
+  const originalFileName = entryNames.get(reportRoot + fileName);
+  if (archive === undefined || originalFileName === undefined) {
+    return undefined;
+  }
+  return archive.files[originalFileName].async("string");
+};
+
+/**
+ * Extracts an entry of the report into the store, unless it is already extracted.
+ * @param fileName Name of the entry relative to the report folder.
+ */
+const extractFile = async (fileName: string): Promise<void> => {
+  const unixFileName = reportRoot + fileName;
+  if (store.state.files[unixFileName] !== undefined) {
+    return;
+  }
+  const data = await readEntry(fileName);
+  if (data !== undefined) {
+    store.commit("saveFile", { fileName: unixFileName, data: data });
+  }
+};
+
+/**
+ * Opens the archive of a report. Only the overview and the comparison index are extracted right away.
+ * @param zip The loaded zip archive.
+ */
+export const openReportArchive = async (zip: jszip): Promise<void> => {
+  closeReportArchive();
+  archive = zip;
+  let overviewFileName: string | undefined = undefined;
+  for (const originalFileName of Object.keys(zip.files)) {
+    const unixFileName = slash(originalFileName);
+    if (zip.files[originalFileName].dir) {
+      continue;
+    }
+    if (
+      /((.+\/)*)(files|submissions)\/(.+)\/(.+)/.test(unixFileName) &&
+      !/^__MACOSX\//.test(unixFileName)
+    ) {
+      const submissionFileName = extractSubmissionFileName(path.parse(unixFileName));
+      if (!submissionEntryNames.has(submissionFileName)) {
+        submissionEntryNames.set(submissionFileName, []);
+      }
+      submissionEntryNames.get(submissionFileName)?.push(originalFileName);
+    } else {
+      entryNames.set(unixFileName, originalFileName);
+      if (
+        unixFileName.endsWith(OVERVIEW_FILE_NAME) &&
+        (overviewFileName === undefined || unixFileName.length < overviewFileName.length)
+      ) {
+        overviewFileName = unixFileName;
+      }
+    }
+  }
+  if (overviewFileName !== undefined) {
+    reportRoot = overviewFileName.substring(0, overviewFileName.length - OVERVIEW_FILE_NAME.length);
+  }
+  await extractFile(OVERVIEW_FILE_NAME);
+  await extractFile(COMPARISON_INDEX_FILE_NAME);
+};
+
+/**
+ * Releases the archive of the previously loaded report.
+ */
+export const closeReportArchive = (): void => {
+  archive = undefined;
+  entryNames = new Map();
+  submissionEntryNames = new Map();
+  reportRoot = "";
+};
+
+/**
+ * Reads a blob of the report, which holds the content of one or more submission files. Blobs are not cached, thus
+ * their contents are only kept in memory while a submission that contains them is in the store.
+ * @param blobName Name of the blob, which is the hash of its content.
+ */
+const readBlob = async (blobName: string): Promise<string> => {
+  return (await readEntry(BLOBS_FOLDER + blobName)) ?? "";
+};
+
+/**
+ * Extracts the files of a submission into the store, unless they are already extracted. Reports either contain a
+ * manifest per submission that maps the file paths to blobs, or the files of each submission in its own folder.
+ * @param submissionName Id of the submission.
+ */
+export const extractSubmissionFiles = async (submissionName: string): Promise<void> => {
+  if (archive === undefined || store.state.submissions[submissionName] !== undefined) {
+    return;
+  }
+  const manifestFile = await readEntry(SUBMISSIONS_FOLDER + submissionName + MANIFEST_FILE_SUFFIX);
+  if (manifestFile !== undefined) {
+    const manifest = JSON.parse(manifestFile) as Record<string, string>;
+    for (const [fileName, blobName] of Object.entries(manifest)) {
+      store.commit("saveSubmissionFile", {
+        name: submissionName,
+        file: { fileName: fileName, data: await readBlob(blobName) },
+      });
+    }
+    return;
+  }
+  for (const originalFileName of submissionEntryNames.get(submissionName) ?? []) {
+    const filePath = path.parse(slash(originalFileName));
+    const data = await archive.files[originalFileName].async("string");
+    store.commit("saveSubmissionFile", {
+      name: submissionName,
+      file: { fileName: extractFileNameWithFullPath(filePath, originalFileName), data: data },
+    });
+  }
+};
+
+/**
+ * Looks up the file name of a comparison. Reports with a comparison index contain a lookup shard per submission, which
+ * maps the ids of the other submissions to the comparison file names. Only the found name is added to the store.
+ * @param firstId Id of the first submission.
+ * @param secondId Id of the second submission.
+ */
+const findComparisonFileName = async (firstId: string, secondId: string): Promise<string | undefined> => {
+  const comparisonFileName: string | undefined = store.getters.getComparisonFileName(firstId, secondId);
+  if (comparisonFileName !== undefined) {
+    return comparisonFileName;
+  }
+  const lookupFile = await readEntry(COMPARISON_LOOKUP_FOLDER + firstId + ".json");
+  const fileName = lookupFile !== undefined ? (JSON.parse(lookupFile) as Record<string, string>)[secondId] : undefined;
+  if (fileName !== undefined) {
+    store.commit("saveComparisonFileName", { firstId: firstId, secondId: secondId, fileName: fileName });
+  }
+  return fileName;
+};
+
+/**
+ * Extracts everything the comparison view needs to display a comparison into the store.
+ * @param firstId Id of the first submission.
+ * @param secondId Id of the second submission.
+ */
+export const extractComparison = async (firstId: string, secondId: string): Promise<void> => {
+  const comparisonFileName = await findComparisonFileName(firstId, secondId);
+  if (comparisonFileName !== undefined) {
+    await extractFile(comparisonFileName);
+  }
+  await extractSubmissionFiles(firstId);
+  await extractSubmissionFiles(secondId);
+};
+
+/**
+ * @return The comparison index of the report, if the report contains one.
+ */
+export const getComparisonIndex = (): ComparisonIndex | undefined => {
+  const indexFile = store.state.files[reportRoot + COMPARISON_INDEX_FILE_NAME];
+  return indexFile !== undefined
+    ? ComparisonIndexFactory.getComparisonIndex(JSON.parse(indexFile))
+    : undefined;
+};
+
+/**
+ * Reads a page of the comparison index. Pages are not kept in the store, thus only the displayed page occupies memory.
+ * @param index The comparison index of the report.
+ * @param metric Name of the metric by which the comparisons are sorted.
+ * @param page Number of the page, starting at 0.
+ */
+export const readComparisonIndexPage = async (
+  index: ComparisonIndex,
+  metric: string,
+  page: number
+): Promise<Array<ComparisonListElement>> => {
+  const pageFile = await readEntry(COMPARISON_INDEX_FOLDER + metric + "/" + page + ".json");
+  if (pageFile === undefined) {
+    return [];
+  }
+  return ComparisonIndexFactory.getPage(JSON.parse(pageFile), page, index);
+};
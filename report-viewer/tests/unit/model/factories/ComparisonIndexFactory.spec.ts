@@ -0,0 +1,23 @@
+import { ComparisonIndexFactory } from "@/model/factories/ComparisonIndexFactory";
+
+const indexJson = {
+    "page_size": 2,
+    "number_of_comparisons": 3,
+    "number_of_pages": 2,
+    "metrics": ["AVG", "MAX"]
+}
+
+const secondPageJson = [
+    {"first_submission": "E", "second_submission": "A", "similarity": 0.0, "file_name": "E-A.json"}
+]
+
+test("CIF", () => {
+    const index = ComparisonIndexFactory.getComparisonIndex(indexJson);
+    expect(index.pageSize).toBe(2);
+    expect(index.numberOfComparisons).toBe(3);
+    expect(index.numberOfPages).toBe(2);
+    expect(index.metrics).toEqual(["AVG", "MAX"]);
+
+    const page = ComparisonIndexFactory.getPage(secondPageJson, 1, index);
+    expect(page).toEqual([{id: 3, firstSubmissionId: "E", secondSubmissionId: "A", similarity: 0.0, fileName: "E-A.json"}]);
+});